@@ -28,10 +28,13 @@ import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.util.Computable;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
 import com.intellij.psi.util.CachedValue;
@@ -45,10 +48,15 @@ import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StringEscapeUtils;
 import org.apache.geronimo.gshell.io.SystemOutputHijacker;
+import org.asciidoc.intellij.antora.AsciiDocAntoraAttributes;
 import org.asciidoc.intellij.asciidoc.AntoraIncludeAdapter;
 import org.asciidoc.intellij.asciidoc.AntoraReferenceAdapter;
 import org.asciidoc.intellij.asciidoc.AttributesRetriever;
+import org.asciidoc.intellij.asciidoc.DiagramCache;
+import org.asciidoc.intellij.asciidoc.DiagramPrefetcher;
+import org.asciidoc.intellij.asciidoc.IncludeContentCache;
 import org.asciidoc.intellij.asciidoc.PrependConfig;
+import org.asciidoc.intellij.asciidoc.TempImagesStore;
 import org.asciidoc.intellij.download.AsciiDocDownloaderUtil;
 import org.asciidoc.intellij.editor.AsciiDocPreviewEditor;
 import org.asciidoc.intellij.editor.javafx.JavaFxHtmlPanelProvider;
@@ -60,6 +68,7 @@ import org.asciidoc.intellij.psi.AsciiDocUtil;
 import org.asciidoc.intellij.psi.AttributeDeclaration;
 import org.asciidoc.intellij.psi.search.AsciiDocAntoraPlaybookIndex;
 import org.asciidoc.intellij.settings.AsciiDocApplicationSettings;
+import org.asciidoc.intellij.telemetry.AsciiDocRenderTelemetry;
 import org.asciidoc.intellij.threading.AsciiDocProcessUtil;
 import org.asciidoc.intellij.ui.FileAccessProblem;
 import org.asciidoctor.Asciidoctor;
@@ -70,6 +79,7 @@ import org.asciidoctor.OptionsBuilder;
 import org.asciidoctor.SafeMode;
 import org.asciidoctor.jruby.AsciidoctorJRuby;
 import org.asciidoctor.jruby.internal.AsciidoctorCoreException;
+import org.asciidoctor.jruby.internal.JRubyRuntimeContext;
 import org.asciidoctor.log.LogHandler;
 import org.asciidoctor.log.LogRecord;
 import org.asciidoctor.log.Severity;
@@ -79,6 +89,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jruby.exceptions.IOError;
 import org.jruby.exceptions.MainExitException;
+import org.jruby.exceptions.RaiseException;
 import org.jruby.platform.Platform;
 import org.jruby.util.ByteList;
 import org.jruby.util.SafePropertyAccessor;
@@ -184,6 +195,16 @@ public class AsciiDocWrapper {
 
   private static AntoraIncludeAdapter antoraIncludeAdapter;
 
+  /**
+   * Separate instance to generate diagrams in parallel, see {@link DiagramPrefetcher}.
+   */
+  @Nullable
+  private static Asciidoctor prefetchInstance;
+  @Nullable
+  private static FileType prefetchFormat;
+  @Nullable
+  private static AntoraIncludeAdapter prefetchIncludeAdapter;
+
   @Nullable
   private static AttributesRetriever attributesRetriever;
 
@@ -193,7 +214,7 @@ public class AsciiDocWrapper {
   public static void checkUnloadPlugin() {
     lock();
     try {
-      if (INSTANCES.size() > 0) {
+      if (INSTANCES.size() > 0 || prefetchInstance != null) {
         // as beforePluginUnload() is incomplete, vote against reloading
         // as an incomplete unload would leave the user with disabled AsciiDoc functionality until the next restart.
         throw new CannotUnloadPluginException("expecting JRuby classloader issues, don't allow unloading");
@@ -214,6 +235,11 @@ public class AsciiDocWrapper {
         value.unregisterAllExtensions();
         value.close();
       });
+      if (prefetchInstance != null) {
+        prefetchInstance.unregisterAllExtensions();
+        prefetchInstance.close();
+        prefetchInstance = null;
+      }
       LOG.info("all instances shut down");
       INSTANCES.clear();
       if (SystemOutputHijacker.isInstalled()) {
@@ -356,6 +382,12 @@ public class AsciiDocWrapper {
 
         if (!krokiEnabled && diagramPresent) {
           asciidoctor.requireLibrary("asciidoctor-diagram");
+          try (InputStream is = this.getClass().getResourceAsStream("/diagram-cache.rb")) {
+            if (is == null) {
+              throw new RuntimeException("unable to load script diagram-cache.rb");
+            }
+            asciidoctor.rubyExtensionRegistry().loadClass(is);
+          }
         } else if (!diagramPresent) {
           try (InputStream is = this.getClass().getResourceAsStream("/diagram-placeholder.rb")) {
             if (is == null) {
@@ -446,6 +478,13 @@ public class AsciiDocWrapper {
             }
           }
         }
+
+        try (InputStream is = this.getClass().getResourceAsStream("/extension-profiler.rb")) {
+          if (is == null) {
+            throw new RuntimeException("unable to load script extension-profiler.rb");
+          }
+          asciidoctor.rubyExtensionRegistry().loadClass(is);
+        }
         INSTANCES.put(md, asciidoctor);
       } catch (IOException e) {
         throw new RuntimeException(e);
@@ -464,6 +503,57 @@ public class AsciiDocWrapper {
     return asciidoctor;
   }
 
+  /**
+   * Create the instance that generates diagrams in parallel to the conversion of the full document.
+   * It has only the extensions that change how diagrams look, and none of the extensions that keep state for a single
+   * conversion, so that it can convert several diagrams at the same time.
+   */
+  private Asciidoctor initPrefetchInstance(FileType format) {
+    if (prefetchInstance != null && prefetchFormat == format) {
+      return prefetchInstance;
+    }
+    if (prefetchInstance != null) {
+      prefetchInstance.shutdown();
+      prefetchInstance = null;
+    }
+    Asciidoctor asciidoctor = createInstance(Collections.emptyList());
+    try {
+      asciidoctor.requireLibrary("openssl");
+      if (prefetchIncludeAdapter == null) {
+        prefetchIncludeAdapter = new AntoraIncludeAdapter();
+      }
+      asciidoctor.javaExtensionRegistry().includeProcessor(prefetchIncludeAdapter);
+      asciidoctor.requireLibrary("asciidoctor-diagram");
+      try (InputStream is = this.getClass().getResourceAsStream("/diagram-cache.rb")) {
+        if (is == null) {
+          throw new RuntimeException("unable to load script diagram-cache.rb");
+        }
+        asciidoctor.rubyExtensionRegistry().loadClass(is);
+      }
+      if (format == FileType.JAVAFX) {
+        try (InputStream is = this.getClass().getResourceAsStream("/plantuml-png-patch.rb")) {
+          if (is == null) {
+            throw new RuntimeException("unable to load script plantuml-png-patch.rb");
+          }
+          asciidoctor.rubyExtensionRegistry().loadClass(is);
+        }
+      } else if (format == FileType.JCEF) {
+        try (InputStream is = this.getClass().getResourceAsStream("/plantuml-patch.rb")) {
+          if (is == null) {
+            throw new RuntimeException("unable to load script plantuml-patch.rb");
+          }
+          asciidoctor.rubyExtensionRegistry().loadClass(is);
+        }
+      }
+    } catch (IOException e) {
+      asciidoctor.shutdown();
+      throw new RuntimeException(e);
+    }
+    prefetchInstance = asciidoctor;
+    prefetchFormat = format;
+    return asciidoctor;
+  }
+
   private boolean isDiagramPresent() {
     boolean diagramPresent = AsciiDocDownloaderUtil.downloadCompleteAsciidoctorJDiagram();
     if (!diagramPresent) {
@@ -686,9 +776,11 @@ public class AsciiDocWrapper {
   }
 
   /**
-   * Call this method to create in UNSAFE mode a fresh temporary folder that will be used for temporary files when running Asciidoctor, or a relative folder to the parent in any other mode.
+   * Call this method to get in UNSAFE mode a temporary folder that will be used for temporary files when running Asciidoctor, or a relative folder to the parent in any other mode.
    * This handles the situation that a temporary folder that is not a sub-folder of the document's parent can't be read from or written to when
    * the mode is not UNSAFE.
+   * In UNSAFE mode, the folder is shared with other documents in the same folder, see {@link TempImagesStore}.
+   * Call {@link #cleanupImagesPath(Path)} when it is no longer needed.
    */
   @Nullable
   public static Path tempImagesPath(Path parent, @Nullable Project project) {
@@ -698,7 +790,7 @@ public class AsciiDocWrapper {
       tempImagesPath = parent.resolve(".asciidoctor/images");
     } else {
       try {
-        tempImagesPath = Files.createTempDirectory("asciidoctor-intellij");
+        tempImagesPath = TempImagesStore.getInstance().acquire(parent);
       } catch (IOException ex) {
         String message = "Can't create temp folder to render images: " + ex.getMessage();
         Notification notification = AsciiDocWrapper.getNotificationGroup()
@@ -712,7 +804,10 @@ public class AsciiDocWrapper {
   }
 
   public static void cleanupImagesPath(Path tempImagesPath) {
-    if (tempImagesPath != null && !tempImagesPath.endsWith(Path.of(".asciidoctor", "images"))) {
+    if (tempImagesPath != null && TempImagesStore.getInstance().contains(tempImagesPath)) {
+      // keep the images for the next run, the store removes them when it needs to make room
+      TempImagesStore.getInstance().release(tempImagesPath);
+    } else if (tempImagesPath != null && !tempImagesPath.endsWith(Path.of(".asciidoctor", "images"))) {
       try {
         FileUtils.deleteDirectory(tempImagesPath.toFile());
       } catch (IOException ex) {
@@ -732,40 +827,62 @@ public class AsciiDocWrapper {
   public static @Language("asciidoc")
   String config(VirtualFile currentFile, Project project) {
     StringBuilder tempContent = new StringBuilder();
+    for (VirtualFile configFile : findConfigFiles(currentFile, project)) {
+      AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() -> {
+        Document config = FileDocumentManager.getInstance().getDocument(configFile);
+        if (config != null) {
+          // TODO: for traceability add current file name as a comment
+          // add the location of the config file, and two newlines to avoid sticking-together content
+          tempContent.append(":asciidoctorconfigdir: ").append(configFile.getParent().getCanonicalPath()).append("\n\n");
+          tempContent.append(config.getText());
+          tempContent.append("\n\n");
+        }
+      });
+    }
+    return tempContent.toString();
+  }
+
+  /**
+   * Stamp of the configuration files for a file that changes whenever the result of {@link #config(VirtualFile, Project)}
+   * changes, so callers can check for changes without building the configuration.
+   * Unsaved changes in the configuration files are considered as well.
+   */
+  @NotNull
+  public static String configStamp(VirtualFile currentFile, Project project) {
+    StringBuilder stamp = new StringBuilder();
+    for (VirtualFile configFile : findConfigFiles(currentFile, project)) {
+      Document config = FileDocumentManager.getInstance().getCachedDocument(configFile);
+      stamp.append(configFile.getPath()).append(':')
+        .append(config != null ? config.getModificationStamp() : configFile.getModificationStamp()).append('\n');
+    }
+    return stamp.toString();
+  }
+
+  /**
+   * Find the configuration files that apply to a file, starting with the one closest to the project's root.
+   */
+  @NotNull
+  private static List<VirtualFile> findConfigFiles(VirtualFile currentFile, Project project) {
+    List<VirtualFile> result = new ArrayList<>();
+    if (currentFile == null) {
+      return result;
+    }
     Collection<String> roots = AsciiDocUtil.getRoots(project);
-    if (currentFile != null) {
-      VirtualFile folder = currentFile.getParent();
-      if (folder != null) {
-        while (true) {
-          for (String configName : new String[]{".asciidoctorconfig", ".asciidoctorconfig.adoc"}) {
-            VirtualFile configFile = folder.findChild(configName);
-            if (configFile != null &&
-              !currentFile.equals(configFile)) {
-              final VirtualFile folderFinal = folder;
-              AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() -> {
-                Document config = FileDocumentManager.getInstance().getDocument(configFile);
-                if (config != null) {
-                  // TODO: for traceability add current file name as a comment
-                  // prepend the new config, followed by two newlines to avoid sticking-together content
-                  tempContent.insert(0, "\n\n");
-                  tempContent.insert(0, config.getText());
-                  // prepend the location of the config file
-                  tempContent.insert(0, ":asciidoctorconfigdir: " + folderFinal.getCanonicalPath() + "\n\n");
-                }
-              });
-            }
-          }
-          if (roots.contains(folder.getPath())) {
-            break;
-          }
-          folder = folder.getParent();
-          if (folder == null) {
-            break;
-          }
+    VirtualFile folder = currentFile.getParent();
+    while (folder != null) {
+      // configuration files of folders closer to the root come first, and the .adoc variant before the other
+      for (String configName : new String[]{".asciidoctorconfig", ".asciidoctorconfig.adoc"}) {
+        VirtualFile configFile = folder.findChild(configName);
+        if (configFile != null && !currentFile.equals(configFile)) {
+          result.add(0, configFile);
         }
       }
+      if (roots.contains(folder.getPath())) {
+        break;
+      }
+      folder = folder.getParent();
     }
-    return tempContent.toString();
+    return result;
   }
 
   @FunctionalInterface
@@ -782,14 +899,26 @@ public class AsciiDocWrapper {
   }
 
   public String render(@Language("asciidoc") String text, String config, List<String> extensions, Notifier notifier) {
+    return render(text, config, extensions, notifier, getPreviewFileType(), null);
+  }
+
+  /**
+   * Render the text and pass each log record to the listener as soon as Asciidoctor reports it,
+   * so the caller can process log records while the conversion is still running.
+   * The notifier still receives all log records when the conversion is complete.
+   */
+  public String render(@Language("asciidoc") String text, String config, List<String> extensions, Notifier notifier,
+                       @Nullable LogHandler logListener) {
+    return render(text, config, extensions, notifier, getPreviewFileType(), logListener);
+  }
+
+  public static FileType getPreviewFileType() {
     final AsciiDocApplicationSettings settings = AsciiDocApplicationSettings.getInstance();
-    FileType fileType;
     if (settings.getAsciiDocPreviewSettings().getHtmlPanelProviderInfo().getClassName().equals(AsciiDocJCEFHtmlPanelProvider.class.getName())) {
-      fileType = FileType.JCEF;
+      return FileType.JCEF;
     } else {
-      fileType = FileType.JAVAFX;
+      return FileType.JAVAFX;
     }
-    return render(text, config, extensions, notifier, fileType);
   }
 
   public String render(@Language("asciidoc") String text,
@@ -797,37 +926,69 @@ public class AsciiDocWrapper {
                        List<String> extensions,
                        Notifier notifier,
                        FileType format) {
-    VirtualFile springRestDocsSnippets = findSpringRestDocSnippets(
-      project,
-      LocalFileSystem.getInstance().findFileByIoFile(fileBaseDir)
-    );
-    VirtualFile antoraModuleDir = findAntoraModuleDir(
-      project,
-      LocalFileSystem.getInstance().findFileByIoFile(fileBaseDir)
-    );
+    return render(text, config, extensions, notifier, format, null);
+  }
+
+  private String render(@Language("asciidoc") String text,
+                        String config,
+                        List<String> extensions,
+                        Notifier notifier,
+                        FileType format,
+                        @Nullable LogHandler logListener) {
+    long start = System.nanoTime();
+    BaseDirFolders folders = findBaseDirFolders(project, fileBaseDir);
+    VirtualFile springRestDocsSnippets = folders.springRestDocsSnippets;
+    VirtualFile antoraModuleDir = folders.antoraModuleDir;
     Collection<AttributeDeclaration> attributes = populateAntoraAttributes(project, fileBaseDir, antoraModuleDir);
     attributes.addAll(populateDocumentAttributes(fileBaseDir, name));
+    AsciiDocRenderTelemetry.record(AsciiDocRenderTelemetry.Phase.ATTRIBUTES, start);
+    // find the diagrams before acquiring the lock, as this needs a read action
+    List<String> diagrams = DiagramPrefetcher.isEnabled()
+      && !AsciiDocApplicationSettings.getInstance().getAsciiDocPreviewSettings().isKrokiEnabled() && isDiagramPresent()
+      ? DiagramPrefetcher.findDiagrams(project, text) : Collections.emptyList();
     lock();
     try {
       if (shutdown) {
         throw new ProcessCanceledException();
       }
-      CollectingLogHandler logHandler = new CollectingLogHandler();
+      CollectingLogHandler logHandler = new CollectingLogHandler(logListener);
       ByteArrayOutputStream boasOut = new ByteArrayOutputStream();
       ByteArrayOutputStream boasErr = new ByteArrayOutputStream();
       // SystemOutputHijacker.register(new PrintStream(boasOut), new PrintStream(boasErr));
       try {
+        long startInit = System.nanoTime();
         Asciidoctor asciidoctor = initWithExtensions(extensions, springRestDocsSnippets != null, format);
-        asciidoctor.registerLogHandler(logHandler);
+        AsciiDocRenderTelemetry.record(AsciiDocRenderTelemetry.Phase.INIT, startInit);
         prependConfig.setConfig(config);
+        if (!diagrams.isEmpty()) {
+          // no log handler is registered, as the conversion of the full document will report all problems
+          long startDiagrams = System.nanoTime();
+          Asciidoctor prefetch = initPrefetchInstance(format);
+          // the prefetch instance has no preprocessor for the config, therefore prepend it to each diagram
+          String prefix = config != null && !config.isEmpty() ? config + "\n\n" : "";
+          Objects.requireNonNull(prefetchIncludeAdapter).setAntoraDetails(project, antoraModuleDir, fileBaseDir, name);
+          try {
+            DiagramPrefetcher.prefetch(diagrams, diagram -> prefetch.convert(prefix + diagram, getDefaultOptions(format, springRestDocsSnippets, attributes)));
+          } finally {
+            prefetchIncludeAdapter.setAntoraDetails(null, null, null, null);
+          }
+          AsciiDocRenderTelemetry.record(AsciiDocRenderTelemetry.Phase.DIAGRAMS, startDiagrams);
+        }
+        asciidoctor.registerLogHandler(logHandler);
         antoraIncludeAdapter.setAntoraDetails(project, antoraModuleDir, fileBaseDir, name);
+        antoraIncludeAdapter.setIncludeCache(new IncludeContentCache(project));
         AntoraReferenceAdapter.setAntoraDetails(project, antoraModuleDir, fileBaseDir, name);
+        resetExtensionTimings(asciidoctor);
+        long startConvert = System.nanoTime();
         try {
           return "<div id=\"content\"" + (antoraModuleDir != null ? " class=\"doc\"" : "") + ">\n" + asciidoctor.convert(text,
             getDefaultOptions(format, springRestDocsSnippets, attributes)) + "\n</div>";
         } finally {
+          AsciiDocRenderTelemetry.record(AsciiDocRenderTelemetry.Phase.CONVERT, startConvert);
+          recordExtensionTimings(asciidoctor);
           prependConfig.setConfig("");
           antoraIncludeAdapter.setAntoraDetails(null, null, null, null);
+          antoraIncludeAdapter.setIncludeCache(null);
           asciidoctor.unregisterLogHandler(logHandler);
         }
       } catch (AlreadyDisposedException | ProcessCanceledException ex) {
@@ -874,6 +1035,27 @@ public class AsciiDocWrapper {
     }
   }
 
+  private static void resetExtensionTimings(Asciidoctor asciidoctor) {
+    try {
+      JRubyRuntimeContext.get(asciidoctor).evalScriptlet("AsciiDocIntelliJExtensionProfiler.reset");
+    } catch (RaiseException e) {
+      LOG.warn("unable to reset extension timings", e);
+    }
+  }
+
+  /**
+   * Pass the time spent in each extension during the last conversion to the telemetry.
+   * The timings are collected by <code>extension-profiler.rb</code>.
+   */
+  private static void recordExtensionTimings(Asciidoctor asciidoctor) {
+    try {
+      String dump = JRubyRuntimeContext.get(asciidoctor).evalScriptlet("AsciiDocIntelliJExtensionProfiler.dump").asJavaString();
+      AsciiDocRenderTelemetry.recordExtensions(AsciiDocRenderTelemetry.parseExtensionTimings(dump));
+    } catch (RaiseException e) {
+      LOG.warn("unable to retrieve extension timings", e);
+    }
+  }
+
   /**
    * Don't log full exception and stack trace to IDE's log for well known exceptions that already include enough content.
    */
@@ -925,13 +1107,25 @@ public class AsciiDocWrapper {
   }
 
   public boolean convertTo(File file, String config, List<String> extensions, FileType format) {
-    VirtualFile springRestDocsSnippets = findSpringRestDocSnippets(
-      project,
-      LocalFileSystem.getInstance().findFileByIoFile(fileBaseDir));
-    VirtualFile antoraModuleDir = findAntoraModuleDir(
-      project,
-      LocalFileSystem.getInstance().findFileByIoFile(fileBaseDir)
-    );
+    return convert(file, config, extensions, format, true) != null;
+  }
+
+  /**
+   * Convert a file, but return the result instead of writing it next to the file.
+   * Use this when the result is passed on to another tool, so no temporary file is necessary.
+   *
+   * @return the converted content, or <code>null</code> if the conversion failed
+   */
+  @Nullable
+  public String convertToString(File file, String config, List<String> extensions, FileType format) {
+    return convert(file, config, extensions, format, false);
+  }
+
+  @Nullable
+  private String convert(File file, String config, List<String> extensions, FileType format, boolean toFile) {
+    BaseDirFolders folders = findBaseDirFolders(project, fileBaseDir);
+    VirtualFile springRestDocsSnippets = folders.springRestDocsSnippets;
+    VirtualFile antoraModuleDir = folders.antoraModuleDir;
     Collection<AttributeDeclaration> attributes = populateAntoraAttributes(project, fileBaseDir, antoraModuleDir);
 
     lock();
@@ -939,6 +1133,7 @@ public class AsciiDocWrapper {
       if (shutdown) {
         throw new ProcessCanceledException();
       }
+      String result = "";
       CollectingLogHandler logHandler = new CollectingLogHandler();
       ByteArrayOutputStream boasOut = new ByteArrayOutputStream();
       ByteArrayOutputStream boasErr = new ByteArrayOutputStream();
@@ -947,17 +1142,25 @@ public class AsciiDocWrapper {
         Asciidoctor asciidoctor = initWithExtensions(extensions, springRestDocsSnippets != null, format);
         prependConfig.setConfig(config);
         antoraIncludeAdapter.setAntoraDetails(project, antoraModuleDir, fileBaseDir, name);
+        antoraIncludeAdapter.setIncludeCache(new IncludeContentCache(project));
         AntoraReferenceAdapter.setAntoraDetails(project, antoraModuleDir, fileBaseDir, name);
         asciidoctor.registerLogHandler(logHandler);
         try {
           ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
           if (indicator == null || !indicator.isCanceled()) {
-            asciidoctor.convertFile(file, getExportOptions(
-              getDefaultOptions(format, springRestDocsSnippets, attributes), format));
+            Options options = getExportOptions(getDefaultOptions(format, springRestDocsSnippets, attributes), format);
+            if (!toFile) {
+              options.setOption(Options.TO_FILE, false);
+            }
+            String converted = asciidoctor.convertFile(file, options);
+            if (!toFile && converted != null) {
+              result = converted;
+            }
           }
         } finally {
           prependConfig.setConfig("");
           antoraIncludeAdapter.setAntoraDetails(null, null, null, null);
+          antoraIncludeAdapter.setIncludeCache(null);
           asciidoctor.unregisterLogHandler(logHandler);
         }
       } catch (ProcessCanceledException ex) {
@@ -995,16 +1198,16 @@ public class AsciiDocWrapper {
             throw new RuntimeException("Unable to write bytes");
           }
         }
-        return false;
+        return null;
       } finally {
         // SystemOutputHijacker.deregister();
         Notifier notifier = this::notifyAlways;
         notifier.notify(boasOut, boasErr, logHandler.getLogRecords());
       }
+      return result;
     } finally {
       unlock();
     }
-    return true;
   }
 
   private static void lock() {
@@ -1032,37 +1235,111 @@ public class AsciiDocWrapper {
     Collection<AttributeDeclaration> result = new ArrayList<>();
     if (antoraModuleDir != null) {
       result.addAll(collectAntoraAttributes(antoraModuleDir, project));
+      result.addAll(populateAntoraDirectoryAttributes(project, fileBaseDir, antoraModuleDir));
+    }
+    return result;
+  }
 
-      VirtualFile baseDir = LocalFileSystem.getInstance().findFileByIoFile(fileBaseDir);
-      if (baseDir == null) {
-        baseDir = antoraModuleDir.getFileSystem().findFileByPath(fileBaseDir.getPath());
-      }
-      VirtualFile antoraPages = findAntoraPagesDir(project, baseDir);
-      VirtualFile antoraPartials = findAntoraPartials(project, baseDir);
-      String antoraImagesDir = findAntoraImagesDirRelative(project, baseDir);
-      String antoraAttachmentsDir = findAntoraAttachmentsDirRelative(project, baseDir);
-      VirtualFile antoraExamplesDir = findAntoraExamplesDir(project, baseDir);
-
-      if (antoraPages != null) {
-        result.add(new AsciiDocAttributeDeclarationDummy("pagesdir", antoraPages.getCanonicalPath()));
-      }
-      if (antoraPartials != null) {
-        result.add(new AsciiDocAttributeDeclarationDummy("partialsdir", antoraPartials.getCanonicalPath()));
+  /**
+   * The attributes for the directories of an Antora module, as seen from a folder within the module.
+   */
+  public static Collection<AttributeDeclaration> populateAntoraDirectoryAttributes(@NotNull Project project, File fileBaseDir, @NotNull VirtualFile
+    antoraModuleDir) {
+    Collection<AttributeDeclaration> result = new ArrayList<>();
+    VirtualFile baseDir = LocalFileSystem.getInstance().findFileByIoFile(fileBaseDir);
+    if (baseDir == null) {
+      baseDir = antoraModuleDir.getFileSystem().findFileByPath(fileBaseDir.getPath());
+    }
+    VirtualFile antoraPages = findAntoraPagesDir(project, baseDir);
+    VirtualFile antoraPartials = findAntoraPartials(project, baseDir);
+    String antoraImagesDir = findAntoraImagesDirRelative(project, baseDir);
+    String antoraAttachmentsDir = findAntoraAttachmentsDirRelative(project, baseDir);
+    VirtualFile antoraExamplesDir = findAntoraExamplesDir(project, baseDir);
+
+    if (antoraPages != null) {
+      result.add(new AsciiDocAttributeDeclarationDummy("pagesdir", antoraPages.getCanonicalPath()));
+    }
+    if (antoraPartials != null) {
+      result.add(new AsciiDocAttributeDeclarationDummy("partialsdir", antoraPartials.getCanonicalPath()));
+    }
+    if (antoraImagesDir != null) {
+      result.add(new AsciiDocAttributeDeclarationDummy("imagesdir", antoraImagesDir));
+    }
+    if (antoraAttachmentsDir != null) {
+      result.add(new AsciiDocAttributeDeclarationDummy("attachmentsdir", antoraAttachmentsDir));
+    }
+    if (antoraExamplesDir != null) {
+      result.add(new AsciiDocAttributeDeclarationDummy("examplesdir", antoraExamplesDir.getCanonicalPath()));
+    }
+    return result;
+  }
+
+  public static Collection<AttributeDeclaration> collectAntoraAttributes(VirtualFile antoraModuleDir, Project project) {
+    return getAntoraAttributes(antoraModuleDir, project).getAttributes();
+  }
+
+  /**
+   * Aggregate the attributes of an Antora module once and share them for all files of the module.
+   * They are calculated again only when the playbooks or the component descriptor change, or when files are added or removed.
+   */
+  @NotNull
+  public static AsciiDocAntoraAttributes getAntoraAttributes(VirtualFile antoraModuleDir, Project project) {
+    return AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() -> {
+      if (project.isDisposed() || !antoraModuleDir.isValid()) {
+        return AsciiDocAntoraAttributes.EMPTY;
       }
-      if (antoraImagesDir != null) {
-        result.add(new AsciiDocAttributeDeclarationDummy("imagesdir", antoraImagesDir));
+      PsiDirectory moduleDir = PsiManager.getInstance(project).findDirectory(antoraModuleDir);
+      if (moduleDir == null) {
+        return new AsciiDocAntoraAttributes(computeAntoraAttributes(antoraModuleDir, project, new ArrayList<>()));
       }
-      if (antoraAttachmentsDir != null) {
-        result.add(new AsciiDocAttributeDeclarationDummy("attachmentsdir", antoraAttachmentsDir));
+      return CachedValuesManager.getCachedValue(moduleDir, KEY_ASCIIDOC_ANTORA_MODULE_ATTRIBUTES, () -> {
+        List<Object> dependencies = new ArrayList<>();
+        dependencies.add(VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS);
+        AsciiDocAntoraAttributes attributes = new AsciiDocAntoraAttributes(computeAntoraAttributes(antoraModuleDir, project, dependencies));
+        return CachedValueProvider.Result.create(attributes, dependencies);
+      });
+    });
+  }
+
+  /**
+   * The folders of Spring REST Docs and of the Antora module that apply to a base folder.
+   * Finding them walks up the folder hierarchy, and they depend only on the files and the content roots of the project,
+   * so they are cached on the base folder together with the module attributes instead of being looked up for each render.
+   */
+  private static final class BaseDirFolders {
+    private static final BaseDirFolders EMPTY = new BaseDirFolders(null, null);
+
+    private final VirtualFile springRestDocsSnippets;
+    private final VirtualFile antoraModuleDir;
+
+    private BaseDirFolders(@Nullable VirtualFile springRestDocsSnippets, @Nullable VirtualFile antoraModuleDir) {
+      this.springRestDocsSnippets = springRestDocsSnippets;
+      this.antoraModuleDir = antoraModuleDir;
+    }
+  }
+
+  @NotNull
+  private static BaseDirFolders findBaseDirFolders(@NotNull Project project, File fileBaseDir) {
+    VirtualFile baseDir = LocalFileSystem.getInstance().findFileByIoFile(fileBaseDir);
+    if (baseDir == null) {
+      return BaseDirFolders.EMPTY;
+    }
+    return AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() -> {
+      if (project.isDisposed() || !baseDir.isValid()) {
+        return BaseDirFolders.EMPTY;
       }
-      if (antoraExamplesDir != null) {
-        result.add(new AsciiDocAttributeDeclarationDummy("examplesdir", antoraExamplesDir.getCanonicalPath()));
+      PsiDirectory dir = PsiManager.getInstance(project).findDirectory(baseDir);
+      if (dir == null) {
+        return new BaseDirFolders(findSpringRestDocSnippets(project, baseDir), findAntoraModuleDir(project, baseDir));
       }
-    }
-    return result;
+      return CachedValuesManager.getCachedValue(dir, KEY_ASCIIDOC_BASE_DIR_FOLDERS, () -> {
+        BaseDirFolders folders = new BaseDirFolders(findSpringRestDocSnippets(project, baseDir), findAntoraModuleDir(project, baseDir));
+        return CachedValueProvider.Result.create(folders, VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS, ProjectRootManager.getInstance(project));
+      });
+    });
   }
 
-  public static Collection<AttributeDeclaration> collectAntoraAttributes(VirtualFile antoraModuleDir, Project project) {
+  private static List<AttributeDeclaration> computeAntoraAttributes(VirtualFile antoraModuleDir, Project project, List<Object> dependencies) {
     List<AttributeDeclaration> result = new ArrayList<>();
     result.add(new AsciiDocAttributeDeclarationDummy("icons", "font"));
     result.add(new AsciiDocAttributeDeclarationDummy("env-site", ""));
@@ -1073,20 +1350,42 @@ public class AsciiDocWrapper {
     if (antoraModuleDir.getParent() != null && antoraModuleDir.getParent().getParent() != null) {
       VirtualFile antoraFile = antoraModuleDir.getParent().getParent().findChild(ANTORA_YML);
       if (antoraFile != null) {
-        AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() -> {
-          for (VirtualFile playbook : AsciiDocAntoraPlaybookIndex.getVirtualFiles(project)) {
-            result.addAll(getAntoraPlaybookAsciiDocAttributes(project, playbook));
-          }
+        for (VirtualFile playbook : AsciiDocAntoraPlaybookIndex.getVirtualFiles(project)) {
+          result.addAll(getAntoraPlaybookAsciiDocAttributes(project, playbook));
+          addAntoraDependency(project, playbook, dependencies);
+        }
 
-          result.addAll(getAntoraComponentDescriptorAsciiDocAttributes(project, antoraFile));
-        });
+        result.addAll(getAntoraComponentDescriptorAsciiDocAttributes(project, antoraFile));
+        addAntoraDependency(project, antoraFile, dependencies);
       }
     }
     return result;
   }
 
+  private static void addAntoraDependency(Project project, VirtualFile antoraFile, List<Object> dependencies) {
+    if (!antoraFile.isValid()) {
+      return;
+    }
+    PsiFile psiFile = PsiManager.getInstance(project).findFile(antoraFile);
+    if (psiFile == null) {
+      return;
+    }
+    dependencies.add(psiFile);
+    try {
+      if (readAntoraYaml(project, antoraFile).get("ext") != null
+        && !dependencies.contains(PsiModificationTracker.MODIFICATION_COUNT)) {
+        // extensions like the collector make this more difficult, therefore don't look only at the YAML files
+        dependencies.add(PsiModificationTracker.MODIFICATION_COUNT);
+      }
+    } catch (YAMLException ignored) {
+      // the attributes of this file are empty as well, its content is already a dependency
+    }
+  }
+
   private static final Key<CachedValue<List<AttributeDeclaration>>> KEY_ASCIIDOC_ATTRIBUTES = new Key<>("asciidoc-attributes-in-yaml");
   private static final Key<CachedValue<Map<String, Object>>> KEY_ASCIIDOC_YAML_ATTRIBUTES = new Key<>("asciidoc-antora-yaml");
+  private static final Key<CachedValue<AsciiDocAntoraAttributes>> KEY_ASCIIDOC_ANTORA_MODULE_ATTRIBUTES = new Key<>("asciidoc-antora-module-attributes");
+  private static final Key<CachedValue<BaseDirFolders>> KEY_ASCIIDOC_BASE_DIR_FOLDERS = new Key<>("asciidoc-base-dir-folders");
 
   private static List<AttributeDeclaration> getAntoraPlaybookAsciiDocAttributes(Project project, VirtualFile antoraFile) {
     if (!antoraFile.isValid()) {
@@ -1378,6 +1677,11 @@ public class AsciiDocWrapper {
       }
     }
 
+    if (fileType == FileType.JAVAFX || fileType == FileType.JCEF || fileType == FileType.BROWSER) {
+      // the preview re-uses diagrams that have been generated before, see diagram-cache.rb; exports generate them again
+      attrs.setAttribute(DiagramCache.ATTRIBUTE, DiagramCache.getInstance().getPath().toString());
+    }
+
     if (settings.getAsciiDocPreviewSettings().isKrokiEnabled()) {
       if (settings.getAsciiDocPreviewSettings().getSafeMode(project) == SafeMode.UNSAFE) {
         // when rendering PDFs with Kroki, or when embedding diagrams in HTML the attribute 'allow-uri-read' needs to be set
@@ -1443,6 +1747,7 @@ public class AsciiDocWrapper {
   @NotNull
   public static String enrichPage(@NotNull String html, String
     standardCss, String mermaidScript, String asciidoctorTabsScript, @NotNull Map<String, String> attributes, @Nullable Project project) {
+    long start = System.nanoTime();
 
     html = enrichPageMaxWidth(html, attributes);
 
@@ -1577,6 +1882,7 @@ public class AsciiDocWrapper {
       html = html.replaceAll("</body>", asciidoctorTabsScript + "</body>");
     }
 
+    AsciiDocRenderTelemetry.record(AsciiDocRenderTelemetry.Phase.ENRICH_PAGE, start);
     return html;
   }
 
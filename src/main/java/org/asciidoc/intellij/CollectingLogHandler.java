@@ -2,6 +2,7 @@ package org.asciidoc.intellij;
 
 import org.asciidoctor.log.LogHandler;
 import org.asciidoctor.log.LogRecord;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -13,9 +14,25 @@ public class CollectingLogHandler implements LogHandler {
 
   private List<LogRecord> logRecords = new ArrayList<>();
 
+  private final LogHandler listener;
+
+  public CollectingLogHandler() {
+    this(null);
+  }
+
+  /**
+   * @param listener receives each log record as soon as it is logged
+   */
+  public CollectingLogHandler(@Nullable LogHandler listener) {
+    this.listener = listener;
+  }
+
   @Override
   public void log(LogRecord logRecord) {
     logRecords.add(logRecord);
+    if (listener != null) {
+      listener.log(logRecord);
+    }
   }
 
   public List<LogRecord> getLogRecords() {
@@ -1,5 +1,7 @@
 package org.asciidoc.intellij.actions.asciidoc;
 
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.process.ProcessOutput;
 import com.intellij.notification.Notification;
 import com.intellij.notification.NotificationType;
 import com.intellij.notification.Notifications;
@@ -29,7 +31,6 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -41,6 +42,7 @@ public class CreateDocxAction extends AsciiDocFileAction {
   public static final String ID = "org.asciidoc.intellij.actions.asciidoc.CreateDocxAction";
 
   private static final Logger LOG = Logger.getInstance(CreateDocxAction.class);
+  private static final int PANDOC_TIMEOUT_MS = 300_000;
   private final AsciiDocExtensionService extensionService = ApplicationManager.getApplication().getService(AsciiDocExtensionService.class);
 
   private Project project;
@@ -105,98 +107,81 @@ public class CreateDocxAction extends AsciiDocFileAction {
     if (parent == null || parent.getCanonicalPath() == null) {
       return;
     }
-    boolean successful;
-    try {
-      successful = ProgressManager.getInstance().runProcessWithProgressSynchronously(() -> {
-        String docbookFile = file.getName().replaceAll("\\.(adoc|asciidoc|ad)$", ".xml");
-        String docxFile = file.getName().replaceAll("\\.(adoc|asciidoc|ad)$", ".docx");
-        Path tempImagesPath = AsciiDocWrapper.tempImagesPath(parent.toNioPath(), project);
-        Process process = null;
-        try {
-          File fileBaseDir = new File(parent.getCanonicalPath());
-          AsciiDocWrapper asciiDocWrapper = new AsciiDocWrapper(project, fileBaseDir, tempImagesPath, file.getName());
-          String config = AsciiDocWrapper.config(editor.getDocument(), project);
-          List<String> extensions = extensionService.getExtensions(project);
-          if (!asciiDocWrapper.convertTo(new File(file.getCanonicalPath()), config, extensions, AsciiDocWrapper.FileType.DOCX)) {
-            return false;
-          }
-          File finalFile = new File(parent.getCanonicalPath(), docxFile);
-          if (finalFile.exists()) {
-            if (!finalFile.delete()) {
-              ApplicationManager.getApplication().invokeLater(() -> {
-                new FileAccessProblem("Unable to delete target file " + docxFile).show();
-              });
-              return false;
-            }
-          }
-          List<String> cmd = new ArrayList<>(Arrays.asList(
-            AsciiDocDownloaderUtil.getPanddocFile().getAbsolutePath(),
-            "-s",
-            parent.getCanonicalPath() + File.separator + docbookFile,
-            "-t",
-            "docx",
-            "-f",
-            "docbook",
-            "--resource-path",
-            parent.getCanonicalPath(),
-            "-o",
-            parent.getCanonicalPath() + File.separator + docxFile));
-          Collection<VirtualFile> reference = ApplicationManager.getApplication().runReadAction((Computable<Collection<VirtualFile>>)
-            () -> FilenameIndex.getVirtualFilesByName("reference.docx", GlobalSearchScope.projectScope(project))
-          );
-          if (reference.size() == 1) {
-            cmd.add("--reference-doc");
-            //noinspection OptionalGetWithoutIsPresent
-            cmd.add(reference.stream().findFirst().get().getCanonicalPath());
-
-          }
-          process = new ProcessBuilder(cmd.toArray(String[]::new)).directory(new File(parent.getCanonicalPath())).start();
-          String stdout = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
-          String stderr = new String(process.getErrorStream().readAllBytes(), StandardCharsets.UTF_8);
-
-          // to kill the process
-          // process.destroy();
-
-          int exitCode = process.waitFor();
-          if (exitCode != 0) {
+    boolean successful = ProgressManager.getInstance().runProcessWithProgressSynchronously(() -> {
+      String docxFile = file.getName().replaceAll("\\.(adoc|asciidoc|ad)$", ".docx");
+      Path tempImagesPath = AsciiDocWrapper.tempImagesPath(parent.toNioPath(), project);
+      try {
+        File fileBaseDir = new File(parent.getCanonicalPath());
+        AsciiDocWrapper asciiDocWrapper = new AsciiDocWrapper(project, fileBaseDir, tempImagesPath, file.getName());
+        String config = AsciiDocWrapper.config(editor.getDocument(), project);
+        List<String> extensions = extensionService.getExtensions(project);
+        // DocBook is passed to Pandoc in memory, therefore no temporary XML file is written
+        String docbook = asciiDocWrapper.convertToString(new File(file.getCanonicalPath()), config, extensions, AsciiDocWrapper.FileType.DOCX);
+        if (docbook == null) {
+          return false;
+        }
+        File finalFile = new File(parent.getCanonicalPath(), docxFile);
+        if (finalFile.exists()) {
+          if (!finalFile.delete()) {
             ApplicationManager.getApplication().invokeLater(() -> {
-              new FileAccessProblem("Error creating DOCX from AsciiDoc file: " + stdout + " / " + stderr).show();
+              new FileAccessProblem("Unable to delete target file " + docxFile).show();
             });
             return false;
           }
+        }
+        List<String> cmd = new ArrayList<>(Arrays.asList(
+          "-s",
+          "-t",
+          "docx",
+          "-f",
+          "docbook",
+          "--resource-path",
+          parent.getCanonicalPath(),
+          "-o",
+          parent.getCanonicalPath() + File.separator + docxFile));
+        Collection<VirtualFile> reference = ApplicationManager.getApplication().runReadAction((Computable<Collection<VirtualFile>>)
+          () -> FilenameIndex.getVirtualFilesByName("reference.docx", GlobalSearchScope.projectScope(project))
+        );
+        if (reference.size() == 1) {
+          cmd.add("--reference-doc");
+          //noinspection OptionalGetWithoutIsPresent
+          cmd.add(reference.stream().findFirst().get().getCanonicalPath());
 
-          File xml = new File(parent.getCanonicalPath() + File.separator + docbookFile);
-          if (!xml.delete()) {
-            String message = "Can't delete temporary XML file " + xml.getCanonicalPath();
-            ApplicationManager.getApplication().invokeLater(() -> {
-              new FileAccessProblem(message).show();
-            });
-          }
-
-        } catch (IOException e) {
-          if (process != null) {
-            process.destroy();
-          }
-          Notification notification = AsciiDocWrapper.getNotificationGroup()
-            .createNotification("Error creating DOCX from AsciiDoc file", e.getMessage(), NotificationType.ERROR);
-          notification.setImportant(true);
-          Notifications.Bus.notify(notification);
+        }
+        ProcessOutput output = PandocRunner.run(cmd, new File(parent.getCanonicalPath()), docbook.getBytes(StandardCharsets.UTF_8),
+          ProgressManager.getInstance().getProgressIndicator(), PANDOC_TIMEOUT_MS);
+        if (output.isCancelled()) {
           return false;
-        } finally {
-          AsciiDocWrapper.cleanupImagesPath(tempImagesPath);
         }
-        return true;
-      }, "Creating DOCX file", true, project);
-    } catch (InterruptedException e) {
-      successful = false;
-    }
-    boolean finalSuccessful = successful;
+        if (output.isTimeout()) {
+          ApplicationManager.getApplication().invokeLater(() -> {
+            new FileAccessProblem("Timeout creating DOCX from AsciiDoc file after " + PANDOC_TIMEOUT_MS / 1000 + " seconds").show();
+          });
+          return false;
+        }
+        if (output.getExitCode() != 0) {
+          ApplicationManager.getApplication().invokeLater(() -> {
+            new FileAccessProblem("Error creating DOCX from AsciiDoc file: " + output.getStdout() + " / " + output.getStderr()).show();
+          });
+          return false;
+        }
+      } catch (ExecutionException e) {
+        Notification notification = AsciiDocWrapper.getNotificationGroup()
+          .createNotification("Error creating DOCX from AsciiDoc file", e.getMessage(), NotificationType.ERROR);
+        notification.setImportant(true);
+        Notifications.Bus.notify(notification);
+        return false;
+      } finally {
+        AsciiDocWrapper.cleanupImagesPath(tempImagesPath);
+      }
+      return true;
+    }, "Creating DOCX file", true, project);
     ApplicationManager.getApplication().runWriteAction(() -> {
       VirtualFile virtualFileDocx = changeFileExtensionDocx(file);
       VirtualFile virtualFile = virtualFileDocx != null ? virtualFileDocx : parent;
       AsciiDocUtil.selectFileInProjectView(project, virtualFile);
       if (virtualFileDocx != null) {
-        if (finalSuccessful) {
+        if (successful) {
           ApplicationManager.getApplication().invokeLater(() -> {
             new OpenFileDescriptor(project, virtualFileDocx).navigate(true);
           });
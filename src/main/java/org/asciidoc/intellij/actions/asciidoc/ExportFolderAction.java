@@ -0,0 +1,109 @@
+package org.asciidoc.intellij.actions.asciidoc;
+
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.LangDataKeys;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.asciidoc.intellij.AsciiDocBundle;
+import org.asciidoc.intellij.AsciiDocWrapper;
+import org.asciidoc.intellij.download.AsciiDocDownloaderUtil;
+import org.asciidoc.intellij.export.AsciiDocBatchExport;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Export all AsciiDoc documents in the selected folder or Antora component.
+ * Documents with an up-to-date output are skipped, see {@link AsciiDocBatchExport}.
+ */
+public abstract class ExportFolderAction extends AnAction implements DumbAware {
+
+  private static final Logger LOG = Logger.getInstance(ExportFolderAction.class);
+
+  private final AsciiDocWrapper.FileType format;
+
+  protected ExportFolderAction(AsciiDocWrapper.FileType format) {
+    this.format = format;
+  }
+
+  @Override
+  public @NotNull ActionUpdateThread getActionUpdateThread() {
+    return ActionUpdateThread.BGT;
+  }
+
+  @Override
+  public void update(@NotNull AnActionEvent event) {
+    VirtualFile file = event.getData(LangDataKeys.VIRTUAL_FILE);
+    event.getPresentation().setEnabledAndVisible(event.getProject() != null && file != null && file.isDirectory()
+      && file.isInLocalFileSystem());
+  }
+
+  @Override
+  public void actionPerformed(@NotNull AnActionEvent event) {
+    Project project = event.getProject();
+    VirtualFile folder = event.getData(LangDataKeys.VIRTUAL_FILE);
+    if (project == null || folder == null || !folder.isDirectory()) {
+      return;
+    }
+
+    if (format == AsciiDocWrapper.FileType.PDF && !AsciiDocDownloaderUtil.downloadCompleteAsciidoctorJPdf()) {
+      AsciiDocDownloaderUtil.downloadAsciidoctorJPdf(project, () -> {
+        Notifications.Bus
+          .notify(new Notification("asciidoctor", AsciiDocBundle.message("asciidoc.download.title"),
+            AsciiDocBundle.message("asciidoc.download.asciidoctorj-pdf.success"),
+            NotificationType.INFORMATION));
+        this.actionPerformed(event);
+      }, e -> LOG.warn("unable to download", e));
+      return;
+    }
+
+    if (FileDocumentManager.getInstance().getUnsavedDocuments().length > 0) {
+      ApplicationManager.getApplication().runWriteAction(() -> {
+        try {
+          for (Document unsavedDocument : FileDocumentManager.getInstance().getUnsavedDocuments()) {
+            FileDocumentManager.getInstance().saveDocument(unsavedDocument);
+          }
+        } catch (RuntimeException ex) {
+          LOG.warn("Unable to save other file (might be a problem in another plugin", ex);
+        }
+      });
+    }
+
+    new Task.Backgroundable(project, AsciiDocBundle.message("asciidoc.export.folder.task", format.name(), folder.getName()), true) {
+      private List<AsciiDocBatchExport.Result> results;
+
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        List<VirtualFile> documents = AsciiDocBatchExport.collectDocuments(project, folder);
+        results = new AsciiDocBatchExport(project, format, false).export(documents, indicator);
+      }
+
+      @Override
+      public void onSuccess() {
+        // show the new files in the project view
+        VfsUtil.markDirtyAndRefresh(true, true, false, folder);
+        String summary = AsciiDocBatchExport.summary(results);
+        LOG.info("export of " + folder.getPath() + " to " + format.name() + ": " + summary);
+        boolean failed = results.stream().anyMatch(r -> r.getStatus() == AsciiDocBatchExport.Status.FAILED);
+        Notifications.Bus.notify(AsciiDocWrapper.getNotificationGroup().createNotification(
+          AsciiDocBundle.message("asciidoc.export.folder.title", folder.getName()),
+          summary.replace("\n", "<br>"),
+          failed ? NotificationType.WARNING : NotificationType.INFORMATION), project);
+      }
+    }.queue();
+  }
+
+}
@@ -0,0 +1,11 @@
+package org.asciidoc.intellij.actions.asciidoc;
+
+import org.asciidoc.intellij.AsciiDocWrapper;
+
+public class ExportFolderToHtmlAction extends ExportFolderAction {
+
+  public ExportFolderToHtmlAction() {
+    super(AsciiDocWrapper.FileType.HTML);
+  }
+
+}
@@ -0,0 +1,11 @@
+package org.asciidoc.intellij.actions.asciidoc;
+
+import org.asciidoc.intellij.AsciiDocWrapper;
+
+public class ExportFolderToPdfAction extends ExportFolderAction {
+
+  public ExportFolderToPdfAction() {
+    super(AsciiDocWrapper.FileType.PDF);
+  }
+
+}
@@ -0,0 +1,65 @@
+package org.asciidoc.intellij.actions.asciidoc;
+
+import com.intellij.openapi.util.registry.Registry;
+import org.jetbrains.annotations.NotNull;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Convert an image from the clipboard to the bytes of a PNG or JPEG file.
+ * This is expensive for large screenshots, therefore it runs in the background.
+ */
+public final class ImageEncoder {
+
+  private static final String MAX_WIDTH_KEY = "asciidoc.pasteImage.maxWidth";
+
+  /**
+   * Maximum width of pasted images, larger images are scaled down. Zero or less disables scaling.
+   */
+  public static int getMaxWidth() {
+    return Registry.intValue(MAX_WIDTH_KEY, 0);
+  }
+
+  /**
+   * Draw the image to an RGB image, and scale it down to the maximum width while keeping its aspect ratio.
+   */
+  @NotNull
+  public static BufferedImage toBufferedImage(@NotNull Image image, int maxWidth) throws IOException {
+    int width = image.getWidth(null);
+    int height = image.getHeight(null);
+    if (width <= 0 || height <= 0) {
+      throw new IOException("Unable to read image from clipboard");
+    }
+    if (maxWidth > 0 && width > maxWidth) {
+      height = Math.max(1, (int) Math.round((double) height * maxWidth / width));
+      width = maxWidth;
+    }
+    // not HiDPI-aware on purpose, the file should contain the pixels of the original image
+    BufferedImage bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    Graphics2D bImageGraphics = bufferedImage.createGraphics();
+    try {
+      bImageGraphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      bImageGraphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+      bImageGraphics.drawImage(image, 0, 0, width, height, null);
+    } finally {
+      bImageGraphics.dispose();
+    }
+    return bufferedImage;
+  }
+
+  /**
+   * Encode the image in the given format, for example <code>png</code> or <code>jpg</code>.
+   */
+  @NotNull
+  public static byte[] encode(@NotNull BufferedImage image, @NotNull String format) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    if (!ImageIO.write(image, format, outputStream)) {
+      throw new IOException("no appropriate writer found for selected format");
+    }
+    return outputStream.toByteArray();
+  }
+}
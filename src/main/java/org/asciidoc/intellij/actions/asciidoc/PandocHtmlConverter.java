@@ -0,0 +1,160 @@
+package org.asciidoc.intellij.actions.asciidoc;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.process.ProcessOutput;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.asciidoc.intellij.AsciiDocWrapper;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Convert HTML from the clipboard to AsciiDoc using Pandoc.
+ * Results are cached by content, so pasting the same clipboard contents again doesn't start Pandoc again.
+ * Concurrent requests for the same content share a single run of Pandoc.
+ */
+@Service
+public final class PandocHtmlConverter {
+
+  private static final Logger LOG = Logger.getInstance(PandocHtmlConverter.class);
+
+  private static final int MAX_CACHED_RESULTS = 20;
+  private static final int TIMEOUT_MS = 30_000;
+  private static final List<String> ARGUMENTS = Arrays.asList("--wrap=none", "-f", "html", "-t", "asciidoctor");
+
+  private final Map<String, String> cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+      return size() > MAX_CACHED_RESULTS;
+    }
+  });
+  private final Map<String, CompletableFuture<String>> running = new ConcurrentHashMap<>();
+
+  private final AtomicLong conversions = new AtomicLong();
+  private final AtomicLong cacheHits = new AtomicLong();
+  private final AtomicLong totalMillis = new AtomicLong();
+  private final AtomicLong maxMillis = new AtomicLong();
+
+  public static PandocHtmlConverter getInstance() {
+    return ApplicationManager.getApplication().getService(PandocHtmlConverter.class);
+  }
+
+  /**
+   * Return a previous result for the same HTML without starting Pandoc. This is safe to call on the EDT.
+   */
+  @Nullable
+  public String getCached(@NotNull String html) {
+    return getCachedByKey(key(html));
+  }
+
+  @Nullable
+  private String getCachedByKey(@NotNull String key) {
+    String result = cache.get(key);
+    if (result != null) {
+      cacheHits.incrementAndGet();
+    }
+    return result;
+  }
+
+  /**
+   * Convert HTML to AsciiDoc. Call this from a background thread, as it might need to start Pandoc.
+   *
+   * @return AsciiDoc content, or <code>null</code> if the conversion failed
+   */
+  @Nullable
+  public String convert(@NotNull String html, @NotNull File workingDirectory, @Nullable ProgressIndicator indicator) {
+    ApplicationManager.getApplication().assertIsNonDispatchThread();
+    String key = key(html);
+    String result = getCachedByKey(key);
+    if (result != null) {
+      return result;
+    }
+    CompletableFuture<String> future = new CompletableFuture<>();
+    CompletableFuture<String> existing = running.putIfAbsent(key, future);
+    if (existing != null) {
+      return ProgressIndicatorUtils.awaitWithCheckCanceled(existing);
+    }
+    try {
+      result = runPandoc(html, workingDirectory, indicator);
+      if (result != null) {
+        cache.put(key, result);
+      }
+      future.complete(result);
+      return result;
+    } catch (RuntimeException e) {
+      future.completeExceptionally(e);
+      throw e;
+    } finally {
+      running.remove(key, future);
+    }
+  }
+
+  @Nullable
+  private String runPandoc(@NotNull String html, @NotNull File workingDirectory, @Nullable ProgressIndicator indicator) {
+    long start = System.nanoTime();
+    ProcessOutput output;
+    try {
+      output = PandocRunner.run(ARGUMENTS, workingDirectory, html.getBytes(StandardCharsets.UTF_8), indicator, TIMEOUT_MS);
+    } catch (ExecutionException e) {
+      notifyError("Error creating AsciiDoc from HTML", e.getMessage());
+      return null;
+    }
+    recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    if (output.isCancelled()) {
+      throw new ProcessCanceledException();
+    }
+    if (output.isTimeout()) {
+      notifyError("Error creating AsciiDoc from HTML clipboard contents", "Pandoc didn't complete within " + TIMEOUT_MS / 1000 + " seconds");
+      return null;
+    }
+    if (output.getExitCode() != 0) {
+      notifyError("Error creating AsciiDoc from HTML clipboard contents", output.getStdout() + " / " + output.getStderr());
+      return null;
+    }
+    String stdout = output.getStdout();
+    stdout = stdout.replaceAll("\r\n", "\n");
+    stdout = stdout.replaceAll("\u00A0", " ");
+    return stdout;
+  }
+
+  private void recordLatency(long millis) {
+    long count = conversions.incrementAndGet();
+    long total = totalMillis.addAndGet(millis);
+    maxMillis.accumulateAndGet(millis, Math::max);
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("converted HTML with Pandoc in " + millis + " ms (conversions: " + count + ", average: " + total / count
+        + " ms, max: " + maxMillis.get() + " ms, cache hits: " + cacheHits.get() + ")");
+    }
+  }
+
+  private static void notifyError(String title, String content) {
+    Notification notification = AsciiDocWrapper.getNotificationGroup().createNotification(title, content, NotificationType.ERROR);
+    notification.setImportant(true);
+    Notifications.Bus.notify(notification);
+  }
+
+  private static String key(String html) {
+    return DigestUtils.sha256Hex(html);
+  }
+
+}
@@ -0,0 +1,56 @@
+package org.asciidoc.intellij.actions.asciidoc;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.execution.process.CapturingProcessHandler;
+import com.intellij.execution.process.ProcessOutput;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import org.asciidoc.intellij.download.AsciiDocDownloaderUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Run Pandoc with its input passed via stdin, so no temporary input file is necessary.
+ * The input is written on a separate thread while stdout and stderr are drained,
+ * so Pandoc can't block on a full pipe when it writes a lot of warnings.
+ */
+public class PandocRunner {
+
+  private static final Logger LOG = Logger.getInstance(PandocRunner.class);
+
+  /**
+   * Run Pandoc and wait for it to complete.
+   * If the indicator is cancelled or the timeout elapses, the process is destroyed.
+   * Check {@link ProcessOutput#isCancelled()} and {@link ProcessOutput#isTimeout()} on the result.
+   */
+  @NotNull
+  public static ProcessOutput run(@NotNull List<String> arguments, @NotNull File workingDirectory, @NotNull byte[] input,
+                                  @Nullable ProgressIndicator indicator, int timeoutInMilliseconds) throws ExecutionException {
+    GeneralCommandLine commandLine = new GeneralCommandLine(AsciiDocDownloaderUtil.getPanddocFile().getAbsolutePath())
+      .withParameters(arguments)
+      .withWorkDirectory(workingDirectory)
+      .withCharset(StandardCharsets.UTF_8);
+    CapturingProcessHandler handler = new CapturingProcessHandler(commandLine);
+    ApplicationManager.getApplication().executeOnPooledThread(() -> {
+      try (OutputStream outputStream = handler.getProcessInput()) {
+        outputStream.write(input);
+      } catch (IOException e) {
+        // Pandoc stops reading when it fails early or is destroyed; its output will tell why
+        LOG.debug("unable to write input to Pandoc", e);
+      }
+    });
+    if (indicator != null) {
+      return handler.runProcessWithProgressIndicator(indicator, timeoutInMilliseconds);
+    }
+    return handler.runProcess(timeoutInMilliseconds);
+  }
+
+}
@@ -12,9 +12,11 @@ import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.EditorCopyPasteHelper;
 import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.ide.CopyPasteManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
 import org.asciidoc.intellij.AsciiDocBundle;
-import org.asciidoc.intellij.AsciiDocWrapper;
 import org.asciidoc.intellij.download.AsciiDocDownloaderUtil;
 import org.asciidoc.intellij.download.PandocInfo;
 import org.asciidoc.intellij.file.AsciiDocFileType;
@@ -24,12 +26,6 @@ import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.Transferable;
 import java.awt.datatransfer.UnsupportedFlavorException;
 import java.io.File;
-import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
 
 public class PasteHtmlAction extends AsciiDocAction {
   public static final String ID = "org.asciidoc.intellij.actions.asciidoc.PasteHtmlAction";
@@ -56,15 +52,20 @@ public class PasteHtmlAction extends AsciiDocAction {
     }
 
     if (!AsciiDocDownloaderUtil.downloadCompletePandoc()) {
-      // download pandoc asynchronously for the next attempt.
+      // download pandoc asynchronously for the next attempt, paste without conversion for now
       AsciiDocDownloaderUtil.downloadPandoc(editor.getProject(), () -> {
         Notifications.Bus.notify(new Notification("asciidoctor", AsciiDocBundle.message("asciidoc.download.title"), AsciiDocBundle.message("asciidoc.download.pandoc.success"), NotificationType.INFORMATION));
-        actionPerformed(event);
       }, e -> LOG.warn("unable to download", e));
+      pasteFromClipboard(project, editor);
       return;
     }
 
-    String result = getAsciiDocContentFromClipboard(editor);
+    String result;
+    try {
+      result = getAsciiDocContentFromClipboard(project);
+    } catch (ProcessCanceledException e) {
+      return;
+    }
     if (result != null) {
       CommandProcessor.getInstance().executeCommand(project,
         () -> ApplicationManager.getApplication().runWriteAction(() -> {
@@ -72,74 +73,57 @@ public class PasteHtmlAction extends AsciiDocAction {
         }), "Paste Formatted Text", AsciiDocFileType.INSTANCE.getName(), UndoConfirmationPolicy.DO_NOT_REQUEST_CONFIRMATION
       );
     } else {
-      // fallback, trigger standard paste procedure
-      CommandProcessor.getInstance().executeCommand(project,
-        () -> ApplicationManager.getApplication().runWriteAction(() -> {
-          EditorCopyPasteHelper.getInstance().pasteFromClipboard(editor);
-        }), "Paste Formatted Text", AsciiDocFileType.INSTANCE.getName(), UndoConfirmationPolicy.DO_NOT_REQUEST_CONFIRMATION
-      );
+      pasteFromClipboard(project, editor);
     }
   }
 
-  private String getAsciiDocContentFromClipboard(Editor editor) {
-    Process process = null;
-    try {
-      List<String> cmd = new ArrayList<>(Arrays.asList(AsciiDocDownloaderUtil.getPanddocFile().getAbsolutePath(), "--wrap=none", "-f", "html", "-t", "asciidoctor"));
-      process = new ProcessBuilder(cmd.toArray(String[]::new)).directory(new File(editor.getProject().getBasePath())).start();
+  private static void pasteFromClipboard(Project project, Editor editor) {
+    // fallback, trigger standard paste procedure
+    CommandProcessor.getInstance().executeCommand(project,
+      () -> ApplicationManager.getApplication().runWriteAction(() -> {
+        EditorCopyPasteHelper.getInstance().pasteFromClipboard(editor);
+      }), "Paste Formatted Text", AsciiDocFileType.INSTANCE.getName(), UndoConfirmationPolicy.DO_NOT_REQUEST_CONFIRMATION
+    );
+  }
 
-      CopyPasteManager manager = CopyPasteManager.getInstance();
-      String html = manager.getContents(DataFlavor.allHtmlFlavor);
-      if (html == null) {
-        return null;
-      }
-      // strip HTML clipboard format (HTML_CF header)
-      // https://learn.microsoft.com/en-us/windows/win32/dataxchg/html-clipboard-format
-      int start = html.indexOf("<html");
-      if (html.indexOf("<html") > 0) {
-        html = html.substring(start);
-      } else if (start == -1) {
-        start = html.indexOf("<HTML");
-        if (start > 0) {
-          html = html.substring(start);
-        }
-      }
-      OutputStream outputStream = process.getOutputStream();
-      outputStream.write(html.getBytes(StandardCharsets.UTF_8));
-      outputStream.close();
-
-      String stdout = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
-      String stderr = new String(process.getErrorStream().readAllBytes(), StandardCharsets.UTF_8);
-
-      // to kill the process
-      // process.destroy();
-
-      int exitCode = process.waitFor();
-      if (exitCode != 0) {
-        Notification notification = AsciiDocWrapper.getNotificationGroup().createNotification("Error creating AsciiDOc from HTML clipboard contents", stdout + " / " + stderr, NotificationType.ERROR);
-        notification.setImportant(true);
-        Notifications.Bus.notify(notification);
-        String text = manager.getContents(DataFlavor.getTextPlainUnicodeFlavor());
-        if (text == null) {
-          return null;
-        }
-        text = text.replaceAll("\r\n", "\n");
-        return text;
+  private String getAsciiDocContentFromClipboard(Project project) {
+    CopyPasteManager manager = CopyPasteManager.getInstance();
+    String clipboard = manager.getContents(DataFlavor.allHtmlFlavor);
+    if (clipboard == null) {
+      return null;
+    }
+    // strip HTML clipboard format (HTML_CF header)
+    // https://learn.microsoft.com/en-us/windows/win32/dataxchg/html-clipboard-format
+    int start = clipboard.indexOf("<html");
+    if (clipboard.indexOf("<html") > 0) {
+      clipboard = clipboard.substring(start);
+    } else if (start == -1) {
+      start = clipboard.indexOf("<HTML");
+      if (start > 0) {
+        clipboard = clipboard.substring(start);
       }
-
-      stdout = stdout.replaceAll("\r\n", "\n");
-      stdout = stdout.replaceAll("\u00A0", " ");
-
-      return stdout;
-
-    } catch (IOException | InterruptedException e) {
-      if (process != null) {
-        process.destroy();
+    }
+    String html = clipboard;
+
+    PandocHtmlConverter converter = PandocHtmlConverter.getInstance();
+    String result = converter.getCached(html);
+    if (result == null) {
+      // run Pandoc in the background, so the UI stays responsive
+      String basePath = project.getBasePath();
+      File workingDirectory = new File(basePath != null ? basePath : FileUtil.getTempDirectory());
+      result = ProgressManager.getInstance().runProcessWithProgressSynchronously(
+        () -> converter.convert(html, workingDirectory, ProgressManager.getInstance().getProgressIndicator()),
+        "Converting HTML to AsciiDoc", true, project);
+    }
+    if (result == null) {
+      String text = manager.getContents(DataFlavor.getTextPlainUnicodeFlavor());
+      if (text == null) {
+        return null;
       }
-      Notification notification = AsciiDocWrapper.getNotificationGroup().createNotification("Error creating AsciiDoc from HTML", e.getMessage(), NotificationType.ERROR);
-      notification.setImportant(true);
-      Notifications.Bus.notify(notification);
-      return null;
+      text = text.replaceAll("\r\n", "\n");
+      return text;
     }
+    return result;
   }
 
   private static class StringAsTransferable implements Transferable {
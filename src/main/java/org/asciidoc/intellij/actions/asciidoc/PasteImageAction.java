@@ -13,18 +13,22 @@ import com.intellij.openapi.fileChooser.FileSaverDescriptor;
 import com.intellij.openapi.fileChooser.FileSaverDialog;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.ide.CopyPasteManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.roots.ProjectFileIndex;
 import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.ui.DialogBuilder;
 import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.util.Ref;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.openapi.vfs.VirtualFileWrapper;
-import com.intellij.util.ui.ImageUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.asciidoc.intellij.AsciiDocWrapper;
 import org.asciidoc.intellij.file.AsciiDocFileType;
 import org.asciidoc.intellij.psi.AsciiDocUtil;
@@ -33,7 +37,6 @@ import org.jdesktop.swingx.action.BoundAction;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.datatransfer.DataFlavor;
@@ -53,6 +56,10 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static org.asciidoc.intellij.actions.asciidoc.ImageService.getImageWidth;
 import static org.asciidoc.intellij.ui.PasteImageDialog.createPasteImageDataDialog;
@@ -158,68 +165,140 @@ public class PasteImageAction extends AsciiDocAction {
       png.setSelected(true);
     }
 
-    try {
-      final BufferedImage bufferedImage = Optional
-        .<Image>ofNullable(manager.getContents(DataFlavor.imageFlavor))
-        .map(this::toBufferedImage)
-        .orElseThrow(() -> new IOException("Unable to read image from clipboard"));
-
-      final CompletableFuture<Optional<Integer>> initialWidthFuture =
-        CompletableFuture.completedFuture(Optional.of(bufferedImage.getWidth()));
-      final PasteImageDialog dialog = createPasteImageDataDialog(options, initialWidthFuture);
-
-      dialog.show();
-
-      if (dialog.getExitCode() == DialogWrapper.OK_EXIT_CODE) {
-        previousFileFormat = dialog.getSelectedActionCommand();
-
-        final int offset = editor.getCaretModel().getOffset();
-        final FileSaverDescriptor descriptor = new FileSaverDescriptor("Save Image to", "Choose the destination file");
-        FileSaverDialog saveFileDialog = FileChooserFactory.getInstance().createSaveFileDialog(descriptor, project);
-        String ext = ACTION_SAVE_PNG.equals(dialog.getSelectedActionCommand()) ? "png" : "jpg";
-        String date = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH-mm-ss-SSS").format(LocalDateTime.now(ZoneId.systemDefault()));
-        VirtualFileWrapper destination = saveFileDialog.save(initialTargetDirectory, "image-" + date + "." + ext);
-        if (destination != null) {
-          memorizeTargetFolder(destination);
-          CommandProcessor.getInstance().executeCommand(project,
-            () -> ApplicationManager.getApplication().runWriteAction(
-              () -> {
-                try {
-                  VirtualFile target = createOrReplaceTarget(destination);
-                  try (OutputStream outputStream = target.getOutputStream(this)) {
-                    boolean written = ImageIO.write(bufferedImage, ext, outputStream);
-                    if (written) {
-                      insertImageReference(target, offset, attributeService.toAttributeString(dialog));
-                      AsciiDocUtil.selectFileInProjectView(project, target);
-                    } else {
-                      String message = "Can't save image, no appropriate writer found for selected format.";
-                      Notification notification = AsciiDocWrapper.getNotificationGroup()
-                        .createNotification("Error in plugin", message, NotificationType.ERROR);
-                      // increase event log counter
-                      notification.setImportant(true);
-                      Notifications.Bus.notify(notification);
-                    }
-                  }
-                } catch (IOException e) {
-                  String message = "Can't paste image, " + e.getMessage();
-                  Notification notification = AsciiDocWrapper.getNotificationGroup()
-                    .createNotification("Error in plugin", message, NotificationType.ERROR);
-                  // increase event log counter
-                  notification.setImportant(true);
-                  Notifications.Bus.notify(notification);
-                }
-              }), "Paste Image", AsciiDocFileType.INSTANCE.getName(), UndoConfirmationPolicy.DO_NOT_REQUEST_CONFIRMATION
-          );
-        }
+    final Image image = manager.getContents(DataFlavor.imageFlavor);
+    if (image == null) {
+      notifyError("Can't paste image, Unable to read image from clipboard");
+      return;
+    }
+    // converting and scaling a large screenshot takes a while, start it while the user is choosing the options
+    final int maxWidth = ImageEncoder.getMaxWidth();
+    final CompletableFuture<BufferedImage> bufferedImageFuture = CompletableFuture.supplyAsync(() -> {
+      try {
+        return ImageEncoder.toBufferedImage(image, maxWidth);
+      } catch (IOException e) {
+        throw new CompletionException(e);
       }
-    } catch (IOException e) {
-      String message = "Can't paste image, " + e.getMessage();
-      Notification notification = AsciiDocWrapper.getNotificationGroup()
-        .createNotification("Error in plugin", message, NotificationType.ERROR);
-      // increase event log counter
-      notification.setImportant(true);
-      Notifications.Bus.notify(notification);
+    }, AppExecutorUtil.getAppExecutorService());
+
+    final CompletableFuture<Optional<Integer>> initialWidthFuture = bufferedImageFuture
+      .thenApply(bufferedImage -> Optional.of(bufferedImage.getWidth()))
+      .exceptionally(e -> Optional.empty());
+    final PasteImageDialog dialog = createPasteImageDataDialog(options, initialWidthFuture);
+
+    dialog.show();
+
+    if (dialog.getExitCode() != DialogWrapper.OK_EXIT_CODE) {
+      bufferedImageFuture.cancel(false);
+      return;
     }
+    previousFileFormat = dialog.getSelectedActionCommand();
+
+    final int offset = editor.getCaretModel().getOffset();
+    final FileSaverDescriptor descriptor = new FileSaverDescriptor("Save Image to", "Choose the destination file");
+    FileSaverDialog saveFileDialog = FileChooserFactory.getInstance().createSaveFileDialog(descriptor, project);
+    String ext = ACTION_SAVE_PNG.equals(dialog.getSelectedActionCommand()) ? "png" : "jpg";
+    String date = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH-mm-ss-SSS").format(LocalDateTime.now(ZoneId.systemDefault()));
+    VirtualFileWrapper destination = saveFileDialog.save(initialTargetDirectory, "image-" + date + "." + ext);
+    if (destination == null) {
+      bufferedImageFuture.cancel(false);
+      return;
+    }
+    memorizeTargetFolder(destination);
+    final boolean existed = destination.getFile().exists();
+    final Ref<VirtualFile> targetRef = new Ref<>();
+    // insert the reference right away, the content of the file follows once it has been encoded
+    CommandProcessor.getInstance().executeCommand(project,
+      () -> ApplicationManager.getApplication().runWriteAction(
+        () -> {
+          try {
+            VirtualFile target = createOrReplaceTarget(destination);
+            insertImageReference(target, offset, attributeService.toAttributeString(dialog));
+            targetRef.set(target);
+          } catch (IOException e) {
+            notifyError("Can't paste image, " + e.getMessage());
+          }
+        }), "Paste Image", AsciiDocFileType.INSTANCE.getName(), UndoConfirmationPolicy.DO_NOT_REQUEST_CONFIRMATION
+    );
+    VirtualFile target = targetRef.get();
+    if (target == null) {
+      bufferedImageFuture.cancel(false);
+      return;
+    }
+
+    new Task.Backgroundable(project, "Saving image " + target.getName(), true) {
+      private byte[] content;
+
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        indicator.setIndeterminate(true);
+        BufferedImage bufferedImage = null;
+        while (bufferedImage == null) {
+          indicator.checkCanceled();
+          try {
+            bufferedImage = bufferedImageFuture.get(100, TimeUnit.MILLISECONDS);
+          } catch (TimeoutException e) {
+            // still converting, check for cancellation again
+          } catch (InterruptedException e) {
+            throw new ProcessCanceledException(e);
+          } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+          }
+        }
+        indicator.checkCanceled();
+        try {
+          content = ImageEncoder.encode(bufferedImage, ext);
+        } catch (IOException e) {
+          throw new CompletionException(e);
+        }
+      }
+
+      @Override
+      public void onSuccess() {
+        ApplicationManager.getApplication().runWriteAction(() -> {
+          try (OutputStream outputStream = target.getOutputStream(PasteImageAction.this)) {
+            outputStream.write(content);
+          } catch (IOException e) {
+            notifyError("Can't paste image, " + e.getMessage());
+            return;
+          }
+          AsciiDocUtil.selectFileInProjectView(project, target);
+        });
+      }
+
+      @Override
+      public void onCancel() {
+        bufferedImageFuture.cancel(false);
+        removeIncompleteTarget();
+      }
+
+      @Override
+      public void onThrowable(@NotNull Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        notifyError("Can't paste image, " + cause.getMessage());
+        removeIncompleteTarget();
+      }
+
+      private void removeIncompleteTarget() {
+        if (!existed && target.isValid()) {
+          // the reference stays in the document, the user can undo the paste
+          ApplicationManager.getApplication().runWriteAction(() -> {
+            try {
+              target.delete(PasteImageAction.this);
+            } catch (IOException e) {
+              notifyError("Can't remove incomplete image, " + e.getMessage());
+            }
+          });
+        }
+      }
+    }.queue();
+  }
+
+  private static void notifyError(String message) {
+    Notification notification = AsciiDocWrapper.getNotificationGroup()
+      .createNotification("Error in plugin", message, NotificationType.ERROR);
+    // increase event log counter
+    notification.setImportant(true);
+    Notifications.Bus.notify(notification);
   }
 
   private void pasteJavaFileListFlavour(VirtualFile initialTargetDirectory, CopyPasteManager manager) {
@@ -369,11 +448,4 @@ public class PasteImageAction extends AsciiDocAction {
     editor.getDocument().insertString(offset, insert);
     editor.getCaretModel().moveToOffset(offset + cursorOffset);
   }
-
-  private BufferedImage toBufferedImage(@NotNull Image image) {
-    BufferedImage bufferedImage = ImageUtil.createImage(image.getWidth(null), image.getHeight(null), BufferedImage.TYPE_INT_RGB);
-    Graphics2D bImageGraphics = bufferedImage.createGraphics();
-    bImageGraphics.drawImage(image, null, null);
-    return bufferedImage;
-  }
 }
@@ -8,27 +8,35 @@ import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
 import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.problems.Problem;
 import com.intellij.problems.WolfTheProblemSolver;
 import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiReference;
-import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StringEscapeUtils;
 import org.asciidoc.intellij.AsciiDocExtensionService;
 import org.asciidoc.intellij.AsciiDocWrapper;
 import org.asciidoc.intellij.psi.AsciiDocBlockMacro;
 import org.asciidoc.intellij.psi.AsciiDocFile;
-import org.asciidoc.intellij.psi.AsciiDocFileReference;
+import org.asciidoc.intellij.psi.search.AsciiDocIncludeIndex;
 import org.asciidoc.intellij.quickfix.AsciiDocCreateMissingFileIntentionAction;
 import org.asciidoc.intellij.settings.AsciiDocApplicationSettings;
 import org.asciidoc.intellij.threading.AsciiDocProcessUtil;
+import org.asciidoctor.log.LogHandler;
 import org.asciidoctor.log.LogRecord;
 import org.asciidoctor.log.Severity;
 import org.jetbrains.annotations.NotNull;
@@ -37,12 +45,14 @@ import org.jetbrains.annotations.Nullable;
 import java.io.File;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Run Asciidoc and use the warnings and errors as annotations in the file.
@@ -54,6 +64,8 @@ implements DumbAware {
 
   public static final String INCLUDE_FILE_NOT_FOUND = "include file not found";
 
+  private static final Key<LastRun> KEY_LAST_RUN = new Key<>("asciidoc-annotator-last-run");
+
   private final AsciiDocExtensionService extensionService = ApplicationManager.getApplication().getService(AsciiDocExtensionService.class);
 
   @Nullable
@@ -61,7 +73,8 @@ implements DumbAware {
   public AsciiDocInfoType collectInformation(@NotNull PsiFile file, @NotNull Editor editor, boolean hasErrors) {
     final String config = AsciiDocWrapper.config(editor.getDocument(), file.getProject());
     List<String> extensions = extensionService.getExtensions(file.getProject());
-    return new AsciiDocInfoType(file, editor, editor.getDocument().getText(), config, extensions);
+    long modificationCount = PsiModificationTracker.getInstance(file.getProject()).getModificationCount();
+    return new AsciiDocInfoType(file, editor, editor.getDocument().getText(), config, extensions, modificationCount);
   }
 
   @Nullable
@@ -88,70 +101,183 @@ implements DumbAware {
       return annotationResult;
     }
 
+    annotationResult.setDocname(new File(fileBaseDir, name).getAbsolutePath());
+
+    // skip Asciidoctor if neither the content, any other file, nor the settings have changed since the last run
+    String hash = hash(collectedInfo, annotationResult.getDocname(), settingsStamp(file.getProject()));
+    LastRun lastRun = virtualFile != null ? virtualFile.getUserData(KEY_LAST_RUN) : null;
+    if (lastRun != null && lastRun.hash.equals(hash) && lastRun.modificationCount == collectedInfo.getModificationCount()) {
+      annotationResult.setLogRecords(lastRun.logRecords);
+      return annotationResult;
+    }
+
     Path tempImagesPath = AsciiDocWrapper.tempImagesPath(fileBaseDir.toPath(), file.getProject());
     try {
       AsciiDocWrapper asciiDocWrapper = new AsciiDocWrapper(file.getProject(), fileBaseDir,
         tempImagesPath, name);
-      annotationResult.setDocname(new File(fileBaseDir, name).getAbsolutePath());
-
-      List<LogRecord> logRecords = new ArrayList<>();
-      asciiDocWrapper.render(collectedInfo.getContent(), collectedInfo.getConfig(), collectedInfo.getExtensions(), (boasOut, boasErr, lr)
-        -> logRecords.addAll(lr));
 
       // do all expensive post-processing of log messages in the doAnnotate() phase,
-      // this is necessary to process nested includes
-      List<AsciiDocAnnotationResultType.AsciiDocAnnotationLogRecord> processedLogRecords = new ArrayList<>();
-      for (LogRecord logRecord : logRecords) {
-        if (logRecord.getSeverity() == Severity.DEBUG) {
-          continue;
-        }
-        if (logRecord.getMessage() == null) {
-          continue;
+      // this is necessary to process nested includes.
+      // Log records are processed while Asciidoctor is still converting the document,
+      // but the editor shows the annotations only once all of them are available in apply().
+      StreamingLogHandler logHandler = new StreamingLogHandler(file, annotationResult);
+      asciiDocWrapper.render(collectedInfo.getContent(), collectedInfo.getConfig(), collectedInfo.getExtensions(), (boasOut, boasErr, lr) -> {
+        // the log handler has received all log records already
+      }, logHandler);
+
+      List<AsciiDocAnnotationResultType.AsciiDocAnnotationLogRecord> processedLogRecords = logHandler.awaitProcessedLogRecords();
+      annotationResult.setLogRecords(processedLogRecords);
+      // a fatal error might be caused by the environment, therefore run again next time
+      if (virtualFile != null && processedLogRecords.stream().noneMatch(lr -> lr.getLogRecord().getSeverity() == Severity.FATAL)) {
+        virtualFile.putUserData(KEY_LAST_RUN, new LastRun(hash, collectedInfo.getModificationCount(), processedLogRecords));
+      }
+    } finally {
+      AsciiDocWrapper.cleanupImagesPath(tempImagesPath);
+    }
+
+    return annotationResult;
+  }
+
+  private static String hash(AsciiDocInfoType collectedInfo, String docname, String settingsStamp) {
+    return DigestUtils.sha256Hex(docname + "\n" + settingsStamp + "\n" + collectedInfo.getConfig() + "\n" + collectedInfo.getExtensions() + "\n" + collectedInfo.getContent());
+  }
+
+  /**
+   * Settings that change the result of Asciidoctor, like safe mode, Kroki, attributes and enabled extensions.
+   * The safe mode and the extensions also depend on the trust state of the project, which is not part of the settings.
+   */
+  private static String settingsStamp(Project project) {
+    AsciiDocApplicationSettings settings = AsciiDocApplicationSettings.getInstance();
+    return settings.getModificationCount() + "/" + settings.getSafe(project) + "/" + settings.getExtensionsEnabled(project, project.getBasePath());
+  }
+
+  /**
+   * Result of the last successful run for a file, so it can be reused when nothing changed.
+   */
+  private static class LastRun {
+    private final String hash;
+    private final long modificationCount;
+    private final List<AsciiDocAnnotationResultType.AsciiDocAnnotationLogRecord> logRecords;
+
+    LastRun(String hash, long modificationCount, List<AsciiDocAnnotationResultType.AsciiDocAnnotationLogRecord> logRecords) {
+      this.hash = hash;
+      this.modificationCount = modificationCount;
+      this.logRecords = logRecords;
+    }
+  }
+
+  /**
+   * Processes log records in the order they are logged on a pooled thread while the conversion is still running,
+   * so the results are available right after Asciidoctor completes.
+   * The first error marks the file as problematic right away.
+   */
+  private class StreamingLogHandler implements LogHandler {
+    private final PsiFile file;
+    private final AsciiDocAnnotationResultType annotationResult;
+    private final ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+    private final List<AsciiDocAnnotationResultType.AsciiDocAnnotationLogRecord> processedLogRecords = new ArrayList<>();
+    // the line of the include in this file only depends on the file where the message originated
+    private final Map<String, Integer> includeLineByFile = new HashMap<>();
+    private CompletableFuture<Void> pending = CompletableFuture.completedFuture(null);
+    private boolean errorReported;
+
+    StreamingLogHandler(PsiFile file, AsciiDocAnnotationResultType annotationResult) {
+      this.file = file;
+      this.annotationResult = annotationResult;
+    }
+
+    @Override
+    public synchronized void log(LogRecord logRecord) {
+      if (!isRelevant(logRecord)) {
+        return;
+      }
+      if (!errorReported && toSeverity(logRecord.getSeverity()).compareTo(HighlightSeverity.ERROR) >= 0
+        && file.getVirtualFile() != null && !file.getProject().isDisposed()) {
+        errorReported = true;
+        WolfTheProblemSolver.getInstance(file.getProject())
+          .reportProblemsFromExternalSource(file.getVirtualFile(), AsciiDocExternalAnnotatorProcessor.class);
+      }
+      // chaining the tasks keeps the order of the log records, and processes only one record at a time
+      pending = pending.thenRunAsync(() -> {
+        Runnable process = () -> {
+          AsciiDocAnnotationResultType.AsciiDocAnnotationLogRecord processed = process(logRecord);
+          synchronized (processedLogRecords) {
+            processedLogRecords.add(processed);
+          }
+        };
+        if (indicator != null) {
+          ProgressManager.getInstance().executeProcessUnderProgress(process, indicator);
+        } else {
+          process.run();
         }
-        if (logRecord.getMessage().startsWith("possible invalid reference:")) {
-        /* TODO: these messages are not helpful in IntelliJ as they have no line number
-            and provide too many false positives for split documents  */
-          continue;
+      }, AppExecutorUtil.getAppExecutorService());
+    }
+
+    List<AsciiDocAnnotationResultType.AsciiDocAnnotationLogRecord> awaitProcessedLogRecords() {
+      CompletableFuture<Void> last;
+      synchronized (this) {
+        last = pending;
+      }
+      ProgressIndicatorUtils.awaitWithCheckCanceled(last);
+      synchronized (processedLogRecords) {
+        return new ArrayList<>(processedLogRecords);
+      }
+    }
+
+    private AsciiDocAnnotationResultType.AsciiDocAnnotationLogRecord process(LogRecord logRecord) {
+      // the line number as shown in the IDE (starting with 1)
+      Integer lineNumber = null;
+      // the line number used for creating the annotation (starting with 0)
+      int lineNumberForAnnotation = 0;
+      if (logRecord.getCursor() != null
+        && (logRecord.getCursor().getFile() == null || logRecord.getCursor().getFile().equals(annotationResult.getDocname()))
+        && logRecord.getCursor().getLineNumber() >= 0) {
+        lineNumber = logRecord.getCursor().getLineNumber();
+        lineNumberForAnnotation = lineNumber - 1;
+        if (lineNumberForAnnotation < 0) {
+          // logRecords created in the prepended .asciidoctorconfig elements - will be shown on line zero
+          lineNumberForAnnotation = 0;
         }
-        // the line number as shown in the IDE (starting with 1)
-        Integer lineNumber = null;
-        // the line number used for creating the annotation (starting with 0)
-        int lineNumberForAnnotation = 0;
-        if (logRecord.getCursor() != null
-          && (logRecord.getCursor().getFile() == null || logRecord.getCursor().getFile().equals(annotationResult.getDocname()))
-          && logRecord.getCursor().getLineNumber() >= 0) {
-          lineNumber = logRecord.getCursor().getLineNumber();
-          lineNumberForAnnotation = lineNumber - 1;
-          if (lineNumberForAnnotation < 0) {
-            // logRecords created in the prepended .asciidoctorconfig elements - will be shown on line zero
-            lineNumberForAnnotation = 0;
-          }
-          if (lineNumberForAnnotation >= annotationResult.getDocument().getLineCount()) {
+        if (lineNumberForAnnotation >= annotationResult.getDocument().getLineCount()) {
           /* an extension (like spring-boot-rest-docs) might run sub-instances of Asciidoctor to parse document snippets.
           the error messages might have line numbers greater than the current document */
-            lineNumberForAnnotation = 0;
-          }
-        } else if (logRecord.getMessage().startsWith(INCLUDE_FILE_NOT_FOUND)) {
-          Set<PsiFile> files = new HashSet<>();
-          lineNumberForAnnotation = AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() -> {
+          lineNumberForAnnotation = 0;
+        }
+      } else if (logRecord.getMessage().startsWith(INCLUDE_FILE_NOT_FOUND) && logRecord.getCursor() != null) {
+        Integer includeLine = includeLineByFile.get(logRecord.getCursor().getFile());
+        if (includeLine == null) {
+          includeLine = AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() -> {
             if (file.getProject().isDisposed()) {
               return -1;
             }
-            return findLineByInclude(file, files, logRecord, 0);
+            return findLineByInclude(file, logRecord);
           });
-          if (lineNumberForAnnotation == -1) {
-            // unable to derive line number
-            lineNumberForAnnotation = 0;
-          }
+          includeLineByFile.put(logRecord.getCursor().getFile(), includeLine);
+        }
+        lineNumberForAnnotation = includeLine;
+        if (lineNumberForAnnotation == -1) {
+          // unable to derive line number
+          lineNumberForAnnotation = 0;
         }
-        processedLogRecords.add(new AsciiDocAnnotationResultType.AsciiDocAnnotationLogRecord(lineNumberForAnnotation, lineNumber, logRecord));
       }
-      annotationResult.setLogRecords(processedLogRecords);
-    } finally {
-      AsciiDocWrapper.cleanupImagesPath(tempImagesPath);
+      return new AsciiDocAnnotationResultType.AsciiDocAnnotationLogRecord(lineNumberForAnnotation, lineNumber, logRecord);
     }
+  }
 
-    return annotationResult;
+  private static boolean isRelevant(LogRecord logRecord) {
+    if (logRecord.getSeverity() == Severity.DEBUG) {
+      return false;
+    }
+    if (logRecord.getMessage() == null) {
+      return false;
+    }
+    //noinspection RedundantIfStatement
+    if (logRecord.getMessage().startsWith("possible invalid reference:")) {
+      /* TODO: these messages are not helpful in IntelliJ as they have no line number
+          and provide too many false positives for split documents  */
+      return false;
+    }
+    return true;
   }
 
   @Override
@@ -221,10 +347,53 @@ implements DumbAware {
     }
   }
 
+  /**
+   * For a given log record, find the file where it originated, then follow the includes upwards using the include index
+   * until reaching the file that is annotated. The include closest to the annotated file determines the line number.
+   */
+  private int findLineByInclude(PsiFile psiFile, LogRecord log) {
+    VirtualFile root = psiFile.getVirtualFile();
+    String file = log.getCursor().getFile();
+    if (root.getCanonicalPath() != null && root.getCanonicalPath().equals(file)) {
+      return log.getCursor().getLineNumber();
+    }
+    VirtualFile origin = file != null ? LocalFileSystem.getInstance().findFileByPath(file) : null;
+    if (origin != null && !DumbService.isDumb(psiFile.getProject())) {
+      Set<VirtualFile> visited = new HashSet<>();
+      visited.add(origin);
+      List<VirtualFile> level = Collections.singletonList(origin);
+      for (int depth = 0; depth <= 64 && !level.isEmpty(); depth++) {
+        int line = -1;
+        List<VirtualFile> next = new ArrayList<>();
+        for (VirtualFile current : level) {
+          for (AsciiDocBlockMacro macro : AsciiDocIncludeIndex.findIncludesOf(psiFile.getProject(), current)) {
+            ProgressManager.checkCanceled();
+            VirtualFile includer = macro.getContainingFile().getVirtualFile();
+            if (root.equals(includer)) {
+              Document document = PsiDocumentManager.getInstance(psiFile.getProject()).getDocument(macro.getContainingFile());
+              if (document != null) {
+                int includeLine = document.getLineNumber(macro.getTextOffset());
+                line = line == -1 ? includeLine : Math.min(line, includeLine);
+              }
+            } else if (includer != null && visited.add(includer)) {
+              next.add(includer);
+            }
+          }
+        }
+        if (line != -1) {
+          return line;
+        }
+        level = next;
+      }
+    }
+    // the annotated file might not be indexed, or the index is not available
+    return findLineByIncludeTraversal(psiFile, new HashSet<>(), log, 0);
+  }
+
   /**
    * For a given log record, find the source in the include tree, then traverse upwards to propagate the line number.
    */
-  private int findLineByInclude(PsiFile psiFile, Set<PsiFile> files, LogRecord log, int level) {
+  private int findLineByIncludeTraversal(PsiFile psiFile, Set<PsiFile> files, LogRecord log, int level) {
     // prevent too many recursions
     if (level > 64) {
       return -1;
@@ -240,36 +409,22 @@ implements DumbAware {
     if (psiFile.getVirtualFile().getCanonicalPath() != null && psiFile.getVirtualFile().getCanonicalPath().equals(file)) {
       return line;
     }
-    Collection<AsciiDocBlockMacro> includes = PsiTreeUtil.findChildrenOfType(psiFile, AsciiDocBlockMacro.class);
-    for (AsciiDocBlockMacro macro : includes) {
-      if (!"include".equals(macro.getMacroName())) {
-        continue;
-      }
-      List<PsiReference> references = Arrays.asList(macro.getReferences());
-      Collections.reverse(references);
-      for (PsiReference reference : references) {
-        if (reference instanceof AsciiDocFileReference) {
-          AsciiDocFileReference fileReference = (AsciiDocFileReference) reference;
-          if (!fileReference.isFolder()) {
-            PsiElement resolved = fileReference.resolve();
-            if (resolved instanceof AsciiDocFile) {
-              int targetLine = findLineByInclude((PsiFile) resolved, files, log, level + 1);
-              if (targetLine != -1) {
-                Document document = PsiDocumentManager.getInstance(psiFile.getProject()).getDocument(psiFile);
-                if (document != null) {
-                  return document.getLineNumber(macro.getTextOffset());
-                }
-              }
-            }
+    for (AsciiDocBlockMacro macro : AsciiDocIncludeIndex.findIncludeMacros(psiFile)) {
+      PsiFile resolved = AsciiDocIncludeIndex.resolveInclude(macro);
+      if (resolved instanceof AsciiDocFile) {
+        int targetLine = findLineByIncludeTraversal(resolved, files, log, level + 1);
+        if (targetLine != -1) {
+          Document document = PsiDocumentManager.getInstance(psiFile.getProject()).getDocument(psiFile);
+          if (document != null) {
+            return document.getLineNumber(macro.getTextOffset());
           }
-          break;
         }
       }
     }
     return -1;
   }
 
-  private HighlightSeverity toSeverity(Severity severity) {
+  private static HighlightSeverity toSeverity(Severity severity) {
     switch (severity) {
       case DEBUG:
       case INFO:
@@ -11,13 +11,15 @@ public class AsciiDocInfoType {
   private final String content;
   private final String config;
   private final List<String> extensions;
+  private final long modificationCount;
 
-  public AsciiDocInfoType(PsiFile file, Editor editor, String content, String config, List<String> extensions) {
+  public AsciiDocInfoType(PsiFile file, Editor editor, String content, String config, List<String> extensions, long modificationCount) {
     this.file = file;
     this.editor = editor;
     this.content = content;
     this.config = config;
     this.extensions = extensions;
+    this.modificationCount = modificationCount;
   }
 
   public PsiFile getFile() {
@@ -39,4 +41,11 @@ public class AsciiDocInfoType {
   public List<String> getExtensions() {
     return extensions;
   }
+
+  /**
+   * PSI modification count when the information was collected. Included files might have changed if this changed.
+   */
+  public long getModificationCount() {
+    return modificationCount;
+  }
 }
@@ -0,0 +1,51 @@
+package org.asciidoc.intellij.antora;
+
+import org.asciidoc.intellij.psi.AttributeDeclaration;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The attributes of an Antora module: the defaults of Antora, the attributes of the playbooks and the
+ * attributes of the component descriptor.
+ * An instance is immutable, so the preview, the completion and the inspections can share it for all files of a module.
+ */
+public final class AsciiDocAntoraAttributes {
+
+  public static final AsciiDocAntoraAttributes EMPTY = new AsciiDocAntoraAttributes(Collections.emptyList());
+
+  private final List<AttributeDeclaration> attributes;
+  private final Map<String, List<AttributeDeclaration>> attributesByName;
+
+  public AsciiDocAntoraAttributes(@NotNull List<AttributeDeclaration> attributes) {
+    this.attributes = Collections.unmodifiableList(new ArrayList<>(attributes));
+    Map<String, List<AttributeDeclaration>> byName = new HashMap<>();
+    for (AttributeDeclaration attribute : this.attributes) {
+      byName.computeIfAbsent(attribute.getAttributeName().toLowerCase(Locale.US), k -> new ArrayList<>()).add(attribute);
+    }
+    byName.replaceAll((k, v) -> Collections.unmodifiableList(v));
+    this.attributesByName = byName;
+  }
+
+  /**
+   * All attributes in the order Antora applies them, a later declaration overrides an earlier one.
+   */
+  @NotNull
+  public List<AttributeDeclaration> getAttributes() {
+    return attributes;
+  }
+
+  /**
+   * All declarations of one attribute, the name is case-insensitive.
+   */
+  @NotNull
+  public List<AttributeDeclaration> getAttributes(@NotNull String name) {
+    return attributesByName.getOrDefault(name.toLowerCase(Locale.US), Collections.emptyList());
+  }
+
+}
@@ -5,6 +5,7 @@ import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
@@ -12,18 +13,24 @@ import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
 import org.apache.commons.lang3.StringUtils;
 import org.asciidoc.intellij.psi.AsciiDocUtil;
+import org.asciidoc.intellij.settings.AsciiDocApplicationSettings;
 import org.asciidoc.intellij.threading.AsciiDocProcessUtil;
+import org.asciidoctor.SafeMode;
 import org.asciidoctor.ast.Document;
 import org.asciidoctor.extension.IncludeProcessor;
 import org.asciidoctor.extension.PreprocessorReader;
 import org.asciidoctor.log.LogRecord;
 import org.asciidoctor.log.Severity;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.regex.Matcher;
 
 import static org.asciidoc.intellij.psi.AsciiDocUtil.ANTORA_PREFIX_AND_FAMILY_PATTERN;
@@ -40,21 +47,28 @@ public class AntoraIncludeAdapter extends IncludeProcessor {
   private File fileBaseDir;
   private String name;
 
-  private String recursionPrevention;
+  /**
+   * Per thread, as the instance that prefetches diagrams converts several documents at the same time.
+   */
+  private final ThreadLocal<String> recursionPrevention = new ThreadLocal<>();
+
+  @Nullable
+  private IncludeContentCache includeCache;
 
   @Override
   public boolean handles(String target) {
-    if (Objects.equals(recursionPrevention, target)) {
-      recursionPrevention = null;
-      return false;
-    }
-    if (antoraModuleDir == null) {
+    if (Objects.equals(recursionPrevention.get(), target)) {
+      recursionPrevention.remove();
       return false;
     }
     Matcher urlMatcher = URL_PREFIX_PATTERN.matcher(target);
     if (urlMatcher.find()) {
       return false;
     }
+    if (antoraModuleDir == null) {
+      // outside of Antora, only handle includes to serve them from the in-memory cache
+      return includeCache != null;
+    }
     // if the first character is a slash ('/'), this is probably an already expanded Linux path name
     if (target.startsWith("/")) {
       return false;
@@ -75,6 +89,12 @@ public class AntoraIncludeAdapter extends IncludeProcessor {
 
   @Override
   public void process(Document document, PreprocessorReader reader, String target, Map<String, Object> attributes) {
+    if (antoraModuleDir == null) {
+      if (!pushFromCache(reader, target, attributes)) {
+        pushIncludeDirective(reader, target, attributes);
+      }
+      return;
+    }
     String readFile = reader.getFile();
     VirtualFile sourceDir = null;
     VirtualFile resolved = null;
@@ -165,6 +185,16 @@ public class AntoraIncludeAdapter extends IncludeProcessor {
       return;
     }
 
+    if (pushFromCache(reader, target, attributes)) {
+      return;
+    }
+    pushIncludeDirective(reader, target, attributes);
+  }
+
+  /**
+   * Push the include directive back to the reader, so that Asciidoctor reads the file from disk.
+   */
+  private void pushIncludeDirective(PreprocessorReader reader, String target, Map<String, Object> attributes) {
     StringBuilder data = new StringBuilder("include::");
     data.append(target).append("[");
     for (Map.Entry<String, Object> entry : attributes.entrySet()) {
@@ -174,10 +204,101 @@ public class AntoraIncludeAdapter extends IncludeProcessor {
       data.setLength(data.length() - 1);
     }
     data.append("]");
-    recursionPrevention = target;
+    recursionPrevention.set(target);
     reader.pushInclude(data.toString(), null, null, reader.getLineNumber() - 1, Collections.emptyMap());
   }
 
+  /**
+   * Push the content of the include from the cache to the reader. This picks up unsaved changes of open
+   * documents, and reads each file only once when it is included multiple times.
+   * Includes with attributes that change the selection of lines (except for simple tags) are left to Asciidoctor.
+   *
+   * @return <code>true</code> if the content has been pushed, <code>false</code> if Asciidoctor should handle the include.
+   */
+  private boolean pushFromCache(PreprocessorReader reader, String target, Map<String, Object> attributes) {
+    IncludeContentCache cache = includeCache;
+    if (cache == null || ATTRIBUTES.matcher(target).find()) {
+      return false;
+    }
+    SafeMode safeMode = AsciiDocApplicationSettings.getInstance().getSafe(project);
+    if (safeMode.getLevel() >= SafeMode.SECURE.getLevel()) {
+      // Asciidoctor will convert the include to a link
+      return false;
+    }
+    Set<String> tags = null;
+    Map<String, Object> pushAttributes = new HashMap<>();
+    for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+      String key = String.valueOf(entry.getKey());
+      if (key.equals("tag") || key.equals("tags")) {
+        if (tags != null) {
+          return false;
+        }
+        tags = IncludeTagRegions.parseSimpleTagSelection(String.valueOf(entry.getValue()));
+        if (tags == null) {
+          return false;
+        }
+      } else if (key.equals("leveloffset")) {
+        pushAttributes.put(key, entry.getValue());
+      } else if (!key.equals("opts")) {
+        // for example 'lines', 'indent' or 'encoding'
+        return false;
+      }
+    }
+
+    File file = new File(target);
+    if (!file.isAbsolute()) {
+      String dir = reader.getDir();
+      file = new File(dir == null || dir.equals(".") ? fileBaseDir : new File(dir), target);
+    }
+    VirtualFile vf = LocalFileSystem.getInstance().findFileByIoFile(file);
+    if (vf == null || vf.isDirectory()) {
+      return false;
+    }
+    if (safeMode != SafeMode.UNSAFE) {
+      // respect the jail of Asciidoctor which is the base directory of the document
+      VirtualFile baseDir = LocalFileSystem.getInstance().findFileByIoFile(fileBaseDir);
+      if (baseDir == null || !VfsUtilCore.isAncestor(baseDir, vf, true)) {
+        return false;
+      }
+    }
+    IncludeContentCache.Entry entry = cache.get(vf);
+    if (entry == null) {
+      return false;
+    }
+
+    String data;
+    int lineNumber = 1;
+    if (tags != null) {
+      IncludeTagRegions regions = entry.getTagRegions();
+      if (!regions.isWellFormed() || !tags.stream().allMatch(regions::contains)) {
+        // let Asciidoctor handle the include, as it will then log a warning
+        return false;
+      }
+      List<String> lines = entry.getLines();
+      List<Integer> selected = regions.select(tags, lines.size());
+      StringBuilder sb = new StringBuilder();
+      for (int line : selected) {
+        sb.append(lines.get(line)).append('\n');
+      }
+      if (!selected.isEmpty()) {
+        lineNumber = selected.get(0) + 1;
+      }
+      data = sb.toString();
+    } else {
+      data = entry.getText();
+    }
+    String path = target;
+    if (file.isAbsolute() && target.equals(file.getPath())) {
+      path = file.getName();
+    }
+    reader.pushInclude(data, vf.getPath(), path, lineNumber, pushAttributes);
+    return true;
+  }
+
+  public void setIncludeCache(@Nullable IncludeContentCache includeCache) {
+    this.includeCache = includeCache;
+  }
+
   public void setAntoraDetails(Project project, VirtualFile antoraModuleDir, File fileBaseDir, String name) {
     this.project = project;
     this.antoraModuleDir = antoraModuleDir;
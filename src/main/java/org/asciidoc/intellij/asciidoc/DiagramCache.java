@@ -0,0 +1,63 @@
+package org.asciidoc.intellij.asciidoc;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.asciidoc.intellij.util.LeastRecentlyUsedFiles;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Images of diagrams by a hash of the diagram type, its source, its options and the version of asciidoctor-diagram.
+ * A diagram is generated only once as long as its source doesn't change, even if it is used in different documents,
+ * or the IDE has been restarted. The lookup happens in <code>diagram-cache.rb</code>, which receives the folder in
+ * the attribute {@link #ATTRIBUTE}.
+ * <p>
+ * The folder is trimmed once per session. Images that have not been used recently are removed first.
+ */
+@Service
+public final class DiagramCache {
+  public static final String ATTRIBUTE = "intellij-diagram-cache";
+
+  private static final long MAX_SIZE = 128L * 1024 * 1024;
+
+  private final Path root;
+  private final long maxSize;
+  private final AtomicBoolean trimmed = new AtomicBoolean();
+
+  public DiagramCache() {
+    this(Path.of(PathManager.getSystemPath(), "asciidoctor-diagram-cache"), MAX_SIZE);
+  }
+
+  DiagramCache(@NotNull Path root, long maxSize) {
+    this.root = root;
+    this.maxSize = maxSize;
+  }
+
+  public static DiagramCache getInstance() {
+    return ApplicationManager.getApplication().getService(DiagramCache.class);
+  }
+
+  /**
+   * Folder of the cached images. It is created by the Ruby side when the first image is stored.
+   */
+  @NotNull
+  public Path getPath() {
+    if (trimmed.compareAndSet(false, true)) {
+      AppExecutorUtil.getAppExecutorService().execute(this::trim);
+    }
+    return root;
+  }
+
+  /**
+   * Remove the least recently used images until the cache is smaller than its limit.
+   * The Ruby side updates the modification time each time it uses an image.
+   */
+  void trim() {
+    LeastRecentlyUsedFiles.evict(root, maxSize, Long.MAX_VALUE);
+  }
+
+}
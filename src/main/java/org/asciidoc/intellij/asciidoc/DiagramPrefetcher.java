@@ -0,0 +1,177 @@
+package org.asciidoc.intellij.asciidoc;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.asciidoc.intellij.psi.AsciiDocAttributeDeclaration;
+import org.asciidoc.intellij.psi.AsciiDocBlockAttributes;
+import org.asciidoc.intellij.psi.AsciiDocBlockMacro;
+import org.asciidoc.intellij.psi.AsciiDocFile;
+import org.asciidoc.intellij.psi.AsciiDocUtil;
+import org.asciidoc.intellij.threading.AsciiDocProcessUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Generate the diagrams of a document in parallel before the document is converted.
+ * Asciidoctor converts a document in a single thread, so a document with many diagrams would generate them one after the other.
+ * Each diagram is converted as a small document of its own on a worker pool, using a separate instance of Asciidoctor.
+ * The images end up in the {@link DiagramCache}, where the conversion of the full document picks them up.
+ * This is opt-in via the registry key <code>asciidoc.preview.prefetchDiagrams</code>.
+ */
+public final class DiagramPrefetcher {
+  private static final Logger LOG = Logger.getInstance(DiagramPrefetcher.class);
+
+  private static final String ENABLED_KEY = "asciidoc.preview.prefetchDiagrams";
+
+  /**
+   * Block names of asciidoctor-diagram, see https://docs.asciidoctor.org/diagram-extension/latest/.
+   * Mermaid is missing on purpose, as the preview renders it in the browser.
+   */
+  private static final Set<String> DIAGRAMS = new HashSet<>(Arrays.asList(
+    "a2s", "actdiag", "barcode", "blockdiag", "bpmn", "bytefield", "d2", "dbml", "ditaa", "dpic", "erd", "gnuplot",
+    "graphviz", "lilypond", "meme", "msc", "nomnoml", "nwdiag", "packetdiag", "pikchr", "plantuml",
+    "rackdiag", "salt", "seqdiag", "shaape", "smcat", "structurizr", "svgbob", "symbolator", "syntrax", "tikz",
+    "umlet", "vega", "vegalite", "wavedrom"
+  ));
+
+  /**
+   * Lines that might start a diagram, either as a block with a style or as a block macro.
+   * This finds candidates without parsing the document; the PSI decides later if they are diagrams.
+   */
+  private static final Pattern CANDIDATE = Pattern.compile("^(?:\\[\\s*(" + String.join("|", DIAGRAMS) + ")\\s*[,%#.\\]]|(" + String.join("|", DIAGRAMS) + ")::)",
+    Pattern.MULTILINE | Pattern.CASE_INSENSITIVE);
+
+  private static final ExecutorService EXECUTOR = AppExecutorUtil.createBoundedApplicationPoolExecutor("AsciiDocDiagramPrefetch",
+    Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+
+  private DiagramPrefetcher() {
+  }
+
+  /**
+   * The prefetch needs a second instance of Asciidoctor and additional threads, therefore users need to opt in.
+   */
+  public static boolean isEnabled() {
+    return Registry.is(ENABLED_KEY, false);
+  }
+
+  /**
+   * Check if the text contains at least two lines that might start a diagram, which is necessary for a prefetch to pay off.
+   * This is cheap compared to parsing the document, and avoids parsing documents without diagrams.
+   */
+  public static boolean hasDiagramCandidates(@NotNull String text) {
+    Matcher matcher = CANDIDATE.matcher(text);
+    return matcher.find() && matcher.find();
+  }
+
+  /**
+   * Find the diagrams in the text. Each diagram is returned as a small document that contains all attribute declarations
+   * that precede the diagram in the text, so that the diagram is generated with the same attributes.
+   */
+  @NotNull
+  public static List<String> findDiagrams(@NotNull Project project, @NotNull String text) {
+    if (!hasDiagramCandidates(text)) {
+      return new ArrayList<>();
+    }
+    return AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() -> {
+      AsciiDocFile file = AsciiDocUtil.createFileFromText(project, text);
+      Set<PsiElement> blocks = new LinkedHashSet<>();
+      for (AsciiDocBlockAttributes blockAttributes : PsiTreeUtil.findChildrenOfType(file, AsciiDocBlockAttributes.class)) {
+        if (isDiagram(blockAttributes.getFirstPositionalAttribute())) {
+          blocks.add(blockAttributes.getParent());
+        }
+      }
+      for (AsciiDocBlockMacro macro : PsiTreeUtil.findChildrenOfType(file, AsciiDocBlockMacro.class)) {
+        if (isDiagram(macro.getMacroName())) {
+          blocks.add(macro);
+        }
+      }
+      if (blocks.size() < 2) {
+        // nothing to parallelize
+        return new ArrayList<>();
+      }
+      Collection<AsciiDocAttributeDeclaration> declarations = PsiTreeUtil.findChildrenOfType(file, AsciiDocAttributeDeclaration.class);
+      List<String> diagrams = new ArrayList<>();
+      for (PsiElement block : blocks) {
+        StringBuilder sb = new StringBuilder();
+        for (AsciiDocAttributeDeclaration declaration : declarations) {
+          if (declaration.getTextOffset() < block.getTextOffset()) {
+            sb.append(declaration.getText()).append("\n");
+          }
+        }
+        sb.append("\n").append(block.getText()).append("\n");
+        diagrams.add(sb.toString());
+      }
+      return diagrams;
+    });
+  }
+
+  private static boolean isDiagram(String style) {
+    if (style == null) {
+      return false;
+    }
+    int locationOfPercent = style.indexOf('%'); // this handles for example "plantuml%interactive"
+    if (locationOfPercent != -1) {
+      style = style.substring(0, locationOfPercent);
+    }
+    return DIAGRAMS.contains(style.trim().toLowerCase(Locale.ROOT));
+  }
+
+  /**
+   * Convert all diagrams in parallel and wait until all of them are complete.
+   * Problems are ignored here, as the conversion of the full document will report them.
+   * When the current thread is interrupted, diagrams that haven't started yet are skipped, but this still waits for the
+   * running ones, so that no conversion continues after the caller has released the Asciidoctor instance.
+   */
+  public static void prefetch(@NotNull List<String> diagrams, @NotNull Consumer<String> converter) {
+    AtomicBoolean canceled = new AtomicBoolean();
+    List<Future<?>> futures = new ArrayList<>();
+    for (String diagram : diagrams) {
+      futures.add(EXECUTOR.submit(() -> {
+        if (!canceled.get()) {
+          converter.accept(diagram);
+        }
+      }));
+    }
+    boolean interrupted = false;
+    for (Future<?> future : futures) {
+      while (true) {
+        try {
+          future.get();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+          canceled.set(true);
+        } catch (ExecutionException e) {
+          if (!(e.getCause() instanceof ProcessCanceledException)) {
+            LOG.debug("unable to prefetch diagram", e.getCause());
+          }
+          break;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
@@ -0,0 +1,122 @@
+package org.asciidoc.intellij.asciidoc;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtilRt;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.asciidoc.intellij.psi.search.AsciiDocTagRegionIndex;
+import org.asciidoc.intellij.threading.AsciiDocProcessUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Contents of included files for a single rendering of a document.
+ * Content is taken from the IntelliJ document when it has unsaved changes, so they appear in the preview,
+ * and from the VFS otherwise. Each file is read and split into lines at most once per rendering, even if it is
+ * included multiple times with different tags.
+ * <p>
+ * Create a new instance for each rendering, so that changes are picked up in the next rendering.
+ */
+public class IncludeContentCache {
+
+  private static final Logger LOG = Logger.getInstance(IncludeContentCache.class);
+
+  private final Project project;
+  private final Map<String, Optional<Entry>> entries = new HashMap<>();
+
+  public IncludeContentCache(@NotNull Project project) {
+    this.project = project;
+  }
+
+  /**
+   * Retrieve the contents of a file.
+   *
+   * @return contents, or <code>null</code> if the file is binary, too large or can't be read.
+   */
+  @Nullable
+  public Entry get(@NotNull VirtualFile file) {
+    return entries.computeIfAbsent(file.getPath(), path -> Optional.ofNullable(load(file))).orElse(null);
+  }
+
+  @Nullable
+  private Entry load(@NotNull VirtualFile file) {
+    if (!file.isValid() || file.isDirectory() || FileUtilRt.isTooLarge(file.getLength())) {
+      return null;
+    }
+    String text = AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() -> {
+      if (!file.isValid() || file.getFileType().isBinary()) {
+        return null;
+      }
+      Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+      return document != null && FileDocumentManager.getInstance().isDocumentUnsaved(document) ? document.getText() : null;
+    });
+    boolean saved = text == null;
+    if (text == null) {
+      if (file.getFileType().isBinary()) {
+        return null;
+      }
+      try {
+        text = VfsUtilCore.loadText(file);
+      } catch (IOException e) {
+        LOG.debug("unable to read include file " + file.getPath(), e);
+        return null;
+      }
+    }
+    return new Entry(file, text, saved);
+  }
+
+  public class Entry {
+    private final VirtualFile file;
+    private final String text;
+    private final boolean saved;
+    private List<String> lines;
+    private IncludeTagRegions tagRegions;
+
+    private Entry(VirtualFile file, String text, boolean saved) {
+      this.file = file;
+      this.text = text;
+      this.saved = saved;
+    }
+
+    @NotNull
+    public String getText() {
+      return text;
+    }
+
+    @NotNull
+    public List<String> getLines() {
+      if (lines == null) {
+        lines = StringUtil.split(text, "\n", true, false);
+      }
+      return lines;
+    }
+
+    /**
+     * Tag regions of the file. Taken from the index for saved files, as the index then matches the contents.
+     */
+    @NotNull
+    public IncludeTagRegions getTagRegions() {
+      if (tagRegions == null) {
+        if (saved) {
+          tagRegions = AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() -> AsciiDocTagRegionIndex.getTagRegions(project, file));
+        }
+        // the index might be outdated, therefore parse the lines when the index doesn't know any tags
+        if (tagRegions == null || (tagRegions.getTags().isEmpty() && StringUtil.contains(text, "tag::"))) {
+          tagRegions = IncludeTagRegions.parse(getLines());
+        }
+      }
+      return tagRegions;
+    }
+  }
+
+}
@@ -0,0 +1,211 @@
+package org.asciidoc.intellij.asciidoc;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Regions marked with <code>tag::name[]</code> and <code>end::name[]</code> in a file, recorded as line numbers.
+ * This allows selecting the lines for an include with <code>tag=</code> or <code>tags=</code> without scanning the
+ * file again for each include.
+ * <p>
+ * Only simple tag selections (a list of tag names, no wildcards and no negations) are supported here.
+ * For everything else, and for files with unbalanced tags, callers should let Asciidoctor handle the include,
+ * as it will then also report the warnings for the file.
+ */
+public class IncludeTagRegions {
+
+  /**
+   * Same as Asciidoctor's <code>TagDirectiveRx</code>.
+   */
+  private static final Pattern TAG_DIRECTIVE = Pattern.compile("\\b(?:tag|(e)nd)::(\\S+?)\\[](?=$|[ \\r])");
+
+  private static final Pattern SIMPLE_TAG_NAME = Pattern.compile("[^\\s*!;,]+");
+
+  public static final IncludeTagRegions EMPTY = new IncludeTagRegions(Collections.emptyMap(), true);
+
+  /**
+   * For each tag, pairs of start and end lines (zero-based) of its directives.
+   * Lines between those two lines are part of the region. The end line is <code>-1</code> if the tag is never closed.
+   */
+  private final Map<String, int[]> regions;
+  private final boolean wellFormed;
+  private final BitSet directiveLines = new BitSet();
+
+  public IncludeTagRegions(@NotNull Map<String, int[]> regions, boolean wellFormed) {
+    this.regions = regions;
+    this.wellFormed = wellFormed;
+    for (int[] lines : regions.values()) {
+      for (int line : lines) {
+        if (line >= 0) {
+          directiveLines.set(line);
+        }
+      }
+    }
+  }
+
+  @NotNull
+  public static IncludeTagRegions parse(@NotNull List<String> lines) {
+    Map<String, List<int[]>> regions = new LinkedHashMap<>();
+    Deque<int[]> open = new ArrayDeque<>();
+    Deque<String> openNames = new ArrayDeque<>();
+    boolean wellFormed = true;
+    for (int i = 0; i < lines.size(); i++) {
+      String line = lines.get(i);
+      if (!line.contains("::") || !line.contains("[]")) {
+        continue;
+      }
+      Matcher matcher = TAG_DIRECTIVE.matcher(line);
+      if (!matcher.find()) {
+        continue;
+      }
+      String name = matcher.group(2);
+      if (matcher.group(1) == null) {
+        int[] region = new int[]{i, -1};
+        regions.computeIfAbsent(name, s -> new ArrayList<>()).add(region);
+        open.push(region);
+        openNames.push(name);
+      } else if (!openNames.isEmpty() && openNames.peek().equals(name)) {
+        open.pop()[1] = i;
+        openNames.pop();
+      } else {
+        wellFormed = false;
+      }
+    }
+    if (!open.isEmpty()) {
+      wellFormed = false;
+    }
+    if (regions.isEmpty() && wellFormed) {
+      return EMPTY;
+    }
+    Map<String, int[]> result = new LinkedHashMap<>();
+    regions.forEach((name, list) -> {
+      int[] pairs = new int[list.size() * 2];
+      for (int i = 0; i < list.size(); i++) {
+        pairs[i * 2] = list.get(i)[0];
+        pairs[i * 2 + 1] = list.get(i)[1];
+      }
+      result.put(name, pairs);
+    });
+    return new IncludeTagRegions(result, wellFormed);
+  }
+
+  /**
+   * Parse the value of the <code>tag</code> or <code>tags</code> attribute of an include.
+   *
+   * @return set of tag names, or <code>null</code> if the selection uses wildcards or negations
+   */
+  @Nullable
+  public static Set<String> parseSimpleTagSelection(@NotNull String tags) {
+    Set<String> result = new HashSet<>();
+    for (String tag : tags.split("[;,]", -1)) {
+      tag = tag.trim();
+      if (tag.isEmpty()) {
+        continue;
+      }
+      if (!SIMPLE_TAG_NAME.matcher(tag).matches()) {
+        return null;
+      }
+      result.add(tag);
+    }
+    if (result.isEmpty()) {
+      return null;
+    }
+    return result;
+  }
+
+  public boolean isWellFormed() {
+    return wellFormed;
+  }
+
+  public boolean contains(@NotNull String tag) {
+    return regions.containsKey(tag);
+  }
+
+  public Set<String> getTags() {
+    return Collections.unmodifiableSet(regions.keySet());
+  }
+
+  @NotNull
+  public Map<String, int[]> getRegions() {
+    return Collections.unmodifiableMap(regions);
+  }
+
+  /**
+   * Line of the first <code>tag::name[]</code> directive for the given tag.
+   *
+   * @return zero-based line number, or <code>-1</code> if the tag doesn't exist
+   */
+  public int getStartLine(@NotNull String tag) {
+    int[] lines = regions.get(tag);
+    return lines == null ? -1 : lines[0];
+  }
+
+  /**
+   * Select the lines of the given tags. Nested tags are included, tag directives are excluded.
+   *
+   * @return zero-based line numbers of the selected lines in ascending order
+   */
+  @NotNull
+  public List<Integer> select(@NotNull Set<String> tags, int lineCount) {
+    BitSet selected = new BitSet(lineCount);
+    for (String tag : tags) {
+      int[] lines = regions.get(tag);
+      if (lines == null) {
+        continue;
+      }
+      for (int i = 0; i < lines.length; i += 2) {
+        int end = lines[i + 1] == -1 ? lineCount : lines[i + 1];
+        if (lines[i] + 1 < end) {
+          selected.set(lines[i] + 1, end);
+        }
+      }
+    }
+    selected.andNot(directiveLines);
+    List<Integer> result = new ArrayList<>(selected.cardinality());
+    for (int i = selected.nextSetBit(0); i >= 0 && i < lineCount; i = selected.nextSetBit(i + 1)) {
+      result.add(i);
+    }
+    return result;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    IncludeTagRegions that = (IncludeTagRegions) o;
+    if (wellFormed != that.wellFormed || !regions.keySet().equals(that.regions.keySet())) {
+      return false;
+    }
+    for (Map.Entry<String, int[]> entry : regions.entrySet()) {
+      if (!Arrays.equals(entry.getValue(), that.regions.get(entry.getKey()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(regions.keySet(), wellFormed);
+  }
+
+}
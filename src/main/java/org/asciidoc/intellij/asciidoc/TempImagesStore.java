@@ -0,0 +1,102 @@
+package org.asciidoc.intellij.asciidoc;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.asciidoc.intellij.util.HashUtil;
+import org.asciidoc.intellij.util.LeastRecentlyUsedFiles;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Folders for the images that Asciidoctor creates in UNSAFE mode, for example diagrams.
+ * There is one folder for each folder of documents, shared by all editors, the preview in the browser and the exports,
+ * so a diagram that has been created once is reused by asciidoctor-diagram's cache.
+ * This mirrors the <code>.asciidoctor/images</code> folder that is used in the other safe modes.
+ * <p>
+ * The folders are kept across restarts. When they grow beyond a limit, the folders that have been used least recently
+ * and that are not in use are removed.
+ */
+@Service
+public final class TempImagesStore {
+  private static final long MAX_SIZE = 256L * 1024 * 1024;
+  private static final long MAX_AGE = TimeUnit.DAYS.toMillis(7);
+  private static final long EVICTION_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+  private static final String DEFAULT_FOLDER = "default";
+
+  private final Path root;
+  private final long maxSize;
+  private final long maxAge;
+  private final Map<Path, Integer> usages = new HashMap<>();
+  private final AtomicLong lastEviction = new AtomicLong();
+
+  public TempImagesStore() {
+    this(Path.of(PathManager.getSystemPath(), "asciidoctor-images"), MAX_SIZE, MAX_AGE);
+  }
+
+  TempImagesStore(@NotNull Path root, long maxSize, long maxAge) {
+    this.root = root;
+    this.maxSize = maxSize;
+    this.maxAge = maxAge;
+  }
+
+  public static TempImagesStore getInstance() {
+    return ApplicationManager.getApplication().getService(TempImagesStore.class);
+  }
+
+  /**
+   * Get the folder for the images of documents in the given folder. Call {@link #release(Path)} when it is no longer needed.
+   */
+  @NotNull
+  public synchronized Path acquire(@Nullable Path parent) throws IOException {
+    Path folder = root.resolve(parent != null ? HashUtil.sha256Hex(parent.toAbsolutePath().normalize().toString(), 8) : DEFAULT_FOLDER);
+    Files.createDirectories(folder);
+    LeastRecentlyUsedFiles.touch(folder);
+    usages.merge(folder, 1, Integer::sum);
+    return folder;
+  }
+
+  /**
+   * @return true if this folder belongs to this store
+   */
+  public boolean contains(@NotNull Path folder) {
+    return folder.toAbsolutePath().normalize().startsWith(root.toAbsolutePath().normalize());
+  }
+
+  /**
+   * Release a folder. Its content is kept until the store needs to make room.
+   */
+  public void release(@NotNull Path folder) {
+    synchronized (this) {
+      LeastRecentlyUsedFiles.touch(folder);
+      usages.computeIfPresent(folder, (f, count) -> count > 1 ? count - 1 : null);
+    }
+    long now = System.currentTimeMillis();
+    long last = lastEviction.get();
+    if (now - last > EVICTION_INTERVAL && lastEviction.compareAndSet(last, now)) {
+      AppExecutorUtil.getAppExecutorService().execute(this::evict);
+    }
+  }
+
+  /**
+   * Remove the folders that haven't been used for a long time, and then the least recently used folders until
+   * the store is smaller than its limit. Folders that are in use are never removed.
+   */
+  void evict() {
+    LeastRecentlyUsedFiles.evict(root, maxSize, maxAge, folder -> {
+      synchronized (this) {
+        return !usages.containsKey(folder) && LeastRecentlyUsedFiles.delete(folder);
+      }
+    });
+  }
+
+}
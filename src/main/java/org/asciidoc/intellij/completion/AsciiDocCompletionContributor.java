@@ -11,7 +11,6 @@ import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.patterns.PlatformPatterns;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiReference;
-import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.ProcessingContext;
 import org.asciidoc.intellij.AsciiDocBundle;
 import org.asciidoc.intellij.AsciiDocLanguage;
@@ -112,21 +111,15 @@ public class AsciiDocCompletionContributor extends CompletionContributor {
                 if (references[i] instanceof AsciiDocFileReference) {
                   PsiElement resolve = references[i].resolve();
                   if (resolve != null) {
-                    PsiTreeUtil.processElements(resolve.getContainingFile(), element -> {
-                      for (PsiReference reference : element.getReferences()) {
-                        if (reference instanceof AsciiDocIncludeTagReferenceInElement) {
-                          AsciiDocIncludeTagReferenceInElement tagReference = (AsciiDocIncludeTagReferenceInElement) reference;
-                          if (!ids.contains(tagReference.getValue())) {
-                            resultSet.addElement(LookupElementBuilder.create(tagReference.getValue())
-                              .withCaseSensitivity(false)
-                              .withPresentableText(tagReference.getValue())
-                            );
-                            ids.add(tagReference.getValue());
-                          }
-                        }
+                    for (String tag : AsciiDocIncludeTagReferenceInElement.findTagNames(resolve.getContainingFile())) {
+                      if (!ids.contains(tag)) {
+                        resultSet.addElement(LookupElementBuilder.create(tag)
+                          .withCaseSensitivity(false)
+                          .withPresentableText(tag)
+                        );
+                        ids.add(tag);
                       }
-                      return true;
-                    });
+                    }
                   }
                   // only the last file reference is the one with the file
                   // any preceding will be a directory that could contain many children with comments
@@ -0,0 +1,95 @@
+package org.asciidoc.intellij.editor;
+
+import com.intellij.codeInsight.daemon.LineMarkerInfo;
+import com.intellij.codeInsight.daemon.LineMarkerProviderDescriptor;
+import com.intellij.openapi.editor.markup.GutterIconRenderer;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.tree.IElementType;
+import icons.AsciiDocIcons;
+import org.asciidoc.intellij.AsciiDocBundle;
+import org.asciidoc.intellij.lexer.AsciiDocTokenTypes;
+import org.asciidoc.intellij.psi.AsciiDocBlockMacro;
+import org.asciidoc.intellij.psi.AsciiDocFileReference;
+import org.asciidoc.intellij.psi.AsciiDocInlineMacro;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Show a thumbnail of the image in the gutter for <code>image::[]</code> and <code>image:[]</code> macros.
+ * Clicking on the thumbnail opens the image.
+ */
+public class AsciiDocImageLineMarkerProvider extends LineMarkerProviderDescriptor {
+
+  @Override
+  public String getName() {
+    return AsciiDocBundle.message("asciidoc.linemarker.imagePreview");
+  }
+
+  @Override
+  public @Nullable Icon getIcon() {
+    return AsciiDocIcons.ASCIIDOC_ICON;
+  }
+
+  @Override
+  public @Nullable LineMarkerInfo<?> getLineMarkerInfo(@NotNull PsiElement element) {
+    // resolving the image is expensive, therefore all markers are created in collectSlowLineMarkers()
+    return null;
+  }
+
+  @Override
+  public void collectSlowLineMarkers(@NotNull List<? extends PsiElement> elements, @NotNull Collection<? super LineMarkerInfo<?>> result) {
+    for (PsiElement element : elements) {
+      ProgressManager.checkCanceled();
+      LineMarkerInfo<?> info = createLineMarkerInfo(element);
+      if (info != null) {
+        result.add(info);
+      }
+    }
+  }
+
+  @Nullable
+  private static LineMarkerInfo<?> createLineMarkerInfo(@NotNull PsiElement element) {
+    // line markers should be registered for leaf elements, therefore use the ID of the macro
+    IElementType type = element.getNode().getElementType();
+    PsiReference[] references;
+    if (type == AsciiDocTokenTypes.BLOCK_MACRO_ID && element.getParent() instanceof AsciiDocBlockMacro macro
+      && "image".equals(macro.getMacroName())) {
+      references = macro.getReferences();
+    } else if (type == AsciiDocTokenTypes.INLINE_MACRO_ID && element.getParent() instanceof AsciiDocInlineMacro macro
+      && "image".equals(macro.getMacroName())) {
+      references = macro.getReferences();
+    } else {
+      return null;
+    }
+    if (references.length == 0 || !(references[references.length - 1] instanceof AsciiDocFileReference reference)) {
+      return null;
+    }
+    PsiElement resolved = reference.resolve();
+    if (!(resolved instanceof PsiFile)) {
+      return null;
+    }
+    VirtualFile image = ((PsiFile) resolved).getVirtualFile();
+    if (image == null) {
+      return null;
+    }
+    Icon icon = ImageThumbnails.getInstance().getThumbnail(image, element.getContainingFile());
+    if (icon == null) {
+      return null;
+    }
+    return new LineMarkerInfo<>(element, element.getTextRange(), icon,
+      e -> image.getName(),
+      (e, elt) -> new OpenFileDescriptor(elt.getProject(), image).navigate(true),
+      GutterIconRenderer.Alignment.LEFT,
+      image::getName);
+  }
+
+}
@@ -60,6 +60,7 @@ import org.asciidoc.intellij.editor.jcef.AsciiDocJCEFHtmlPanel;
 import org.asciidoc.intellij.editor.jeditor.JeditorHtmlPanelProvider;
 import org.asciidoc.intellij.settings.AsciiDocApplicationSettings;
 import org.asciidoc.intellij.settings.AsciiDocPreviewSettings;
+import org.asciidoc.intellij.telemetry.AsciiDocRenderTelemetry;
 import org.asciidoc.intellij.threading.AsciiDocProcessUtil;
 import org.intellij.lang.annotations.Language;
 import org.jetbrains.annotations.Contract;
@@ -76,6 +77,7 @@ import java.io.File;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
@@ -95,12 +97,12 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
 
   /**
    * Indicates whether the HTML preview is obsolete and should regenerated from the AsciiDoc {@link #document}.
+   * Only the stamps of the last rendered content are kept, not the content itself.
    */
-  private transient String currentContent = null;
-  private transient int lastRenderCycle = 0;
+  private transient RenderStamp currentStamp = null;
   private final AtomicInteger forcedRenderCycle = new AtomicInteger(1);
 
-  private transient int targetLineNo = 0;
+  private transient volatile int targetLineNo = 0;
   private transient int currentLineNo = 0;
 
   /**
@@ -132,25 +134,52 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
           // due to lazy execution, this project have been already closed, do nothing then to avoid exceptions
           return;
         }
-        final @Language("asciidoc") String content = document.getText();
-        final String config = AsciiDocWrapper.config(document, project);
+        VirtualFile file = FileDocumentManager.getInstance().getFile(document);
         List<String> extensions = extensionService.getExtensions(project);
-        int currentRenderCycle = forcedRenderCycle.get();
-        if (!(config + content).equals(currentContent) || currentRenderCycle != lastRenderCycle) {
-          AsciiDocWrapper instance = getAsciiDocInstance();
-          VirtualFile file = FileDocumentManager.getInstance().getFile(document);
+        // take the stamp before reading the content, so a concurrent change triggers another render
+        RenderStamp stamp = new RenderStamp(document.getModificationStamp(), AsciiDocWrapper.configStamp(file, project),
+          extensions, forcedRenderCycle.get());
+        if (!stamp.equals(currentStamp)) {
+          AsciiDocRenderCache.RenderKey key = null;
+          AsciiDocRenderCache.RenderResult shared = null;
           if (file != null) {
-            String name = file.getName();
-            File fileBaseDir = new File("");
-            VirtualFile parent = file.getParent();
-            if (parent != null && parent.getCanonicalPath() != null) {
-              // parent will be null if we use Language Injection and Fragment Editor
-              fileBaseDir = new File(parent.getCanonicalPath());
+            key = AsciiDocRenderCache.RenderKey.of(document, file, project, extensions, AsciiDocWrapper.getPreviewFileType());
+            // a forced render must not reuse a previous result, and the panel can only show images from its own folder
+            if (currentStamp == null || currentStamp.renderCycle == stamp.renderCycle) {
+              shared = AsciiDocRenderCache.getInstance().get(file, key);
+              if (shared != null && !Objects.equals(shared.getImagesPath(), tempImagesPath)) {
+                shared = null;
+              }
+            }
+          }
+          String markup;
+          Map<String, String> attributes;
+          if (shared != null) {
+            AsciiDocRenderTelemetry.count(AsciiDocRenderTelemetry.Outcome.SHARED);
+            markup = shared.getHtml();
+            attributes = shared.getAttributes();
+          } else {
+            AsciiDocRenderTelemetry.count(AsciiDocRenderTelemetry.Outcome.EXECUTED);
+            final @Language("asciidoc") String content = document.getText();
+            final String config = AsciiDocWrapper.config(file, project);
+            AsciiDocWrapper instance = getAsciiDocInstance();
+            if (file != null) {
+              String name = file.getName();
+              File fileBaseDir = new File("");
+              VirtualFile parent = file.getParent();
+              if (parent != null && parent.getCanonicalPath() != null) {
+                // parent will be null if we use Language Injection and Fragment Editor
+                fileBaseDir = new File(parent.getCanonicalPath());
+              }
+              instance.updateFileName(fileBaseDir, name);
+            }
+            markup = instance.render(content, config, extensions);
+            attributes = instance.getAttributes();
+            if (markup != null && key != null) {
+              AsciiDocRenderCache.getInstance().put(file, key, new AsciiDocRenderCache.RenderResult(markup, attributes, tempImagesPath));
             }
-            instance.updateFileName(fileBaseDir, name);
           }
-          String markup = instance.render(content, config, extensions);
-          if (Objects.equals("true", instance.getAttributes().get("asciidoctor-diagram-missing-diagram-extension"))) {
+          if (Objects.equals("true", attributes.get("asciidoctor-diagram-missing-diagram-extension"))) {
             if (getComponent().isVisible() && getComponent().isDisplayable()) {
               AsciiDocDownloadNotificationProvider.showNotification();
             }
@@ -158,16 +187,17 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
           if (markup != null) {
             AsciiDocHtmlPanel localPanel = myPanel;
             if (localPanel != null) {
-              localPanel.setHtml(markup, instance.getAttributes());
+              localPanel.setHtml(markup, attributes);
               synchronized (this) {
                 if (myPanel == localPanel) {
                   // only set the content if the panel hasn't been updated (due to settings changed)
-                  currentContent = config + content;
-                  lastRenderCycle = currentRenderCycle;
+                  currentStamp = stamp;
                 }
               }
             }
           }
+        } else {
+          AsciiDocRenderTelemetry.count(AsciiDocRenderTelemetry.Outcome.SKIPPED);
         }
         if (currentLineNo != targetLineNo) {
           currentLineNo = targetLineNo;
@@ -194,6 +224,42 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
     });
   }
 
+  /**
+   * Everything that needs to be unchanged to skip a render: the document, the configuration files, the extensions,
+   * and the forced render cycle that changes when an included file or a setting changes.
+   */
+  private static final class RenderStamp {
+    private final long documentStamp;
+    private final String configStamp;
+    private final List<String> extensions;
+    private final int renderCycle;
+
+    RenderStamp(long documentStamp, String configStamp, List<String> extensions, int renderCycle) {
+      this.documentStamp = documentStamp;
+      this.configStamp = configStamp;
+      this.extensions = extensions;
+      this.renderCycle = renderCycle;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      RenderStamp that = (RenderStamp) o;
+      return documentStamp == that.documentStamp && renderCycle == that.renderCycle
+        && configStamp.equals(that.configStamp) && extensions.equals(that.extensions);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(documentStamp, configStamp, extensions, renderCycle);
+    }
+  }
+
   private AsciiDocWrapper getAsciiDocInstance() {
     if (asciidoc == null) {
       File fileBaseDir = new File("");
@@ -382,6 +448,12 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
         }
       }
     });
+    // the annotations of this document depend on the content of the files it includes
+    IncludedFileChanges.getInstance(project).addListener(documents -> {
+      if (documents.contains(FileDocumentManager.getInstance().getFile(document))) {
+        reprocessAnnotations();
+      }
+    }, this);
 
     // some references (for example Antora references) might not have been resolved in dumb mode
     // therefore re-render the preview when the project is no longer in dumb mode.
@@ -707,8 +779,9 @@ public class AsciiDocPreviewEditor extends UserDataHolderBase implements FileEdi
     synchronized (lazyExecutor) {
       if (lazyExecutor.isIdle()) {
         lazyExecutor.execute(() -> {
+          // use the latest line, so caret moves that arrive before this runs are coalesced into one scroll
           if (myPanel != null) {
-            myPanel.scrollToLine(line, document.getLineCount());
+            myPanel.scrollToLine(targetLineNo, document.getLineCount());
           }
         });
         executed = true;
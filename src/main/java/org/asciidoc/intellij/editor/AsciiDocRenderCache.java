@@ -0,0 +1,170 @@
+package org.asciidoc.intellij.editor;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.asciidoc.intellij.AsciiDocWrapper;
+import org.asciidoc.intellij.settings.AsciiDocApplicationSettings;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The most recent output of Asciidoctor for a document, before a preview panel or the browser adds its scripts and styles.
+ * When a document is shown in the preview and in an external browser at the same time, Asciidoctor needs to convert it only once.
+ * An entry is only reused when the document, its configuration, the extensions and all other files in the project are unchanged.
+ */
+@Service
+public final class AsciiDocRenderCache implements Disposable {
+
+  private static final int MAX_ENTRIES = 20;
+
+  /**
+   * remember the last result by file.
+   * Limited to last 20 files, as the HTML of a document can be large.
+   */
+  private final Map<VirtualFile, Entry> results = Collections.synchronizedMap(new LinkedHashMap<>(MAX_ENTRIES, (float) 0.7, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<VirtualFile, Entry> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  });
+
+  public AsciiDocRenderCache() {
+    ApplicationManager.getApplication().getMessageBus().connect(this)
+      .subscribe(AsciiDocApplicationSettings.SettingsChangedListener.TOPIC, settings -> results.clear());
+  }
+
+  public static AsciiDocRenderCache getInstance() {
+    return ApplicationManager.getApplication().getService(AsciiDocRenderCache.class);
+  }
+
+  /**
+   * Get a previous result for the same key, or <code>null</code> if there is none, or the images it refers to have been removed.
+   */
+  @Nullable
+  public RenderResult get(@NotNull VirtualFile file, @NotNull RenderKey key) {
+    Entry entry = results.get(file);
+    if (entry == null || !entry.key.equals(key)) {
+      return null;
+    }
+    Path imagesPath = entry.result.getImagesPath();
+    if (imagesPath != null && !Files.isDirectory(imagesPath)) {
+      // the temporary folder has been removed when the preview that rendered it has been closed
+      results.remove(file, entry);
+      return null;
+    }
+    return entry.result;
+  }
+
+  public void put(@NotNull VirtualFile file, @NotNull RenderKey key, @NotNull RenderResult result) {
+    results.put(file, new Entry(key, result));
+  }
+
+  @Override
+  public void dispose() {
+    results.clear();
+  }
+
+  private static final class Entry {
+    private final RenderKey key;
+    private final RenderResult result;
+
+    private Entry(RenderKey key, RenderResult result) {
+      this.key = key;
+      this.result = result;
+    }
+  }
+
+  /**
+   * Everything that determines the output of Asciidoctor for a document.
+   */
+  public static final class RenderKey {
+    private final long documentStamp;
+    private final String configStamp;
+    private final List<String> extensions;
+    private final AsciiDocWrapper.FileType format;
+    private final long projectModificationCount;
+
+    public RenderKey(long documentStamp, @NotNull String configStamp, @NotNull List<String> extensions,
+                     @NotNull AsciiDocWrapper.FileType format, long projectModificationCount) {
+      this.documentStamp = documentStamp;
+      this.configStamp = configStamp;
+      this.extensions = extensions;
+      this.format = format;
+      this.projectModificationCount = projectModificationCount;
+    }
+
+    /**
+     * Take the key before reading the content of the document, so a concurrent change results in a different key.
+     */
+    @NotNull
+    public static RenderKey of(@NotNull Document document, @NotNull VirtualFile file, @NotNull Project project,
+                               @NotNull List<String> extensions, @NotNull AsciiDocWrapper.FileType format) {
+      // the modification count of the project covers included files and the Antora descriptors
+      return new RenderKey(document.getModificationStamp(), AsciiDocWrapper.configStamp(file, project), extensions, format,
+        PsiModificationTracker.getInstance(project).getModificationCount());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      RenderKey that = (RenderKey) o;
+      return documentStamp == that.documentStamp && projectModificationCount == that.projectModificationCount
+        && format == that.format && configStamp.equals(that.configStamp) && extensions.equals(that.extensions);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(documentStamp, configStamp, extensions, format, projectModificationCount);
+    }
+  }
+
+  /**
+   * The HTML as converted by Asciidoctor, the attributes of the document, and the folder with the generated images.
+   */
+  public static final class RenderResult {
+    private final String html;
+    private final Map<String, String> attributes;
+    private final Path imagesPath;
+
+    public RenderResult(@NotNull String html, @NotNull Map<String, String> attributes, @Nullable Path imagesPath) {
+      this.html = html;
+      this.attributes = Collections.unmodifiableMap(new HashMap<>(attributes));
+      this.imagesPath = imagesPath;
+    }
+
+    @NotNull
+    public String getHtml() {
+      return html;
+    }
+
+    @NotNull
+    public Map<String, String> getAttributes() {
+      return attributes;
+    }
+
+    @Nullable
+    public Path getImagesPath() {
+      return imagesPath;
+    }
+  }
+
+}
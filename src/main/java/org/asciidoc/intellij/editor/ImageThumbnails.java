@@ -0,0 +1,272 @@
+package org.asciidoc.intellij.editor;
+
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.util.IconUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.asciidoc.intellij.util.HashUtil;
+import org.asciidoc.intellij.util.LeastRecentlyUsedFiles;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Small previews of the images that are referenced in a document, shown in the gutter of the editor.
+ * The thumbnails are decoded on background threads, and they are stored on disk by the path, size and time stamp of the
+ * image, so they don't need to be decoded again after a restart. Until a thumbnail is available, no icon is shown,
+ * and the files that requested it are highlighted again once it is ready.
+ * <p>
+ * Images that can't be decoded are remembered, so they are not decoded again on each highlighting pass.
+ * The stored thumbnails are trimmed once per session, as each change of an image leaves the previous thumbnail behind.
+ */
+@Service
+public final class ImageThumbnails {
+  private static final Logger LOG = Logger.getInstance(ImageThumbnails.class);
+
+  /**
+   * Size of the stored thumbnails, twice the size of a gutter icon so that they look sharp on HiDPI screens.
+   */
+  static final int SIZE = 32;
+
+  private static final int MAX_ENTRIES = 500;
+
+  private static final long MAX_SIZE = 32L * 1024 * 1024;
+  private static final long MAX_AGE = TimeUnit.DAYS.toMillis(30);
+
+  private static final Set<String> SUPPORTED_EXTENSIONS = Set.of("png", "jpg", "jpeg", "gif", "bmp");
+
+  private static final ExecutorService EXECUTOR = AppExecutorUtil.createBoundedApplicationPoolExecutor("AsciiDocImageThumbnails", 2);
+
+  /**
+   * remember the thumbnails by the key of the image.
+   * Limited to last 500 images.
+   */
+  private final Map<String, Icon> icons = Collections.synchronizedMap(new LinkedHashMap<>(MAX_ENTRIES, (float) 0.7, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Icon> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  });
+
+  /**
+   * keys of the images that could not be decoded.
+   * Limited to last 500 images.
+   */
+  private final Set<String> failed = Collections.newSetFromMap(Collections.synchronizedMap(new LinkedHashMap<>(MAX_ENTRIES, (float) 0.7, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  }));
+
+  /**
+   * Files that requested a thumbnail that is being created, by the key of the image.
+   */
+  private final Map<String, Set<PsiFile>> pending = new ConcurrentHashMap<>();
+  /**
+   * Files with thumbnails that became available since their highlighting has been restarted.
+   */
+  private final Map<Project, Set<PsiFile>> refreshFiles = new ConcurrentHashMap<>();
+  private final Set<Project> refreshScheduled = ConcurrentHashMap.newKeySet();
+  private final Path root;
+  private final AtomicBoolean trimmed = new AtomicBoolean();
+
+  public ImageThumbnails() {
+    this(Path.of(PathManager.getSystemPath(), "asciidoctor-thumbnails"));
+  }
+
+  ImageThumbnails(@NotNull Path root) {
+    this.root = root;
+  }
+
+  public static ImageThumbnails getInstance() {
+    return ApplicationManager.getApplication().getService(ImageThumbnails.class);
+  }
+
+  public static boolean isSupported(@NotNull VirtualFile file) {
+    String extension = file.getExtension();
+    return extension != null && SUPPORTED_EXTENSIONS.contains(extension.toLowerCase(Locale.ROOT));
+  }
+
+  /**
+   * Get the thumbnail of an image, or <code>null</code> if it is not available yet.
+   * In the latter case, it is created in the background, and the highlighting of the requesting file is restarted when it is ready.
+   */
+  @Nullable
+  public Icon getThumbnail(@NotNull VirtualFile file, @NotNull PsiFile requester) {
+    if (!isSupported(file)) {
+      return null;
+    }
+    String key = key(file.getPath(), file.getLength(), file.getTimeStamp());
+    Icon icon = icons.get(key);
+    if (icon != null || failed.contains(key)) {
+      return icon;
+    }
+    AtomicBoolean start = new AtomicBoolean();
+    pending.compute(key, (k, requesters) -> {
+      if (requesters == null) {
+        requesters = new HashSet<>();
+        start.set(true);
+      }
+      requesters.add(requester);
+      return requesters;
+    });
+    if (start.get()) {
+      EXECUTOR.execute(() -> {
+        BufferedImage thumbnail = null;
+        try {
+          thumbnail = loadOrCreate(key, file);
+          if (thumbnail != null) {
+            // the stored thumbnail is twice the size of the icon
+            icons.put(key, IconUtil.scale(IconUtil.createImageIcon((Image) thumbnail), null, 0.5f));
+          } else {
+            failed.add(key);
+          }
+        } finally {
+          Set<PsiFile> requesters = pending.remove(key);
+          if (thumbnail != null && requesters != null) {
+            requesters.forEach(this::scheduleRefresh);
+          }
+        }
+      });
+    }
+    return null;
+  }
+
+  @Nullable
+  private BufferedImage loadOrCreate(@NotNull String key, @NotNull VirtualFile file) {
+    if (trimmed.compareAndSet(false, true)) {
+      trim();
+    }
+    Path stored = root.resolve(key + ".png");
+    try {
+      if (Files.exists(stored)) {
+        BufferedImage thumbnail = ImageIO.read(stored.toFile());
+        if (thumbnail != null) {
+          LeastRecentlyUsedFiles.touch(stored);
+          return thumbnail;
+        }
+      }
+      BufferedImage thumbnail;
+      try (InputStream is = file.getInputStream()) {
+        thumbnail = createThumbnail(is, SIZE);
+      }
+      if (thumbnail != null) {
+        Files.createDirectories(root);
+        ImageIO.write(thumbnail, "png", stored.toFile());
+      }
+      return thumbnail;
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("unable to create thumbnail for " + file.getPath(), e);
+      return null;
+    }
+  }
+
+  /**
+   * Remove the thumbnails that haven't been used for a long time, and the least recently used ones over the limit.
+   */
+  void trim() {
+    LeastRecentlyUsedFiles.evict(root, MAX_SIZE, MAX_AGE);
+  }
+
+  private void scheduleRefresh(@NotNull PsiFile psiFile) {
+    Project project = psiFile.getProject();
+    refreshFiles.computeIfAbsent(project, p -> ConcurrentHashMap.newKeySet()).add(psiFile);
+    // thumbnails usually complete in batches, refresh the highlighting only once for each batch
+    if (refreshScheduled.add(project)) {
+      AppExecutorUtil.getAppScheduledExecutorService().schedule(() -> {
+        refreshScheduled.remove(project);
+        Set<PsiFile> files = refreshFiles.remove(project);
+        if (files == null) {
+          return;
+        }
+        ApplicationManager.getApplication().invokeLater(() -> {
+          for (PsiFile file : files) {
+            if (file.isValid()) {
+              DaemonCodeAnalyzer.getInstance(project).restart(file);
+            }
+          }
+        }, project.getDisposed());
+      }, 300, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Decode an image and scale it down so that it fits in a square of the given size.
+   * Large images are subsampled while decoding, so they are never decoded in full.
+   */
+  @Nullable
+  static BufferedImage createThumbnail(@NotNull InputStream is, int size) throws IOException {
+    try (ImageInputStream iis = ImageIO.createImageInputStream(is)) {
+      if (iis == null) {
+        return null;
+      }
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+      if (!readers.hasNext()) {
+        return null;
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(iis, true, true);
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+        ImageReadParam param = reader.getDefaultReadParam();
+        // keep at least twice the target size for a smooth result when scaling
+        int subsampling = Math.max(1, Math.min(width, height) / (size * 2));
+        param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        BufferedImage image = reader.read(0, param);
+        double scale = Math.min(1.0, (double) size / Math.max(image.getWidth(), image.getHeight()));
+        int thumbnailWidth = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int thumbnailHeight = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        BufferedImage thumbnail = new BufferedImage(thumbnailWidth, thumbnailHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+          graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+          graphics.drawImage(image, 0, 0, thumbnailWidth, thumbnailHeight, null);
+        } finally {
+          graphics.dispose();
+        }
+        return thumbnail;
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  /**
+   * The key changes whenever the image changes, so a stored thumbnail is never outdated.
+   */
+  @NotNull
+  static String key(@NotNull String path, long length, long timeStamp) {
+    return HashUtil.sha256Hex(path + "|" + length + "|" + timeStamp + "|" + SIZE, 16);
+  }
+
+}
@@ -0,0 +1,108 @@
+package org.asciidoc.intellij.editor;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.util.containers.ContainerUtil;
+import org.asciidoc.intellij.file.AsciiDocFileType;
+import org.asciidoc.intellij.psi.search.AsciiDocIncludeIndex;
+import org.asciidoc.intellij.threading.AsciiDocProcessUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Find the documents that include changed AsciiDoc files, and notify the listeners about them.
+ * The documents are determined once for each batch of changes and shared by all listeners,
+ * so the number of open previews doesn't multiply the traversals of the include index.
+ */
+@Service(Service.Level.PROJECT)
+public final class IncludedFileChanges implements Disposable {
+  private static final Logger LOG = Logger.getInstance(IncludedFileChanges.class);
+
+  private final Project project;
+  private final Set<VirtualFile> changedFiles = ConcurrentHashMap.newKeySet();
+  private final List<Consumer<Set<VirtualFile>>> listeners = ContainerUtil.createLockFreeCopyOnWriteList();
+  private final LazyApplicationPoolExecutor executor = new LazyApplicationPoolExecutor(this);
+
+  public IncludedFileChanges(@NotNull Project project) {
+    this.project = project;
+    project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+      @Override
+      public void after(@NotNull List<? extends VFileEvent> events) {
+        if (listeners.isEmpty()) {
+          return;
+        }
+        boolean changed = false;
+        for (VFileEvent event : events) {
+          if (event instanceof VFileContentChangeEvent && event.getFile() != null
+            && event.getFile().getFileType() == AsciiDocFileType.INSTANCE) {
+            changedFiles.add(event.getFile());
+            changed = true;
+          }
+        }
+        if (changed) {
+          executor.execute(IncludedFileChanges.this::notifyListeners);
+        }
+      }
+    });
+  }
+
+  public static IncludedFileChanges getInstance(@NotNull Project project) {
+    return project.getService(IncludedFileChanges.class);
+  }
+
+  /**
+   * Register a listener that receives all documents that include one of the changed files directly or indirectly.
+   * The listener is called on a background thread.
+   */
+  public void addListener(@NotNull Consumer<Set<VirtualFile>> listener, @NotNull Disposable parent) {
+    listeners.add(listener);
+    Disposer.register(parent, () -> listeners.remove(listener));
+  }
+
+  private void notifyListeners() {
+    List<VirtualFile> changed = new ArrayList<>(changedFiles);
+    changedFiles.removeAll(changed);
+    if (project.isDisposed() || listeners.isEmpty()) {
+      return;
+    }
+    Set<VirtualFile> affected;
+    try {
+      affected = AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() -> {
+        Set<VirtualFile> result = new HashSet<>();
+        for (VirtualFile file : changed) {
+          if (file.isValid()) {
+            result.addAll(AsciiDocIncludeIndex.findIncludingDocuments(project, file));
+          }
+        }
+        return result;
+      });
+    } catch (ProcessCanceledException ex) {
+      LOG.info("Skipping check of included files due to PCE");
+      return;
+    }
+    if (!affected.isEmpty()) {
+      listeners.forEach(listener -> listener.accept(affected));
+    }
+  }
+
+  @Override
+  public void dispose() {
+    listeners.clear();
+  }
+
+}
@@ -14,22 +14,22 @@ import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.util.NotNullLazyValue;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.ui.JBColor;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.asciidoc.intellij.AsciiDocExtensionService;
 import org.asciidoc.intellij.AsciiDocWrapper;
 import org.asciidoc.intellij.editor.AsciiDocPreviewEditor;
+import org.asciidoc.intellij.editor.AsciiDocRenderCache;
 import org.asciidoc.intellij.editor.javafx.JavaFxHtmlPanel;
 import org.asciidoc.intellij.editor.javafx.PreviewStaticServer;
 import org.asciidoc.intellij.file.AsciiDocFileType;
 import org.asciidoc.intellij.psi.AsciiDocUtil;
 import org.asciidoc.intellij.settings.AsciiDocApplicationSettings;
+import org.asciidoc.intellij.telemetry.AsciiDocRenderTelemetry;
 import org.asciidoctor.SafeMode;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URLDecoder;
@@ -38,19 +38,21 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class BrowserPanel implements Disposable {
 
-  private final Path globalImagesPath;
+  /**
+   * folders for the images of UNSAFE mode by the folder of the document, shared with the preview.
+   */
+  private final Map<String, Path> unsafeImagesPaths = new ConcurrentHashMap<>();
   private final Logger log = Logger.getInstance(JavaFxHtmlPanel.class);
   private final AsciiDocExtensionService extensionService = ApplicationManager.getApplication().getService(AsciiDocExtensionService.class);
 
@@ -106,7 +108,6 @@ public class BrowserPanel implements Disposable {
   private final SignWithMac signWithMac = new SignWithMac();
 
   public BrowserPanel() {
-    globalImagesPath = AsciiDocWrapper.tempImagesPath(null, null);
     Disposer.register(ApplicationManager.getApplication(), this);
 
     try {
@@ -175,32 +176,47 @@ public class BrowserPanel implements Disposable {
     }
   }
 
+  /**
+   * Render a document for an external browser.
+   * This is synchronized as requests of several browsers and the live reload can render at the same time.
+   */
   @NotNull
-  public String getHtml(@NotNull VirtualFile file, @NotNull Project project) {
+  public synchronized String getHtml(@NotNull VirtualFile file, @NotNull Project project) {
     Document document = ApplicationManager.getApplication().runReadAction((Computable<Document>) () -> FileDocumentManager.getInstance().getDocument(file));
     Objects.requireNonNull(document);
-    final String config = AsciiDocWrapper.config(document, project);
     List<String> extensions = extensionService.getExtensions(project);
     Objects.requireNonNull(file.getParent().getCanonicalPath(), "we will have files, these will always have a parent directory");
-    final AsciiDocApplicationSettings settings = AsciiDocApplicationSettings.getInstance();
-    Path imagesPath = globalImagesPath;
-    VirtualFile parent = file.getParent();
-    if (settings.getAsciiDocPreviewSettings().getSafeMode(project) != SafeMode.UNSAFE) {
-      if (parent != null && parent.getCanonicalPath() != null) {
-        imagesPath = AsciiDocWrapper.tempImagesPath(Path.of(parent.getCanonicalPath()), project);
+    // the output for the JCEF preview works in a browser as well, using the same format allows sharing the result with the preview
+    AsciiDocWrapper.FileType format = AsciiDocWrapper.getPreviewFileType() == AsciiDocWrapper.FileType.JCEF
+      ? AsciiDocWrapper.FileType.JCEF : AsciiDocWrapper.FileType.BROWSER;
+    AsciiDocRenderCache.RenderKey key = AsciiDocRenderCache.RenderKey.of(document, file, project, extensions, format);
+    AsciiDocRenderCache.RenderResult result = AsciiDocRenderCache.getInstance().get(file, key);
+    if (result == null) {
+      final String config = AsciiDocWrapper.config(document, project);
+      final AsciiDocApplicationSettings settings = AsciiDocApplicationSettings.getInstance();
+      Path imagesPath;
+      String parent = file.getParent().getCanonicalPath();
+      if (settings.getAsciiDocPreviewSettings().getSafeMode(project) != SafeMode.UNSAFE) {
+        imagesPath = AsciiDocWrapper.tempImagesPath(Path.of(parent), project);
+      } else {
+        // keep the folder until this panel is disposed, as the browser will request the images later
+        imagesPath = unsafeImagesPaths.computeIfAbsent(parent, p -> AsciiDocWrapper.tempImagesPath(Path.of(p), project));
       }
+      AsciiDocWrapper asciiDocWrapper = new AsciiDocWrapper(project, new File(file.getParent().getCanonicalPath()),
+        imagesPath, file.getName());
+      String html = asciiDocWrapper.render(document.getText(), config, extensions, asciiDocWrapper::notifyAlways, format);
+      result = new AsciiDocRenderCache.RenderResult(html, asciiDocWrapper.getAttributes(), imagesPath);
+      AsciiDocRenderCache.getInstance().put(file, key, result);
     }
-    AsciiDocWrapper asciiDocWrapper = new AsciiDocWrapper(project, new File(file.getParent().getCanonicalPath()),
-      imagesPath, file.getName());
-    String html = asciiDocWrapper.render(document.getText(), config, extensions, asciiDocWrapper::notifyAlways, AsciiDocWrapper.FileType.BROWSER);
     if (file.getParent() != null) {
       // parent will be null if we use Language Injection and Fragment Editor
       base = file.getParent().getPath();
     } else {
       base = "";
     }
-    html = "<html><head></head><body><div id=\"header\"></div>" + html + "<div id=\"footer\"></div></body></html>";
-    html = prepareHtml(html, project, asciiDocWrapper.getAttributes(), imagesPath, AsciiDocUtil.findAntoraModuleDir(project, file.getParent()) != null, file);
+    String html = "<html><head></head><body><div id=\"header\"></div>" + result.getHtml() + "<div id=\"footer\"></div>"
+      + "<script src=\"" + PreviewStaticServer.getScriptUrl("liveReload.js") + "\"></script></body></html>";
+    html = prepareHtml(html, project, result.getAttributes(), result.getImagesPath(), AsciiDocUtil.findAntoraModuleDir(project, file.getParent()) != null, file);
     return html;
   }
 
@@ -258,6 +274,7 @@ public class BrowserPanel implements Disposable {
 
   @SuppressWarnings("checkstyle:MethodLength")
   private String prepareHtml(@NotNull String html, Project project, Map<String, String> attributes, Path imagesPath, boolean isAntora, @NotNull VirtualFile originalFile) {
+    long start = System.nanoTime();
     // Antora plugin might resolve some absolute URLs, convert them to localfile so they get their MD5 that prevents caching
     Pattern pattern = Pattern.compile("<img src=\"file:///([^\"]*)\"");
     Matcher matcher = pattern.matcher(html);
@@ -410,13 +427,17 @@ public class BrowserPanel implements Disposable {
       matcher.reset(html);
     }
 
+    // page enrichment is recorded as a phase of its own, exclude it from the post-processing
+    long enrichStart = System.nanoTime();
     /* Add CSS line and JavaScript */
     if (isAntora) {
       html = AsciiDocWrapper.enrichPage(html, (isDarcula() ? myAntoraDarculaCssLink : myAntoraCssLink) + myFontAwesomeCssLink + getCssLines(myTabsCss + (isDarcula() ? myTabsCssDarcula : "")), myMermaidScript, myAsciidoctorTabsScript, attributes, project);
     } else {
       html = AsciiDocWrapper.enrichPage(html, getCssLines(isDarcula() ? myInlineCssDarcula + myTabsCssDarcula : myInlineCss) + myFontAwesomeCssLink + myGoogleFontsCssLink + myDejavuCssLink, myMermaidScript, myAsciidoctorTabsScript, attributes, project);
     }
+    start += System.nanoTime() - enrichStart;
     html = html.replace("</body>", getScriptingLines() + "</body>");
+    AsciiDocRenderTelemetry.record(AsciiDocRenderTelemetry.Phase.PREPARE_HTML, start);
     return html;
   }
 
@@ -441,26 +462,7 @@ public class BrowserPanel implements Disposable {
   }
 
   public static String calculateMd5(String file, String base) {
-    String md5;
-    try {
-      MessageDigest md = MessageDigest.getInstance("MD5");
-      try (FileInputStream fis = new FileInputStream((base != null ? base + "/" : "") + file)) {
-        int nread;
-        byte[] dataBytes = new byte[1024];
-        while ((nread = fis.read(dataBytes)) != -1) {
-          md.update(dataBytes, 0, nread);
-        }
-      }
-      byte[] mdbytes = md.digest();
-      StringBuilder sb = new StringBuilder();
-      for (byte mdbyte : mdbytes) {
-        sb.append(Integer.toString((mdbyte & 0xff) + 0x100, 16).substring(1));
-      }
-      md5 = sb.toString();
-    } catch (NoSuchAlgorithmException | IOException e) {
-      md5 = "none";
-    }
-    return md5;
+    return ImageFingerprints.md5((base != null ? base + "/" : "") + file);
   }
 
   @NotNull
@@ -470,26 +472,29 @@ public class BrowserPanel implements Disposable {
 
   @Override
   public void dispose() {
-    AsciiDocWrapper.cleanupImagesPath(globalImagesPath);
+    unsafeImagesPaths.values().forEach(AsciiDocWrapper::cleanupImagesPath);
+    unsafeImagesPaths.clear();
   }
 
   /**
    * Retrieve an image that was previously referenced in a file.
+   * The caller streams the file, so the image doesn't need to be loaded into memory.
    *
    * @param file absolute file name
    * @param mac  signature created when rendering the surrounding document
-   * @return byte array for the image, or null if file not exists or signature is wrong
+   * @return the image, or null if file not exists or signature is wrong
    */
-  public byte[] getImage(String file, String mac) {
+  @Nullable
+  public File getImageFile(String file, String mac) {
     if (!checkMac(file, mac)) {
       Logger.getInstance(AsciiDocPreviewEditor.class).warn("wrong signature when retrieving file '" + file + "'");
       return null;
     }
-    try {
-      return FileUtils.readFileToByteArray(new File(file));
-    } catch (IOException e) {
+    File result = new File(file);
+    if (!result.isFile()) {
       return null;
     }
+    return result;
   }
 
 }
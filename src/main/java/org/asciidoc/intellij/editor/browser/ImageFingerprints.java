@@ -0,0 +1,102 @@
+package org.asciidoc.intellij.editor.browser;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * MD5 fingerprints of the images in the preview. They are part of the image URLs so that the browser reloads a changed image,
+ * and they serve as the ETag when serving an image.
+ * A fingerprint is calculated again only when the size or the modification time of the file changes,
+ * so rendering a preview with large images doesn't read all images again.
+ */
+public final class ImageFingerprints {
+
+  /**
+   * Returned when the file can't be read.
+   */
+  public static final String NONE = "none";
+
+  private static final int MAX_ENTRIES = 1000;
+
+  /**
+   * remember fingerprints by absolute file name.
+   * Limited to last 1000 files.
+   */
+  private static final Map<String, Fingerprint> FINGERPRINTS = Collections.synchronizedMap(new LinkedHashMap<>(MAX_ENTRIES, (float) 0.7, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Fingerprint> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  });
+
+  private ImageFingerprints() {
+  }
+
+  /**
+   * MD5 of the content of the file as a hex string, or {@link #NONE} if the file can't be read.
+   */
+  @NotNull
+  public static String md5(@NotNull String file) {
+    File f = new File(file);
+    long length = f.length();
+    long lastModified = f.lastModified();
+    if (lastModified == 0) {
+      // file doesn't exist or can't be accessed
+      FINGERPRINTS.remove(f.getAbsolutePath());
+      return NONE;
+    }
+    Fingerprint fingerprint = FINGERPRINTS.get(f.getAbsolutePath());
+    if (fingerprint != null && fingerprint.length == length && fingerprint.lastModified == lastModified) {
+      return fingerprint.md5;
+    }
+    String md5 = calculateMd5(f);
+    if (!md5.equals(NONE)) {
+      FINGERPRINTS.put(f.getAbsolutePath(), new Fingerprint(length, lastModified, md5));
+    }
+    return md5;
+  }
+
+  private static String calculateMd5(File file) {
+    String md5;
+    try {
+      MessageDigest md = MessageDigest.getInstance("MD5");
+      try (FileInputStream fis = new FileInputStream(file)) {
+        int nread;
+        byte[] dataBytes = new byte[10240];
+        while ((nread = fis.read(dataBytes)) != -1) {
+          md.update(dataBytes, 0, nread);
+        }
+      }
+      byte[] mdbytes = md.digest();
+      StringBuilder sb = new StringBuilder();
+      for (byte mdbyte : mdbytes) {
+        sb.append(Integer.toString((mdbyte & 0xff) + 0x100, 16).substring(1));
+      }
+      md5 = sb.toString();
+    } catch (NoSuchAlgorithmException | IOException e) {
+      md5 = NONE;
+    }
+    return md5;
+  }
+
+  private static final class Fingerprint {
+    private final long length;
+    private final long lastModified;
+    private final String md5;
+
+    private Fingerprint(long length, long lastModified, String md5) {
+      this.length = length;
+      this.lastModified = lastModified;
+      this.md5 = md5;
+    }
+  }
+
+}
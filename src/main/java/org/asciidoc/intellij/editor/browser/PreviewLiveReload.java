@@ -0,0 +1,256 @@
+package org.asciidoc.intellij.editor.browser;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import org.asciidoc.intellij.editor.LazyApplicationPoolExecutor;
+import org.asciidoc.intellij.file.AsciiDocFileType;
+import org.asciidoc.intellij.psi.search.AsciiDocIncludeIndex;
+import org.asciidoc.intellij.threading.AsciiDocProcessUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Push updates of a document to the external browsers that show it, using Server-Sent Events.
+ * The browser opens the channel with a script that is part of the page, see <code>liveReload.js</code>.
+ * When the document changes, it is rendered once and the result is sent to all browsers that show this document.
+ * Changes to files it includes and to its <code>.asciidoctorconfig</code> files trigger an update as well.
+ */
+@Service
+public final class PreviewLiveReload implements Disposable {
+  private static final Logger LOG = Logger.getInstance(PreviewLiveReload.class);
+
+  private final Map<VirtualFile, Subscription> subscriptions = new ConcurrentHashMap<>();
+  private final Set<VirtualFile> changedDependencies = ConcurrentHashMap.newKeySet();
+  private final LazyApplicationPoolExecutor dependencyExecutor = new LazyApplicationPoolExecutor(this);
+  private volatile boolean listening;
+
+  public static PreviewLiveReload getInstance() {
+    return ApplicationManager.getApplication().getService(PreviewLiveReload.class);
+  }
+
+  /**
+   * Keep the channel open and send an event with the new HTML every time the document changes.
+   * The subscription ends when the browser closes the connection.
+   */
+  public void subscribe(@NotNull VirtualFile file, @NotNull Project project, @NotNull Channel channel, @NotNull BrowserPanel browserPanel) {
+    subscribe(file, project, channel, browserPanel::getHtml);
+  }
+
+  void subscribe(@NotNull VirtualFile file, @NotNull Project project, @NotNull Channel channel, @NotNull Renderer renderer) {
+    listenToDocuments();
+    // add the channel within compute(), so that a concurrent unsubscribe() can't dispose the subscription in between
+    subscriptions.compute(file, (f, existing) -> {
+      Subscription subscription = existing != null ? existing : new Subscription(f, project, renderer);
+      subscription.channels.add(channel);
+      return subscription;
+    });
+    channel.closeFuture().addListener(future -> unsubscribe(file, channel));
+
+    HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+    response.headers().set(HttpHeaderNames.CONTENT_TYPE, "text/event-stream; charset=UTF-8");
+    response.headers().set(HttpHeaderNames.CACHE_CONTROL, HttpHeaderValues.NO_CACHE);
+    HttpUtil.setTransferEncodingChunked(response, true);
+    channel.write(response);
+    // a comment, so the browser knows that the connection is established
+    channel.writeAndFlush(new DefaultHttpContent(Unpooled.wrappedBuffer(": connected\n\n".getBytes(StandardCharsets.UTF_8))));
+  }
+
+  private void unsubscribe(VirtualFile file, Channel channel) {
+    subscriptions.computeIfPresent(file, (f, subscription) -> {
+      subscription.channels.remove(channel);
+      if (subscription.channels.isEmpty()) {
+        Disposer.dispose(subscription);
+        return null;
+      }
+      return subscription;
+    });
+  }
+
+  boolean isSubscribed(@NotNull VirtualFile file) {
+    return subscriptions.containsKey(file);
+  }
+
+  private synchronized void listenToDocuments() {
+    if (listening) {
+      return;
+    }
+    EditorFactory.getInstance().getEventMulticaster().addDocumentListener(new DocumentListener() {
+      @Override
+      public void documentChanged(@NotNull DocumentEvent event) {
+        if (subscriptions.isEmpty()) {
+          return;
+        }
+        VirtualFile file = FileDocumentManager.getInstance().getFile(event.getDocument());
+        if (file == null) {
+          return;
+        }
+        Subscription subscription = subscriptions.get(file);
+        if (subscription != null) {
+          subscription.scheduleRender();
+        } else if (isDependency(file)) {
+          // the file might be included by a subscribed document, or be its .asciidoctorconfig
+          changedDependencies.add(file);
+          dependencyExecutor.execute(PreviewLiveReload.this::renderDependents);
+        }
+      }
+    }, this);
+    listening = true;
+  }
+
+  /**
+   * A subscribed document might depend on AsciiDoc files it includes, and on <code>.asciidoctorconfig</code> files.
+   * Changes to all other files are ignored.
+   */
+  static boolean isDependency(@NotNull VirtualFile file) {
+    return isConfig(file) || file.getFileType() == AsciiDocFileType.INSTANCE;
+  }
+
+  private static boolean isConfig(@NotNull VirtualFile file) {
+    return file.getName().equals(".asciidoctorconfig") || file.getName().equals(".asciidoctorconfig.adoc");
+  }
+
+  /**
+   * Render the subscribed documents that include one of the changed files, or that are configured by a changed
+   * <code>.asciidoctorconfig</code> file in one of their parent folders.
+   * The documents that include a changed file are looked up once per project, and not once per subscription.
+   */
+  private void renderDependents() {
+    List<VirtualFile> changed = new ArrayList<>(changedDependencies);
+    changedDependencies.removeAll(changed);
+    Map<Project, Map<VirtualFile, Set<VirtualFile>>> includingByProject = new HashMap<>();
+    for (Subscription subscription : subscriptions.values()) {
+      if (subscription.project.isDisposed()) {
+        continue;
+      }
+      Map<VirtualFile, Set<VirtualFile>> including = includingByProject.computeIfAbsent(subscription.project, p -> new HashMap<>());
+      for (VirtualFile file : changed) {
+        if (!file.isValid()) {
+          continue;
+        }
+        boolean affected;
+        if (isConfig(file)) {
+          VirtualFile folder = file.getParent();
+          affected = folder != null && VfsUtilCore.isAncestor(folder, subscription.file, true);
+        } else {
+          affected = including.computeIfAbsent(file, f -> AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() ->
+            AsciiDocIncludeIndex.findIncludingDocuments(subscription.project, f))).contains(subscription.file);
+        }
+        if (affected) {
+          subscription.scheduleRender();
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Format the HTML as a single Server-Sent Event.
+   */
+  @NotNull
+  static String toEvent(@NotNull String event, @NotNull String data) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("event: ").append(event).append('\n');
+    for (String line : data.split("\r\n|\r|\n", -1)) {
+      sb.append("data: ").append(line).append('\n');
+    }
+    sb.append('\n');
+    return sb.toString();
+  }
+
+  @Override
+  public void dispose() {
+    for (Subscription subscription : subscriptions.values()) {
+      subscription.channels.forEach(Channel::close);
+    }
+    subscriptions.clear();
+  }
+
+  /**
+   * Creates the HTML of a document for the browser.
+   */
+  interface Renderer {
+    @NotNull
+    String getHtml(@NotNull VirtualFile file, @NotNull Project project);
+  }
+
+  private final class Subscription implements Disposable {
+    private final VirtualFile file;
+    private final Project project;
+    private final Renderer renderer;
+    private final Set<Channel> channels = ConcurrentHashMap.newKeySet();
+    private final LazyApplicationPoolExecutor executor;
+
+    private Subscription(VirtualFile file, Project project, Renderer renderer) {
+      this.file = file;
+      this.project = project;
+      this.renderer = renderer;
+      Disposer.register(PreviewLiveReload.this, this);
+      executor = new LazyApplicationPoolExecutor(this);
+    }
+
+    private void scheduleRender() {
+      // renders are coalesced, so typing fast results in only a few renders
+      executor.execute(this::render);
+    }
+
+    private void render() {
+      if (channels.isEmpty()) {
+        return;
+      }
+      if (project.isDisposed() || !file.isValid()) {
+        channels.forEach(Channel::close);
+        return;
+      }
+      String html;
+      try {
+        html = renderer.getHtml(file, project);
+      } catch (ProcessCanceledException e) {
+        throw e;
+      } catch (RuntimeException e) {
+        LOG.warn("unable to render " + file.getPath() + " for the browser", e);
+        return;
+      }
+      byte[] event = toEvent("update", html).getBytes(StandardCharsets.UTF_8);
+      for (Channel channel : channels) {
+        if (channel.isActive()) {
+          // all channels share the same bytes, the buffers only wrap them
+          channel.writeAndFlush(new DefaultHttpContent(Unpooled.wrappedBuffer(event)));
+        }
+      }
+    }
+
+    @Override
+    public void dispose() {
+      // nothing to dispose, the executor is disposed with this subscription
+    }
+  }
+
+}
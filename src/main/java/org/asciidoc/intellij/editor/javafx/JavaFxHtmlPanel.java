@@ -50,9 +50,11 @@ import org.apache.commons.text.StringEscapeUtils;
 import org.asciidoc.intellij.AsciiDocWrapper;
 import org.asciidoc.intellij.editor.AsciiDocHtmlPanel;
 import org.asciidoc.intellij.editor.AsciiDocHtmlPanelProvider;
+import org.asciidoc.intellij.editor.browser.ImageFingerprints;
 import org.asciidoc.intellij.psi.AsciiDocFileUtil;
 import org.asciidoc.intellij.psi.AsciiDocUtil;
 import org.asciidoc.intellij.settings.AsciiDocApplicationSettings;
+import org.asciidoc.intellij.telemetry.AsciiDocRenderTelemetry;
 import org.asciidoc.intellij.threading.AsciiDocProcessUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -60,7 +62,6 @@ import org.jetbrains.annotations.Nullable;
 import javax.swing.*;
 import java.awt.*;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
@@ -73,8 +74,6 @@ import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -93,6 +92,7 @@ public class JavaFxHtmlPanel implements AsciiDocHtmlPanel {
   private static final NotNullLazyValue<String> MY_SCRIPTING_LINES = NotNullLazyValue.lazy(() -> {
     //noinspection StringBufferReplaceableByString
     return new StringBuilder()
+      .append("<script src=\"").append(PreviewStaticServer.getScriptUrl("sourceLineMap.js")).append("\"></script>\n")
       .append("<script src=\"").append(PreviewStaticServer.getScriptUrl("scrollToElement.js")).append("\"></script>\n")
       .append("<script src=\"").append(PreviewStaticServer.getScriptUrl("processLinks.js")).append("\"></script>\n")
       .append("<script src=\"").append(PreviewStaticServer.getScriptUrl("pickSourceLine.js")).append("\"></script>\n")
@@ -467,9 +467,15 @@ public class JavaFxHtmlPanel implements AsciiDocHtmlPanel {
     return myPanelWrapper;
   }
 
+  /**
+   * Time when the prepared HTML has been handed to the WebView, to measure how long it takes until it has been rendered.
+   */
+  private volatile long startPaint;
+
   @Override
   public synchronized void setHtml(@NotNull String htmlParam, @NotNull Map<String, String> attributes) {
     rendered = new CountDownLatch(1);
+    startPaint = System.nanoTime();
     stamp += 1;
     if (stamp > 10000) {
       // force a refresh to avoid memory leaks
@@ -490,6 +496,7 @@ public class JavaFxHtmlPanel implements AsciiDocHtmlPanel {
         final String htmlToReplace = StringEscapeUtils.escapeEcmaScript(prepareHtml(html, attributes));
         // try to replace the HTML contents using JavaScript to avoid flickering MathML
         try {
+          startPaint = System.nanoTime();
           result = (Boolean) JavaFxHtmlPanel.this.getWebViewGuaranteed().getEngine().executeScript(
               "function finish() {" +
               "if ('__IntelliJTools' in window) {" +
@@ -541,6 +548,7 @@ public class JavaFxHtmlPanel implements AsciiDocHtmlPanel {
         html = html + "<script>window.iterationStamp=" + iterationStamp + " </script>";
         html = wrapHtmlForPage(html);
         final String htmlToRender = prepareHtml(html, attributes);
+        startPaint = System.nanoTime();
         JavaFxHtmlPanel.this.getWebViewGuaranteed().getEngine().loadContent(htmlToRender);
       }
     });
@@ -550,6 +558,8 @@ public class JavaFxHtmlPanel implements AsciiDocHtmlPanel {
       if (htmlParam.length() > 0 && !rendered.await(3, TimeUnit.SECONDS)) {
         LOG.warn("rendering didn't complete in time, might be slow or broken");
         forceRefresh = true;
+      } else if (htmlParam.length() > 0) {
+        AsciiDocRenderTelemetry.record(AsciiDocRenderTelemetry.Phase.PAINT, startPaint);
       }
     } catch (InterruptedException e) {
       LOG.warn("interrupted while waiting for refresh to complete");
@@ -629,6 +639,7 @@ public class JavaFxHtmlPanel implements AsciiDocHtmlPanel {
   }
 
   private String prepareHtml(@NotNull String html, @NotNull Map<String, String> attributes) {
+    long start = System.nanoTime();
     String base = getBase();
     // Antora plugin might resolve some absolute URLs, convert them to localfile so they get their MD5 that prevents caching
     Pattern pattern = Pattern.compile("<img src=\"file:///([^\"]*)\"");
@@ -738,18 +749,22 @@ public class JavaFxHtmlPanel implements AsciiDocHtmlPanel {
     // filter out Twitter's JavaScript, as it is problematic for JDK8 JavaFX
     // see: https://github.com/asciidoctor/asciidoctor-intellij-plugin/issues/235
     html = html.replaceAll("(?i)<script [a-z ]*src=\"https://platform\\.twitter\\.com/widgets\\.js\" [^>]*></script>", "");
+    // page enrichment is recorded as a phase of its own, exclude it from the post-processing
+    long enrichStart = System.nanoTime();
     if (isAntora()) {
       html = AsciiDocWrapper.enrichPage(html, (isDarcula() ? myAntoraDarculaCssLink : myAntoraCssLink) + myFontAwesomeCssLink, null, null, attributes, editor != null ? editor.getProject() : null);
     } else {
       html = AsciiDocWrapper.enrichPage(html, AsciiDocHtmlPanel.getCssLines(isDarcula() ? myInlineCssDarcula : myInlineCss) + myFontAwesomeCssLink + myGoogleFontsCssLink + myDejavuCssLink, null, null, attributes, editor.getProject());
     }
+    start += System.nanoTime() - enrichStart;
 
     html = html.replaceAll("<head>", "<head>\n" +
       "<meta http-equiv=\"Content-Security-Policy\" content=\"" + PreviewStaticServer.createCSP(attributes) + "\">");
 
     /* Add JavaScript for auto-scrolling and clickable links */
-    return html
-      .replace("</body>", getScriptingLines() + "</body>");
+    html = html.replace("</body>", getScriptingLines() + "</body>");
+    AsciiDocRenderTelemetry.record(AsciiDocRenderTelemetry.Phase.PREPARE_HTML, start);
+    return html;
   }
 
   private String calculateFileAndMd5(String file, String base) {
@@ -773,26 +788,7 @@ public class JavaFxHtmlPanel implements AsciiDocHtmlPanel {
   }
 
   private String calculateMd5(String file, String base) {
-    String md5;
-    try {
-      MessageDigest md = MessageDigest.getInstance("MD5");
-      try (FileInputStream fis = new FileInputStream((base != null ? base.replaceAll("%3A", ":") + "/" : "") + file)) {
-        int nread;
-        byte[] dataBytes = new byte[1024];
-        while ((nread = fis.read(dataBytes)) != -1) {
-          md.update(dataBytes, 0, nread);
-        }
-      }
-      byte[] mdbytes = md.digest();
-      StringBuilder sb = new StringBuilder();
-      for (byte mdbyte : mdbytes) {
-        sb.append(Integer.toString((mdbyte & 0xff) + 0x100, 16).substring(1));
-      }
-      md5 = sb.toString();
-    } catch (NoSuchAlgorithmException | IOException e) {
-      md5 = "none";
-    }
-    return md5;
+    return ImageFingerprints.md5((base != null ? base.replaceAll("%3A", ":") + "/" : "") + file);
   }
 
   @Override
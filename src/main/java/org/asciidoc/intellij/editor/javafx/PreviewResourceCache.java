@@ -0,0 +1,140 @@
+package org.asciidoc.intellij.editor.javafx;
+
+import com.intellij.openapi.util.io.FileUtilRt;
+import org.asciidoc.intellij.util.HashUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Scripts and stylesheets of the preview, loaded once from the classpath and kept in memory.
+ * As the resources don't change while the IDE is running, each resource has a hash of its content that
+ * serves as its ETag and as a version in its URL, so a browser can cache it forever.
+ */
+final class PreviewResourceCache {
+
+  /**
+   * Don't compress small resources, the headers would outweigh the savings.
+   */
+  private static final int MIN_COMPRESS_SIZE = 1024;
+
+  private final Class<?> base;
+  private final Map<String, Resource> resources = new ConcurrentHashMap<>();
+
+  PreviewResourceCache(@NotNull Class<?> base) {
+    this.base = base;
+  }
+
+  /**
+   * Get a resource relative to the base class.
+   *
+   * @return the resource, or <code>null</code> if it doesn't exist
+   */
+  @Nullable
+  Resource get(@NotNull String name) throws IOException {
+    Resource resource = resources.get(name);
+    if (resource == null) {
+      byte[] data;
+      try (InputStream inputStream = base.getResourceAsStream(name)) {
+        if (inputStream == null) {
+          return null;
+        }
+        data = FileUtilRt.loadBytes(inputStream);
+      }
+      // if two threads load the same resource at the same time, both have the same content
+      resource = resources.computeIfAbsent(name, n -> new Resource(n, data));
+    }
+    return resource;
+  }
+
+  /**
+   * Add a resource that has been assembled at runtime, for example from several other resources.
+   * A later call with the same name replaces the resource, and the new content gets a new hash.
+   */
+  @NotNull
+  Resource put(@NotNull String name, @NotNull byte[] data) {
+    Resource resource = new Resource(name, data);
+    resources.put(name, resource);
+    return resource;
+  }
+
+  static final class Resource {
+    private final String name;
+    private final byte[] data;
+    private final String hash;
+    private volatile byte[] gzipped;
+
+    Resource(@NotNull String name, @NotNull byte[] data) {
+      this.name = name;
+      this.data = data;
+      // the first 8 bytes are unique enough for the resources of the plugin
+      this.hash = HashUtil.sha256Hex(data, 8);
+    }
+
+    @NotNull
+    String getName() {
+      return name;
+    }
+
+    @NotNull
+    byte[] getData() {
+      return data;
+    }
+
+    /**
+     * Hash of the content, to be used as an ETag and as a version in a URL.
+     */
+    @NotNull
+    String getHash() {
+      return hash;
+    }
+
+    /**
+     * Compressed content, created on first use as most resources are never requested.
+     *
+     * @return the compressed content, or <code>null</code> if compression doesn't pay off for this resource
+     */
+    @Nullable
+    byte[] getGzipped() {
+      if (data.length < MIN_COMPRESS_SIZE || !isCompressible(name)) {
+        return null;
+      }
+      byte[] result = gzipped;
+      if (result == null) {
+        result = gzip(data);
+        if (result.length >= data.length) {
+          // remember that compression doesn't pay off
+          result = data;
+        }
+        gzipped = result;
+      }
+      return result == data ? null : result;
+    }
+
+    private static boolean isCompressible(String name) {
+      String lowerCase = name.toLowerCase(Locale.US);
+      return lowerCase.endsWith(".js") || lowerCase.endsWith(".css") || lowerCase.endsWith(".svg")
+        || lowerCase.endsWith(".json") || lowerCase.endsWith(".ttf") || lowerCase.endsWith(".otf")
+        || lowerCase.endsWith(".eot");
+    }
+
+    private static byte[] gzip(byte[] data) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 3);
+      try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+        gzip.write(data);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return out.toByteArray();
+    }
+  }
+
+}
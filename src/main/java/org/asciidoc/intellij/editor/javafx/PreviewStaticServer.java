@@ -4,7 +4,6 @@ import com.intellij.ide.browsers.OpenInBrowserRequest;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.project.ProjectManager;
-import com.intellij.openapi.util.io.FileUtilRt;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.testFramework.LightVirtualFile;
@@ -12,18 +11,33 @@ import com.intellij.util.Url;
 import com.intellij.util.Urls;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.DefaultFileRegion;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpChunkedInput;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedFile;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.entity.ContentType;
 import org.asciidoc.intellij.editor.browser.BrowserPanel;
+import org.asciidoc.intellij.editor.browser.ImageFingerprints;
+import org.asciidoc.intellij.editor.browser.PreviewLiveReload;
 import org.asciidoc.intellij.settings.AsciiDocApplicationSettings;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -32,8 +46,9 @@ import org.jetbrains.ide.HttpRequestHandler;
 import org.jetbrains.io.FileResponses;
 import org.jetbrains.io.Responses;
 
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.RandomAccessFile;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
@@ -48,13 +63,18 @@ public class PreviewStaticServer extends HttpRequestHandler {
 
   private static final Logger LOG = Logger.getInstance(PreviewStaticServer.class);
   private static final String PREFIX = "/ead61b63-b0a6-4ff2-a49a-86be75ccfd1a/";
-  private static final Pattern PAYLOAD_PATTERN = Pattern.compile("((?<contentType>[^/]*)/(?<fileName>[a-zA-Z0-9./_-]*))|(?<action>(source|image))");
+  private static final Pattern PAYLOAD_PATTERN = Pattern.compile("((?<contentType>[^/]*)/(?<fileName>[a-zA-Z0-9./_-]*))|(?<action>(source|events|image))");
 
   private static BrowserPanel browserPanel;
 
   // every time the plugin starts up, assume resources could have been modified
   private static final long LAST_MODIFIED = System.currentTimeMillis();
 
+  private static final PreviewResourceCache RESOURCES = new PreviewResourceCache(JavaFxHtmlPanel.class);
+  private static final String VERSION_PARAMETER = "v";
+  private static final Pattern RANGE_PATTERN = Pattern.compile("bytes=(?<start>[0-9]*)-(?<end>[0-9]*)");
+  private static final int CHUNK_SIZE = 64 * 1024;
+
   public static PreviewStaticServer getInstance() {
     return HttpRequestHandler.Companion.getEP_NAME().findExtension(PreviewStaticServer.class);
   }
@@ -109,19 +129,39 @@ public class PreviewStaticServer extends HttpRequestHandler {
   }
 
   @NotNull
-  private static String getStaticUrl(@NotNull String staticPath) {
-    Url url = Urls.parseEncoded("http://localhost:" + BuiltInServerManager.getInstance().getPort() + PREFIX + staticPath);
+  private static String getStaticUrl(@NotNull String staticPath, @NotNull String resourceName) {
+    String version = "";
+    try {
+      PreviewResourceCache.Resource resource = RESOURCES.get(resourceName);
+      if (resource != null) {
+        // the hash of the content changes with every update of the resource, therefore the browser can cache it forever
+        version = "?" + VERSION_PARAMETER + "=" + resource.getHash();
+      }
+    } catch (IOException e) {
+      LOG.warn("unable to read resource " + resourceName, e);
+    }
+    Url url = Urls.parseEncoded("http://localhost:" + BuiltInServerManager.getInstance().getPort() + PREFIX + staticPath + version);
     return BuiltInServerManager.getInstance().addAuthToken(Objects.requireNonNull(url)).toExternalForm();
   }
 
   @NotNull
   public static String getScriptUrl(@NotNull String scriptFileName) {
-    return getStaticUrl("scripts/" + scriptFileName);
+    return getStaticUrl("scripts/" + scriptFileName, scriptFileName);
   }
 
   @NotNull
   public static String getStyleUrl(@NotNull String scriptFileName) {
-    return getStaticUrl("styles/" + scriptFileName);
+    return getStaticUrl("styles/" + scriptFileName, scriptFileName);
+  }
+
+  /**
+   * Serve a stylesheet that has been assembled at runtime. The URL contains the hash of the content,
+   * so a browser loads it only once and re-uses it for all previews.
+   */
+  @NotNull
+  public static String registerStyle(@NotNull String styleFileName, @NotNull String css) {
+    RESOURCES.put(styleFileName, css.getBytes(StandardCharsets.UTF_8));
+    return getStyleUrl(styleFileName);
   }
 
   public static Url getFileUrl(OpenInBrowserRequest request, VirtualFile file) {
@@ -184,12 +224,14 @@ public class PreviewStaticServer extends HttpRequestHandler {
     if ("scripts".equals(contentType)) {
       sendResource(request,
         context.channel(),
-        fileName);
+        fileName,
+        getParameter(urlDecoder, VERSION_PARAMETER));
     } else if ("styles".equals(contentType)) {
       sendResource(request,
         context.channel(),
-        fileName);
-    } else if ("source".equals(action)) {
+        fileName,
+        getParameter(urlDecoder, VERSION_PARAMETER));
+    } else if ("source".equals(action) || "events".equals(action)) {
       String fileParameter = getParameter(urlDecoder, "file");
       String projectNameParameter = getParameter(urlDecoder, "projectName");
       String projectUrlParameter = getParameter(urlDecoder, "projectUrl");
@@ -230,7 +272,11 @@ public class PreviewStaticServer extends HttpRequestHandler {
           + ", therefore unable to render it");
         return false;
       }
-      sendDocument(request, virtualFile, project, context.channel());
+      if ("events".equals(action)) {
+        PreviewLiveReload.getInstance().subscribe(virtualFile, project, context.channel(), getBrowserPanel());
+      } else {
+        sendDocument(request, virtualFile, project, context.channel());
+      }
     } else if ("image".equals(action) && urlDecoder.parameters().get("file") != null && urlDecoder.parameters().get("mac") != null) {
       String file = urlDecoder.parameters().get("file").get(0);
       String mac = urlDecoder.parameters().get("mac").get(0);
@@ -252,29 +298,158 @@ public class PreviewStaticServer extends HttpRequestHandler {
   }
 
   private boolean sendImage(FullHttpRequest request, String file, String mac, Channel channel) {
-    byte[] image = getBrowserPanel().getImage(file, mac);
-    if (image != null) {
-      FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK, Unpooled.wrappedBuffer(image));
-      if (file.endsWith(".png")) {
-        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "image/png");
-      } else if (file.endsWith(".jpg")) {
-        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "image/jpeg");
-      } else if (file.endsWith(".svg")) {
-        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "image/svg+xml");
-      } else if (file.endsWith(".css")) {
-        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "text/css");
-      } else if (file.endsWith(".js")) {
-        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "application/javascript");
-      } else {
-        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "application/octet-stream");
-      }
+    File image = getBrowserPanel().getImageFile(file, mac);
+    if (image == null) {
+      return false;
+    }
+    // the fingerprint is cached and only calculated again when the file changes
+    String md5 = ImageFingerprints.md5(image.getPath());
+    if (md5.equals(ImageFingerprints.NONE)) {
+      return false;
+    }
+    String etag = "\"" + md5 + "\"";
+    if (matchesEtag(request.headers().get(HttpHeaderNames.IF_NONE_MATCH), etag)) {
+      FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.NOT_MODIFIED, Unpooled.EMPTY_BUFFER);
+      response.headers().set(HttpHeaderNames.ETAG, etag);
       response.headers().set(HttpHeaderNames.CACHE_CONTROL, "max-age=3600, private, must-revalidate");
-      response.headers().set(HttpHeaderNames.ETAG, Long.toString(LAST_MODIFIED));
       Responses.send(response, channel, request);
       return true;
-    } else {
+    }
+
+    RandomAccessFile raf;
+    long fileLength;
+    try {
+      raf = new RandomAccessFile(image, "r");
+      fileLength = raf.length();
+    } catch (IOException e) {
       return false;
     }
+
+    long start = 0;
+    long end = fileLength - 1;
+    HttpResponseStatus status = HttpResponseStatus.OK;
+    String range = request.headers().get(HttpHeaderNames.RANGE);
+    if (range != null && (request.headers().get(HttpHeaderNames.IF_RANGE) == null
+      || matchesEtag(request.headers().get(HttpHeaderNames.IF_RANGE), etag))) {
+      long[] parsed = parseRange(range, fileLength);
+      if (parsed == null) {
+        closeQuietly(raf);
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.REQUESTED_RANGE_NOT_SATISFIABLE, Unpooled.EMPTY_BUFFER);
+        response.headers().set(HttpHeaderNames.CONTENT_RANGE, "bytes */" + fileLength);
+        Responses.send(response, channel, request);
+        return true;
+      } else if (parsed.length == 2) {
+        start = parsed[0];
+        end = parsed[1];
+        status = HttpResponseStatus.PARTIAL_CONTENT;
+      }
+    }
+    long length = end - start + 1;
+
+    HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, status);
+    response.headers().set(HttpHeaderNames.CONTENT_TYPE, getImageContentType(file));
+    response.headers().set(HttpHeaderNames.CACHE_CONTROL, "max-age=3600, private, must-revalidate");
+    response.headers().set(HttpHeaderNames.ETAG, etag);
+    response.headers().set(HttpHeaderNames.ACCEPT_RANGES, HttpHeaderValues.BYTES);
+    if (status == HttpResponseStatus.PARTIAL_CONTENT) {
+      response.headers().set(HttpHeaderNames.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + fileLength);
+    }
+    HttpUtil.setContentLength(response, length);
+    boolean keepAlive = HttpUtil.isKeepAlive(request);
+    HttpUtil.setKeepAlive(response, keepAlive);
+
+    channel.write(response);
+    ChannelFuture future;
+    if (HttpMethod.HEAD.equals(request.method()) || length == 0) {
+      closeQuietly(raf);
+      future = channel.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+    } else if (channel.pipeline().get(SslHandler.class) == null) {
+      // zero-copy: the operating system transfers the file directly to the socket
+      channel.write(new DefaultFileRegion(raf.getChannel(), start, length));
+      future = channel.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+    } else {
+      // encrypted connections can't use zero-copy, stream the file in chunks instead
+      if (channel.pipeline().get(ChunkedWriteHandler.class) == null) {
+        channel.pipeline().addLast(new ChunkedWriteHandler());
+      }
+      try {
+        // the chunked input writes the last content when it reaches the end of the range
+        future = channel.writeAndFlush(new HttpChunkedInput(new ChunkedFile(raf, start, length, CHUNK_SIZE)));
+      } catch (IOException e) {
+        closeQuietly(raf);
+        channel.close();
+        return true;
+      }
+    }
+    if (!keepAlive) {
+      future.addListener(ChannelFutureListener.CLOSE);
+    }
+    return true;
+  }
+
+  /**
+   * Parse a single byte range as sent by browsers for media and large images.
+   * Multiple ranges are not supported, the whole file is sent instead.
+   *
+   * @return start and end (inclusive) of the range, an empty array to send the whole file, or <code>null</code> if the range can't be satisfied
+   */
+  @Nullable
+  static long[] parseRange(@NotNull String range, long fileLength) {
+    Matcher matcher = RANGE_PATTERN.matcher(range.trim());
+    if (!matcher.matches()) {
+      return new long[0];
+    }
+    String startGroup = matcher.group("start");
+    String endGroup = matcher.group("end");
+    long start;
+    long end;
+    try {
+      if (startGroup.isEmpty()) {
+        if (endGroup.isEmpty()) {
+          return new long[0];
+        }
+        // suffix range: the last n bytes
+        long suffix = Long.parseLong(endGroup);
+        if (suffix == 0) {
+          return null;
+        }
+        start = Math.max(0, fileLength - suffix);
+        end = fileLength - 1;
+      } else {
+        start = Long.parseLong(startGroup);
+        end = endGroup.isEmpty() ? fileLength - 1 : Math.min(Long.parseLong(endGroup), fileLength - 1);
+      }
+    } catch (NumberFormatException e) {
+      return new long[0];
+    }
+    if (start >= fileLength || start > end) {
+      return null;
+    }
+    return new long[]{start, end};
+  }
+
+  private static String getImageContentType(String file) {
+    if (file.endsWith(".png")) {
+      return "image/png";
+    } else if (file.endsWith(".jpg")) {
+      return "image/jpeg";
+    } else if (file.endsWith(".svg")) {
+      return "image/svg+xml";
+    } else if (file.endsWith(".css")) {
+      return "text/css";
+    } else if (file.endsWith(".js")) {
+      return "application/javascript";
+    } else {
+      return "application/octet-stream";
+    }
+  }
+
+  private static void closeQuietly(RandomAccessFile raf) {
+    try {
+      raf.close();
+    } catch (IOException e) {
+      // ignored, file was only read
+    }
   }
 
   @NotNull
@@ -288,7 +463,7 @@ public class PreviewStaticServer extends HttpRequestHandler {
   }
 
   public static String signFile(String file) {
-    String md5 = BrowserPanel.calculateMd5(file, null);
+    String md5 = ImageFingerprints.md5(file);
     return Urls.parseEncoded("http://localhost:" + BuiltInServerManager.getInstance().getPort() + PREFIX + "/image?file=" + getBrowserPanel().signFile(file) + "&amp;hash=" + md5).toExternalForm();
   }
 
@@ -303,33 +478,90 @@ public class PreviewStaticServer extends HttpRequestHandler {
 
   private static void sendResource(@NotNull HttpRequest request,
                                    @NotNull Channel channel,
-                                   @NotNull String resourceName) {
-    /*
-    // API incompatible with older versions of IntelliJ
-    if (FileResponses.INSTANCE.checkCache(request, channel, lastModified)) {
-      return;
-    }
-    */
-
-    byte[] data;
-    try (InputStream inputStream = JavaFxHtmlPanel.class.getResourceAsStream(resourceName)) {
-      if (inputStream == null) {
-        Responses.send(HttpResponseStatus.NOT_FOUND, channel, request);
-        return;
-      }
-
-      data = FileUtilRt.loadBytes(inputStream);
+                                   @NotNull String resourceName,
+                                   @Nullable String version) {
+    PreviewResourceCache.Resource resource;
+    try {
+      resource = RESOURCES.get(resourceName);
     } catch (IOException e) {
       LOG.warn(e);
       Responses.send(HttpResponseStatus.INTERNAL_SERVER_ERROR, channel, request);
       return;
     }
+    if (resource == null) {
+      Responses.send(HttpResponseStatus.NOT_FOUND, channel, request);
+      return;
+    }
 
-    FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK, Unpooled.wrappedBuffer(data));
-    response.headers().set(HttpHeaderNames.CONTENT_TYPE, FileResponses.INSTANCE.getContentType(resourceName));
-    response.headers().set(HttpHeaderNames.CACHE_CONTROL, "max-age=3600, private, must-revalidate");
-    response.headers().set(HttpHeaderNames.ETAG, Long.toString(LAST_MODIFIED));
+    byte[] gzipped = resource.getGzipped();
+    boolean gzip = gzipped != null && acceptsGzip(request.headers().get(HttpHeaderNames.ACCEPT_ENCODING));
+    String etag = etag(resource.getHash(), gzip);
+    String cacheControl;
+    if (resource.getHash().equals(version)) {
+      // the URL changes when the content changes, see #getStaticUrl
+      cacheControl = "max-age=31536000, private, immutable";
+    } else {
+      // resources loaded via relative URLs from other resources, for example fonts or the parts of MathJax
+      cacheControl = "max-age=3600, private, must-revalidate";
+    }
+
+    FullHttpResponse response;
+    if (matchesEtag(request.headers().get(HttpHeaderNames.IF_NONE_MATCH), etag)) {
+      response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.NOT_MODIFIED, Unpooled.EMPTY_BUFFER);
+    } else {
+      if (gzip) {
+        response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK, Unpooled.wrappedBuffer(gzipped));
+        response.headers().set(HttpHeaderNames.CONTENT_ENCODING, HttpHeaderValues.GZIP);
+      } else {
+        response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK, Unpooled.wrappedBuffer(resource.getData()));
+      }
+      response.headers().set(HttpHeaderNames.CONTENT_TYPE, FileResponses.INSTANCE.getContentType(resourceName));
+    }
+    if (gzipped != null) {
+      response.headers().set(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING);
+    }
+    response.headers().set(HttpHeaderNames.CACHE_CONTROL, cacheControl);
+    response.headers().set(HttpHeaderNames.ETAG, etag);
     Responses.send(response, channel, request);
   }
 
+  /**
+   * A strong ETag identifies the bytes sent, so the gzip encoded variant needs a different ETag than the identity
+   * variant. Otherwise, a cache could combine ranges of both or revalidate one with the other.
+   */
+  @NotNull
+  static String etag(@NotNull String hash, boolean gzip) {
+    return "\"" + hash + (gzip ? "-gz" : "") + "\"";
+  }
+
+  static boolean matchesEtag(@Nullable String ifNoneMatch, @NotNull String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      candidate = candidate.trim();
+      if (candidate.startsWith("W/")) {
+        candidate = candidate.substring(2);
+      }
+      if (candidate.equals(etag) || candidate.equals("*")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static boolean acceptsGzip(@Nullable String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String candidate : acceptEncoding.split(",")) {
+      String[] parts = candidate.trim().split(";");
+      if (parts[0].trim().equalsIgnoreCase("gzip")) {
+        // a client can explicitly refuse an encoding with "q=0"
+        return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+      }
+    }
+    return false;
+  }
+
 }
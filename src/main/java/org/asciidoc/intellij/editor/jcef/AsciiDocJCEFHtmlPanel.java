@@ -40,15 +40,15 @@ import com.intellij.ui.jcef.JBCefJSQuery;
 import com.intellij.ui.jcef.JBCefPsiNavigationUtils;
 import com.intellij.ui.jcef.JCEFHtmlPanel;
 import com.intellij.ui.scale.JBUIScale;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.text.StringEscapeUtils;
 import org.asciidoc.intellij.AsciiDocWrapper;
 import org.asciidoc.intellij.editor.AsciiDocHtmlPanel;
-import org.asciidoc.intellij.editor.javafx.JavaFxHtmlPanel;
+import org.asciidoc.intellij.editor.browser.ImageFingerprints;
 import org.asciidoc.intellij.editor.javafx.PreviewStaticServer;
 import org.asciidoc.intellij.psi.AsciiDocFileUtil;
 import org.asciidoc.intellij.psi.AsciiDocUtil;
 import org.asciidoc.intellij.settings.AsciiDocApplicationSettings;
+import org.asciidoc.intellij.telemetry.AsciiDocRenderTelemetry;
 import org.asciidoc.intellij.threading.AsciiDocProcessUtil;
 import org.cef.browser.CefBrowser;
 import org.cef.browser.CefFrame;
@@ -60,10 +60,7 @@ import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.math.BigInteger;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLDecoder;
@@ -147,6 +144,7 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
   private static final NotNullLazyValue<String> MY_SCRIPTING_LINES = NotNullLazyValue.lazy(() -> {
     //noinspection StringBufferReplaceableByString
     return new StringBuilder()
+      .append("<script src=\"").append(PreviewStaticServer.getScriptUrl("sourceLineMap.js")).append("\"></script>\n")
       .append("<script src=\"").append(PreviewStaticServer.getScriptUrl("scrollToElement.js")).append("\"></script>\n")
       .append("<script src=\"").append(PreviewStaticServer.getScriptUrl("processLinks.js")).append("\"></script>\n")
       .append("<script src=\"").append(PreviewStaticServer.getScriptUrl("processImages.js")).append("\"></script>\n")
@@ -228,50 +226,6 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
     };
     getJBCefClient().addLoadHandler(myCefLoadHandler, getCefBrowser());
 
-    try {
-      java.util.Properties p = new java.util.Properties();
-      try (InputStream stream = JavaFxHtmlPanel.class.getResourceAsStream("/META-INF/asciidoctorj-version.properties")) {
-        p.load(stream);
-      }
-      String asciidoctorVersion = p.getProperty("version.asciidoctor");
-      myInlineCss = extractAndPatchAsciidoctorCss(asciidoctorVersion);
-
-      try (InputStream is = JavaFxHtmlPanel.class.getResourceAsStream("/gems/asciidoctor-"
-        + asciidoctorVersion
-        + "/data/stylesheets/coderay-asciidoctor.css")) {
-        myInlineCss += IOUtils.toString(is, StandardCharsets.UTF_8);
-      }
-      try (InputStream is = JavaFxHtmlPanel.class.getResourceAsStream("rouge-github.css")) {
-        myInlineCss += IOUtils.toString(is, StandardCharsets.UTF_8);
-      }
-      try (InputStream is = JavaFxHtmlPanel.class.getResourceAsStream("/tabs/data/css/tabs.css")) {
-        myTabsCss = IOUtils.toString(is, StandardCharsets.UTF_8);
-        myInlineCss = myInlineCss + myTabsCss;
-      }
-      try (InputStream is = JavaFxHtmlPanel.class.getResourceAsStream("darcula.css")) {
-        myInlineCssDarcula = myInlineCss + IOUtils.toString(is, StandardCharsets.UTF_8);
-      }
-      try (InputStream is = JavaFxHtmlPanel.class.getResourceAsStream("/tabs/data/css/tabs-darcula.css")) {
-        myTabsCssDarcula = IOUtils.toString(is, StandardCharsets.UTF_8);
-      }
-      myAntoraCssLink = "<link rel=\"stylesheet\" data-default href=\"" + PreviewStaticServer.getStyleUrl("antora/preview.css") + "\">";
-      myAntoraDarculaCssLink = "<link rel=\"stylesheet\" data-default href=\"" + PreviewStaticServer.getStyleUrl("antora/preview-darcula.css") + "\">";
-      myFontAwesomeCssLink = "<link rel=\"stylesheet\" data-default href=\"" + PreviewStaticServer.getStyleUrl("font-awesome/css/font-awesome.min.css") + "\">";
-      myDejavuCssLink = "<link rel=\"stylesheet\" data-default href=\"" + PreviewStaticServer.getStyleUrl("dejavu/dejavu.css") + "\">";
-      myGoogleFontsCssLink = "<link rel=\"stylesheet\" data-default href=\"" + PreviewStaticServer.getStyleUrl("googlefonts/googlefonts.css") + "\">";
-      myDroidSansMonoCssLink = "<link rel=\"stylesheet\" data-default href=\"" + PreviewStaticServer.getStyleUrl("googlefonts/droidsansmono.css") + "\">";
-      myMermaidScript = "<script src=\"" + PreviewStaticServer.getScriptUrl("mermaid/mermaid.min.js") + "\"></script>" +
-        "<script>mermaid.initialize(); window.mermaid = mermaid; </script>";
-      myAsciidoctorTabsScript = "<script src=\"" + PreviewStaticServer.getScriptUrl("tabs.js") + "\"></script>";
-    } catch (IOException e) {
-      String message = "Unable to combine CSS resources: " + e.getMessage();
-      LOG.error(message, e);
-      Notification notification = AsciiDocWrapper.getNotificationGroup()
-        .createNotification("Error rendering asciidoctor", message, NotificationType.ERROR);
-      // increase event log counter
-      notification.setImportant(true);
-      Notifications.Bus.notify(notification);
-    }
     uiZoom = AsciiDocApplicationSettings.getInstance().getAsciiDocPreviewSettings().getZoom() / 100.0;
 
     myCefClient.addLifeSpanHandler(new CefLifeSpanHandlerAdapter() {
@@ -541,54 +495,6 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
     }
   }
 
-  private String extractAndPatchAsciidoctorCss(String asciidoctorVersion) throws IOException {
-    String css;
-
-    try (InputStream steam = JavaFxHtmlPanel.class.getResourceAsStream("/gems/asciidoctor-"
-      + asciidoctorVersion
-      + "/data/stylesheets/asciidoctor-default.css")) {
-      css = IOUtils.toString(steam, StandardCharsets.UTF_8);
-    }
-
-    // ensure that preamble renderes even if classes are appended with line numbers
-    // https://github.com/asciidoctor/asciidoctor/issues/4564
-    css = css.replaceAll(Pattern.quote("#preamble>.sectionbody>[class=paragraph]"), Matcher.quoteReplacement("#preamble>.sectionbody>[class^='paragraph has-source-line']"));
-
-    // the following lines have been added for JavaFX
-    // TODO: revisit the following to find out if this is still true for JCEF
-
-    // otherwise embedded SVG images will be skewed to full height of one browser window
-    css = css.replaceAll(Pattern.quote("object,embed{height:100%}"), "");
-
-    return css;
-  }
-
-  @Nullable
-  private String myInlineCss;
-  @Nullable
-  private String myTabsCss;
-  @Nullable
-  private String myTabsCssDarcula;
-  @Nullable
-  private String myInlineCssDarcula;
-  @Nullable
-  private String myFontAwesomeCssLink;
-  @Nullable
-  private String myAntoraCssLink;
-  @Nullable
-  private String myAntoraDarculaCssLink;
-  @Nullable
-  private String myDejavuCssLink;
-  @Nullable
-  private String myGoogleFontsCssLink;
-  @Nullable
-  private String myDroidSansMonoCssLink;
-
-  @Nullable
-  private String myMermaidScript;
-  @Nullable
-  private String myAsciidoctorTabsScript;
-
   private volatile boolean hasLoadedOnce = false;
   private byte[] previousDigest;
 
@@ -613,6 +519,8 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
     }
     String html = htmlParam;
     boolean result = false;
+    // time from handing the prepared HTML to the browser until the browser reports that it has rendered it
+    long startPaint = System.nanoTime();
     final AsciiDocApplicationSettings settings = AsciiDocApplicationSettings.getInstance();
     if (hasLoadedOnce && !forceRefresh && settings.getAsciiDocPreviewSettings().isInplacePreviewRefresh() && html.contains("id=\"content\"")) {
       String preparedHtml = prepareHtml(html, attributes);
@@ -632,6 +540,7 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
       // try to replace the HTML contents using JavaScript to avoid flickering MathML
       try {
         replaceResult = false;
+        startPaint = System.nanoTime();
         getCefBrowser().executeJavaScript(
             "function finish() {" +
             "if (window.mermaid !== undefined) window.mermaid.run(); " +
@@ -691,6 +600,7 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
       html = html + "<script>window.iterationStamp=" + iterationStamp + ";</script>";
       html = wrapHtmlForPage(html);
       final String htmlToRender = prepareHtml(html, attributes);
+      startPaint = System.nanoTime();
       loadHTML(htmlToRender, getCefBrowser().getURL());
       getCefBrowser().setZoomLevel(uiZoom - 1);
     }
@@ -705,6 +615,8 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
           LOG.warn("rendering didn't complete in time, might be slow or broken");
           forceRefresh = true;
         }
+      } else if (htmlParam.length() > 0) {
+        AsciiDocRenderTelemetry.record(AsciiDocRenderTelemetry.Phase.PAINT, startPaint);
       }
     } catch (InterruptedException e) {
       LOG.warn("interrupted while waiting for refresh to complete");
@@ -745,6 +657,7 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
   }
 
   private String prepareHtml(@NotNull String html, @NotNull Map<String, String> attributes) {
+    long start = System.nanoTime();
     // Antora plugin might resolve some absolute URLs, convert them to local file, so they get their MD5 that prevents caching
     String baseForHtml = ESCAPED_COLON.matcher(getBase()).replaceAll(":");
     Matcher matcher = IMAGE_FROM_ANTORA.matcher(html);
@@ -848,18 +761,19 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
       matcher.reset(html);
     }
 
-    if (isAntora()) {
-      html = AsciiDocWrapper.enrichPage(html, (isDarcula() ? myAntoraDarculaCssLink : myAntoraCssLink) + myFontAwesomeCssLink + AsciiDocHtmlPanel.getCssLines(myTabsCss + (isDarcula() ? myTabsCssDarcula : "")), myMermaidScript, myAsciidoctorTabsScript, attributes, editor != null ? editor.getProject() : null);
-    } else {
-      html = AsciiDocWrapper.enrichPage(html, AsciiDocHtmlPanel.getCssLines(isDarcula() ? myInlineCssDarcula + myTabsCssDarcula : myInlineCss) + myFontAwesomeCssLink + myDroidSansMonoCssLink + myGoogleFontsCssLink + myDejavuCssLink, myMermaidScript, myAsciidoctorTabsScript, attributes, editor != null ? editor.getProject() : null);
-    }
+    // page enrichment is recorded as a phase of its own, exclude it from the post-processing
+    long enrichStart = System.nanoTime();
+    PreviewPageShell shell = PreviewPageShell.getInstance();
+    html = AsciiDocWrapper.enrichPage(html, shell.getCssLinks(isAntora(), isDarcula()), shell.getMermaidScript(), shell.getAsciidoctorTabsScript(), attributes, editor != null ? editor.getProject() : null);
+    start += System.nanoTime() - enrichStart;
 
     html = html.replaceAll("<head>", "<head>\n" +
       "<meta http-equiv=\"Content-Security-Policy\" content=\"" + PreviewStaticServer.createCSP(attributes) + "\">");
 
     /* Add JavaScript for auto-scolling and clickable links */
-    return html
-      .replace("</body>", getScriptingLines() + "</body>");
+    html = html.replace("</body>", getScriptingLines() + "</body>");
+    AsciiDocRenderTelemetry.record(AsciiDocRenderTelemetry.Phase.PREPARE_HTML, start);
+    return html;
   }
 
   private synchronized boolean isAntora() {
@@ -933,21 +847,7 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
 
   // use pattern for %3A, and move that to the caller
   private String calculateMd5(String file, String baseForHtml) {
-    String md5;
-    try {
-      MessageDigest md = MessageDigest.getInstance("MD5");
-      try (FileInputStream fis = new FileInputStream((baseForHtml != null ? baseForHtml + "/" : "") + file)) {
-        int nread;
-        byte[] dataBytes = new byte[10240];
-        while ((nread = fis.read(dataBytes)) != -1) {
-          md.update(dataBytes, 0, nread);
-        }
-      }
-      md5 = new BigInteger(1, md.digest()).toString(16);
-    } catch (NoSuchAlgorithmException | IOException e) {
-      md5 = "none";
-    }
-    return md5;
+    return ImageFingerprints.md5((baseForHtml != null ? baseForHtml + "/" : "") + file);
   }
 
   @NotNull
@@ -992,13 +892,11 @@ public class AsciiDocJCEFHtmlPanel extends JCEFHtmlPanel implements AsciiDocHtml
    */
   private void scrollToLineInBrowser(int line, int lineCount) {
     try {
+      // scroll and report the new position in one call, to need only one round-trip per caret move
       getCefBrowser().executeJavaScript(
         "if ('__IntelliJTools' in window) " +
-          "__IntelliJTools.scrollToLine(" + line + ", " + lineCount + ");",
-        getCefBrowser().getURL(), 0);
-
-      getCefBrowser().executeJavaScript(
-        "var value = document.documentElement.scrollTop || document.body.scrollTop;" +
+          "__IntelliJTools.scrollToLine(" + line + ", " + lineCount + ");" +
+          "var value = document.documentElement.scrollTop || document.body.scrollTop;" +
           myJSQuerySetScrollY.inject("value"),
         getCefBrowser().getURL(), 0);
     } catch (IllegalStateException ex) {
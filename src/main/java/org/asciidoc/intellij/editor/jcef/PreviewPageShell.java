@@ -0,0 +1,150 @@
+package org.asciidoc.intellij.editor.jcef;
+
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.NotNullLazyValue;
+import org.apache.commons.io.IOUtils;
+import org.asciidoc.intellij.AsciiDocWrapper;
+import org.asciidoc.intellij.editor.javafx.JavaFxHtmlPanel;
+import org.asciidoc.intellij.editor.javafx.PreviewStaticServer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stylesheets and scripts that surround the content of every JCEF preview.
+ * They are assembled once and shared by all previews. The stylesheets are served by URL with the hash of their content
+ * instead of being inlined, so the browser parses them once and a full reload of a preview only transfers the document.
+ */
+final class PreviewPageShell {
+  private static final Logger LOG = Logger.getInstance(PreviewPageShell.class);
+
+  private static final NotNullLazyValue<PreviewPageShell> INSTANCE = NotNullLazyValue.lazy(PreviewPageShell::new);
+
+  private final String defaultCssLink;
+  private final String defaultDarculaCssLink;
+  private final String antoraCssLink;
+  private final String antoraDarculaCssLink;
+  private final String tabsCssLink;
+  private final String tabsDarculaCssLink;
+  private final String fontsCssLinks;
+  private final String fontAwesomeCssLink;
+  private final String mermaidScript;
+  private final String asciidoctorTabsScript;
+
+  private PreviewPageShell() {
+    String css = "";
+    String darculaCss = "";
+    String tabsCss = "";
+    String tabsDarculaCss = "";
+    try {
+      java.util.Properties p = new java.util.Properties();
+      try (InputStream stream = JavaFxHtmlPanel.class.getResourceAsStream("/META-INF/asciidoctorj-version.properties")) {
+        p.load(stream);
+      }
+      String asciidoctorVersion = p.getProperty("version.asciidoctor");
+      css = extractAndPatchAsciidoctorCss(asciidoctorVersion);
+
+      try (InputStream is = JavaFxHtmlPanel.class.getResourceAsStream("/gems/asciidoctor-"
+        + asciidoctorVersion
+        + "/data/stylesheets/coderay-asciidoctor.css")) {
+        css += IOUtils.toString(is, StandardCharsets.UTF_8);
+      }
+      try (InputStream is = JavaFxHtmlPanel.class.getResourceAsStream("rouge-github.css")) {
+        css += IOUtils.toString(is, StandardCharsets.UTF_8);
+      }
+      try (InputStream is = JavaFxHtmlPanel.class.getResourceAsStream("/tabs/data/css/tabs.css")) {
+        tabsCss = IOUtils.toString(is, StandardCharsets.UTF_8);
+        css = css + tabsCss;
+      }
+      try (InputStream is = JavaFxHtmlPanel.class.getResourceAsStream("darcula.css")) {
+        darculaCss = css + IOUtils.toString(is, StandardCharsets.UTF_8);
+      }
+      try (InputStream is = JavaFxHtmlPanel.class.getResourceAsStream("/tabs/data/css/tabs-darcula.css")) {
+        tabsDarculaCss = IOUtils.toString(is, StandardCharsets.UTF_8);
+      }
+    } catch (IOException e) {
+      String message = "Unable to combine CSS resources: " + e.getMessage();
+      LOG.error(message, e);
+      Notification notification = AsciiDocWrapper.getNotificationGroup()
+        .createNotification("Error rendering asciidoctor", message, NotificationType.ERROR);
+      // increase event log counter
+      notification.setImportant(true);
+      Notifications.Bus.notify(notification);
+    }
+    defaultCssLink = link(PreviewStaticServer.registerStyle("shell/preview.css", css));
+    defaultDarculaCssLink = link(PreviewStaticServer.registerStyle("shell/preview-darcula.css", darculaCss + tabsDarculaCss));
+    antoraCssLink = link(PreviewStaticServer.getStyleUrl("antora/preview.css"));
+    antoraDarculaCssLink = link(PreviewStaticServer.getStyleUrl("antora/preview-darcula.css"));
+    // Antora brings its own stylesheet, it only needs the styles for the tabs
+    tabsCssLink = link(PreviewStaticServer.registerStyle("shell/tabs.css", tabsCss));
+    tabsDarculaCssLink = link(PreviewStaticServer.registerStyle("shell/tabs-darcula.css", tabsCss + tabsDarculaCss));
+    fontAwesomeCssLink = link(PreviewStaticServer.getStyleUrl("font-awesome/css/font-awesome.min.css"));
+    fontsCssLinks = link(PreviewStaticServer.getStyleUrl("googlefonts/droidsansmono.css"))
+      + link(PreviewStaticServer.getStyleUrl("googlefonts/googlefonts.css"))
+      + link(PreviewStaticServer.getStyleUrl("dejavu/dejavu.css"));
+    mermaidScript = "<script src=\"" + PreviewStaticServer.getScriptUrl("mermaid/mermaid.min.js") + "\"></script>" +
+      "<script>mermaid.initialize(); window.mermaid = mermaid; </script>";
+    asciidoctorTabsScript = "<script src=\"" + PreviewStaticServer.getScriptUrl("tabs.js") + "\"></script>";
+  }
+
+  @NotNull
+  static PreviewPageShell getInstance() {
+    return INSTANCE.getValue();
+  }
+
+  private static String link(String url) {
+    // 'data-default' allows a custom stylesheet of the document to replace the default styles
+    return "<link rel=\"stylesheet\" data-default href=\"" + url + "\">";
+  }
+
+  private static String extractAndPatchAsciidoctorCss(String asciidoctorVersion) throws IOException {
+    String css;
+
+    try (InputStream steam = JavaFxHtmlPanel.class.getResourceAsStream("/gems/asciidoctor-"
+      + asciidoctorVersion
+      + "/data/stylesheets/asciidoctor-default.css")) {
+      css = IOUtils.toString(steam, StandardCharsets.UTF_8);
+    }
+
+    // ensure that preamble renderes even if classes are appended with line numbers
+    // https://github.com/asciidoctor/asciidoctor/issues/4564
+    css = css.replaceAll(Pattern.quote("#preamble>.sectionbody>[class=paragraph]"), Matcher.quoteReplacement("#preamble>.sectionbody>[class^='paragraph has-source-line']"));
+
+    // the following lines have been added for JavaFX
+    // TODO: revisit the following to find out if this is still true for JCEF
+
+    // otherwise embedded SVG images will be skewed to full height of one browser window
+    css = css.replaceAll(Pattern.quote("object,embed{height:100%}"), "");
+
+    return css;
+  }
+
+  /**
+   * Stylesheets for the head of the page.
+   */
+  @NotNull
+  String getCssLinks(boolean antora, boolean darcula) {
+    if (antora) {
+      return (darcula ? antoraDarculaCssLink : antoraCssLink) + fontAwesomeCssLink + (darcula ? tabsDarculaCssLink : tabsCssLink);
+    }
+    return (darcula ? defaultDarculaCssLink : defaultCssLink) + fontAwesomeCssLink + fontsCssLinks;
+  }
+
+  @NotNull
+  String getMermaidScript() {
+    return mermaidScript;
+  }
+
+  @NotNull
+  String getAsciidoctorTabsScript() {
+    return asciidoctorTabsScript;
+  }
+
+}
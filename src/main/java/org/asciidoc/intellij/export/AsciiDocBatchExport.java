@@ -0,0 +1,313 @@
+package org.asciidoc.intellij.export;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileVisitor;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.asciidoc.intellij.AsciiDocExtensionService;
+import org.asciidoc.intellij.AsciiDocWrapper;
+import org.asciidoc.intellij.file.AsciiDocFileType;
+import org.asciidoc.intellij.psi.AsciiDocBlockMacro;
+import org.asciidoc.intellij.psi.AsciiDocFile;
+import org.asciidoc.intellij.psi.AsciiDocFileReference;
+import org.asciidoc.intellij.psi.AsciiDocUtil;
+import org.asciidoc.intellij.threading.AsciiDocProcessUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Export all AsciiDoc documents of a folder or an Antora component to HTML or PDF.
+ * <p>
+ * Documents are converted one after the other on the caller's thread. {@link AsciiDocWrapper} serializes all
+ * conversions of its cached instances, as the preprocessor for the configuration and the include adapter keep state for
+ * the current conversion. Converting in parallel would need separately created instances for the export.
+ * A document is skipped if its output is newer than the document, its includes and its configuration files.
+ * <p>
+ * This doesn't use any UI, so it works both from an action and in headless mode.
+ */
+public class AsciiDocBatchExport {
+
+  private static final Logger LOG = Logger.getInstance(AsciiDocBatchExport.class);
+
+  private static final int MAX_INCLUDE_DEPTH = 64;
+
+  public enum Status {
+    CONVERTED, SKIPPED, FAILED
+  }
+
+  public static class Result {
+    private final VirtualFile file;
+    private final Status status;
+    private final long millis;
+
+    public Result(VirtualFile file, Status status, long millis) {
+      this.file = file;
+      this.status = status;
+      this.millis = millis;
+    }
+
+    public VirtualFile getFile() {
+      return file;
+    }
+
+    public Status getStatus() {
+      return status;
+    }
+
+    public long getMillis() {
+      return millis;
+    }
+  }
+
+  private final Project project;
+  private final AsciiDocWrapper.FileType format;
+  private final boolean force;
+
+  /**
+   * Create a new export.
+   *
+   * @param format either {@link AsciiDocWrapper.FileType#HTML} or {@link AsciiDocWrapper.FileType#PDF}
+   * @param force  convert all documents, even if their output is up-to-date
+   */
+  public AsciiDocBatchExport(@NotNull Project project, @NotNull AsciiDocWrapper.FileType format, boolean force) {
+    if (format != AsciiDocWrapper.FileType.HTML && format != AsciiDocWrapper.FileType.PDF) {
+      throw new IllegalArgumentException("unsupported format for export: " + format);
+    }
+    this.project = project;
+    this.format = format;
+    this.force = force;
+  }
+
+  /**
+   * Collect all documents to export in a folder.
+   * Files starting with an underscore are skipped, as they are usually included in other documents.
+   * Within an Antora component, only pages are exported, but no partials or examples.
+   */
+  @NotNull
+  public static List<VirtualFile> collectDocuments(@NotNull Project project, @NotNull VirtualFile root) {
+    return AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() -> {
+      List<VirtualFile> result = new ArrayList<>();
+      ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+      VfsUtilCore.visitChildrenRecursively(root, new VirtualFileVisitor<Void>() {
+        @Override
+        public boolean visitFile(@NotNull VirtualFile file) {
+          if (file.isDirectory()) {
+            return file.equals(root) || (!file.getName().startsWith(".") && !fileIndex.isExcluded(file));
+          }
+          if (isDocument(project, file)) {
+            result.add(file);
+          }
+          return true;
+        }
+      });
+      return result;
+    });
+  }
+
+  private static boolean isDocument(@NotNull Project project, @NotNull VirtualFile file) {
+    String name = file.getName();
+    if (!AsciiDocFileType.hasAsciiDocExtension(name) || name.startsWith("_") || name.startsWith(".asciidoctorconfig")) {
+      return false;
+    }
+    VirtualFile moduleDir = AsciiDocUtil.findAntoraModuleDir(project, file.getParent());
+    if (moduleDir != null) {
+      VirtualFile pagesDir = AsciiDocUtil.findAntoraPagesDir(project, file.getParent());
+      return pagesDir != null && VfsUtilCore.isAncestor(pagesDir, file, true);
+    }
+    return true;
+  }
+
+  /**
+   * Export the documents. Documents that can't be converted are reported as failed, the export continues with
+   * the remaining documents. Cancelling the indicator stops the export after the document currently being converted.
+   *
+   * @return one result per document, in the order of the documents
+   */
+  @NotNull
+  public List<Result> export(@NotNull List<VirtualFile> documents, @NotNull ProgressIndicator indicator) {
+    AsciiDocExtensionService extensionService = ApplicationManager.getApplication().getService(AsciiDocExtensionService.class);
+    List<String> extensions = extensionService.getExtensions(project);
+    indicator.setIndeterminate(false);
+    // runs on the caller's thread, which is already in the background, so the indicator can cancel the conversions
+    return ProgressManager.getInstance().runProcess(() -> {
+      List<Result> results = new ArrayList<>(documents.size());
+      for (VirtualFile document : documents) {
+        indicator.checkCanceled();
+        indicator.setText2(document.getName());
+        results.add(exportDocument(document, extensions));
+        indicator.setFraction((double) results.size() / documents.size());
+      }
+      return results;
+    }, indicator);
+  }
+
+  private Result exportDocument(@NotNull VirtualFile document, @NotNull List<String> extensions) {
+    long start = System.nanoTime();
+    if (!force && isUpToDate(document)) {
+      return new Result(document, Status.SKIPPED, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+    boolean successful;
+    try {
+      successful = convert(document, extensions);
+    } catch (ProcessCanceledException e) {
+      throw e;
+    } catch (RuntimeException e) {
+      LOG.warn("unable to export " + document.getPath(), e);
+      successful = false;
+    }
+    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    LOG.info("exported " + document.getPath() + " to " + format.name() + " in " + millis + " ms");
+    return new Result(document, successful ? Status.CONVERTED : Status.FAILED, millis);
+  }
+
+  /**
+   * Convert a document and write the output next to it.
+   *
+   * @return <code>true</code> if the conversion was successful
+   */
+  boolean convert(@NotNull VirtualFile document, @NotNull List<String> extensions) {
+    VirtualFile parent = document.getParent();
+    Path tempImagesPath = AsciiDocWrapper.tempImagesPath(parent.toNioPath(), project);
+    try {
+      AsciiDocWrapper asciiDocWrapper = new AsciiDocWrapper(project, parent.toNioPath().toFile(), tempImagesPath, document.getName());
+      String config = AsciiDocWrapper.config(document, project);
+      return asciiDocWrapper.convertTo(document.toNioPath().toFile(), config, extensions, format);
+    } finally {
+      AsciiDocWrapper.cleanupImagesPath(tempImagesPath);
+    }
+  }
+
+  /**
+   * Path of the output file for a document, as written by Asciidoctor next to the document.
+   */
+  @NotNull
+  public Path getOutputPath(@NotNull VirtualFile document) {
+    String extension = format == AsciiDocWrapper.FileType.PDF ? ".pdf" : ".html";
+    return document.toNioPath().resolveSibling(AsciiDocFileType.removeAsciiDocExtension(document.getName()) + extension);
+  }
+
+  private boolean isUpToDate(@NotNull VirtualFile document) {
+    Path output = getOutputPath(document);
+    long outputModified;
+    try {
+      if (!Files.exists(output)) {
+        return false;
+      }
+      outputModified = Files.getLastModifiedTime(output).toMillis();
+    } catch (IOException e) {
+      return false;
+    }
+    Set<VirtualFile> dependencies = DumbService.getInstance(project).runReadActionInSmartMode(() -> collectDependencies(document));
+    if (dependencies == null) {
+      return false;
+    }
+    for (VirtualFile dependency : dependencies) {
+      if (!dependency.isValid() || dependency.getTimeStamp() > outputModified) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Collect the files that influence the output of a document.
+   *
+   * @return files, or <code>null</code> if an include can't be resolved and the document needs to be converted
+   */
+  @Nullable
+  private Set<VirtualFile> collectDependencies(@NotNull VirtualFile document) {
+    Set<VirtualFile> result = new LinkedHashSet<>();
+    result.add(document);
+    VirtualFile moduleDir = AsciiDocUtil.findAntoraModuleDir(project, document.getParent());
+    if (moduleDir != null && moduleDir.getParent() != null && moduleDir.getParent().getParent() != null) {
+      VirtualFile antoraFile = moduleDir.getParent().getParent().findChild(AsciiDocUtil.ANTORA_YML);
+      if (antoraFile != null) {
+        result.add(antoraFile);
+      }
+    }
+    for (VirtualFile folder = document.getParent(); folder != null; folder = folder.getParent()) {
+      for (String configName : new String[]{".asciidoctorconfig", ".asciidoctorconfig.adoc"}) {
+        VirtualFile configFile = folder.findChild(configName);
+        if (configFile != null) {
+          result.add(configFile);
+        }
+      }
+    }
+    PsiFile psiFile = PsiManager.getInstance(project).findFile(document);
+    if (!(psiFile instanceof AsciiDocFile)) {
+      return null;
+    }
+    if (!collectIncludes(psiFile, result, 0)) {
+      return null;
+    }
+    return result;
+  }
+
+  private static boolean collectIncludes(@NotNull PsiFile file, @NotNull Set<VirtualFile> result, int depth) {
+    if (depth > MAX_INCLUDE_DEPTH) {
+      return false;
+    }
+    for (AsciiDocBlockMacro macro : PsiTreeUtil.findChildrenOfType(file, AsciiDocBlockMacro.class)) {
+      if (!"include".equals(macro.getMacroName())) {
+        continue;
+      }
+      AsciiDocFileReference fileReference = macro.getFileReference();
+      if (fileReference == null) {
+        return false;
+      }
+      PsiElement resolved = fileReference.resolve();
+      if (!(resolved instanceof PsiFile included) || included.getVirtualFile() == null) {
+        return false;
+      }
+      if (result.add(included.getVirtualFile()) && included instanceof AsciiDocFile) {
+        if (!collectIncludes(included, result, depth + 1)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Summary of an export with the slowest documents, for the user and for the log.
+   */
+  @NotNull
+  public static String summary(@NotNull List<Result> results) {
+    long converted = results.stream().filter(r -> r.getStatus() == Status.CONVERTED).count();
+    long skipped = results.stream().filter(r -> r.getStatus() == Status.SKIPPED).count();
+    long failed = results.stream().filter(r -> r.getStatus() == Status.FAILED).count();
+    long total = results.stream().mapToLong(Result::getMillis).sum();
+    StringBuilder sb = new StringBuilder();
+    sb.append("Converted ").append(converted).append(", skipped ").append(skipped).append(" as up-to-date, failed ")
+      .append(failed).append(" (").append(total).append(" ms spent on all documents)");
+    results.stream()
+      .filter(r -> r.getStatus() != Status.SKIPPED)
+      .sorted(Comparator.comparingLong(Result::getMillis).reversed())
+      .limit(5)
+      .forEach(r -> sb.append("\n").append(r.getFile().getName()).append(": ").append(r.getMillis()).append(" ms")
+        .append(r.getStatus() == Status.FAILED ? " (failed)" : ""));
+    return sb.toString();
+  }
+
+}
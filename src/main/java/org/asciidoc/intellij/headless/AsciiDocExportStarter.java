@@ -0,0 +1,94 @@
+package org.asciidoc.intellij.headless;
+
+import com.intellij.openapi.application.ApplicationStarter;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.asciidoc.intellij.AsciiDocWrapper;
+import org.asciidoc.intellij.export.AsciiDocBatchExport;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Export AsciiDoc documents from the command line, for example in a CI pipeline.
+ * This uses the same configuration and Antora support as the preview in the IDE.
+ * <p>
+ * Usage: <code>idea asciidoc-export &lt;project&gt; &lt;folder&gt; [html|pdf] [--force]</code>
+ */
+public class AsciiDocExportStarter implements ApplicationStarter {
+
+  private static final Logger LOG = Logger.getInstance(AsciiDocExportStarter.class);
+
+  @Override
+  public int getRequiredModality() {
+    return NOT_IN_EDT;
+  }
+
+  @Override
+  public void main(@NotNull List<String> args) {
+    int exitCode;
+    try {
+      exitCode = export(args.subList(1, args.size()), System.out);
+    } catch (RuntimeException e) {
+      LOG.error("unable to export documents", e);
+      exitCode = 2;
+    }
+    System.exit(exitCode);
+  }
+
+  private static int export(List<String> args, PrintStream out) {
+    List<String> positional = new ArrayList<>();
+    boolean force = false;
+    for (String arg : args) {
+      if (arg.equals("--force")) {
+        force = true;
+      } else {
+        positional.add(arg);
+      }
+    }
+    if (positional.size() < 2 || positional.size() > 3) {
+      out.println("usage: asciidoc-export <project> <folder> [html|pdf] [--force]");
+      return 1;
+    }
+    AsciiDocWrapper.FileType format = AsciiDocWrapper.FileType.HTML;
+    if (positional.size() == 3) {
+      switch (positional.get(2).toLowerCase(Locale.US)) {
+        case "html" -> format = AsciiDocWrapper.FileType.HTML;
+        case "pdf" -> format = AsciiDocWrapper.FileType.PDF;
+        default -> {
+          out.println("unsupported format: " + positional.get(2));
+          return 1;
+        }
+      }
+    }
+
+    Project project = HeadlessProject.open(positional.get(0));
+    if (project == null) {
+      out.println("unable to open project " + positional.get(0));
+      return 1;
+    }
+    try {
+      VirtualFile folder = HeadlessProject.findFolder(positional.get(1));
+      if (folder == null) {
+        out.println("folder not found: " + positional.get(1));
+        return 1;
+      }
+      List<VirtualFile> documents = AsciiDocBatchExport.collectDocuments(project, folder);
+      List<AsciiDocBatchExport.Result> results = new AsciiDocBatchExport(project, format, force)
+        .export(documents, new EmptyProgressIndicator());
+      for (AsciiDocBatchExport.Result result : results) {
+        out.println(result.getStatus() + " " + result.getFile().getPath() + " (" + result.getMillis() + " ms)");
+      }
+      out.println(AsciiDocBatchExport.summary(results));
+      return results.stream().anyMatch(r -> r.getStatus() == AsciiDocBatchExport.Status.FAILED) ? 3 : 0;
+    } finally {
+      HeadlessProject.close(project);
+    }
+  }
+
+}
@@ -0,0 +1,112 @@
+package org.asciidoc.intellij.headless;
+
+import com.intellij.openapi.application.ApplicationStarter;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.asciidoc.intellij.export.AsciiDocBatchExport;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validate AsciiDoc documents from the command line, for example in a CI pipeline.
+ * This reports the same problems as the editor: the AsciiDoc inspections of the project's inspection profile,
+ * and the warnings and errors of Asciidoctor.
+ * <p>
+ * Usage: <code>idea asciidoc-validate &lt;project&gt; &lt;folder&gt; [--format=sarif|json] [--output=&lt;file&gt;]</code>
+ * <p>
+ * The exit code is 3 if any error has been found.
+ */
+public class AsciiDocValidateStarter implements ApplicationStarter {
+
+  private static final Logger LOG = Logger.getInstance(AsciiDocValidateStarter.class);
+
+  private static final String FORMAT = "--format=";
+  private static final String OUTPUT = "--output=";
+
+  @Override
+  public int getRequiredModality() {
+    return NOT_IN_EDT;
+  }
+
+  @Override
+  public void main(@NotNull List<String> args) {
+    int exitCode;
+    try {
+      exitCode = validate(args.subList(1, args.size()), System.out);
+    } catch (IOException | RuntimeException e) {
+      LOG.error("unable to validate documents", e);
+      exitCode = 2;
+    }
+    System.exit(exitCode);
+  }
+
+  private static int validate(List<String> args, PrintStream out) throws IOException {
+    List<String> positional = new ArrayList<>();
+    String format = "json";
+    String output = null;
+    for (String arg : args) {
+      if (arg.startsWith(FORMAT)) {
+        format = arg.substring(FORMAT.length());
+      } else if (arg.startsWith(OUTPUT)) {
+        output = arg.substring(OUTPUT.length());
+      } else {
+        positional.add(arg);
+      }
+    }
+    if (positional.size() != 2) {
+      out.println("usage: asciidoc-validate <project> <folder> [--format=sarif|json] [--output=<file>]");
+      return 1;
+    }
+    if (!format.equals("json") && !format.equals("sarif")) {
+      out.println("unsupported format: " + format);
+      return 1;
+    }
+
+    Project project = HeadlessProject.open(positional.get(0));
+    if (project == null) {
+      out.println("unable to open project " + positional.get(0));
+      return 1;
+    }
+    try {
+      VirtualFile folder = HeadlessProject.findFolder(positional.get(1));
+      if (folder == null) {
+        out.println("folder not found: " + positional.get(1));
+        return 1;
+      }
+      List<VirtualFile> files = AsciiDocValidation.collectFiles(project, folder);
+      List<VirtualFile> documents = AsciiDocBatchExport.collectDocuments(project, folder);
+      List<AsciiDocValidation.FileResult> results = new AsciiDocValidation(project)
+        .validate(files, documents, new EmptyProgressIndicator());
+      ValidationReportWriter reportWriter = new ValidationReportWriter(folder.getPath());
+      try (Writer writer = output != null ? Files.newBufferedWriter(Path.of(output), StandardCharsets.UTF_8)
+        : new OutputStreamWriter(out, StandardCharsets.UTF_8) {
+        @Override
+        public void close() throws IOException {
+          // flush, but don't close the standard output
+          flush();
+        }
+      }) {
+        if (format.equals("sarif")) {
+          reportWriter.writeSarif(results, writer);
+        } else {
+          reportWriter.writeJson(results, writer);
+        }
+      }
+      return AsciiDocValidation.hasErrors(results) ? 3 : 0;
+    } finally {
+      HeadlessProject.close(project);
+    }
+  }
+
+}
@@ -0,0 +1,384 @@
+package org.asciidoc.intellij.headless;
+
+import com.intellij.codeHighlighting.HighlightDisplayLevel;
+import com.intellij.codeInsight.daemon.HighlightDisplayKey;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemDescriptorUtil;
+import com.intellij.codeInspection.ex.InspectionProfileImpl;
+import com.intellij.codeInspection.ex.InspectionToolWrapper;
+import com.intellij.codeInspection.ex.LocalInspectionToolWrapper;
+import com.intellij.codeInspection.ex.Tools;
+import com.intellij.lang.annotation.HighlightSeverity;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileVisitor;
+import com.intellij.profile.codeInspection.InspectionProjectProfileManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.asciidoc.intellij.AsciiDocExtensionService;
+import org.asciidoc.intellij.AsciiDocLanguage;
+import org.asciidoc.intellij.AsciiDocWrapper;
+import org.asciidoc.intellij.file.AsciiDocFileType;
+import org.asciidoc.intellij.psi.AsciiDocFile;
+import org.asciidoc.intellij.threading.AsciiDocProcessUtil;
+import org.asciidoctor.log.LogRecord;
+import org.asciidoctor.log.Severity;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Validate AsciiDoc files without a UI, for example in a CI pipeline.
+ * Each file is checked with the AsciiDoc inspections enabled in the project's inspection profile,
+ * and each root document is converted with Asciidoctor to collect its warnings and errors.
+ * Files are checked in parallel; conversions are serialized by the lock of {@link AsciiDocWrapper}.
+ */
+public class AsciiDocValidation {
+
+  private static final Logger LOG = Logger.getInstance(AsciiDocValidation.class);
+
+  private static final int MAX_PARALLELISM = 4;
+
+  public static final String SOURCE_INSPECTION = "inspection";
+  public static final String SOURCE_ASCIIDOCTOR = "asciidoctor";
+
+  private final Project project;
+  private final Map<String, FileResult> results = new TreeMap<>();
+
+  public AsciiDocValidation(@NotNull Project project) {
+    this.project = project;
+  }
+
+  public enum Level {
+    ERROR, WARNING, NOTE
+  }
+
+  /**
+   * A problem found in a file, either by an inspection or by Asciidoctor.
+   */
+  public static class Problem {
+    private final int line;
+    private final Level level;
+    private final String source;
+    private final String rule;
+    private final String message;
+
+    /**
+     * @param line line in the file, starting with 1, or 0 if the problem has no line
+     */
+    public Problem(int line, @NotNull Level level, @NotNull String source, @NotNull String rule, @NotNull String message) {
+      this.line = line;
+      this.level = level;
+      this.source = source;
+      this.rule = rule;
+      this.message = message;
+    }
+
+    public int getLine() {
+      return line;
+    }
+
+    public Level getLevel() {
+      return level;
+    }
+
+    public String getSource() {
+      return source;
+    }
+
+    public String getRule() {
+      return rule;
+    }
+
+    public String getMessage() {
+      return message;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Problem problem = (Problem) o;
+      return line == problem.line && level == problem.level && source.equals(problem.source)
+        && rule.equals(problem.rule) && message.equals(problem.message);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(line, level, source, rule, message);
+    }
+  }
+
+  /**
+   * Problems and timings of a single file.
+   * An included file converted as part of several documents lists each problem only once.
+   */
+  public static class FileResult {
+    private final String path;
+    private final Set<Problem> problems = new LinkedHashSet<>();
+    private long inspectionMillis;
+    private long conversionMillis;
+
+    public FileResult(@NotNull String path) {
+      this.path = path;
+    }
+
+    public String getPath() {
+      return path;
+    }
+
+    public synchronized List<Problem> getProblems() {
+      List<Problem> result = new ArrayList<>(problems);
+      result.sort(Comparator.comparingInt(Problem::getLine));
+      return result;
+    }
+
+    public synchronized long getInspectionMillis() {
+      return inspectionMillis;
+    }
+
+    public synchronized long getConversionMillis() {
+      return conversionMillis;
+    }
+
+    synchronized void addProblem(@NotNull Problem problem) {
+      problems.add(problem);
+    }
+
+    synchronized void addInspectionMillis(long millis) {
+      inspectionMillis += millis;
+    }
+
+    synchronized void addConversionMillis(long millis) {
+      conversionMillis += millis;
+    }
+  }
+
+  /**
+   * Collect all AsciiDoc files in a folder, including those that are only included in other documents.
+   */
+  @NotNull
+  public static List<VirtualFile> collectFiles(@NotNull Project project, @NotNull VirtualFile root) {
+    return AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() -> {
+      List<VirtualFile> result = new ArrayList<>();
+      ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+      VfsUtilCore.visitChildrenRecursively(root, new VirtualFileVisitor<Void>() {
+        @Override
+        public boolean visitFile(@NotNull VirtualFile file) {
+          if (file.isDirectory()) {
+            return file.equals(root) || (!file.getName().startsWith(".") && !fileIndex.isExcluded(file));
+          }
+          if (AsciiDocFileType.hasAsciiDocExtension(file.getName()) && !file.getName().startsWith(".asciidoctorconfig")) {
+            result.add(file);
+          }
+          return true;
+        }
+      });
+      return result;
+    });
+  }
+
+  /**
+   * Run the inspections on all files and convert all documents.
+   * Cancelling the indicator stops the validation after the files currently being checked.
+   *
+   * @param files     files to inspect
+   * @param documents root documents to convert with Asciidoctor
+   * @return one result per file with problems or timings, ordered by path
+   */
+  @NotNull
+  public List<FileResult> validate(@NotNull List<VirtualFile> files, @NotNull List<VirtualFile> documents,
+                                   @NotNull ProgressIndicator indicator) {
+    AsciiDocExtensionService extensionService = ApplicationManager.getApplication().getService(AsciiDocExtensionService.class);
+    List<String> extensions = extensionService.getExtensions(project);
+    ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("AsciiDoc Validation",
+      Math.max(1, Math.min(MAX_PARALLELISM, Runtime.getRuntime().availableProcessors())));
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (VirtualFile file : files) {
+        futures.add(executor.submit(() -> ProgressManager.getInstance().runProcess(() -> inspect(file), indicator)));
+      }
+      for (VirtualFile document : documents) {
+        futures.add(executor.submit(() -> ProgressManager.getInstance().runProcess(() -> convert(document, extensions), indicator)));
+      }
+      for (Future<?> future : futures) {
+        await(future, indicator);
+      }
+    } finally {
+      futures.forEach(future -> future.cancel(false));
+      executor.shutdown();
+    }
+    synchronized (results) {
+      return new ArrayList<>(results.values());
+    }
+  }
+
+  private FileResult getResult(@NotNull String path) {
+    synchronized (results) {
+      return results.computeIfAbsent(path, FileResult::new);
+    }
+  }
+
+  private void inspect(@NotNull VirtualFile file) {
+    long start = System.nanoTime();
+    FileResult result = getResult(file.getPath());
+    List<Problem> problems = AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() -> inspectInReadAction(file));
+    problems.forEach(result::addProblem);
+    result.addInspectionMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  private List<Problem> inspectInReadAction(@NotNull VirtualFile file) {
+    List<Problem> problems = new ArrayList<>();
+    if (project.isDisposed() || !file.isValid()) {
+      return problems;
+    }
+    PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+    if (!(psiFile instanceof AsciiDocFile)) {
+      return problems;
+    }
+    InspectionProfileImpl profile = InspectionProjectProfileManager.getInstance(project).getCurrentProfile();
+    InspectionManager manager = InspectionManager.getInstance(project);
+    for (Tools tools : profile.getAllEnabledInspectionTools(project)) {
+      InspectionToolWrapper<?, ?> wrapper = tools.getEnabledTool(psiFile);
+      if (!(wrapper instanceof LocalInspectionToolWrapper localWrapper)
+        || !AsciiDocLanguage.LANGUAGE_NAME.equals(localWrapper.getLanguage())) {
+        continue;
+      }
+      ProgressManager.checkCanceled();
+      LocalInspectionTool tool = localWrapper.getTool();
+      HighlightDisplayLevel errorLevel = profile.getErrorLevel(HighlightDisplayKey.find(localWrapper.getShortName()), psiFile);
+      Level level = toLevel(errorLevel.getSeverity());
+      for (ProblemDescriptor descriptor : tool.processFile(psiFile, manager)) {
+        String message = ProblemDescriptorUtil.renderDescriptionMessage(descriptor, descriptor.getPsiElement());
+        problems.add(new Problem(descriptor.getLineNumber() + 1, level, SOURCE_INSPECTION, localWrapper.getShortName(), message));
+      }
+    }
+    return problems;
+  }
+
+  private void convert(@NotNull VirtualFile document, @NotNull List<String> extensions) {
+    long start = System.nanoTime();
+    FileResult result = getResult(document.getPath());
+    VirtualFile parent = document.getParent();
+    Path tempImagesPath = AsciiDocWrapper.tempImagesPath(parent.toNioPath(), project);
+    try {
+      String content = VfsUtilCore.loadText(document);
+      String config = AsciiDocProcessUtil.runInReadActionWithWriteActionPriority(() -> AsciiDocWrapper.config(document, project));
+      AsciiDocWrapper asciiDocWrapper = new AsciiDocWrapper(project, parent.toNioPath().toFile(), tempImagesPath, document.getName());
+      String docname = parent.toNioPath().resolve(document.getName()).toAbsolutePath().toString();
+      asciiDocWrapper.render(content, config, extensions, (boasOut, boasErr, logRecords) -> {
+        for (LogRecord logRecord : logRecords) {
+          addLogRecord(result, docname, logRecord);
+        }
+      }, AsciiDocWrapper.FileType.HTML);
+    } catch (ProcessCanceledException e) {
+      throw e;
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("unable to convert " + document.getPath(), e);
+      result.addProblem(new Problem(0, Level.ERROR, SOURCE_ASCIIDOCTOR, SOURCE_ASCIIDOCTOR,
+        "unable to convert document: " + e.getMessage()));
+    } finally {
+      AsciiDocWrapper.cleanupImagesPath(tempImagesPath);
+    }
+    result.addConversionMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  private void addLogRecord(@NotNull FileResult document, @NotNull String docname, @NotNull LogRecord logRecord) {
+    if (logRecord.getSeverity() == Severity.DEBUG || logRecord.getMessage() == null) {
+      return;
+    }
+    FileResult target = document;
+    int line = 0;
+    if (logRecord.getCursor() != null) {
+      String file = logRecord.getCursor().getFile();
+      if (file != null && !file.equals(docname)) {
+        target = getResult(Path.of(file).toAbsolutePath().toString().replace('\\', '/'));
+      }
+      // line numbers in the prepended .asciidoctorconfig are zero or negative
+      line = Math.max(0, logRecord.getCursor().getLineNumber());
+    }
+    target.addProblem(new Problem(line, toLevel(logRecord.getSeverity()), SOURCE_ASCIIDOCTOR, SOURCE_ASCIIDOCTOR,
+      logRecord.getMessage()));
+  }
+
+  private static Level toLevel(@NotNull HighlightSeverity severity) {
+    if (severity.compareTo(HighlightSeverity.ERROR) >= 0) {
+      return Level.ERROR;
+    } else if (severity.compareTo(HighlightSeverity.WARNING) >= 0) {
+      return Level.WARNING;
+    } else {
+      return Level.NOTE;
+    }
+  }
+
+  private static Level toLevel(@NotNull Severity severity) {
+    switch (severity) {
+      case ERROR:
+      case FATAL:
+        return Level.ERROR;
+      case WARN:
+        return Level.WARNING;
+      case DEBUG:
+      case INFO:
+      case UNKNOWN:
+      default:
+        return Level.NOTE;
+    }
+  }
+
+  private static void await(Future<?> future, ProgressIndicator indicator) {
+    while (true) {
+      indicator.checkCanceled();
+      try {
+        future.get(100, TimeUnit.MILLISECONDS);
+        return;
+      } catch (TimeoutException ignored) {
+        // check for cancellation and wait again
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ProcessCanceledException(e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof ProcessCanceledException pce) {
+          throw pce;
+        }
+        throw new IllegalStateException("unable to validate file", e.getCause());
+      }
+    }
+  }
+
+  /**
+   * Check if any of the files has an error.
+   */
+  public static boolean hasErrors(@NotNull List<FileResult> results) {
+    return results.stream().anyMatch(r -> r.getProblems().stream().anyMatch(p -> p.getLevel() == Level.ERROR));
+  }
+
+}
@@ -0,0 +1,55 @@
+package org.asciidoc.intellij.headless;
+
+import com.intellij.ide.impl.ProjectUtil;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+
+/**
+ * Open and close a project for the command line starters.
+ */
+class HeadlessProject {
+
+  private HeadlessProject() {
+  }
+
+  /**
+   * Open a project and wait until indexing is complete.
+   *
+   * @return the project, or <code>null</code> if it can't be opened
+   */
+  @Nullable
+  static Project open(@NotNull String path) {
+    Project project = ProjectUtil.openOrImport(Path.of(path).toAbsolutePath(), null, false);
+    if (project != null) {
+      DumbService.getInstance(project).waitForSmartMode();
+    }
+    return project;
+  }
+
+  /**
+   * Find a folder, refreshing the VFS so files created before starting are found.
+   *
+   * @return the folder, or <code>null</code> if it doesn't exist
+   */
+  @Nullable
+  static VirtualFile findFolder(@NotNull String path) {
+    VirtualFile folder = LocalFileSystem.getInstance().refreshAndFindFileByNioFile(Path.of(path).toAbsolutePath());
+    if (folder == null || !folder.isDirectory()) {
+      return null;
+    }
+    return folder;
+  }
+
+  static void close(@NotNull Project project) {
+    ApplicationManager.getApplication().invokeAndWait(() -> ProjectManager.getInstance().closeAndDispose(project));
+  }
+
+}
@@ -0,0 +1,199 @@
+package org.asciidoc.intellij.headless;
+
+import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Write the results of an {@link AsciiDocValidation} as JSON or as SARIF, so CI systems can show the problems
+ * next to the changed lines. Paths within the base folder are written relative to it.
+ * In SARIF, these relative paths refer to the base folder with {@link #BASE_ID}, so tools can place the results
+ * even if the base folder is not the root of the repository.
+ */
+class ValidationReportWriter {
+
+  static final String SARIF_SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+
+  static final String BASE_ID = "SRCROOT";
+
+  private final String base;
+
+  ValidationReportWriter(@NotNull String base) {
+    this.base = base.endsWith("/") ? base : base + "/";
+  }
+
+  void writeJson(@NotNull List<AsciiDocValidation.FileResult> results, @NotNull Writer out) throws IOException {
+    try (JsonWriter json = newJsonWriter(out)) {
+      json.beginObject();
+      json.name("files").beginArray();
+      long problems = 0;
+      long errors = 0;
+      long inspectionMillis = 0;
+      long conversionMillis = 0;
+      for (AsciiDocValidation.FileResult result : results) {
+        json.beginObject();
+        json.name("path").value(toPath(result.getPath()));
+        json.name("inspectionMillis").value(result.getInspectionMillis());
+        json.name("conversionMillis").value(result.getConversionMillis());
+        json.name("problems").beginArray();
+        for (AsciiDocValidation.Problem problem : result.getProblems()) {
+          json.beginObject();
+          json.name("line").value(problem.getLine());
+          json.name("severity").value(toName(problem.getLevel()));
+          json.name("source").value(problem.getSource());
+          json.name("rule").value(problem.getRule());
+          json.name("message").value(problem.getMessage());
+          json.endObject();
+          ++problems;
+          if (problem.getLevel() == AsciiDocValidation.Level.ERROR) {
+            ++errors;
+          }
+        }
+        json.endArray();
+        json.endObject();
+        inspectionMillis += result.getInspectionMillis();
+        conversionMillis += result.getConversionMillis();
+      }
+      json.endArray();
+      json.name("summary").beginObject();
+      json.name("files").value(results.size());
+      json.name("problems").value(problems);
+      json.name("errors").value(errors);
+      json.name("inspectionMillis").value(inspectionMillis);
+      json.name("conversionMillis").value(conversionMillis);
+      json.endObject();
+      json.endObject();
+    }
+  }
+
+  void writeSarif(@NotNull List<AsciiDocValidation.FileResult> results, @NotNull Writer out) throws IOException {
+    Set<String> rules = new TreeSet<>();
+    for (AsciiDocValidation.FileResult result : results) {
+      for (AsciiDocValidation.Problem problem : result.getProblems()) {
+        rules.add(problem.getRule());
+      }
+    }
+    try (JsonWriter json = newJsonWriter(out)) {
+      json.beginObject();
+      json.name("$schema").value(SARIF_SCHEMA);
+      json.name("version").value("2.1.0");
+      json.name("runs").beginArray();
+      json.beginObject();
+
+      json.name("tool").beginObject();
+      json.name("driver").beginObject();
+      json.name("name").value("AsciiDoc Plugin");
+      json.name("informationUri").value("https://intellij-asciidoc-plugin.ahus1.de/");
+      json.name("rules").beginArray();
+      for (String rule : rules) {
+        json.beginObject();
+        json.name("id").value(rule);
+        json.endObject();
+      }
+      json.endArray();
+      json.endObject();
+      json.endObject();
+
+      json.name("originalUriBaseIds").beginObject();
+      json.name(BASE_ID).beginObject();
+      json.name("uri").value(toBaseUri());
+      json.endObject();
+      json.endObject();
+
+      json.name("artifacts").beginArray();
+      for (AsciiDocValidation.FileResult result : results) {
+        json.beginObject();
+        json.name("location");
+        writeArtifactLocation(json, result.getPath());
+        json.name("properties").beginObject();
+        json.name("inspectionMillis").value(result.getInspectionMillis());
+        json.name("conversionMillis").value(result.getConversionMillis());
+        json.endObject();
+        json.endObject();
+      }
+      json.endArray();
+
+      json.name("results").beginArray();
+      for (AsciiDocValidation.FileResult result : results) {
+        for (AsciiDocValidation.Problem problem : result.getProblems()) {
+          json.beginObject();
+          json.name("ruleId").value(problem.getRule());
+          json.name("level").value(toName(problem.getLevel()));
+          json.name("message").beginObject();
+          json.name("text").value(problem.getMessage());
+          json.endObject();
+          json.name("locations").beginArray();
+          json.beginObject();
+          json.name("physicalLocation").beginObject();
+          json.name("artifactLocation");
+          writeArtifactLocation(json, result.getPath());
+          // SARIF lines start with 1, problems without a line are reported for the file only
+          if (problem.getLine() > 0) {
+            json.name("region").beginObject();
+            json.name("startLine").value(problem.getLine());
+            json.endObject();
+          }
+          json.endObject();
+          json.endObject();
+          json.endArray();
+          json.endObject();
+        }
+      }
+      json.endArray();
+
+      json.endObject();
+      json.endArray();
+      json.endObject();
+    }
+  }
+
+  private static JsonWriter newJsonWriter(Writer out) {
+    JsonWriter json = new JsonWriter(out);
+    json.setIndent("  ");
+    return json;
+  }
+
+  /**
+   * Names as used by SARIF for the level of a result.
+   */
+  private static String toName(AsciiDocValidation.Level level) {
+    return level.name().toLowerCase(Locale.US);
+  }
+
+  private String toPath(String path) {
+    if (path.startsWith(base)) {
+      return path.substring(base.length());
+    }
+    return path;
+  }
+
+  /**
+   * Location relative to the base folder, or with an absolute URI for files outside of it.
+   */
+  private void writeArtifactLocation(JsonWriter json, String path) throws IOException {
+    json.beginObject();
+    if (path.startsWith(base)) {
+      json.name("uri").value(path.substring(base.length()));
+      json.name("uriBaseId").value(BASE_ID);
+    } else {
+      json.name("uri").value(Path.of(path).toUri().toString());
+    }
+    json.endObject();
+  }
+
+  /**
+   * URI of the base folder. SARIF requires it to end with a slash, so relative URIs resolve within the folder.
+   */
+  private String toBaseUri() {
+    String uri = Path.of(base).toUri().toString();
+    return uri.endsWith("/") ? uri : uri + "/";
+  }
+
+}
@@ -26,7 +26,7 @@ public class AsciiDocAnchorWithoutIdInspection extends AsciiDocInspectionBase {
         if (o instanceof HasAnchorReference) {
           AsciiDocSection section = ((HasAnchorReference) o).resolveAnchorForSection();
           AsciiDocFileReference anchor = ((HasAnchorReference) o).getAnchorReference();
-          if (section != null && anchor != null && section.getBlockId() == null && !anchor.isPossibleRefText()) {
+          if (section != null && anchor != null && section.getBlockIdName() == null && !anchor.isPossibleRefText()) {
             LocalQuickFix[] fixes = new LocalQuickFix[]{new AsciiDocAddBlockIdToSection(o)};
             holder.registerProblem(o, TEXT_HINT_ANCHOR_WITHOUT_ID, ProblemHighlightType.GENERIC_ERROR_OR_WARNING, anchor.getRangeInElement(), fixes);
           }
@@ -485,7 +485,7 @@ public class AsciiDocFileReference extends PsiReferenceBase<PsiElement> implemen
     if (ignoreCase) {
       String lowerCaseKey = key.toLowerCase(Locale.US);
       if (element instanceof AsciiDocSection) {
-        if (((AsciiDocSection) element).matchesAutogeneratedId(lowerCaseKey) && ((AsciiDocSection) element).getBlockId() == null) {
+        if (((AsciiDocSection) element).matchesAutogeneratedId(lowerCaseKey) && ((AsciiDocSection) element).getBlockIdName() == null) {
           results.add(new PsiElementResolveResult(element));
         }
       } else {
@@ -524,7 +524,7 @@ public class AsciiDocFileReference extends PsiReferenceBase<PsiElement> implemen
       }
       if (section != null) {
         boolean possibleRefText = (base.equals("#") || base.isEmpty()) && isPossibleRefText(key);
-        if (section.matchesAutogeneratedId(key) && section.getBlockId() == null) {
+        if (section.matchesAutogeneratedId(key) && section.getBlockIdName() == null) {
           results.add(new PsiElementResolveResult(element));
         } else if (possibleRefText && section.matchesTitle(key)) {
           results.add(new PsiElementResolveResult(element));
@@ -1152,7 +1152,7 @@ public class AsciiDocFileReference extends PsiReferenceBase<PsiElement> implemen
         List<AsciiDocSection> sections = AsciiDocFileUtil.findSections(root.getContainingFile().getOriginalFile());
         for (AsciiDocSection section : sections) {
           // if they have a block ID, we've seen them above
-          if (section.getBlockId() != null) {
+          if (section.getBlockIdName() != null) {
             continue;
           }
           items.add(LookupElementBuilder.create(section, section.getAutogeneratedId())
@@ -28,7 +28,9 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 public class AsciiDocFileUtil {
 
@@ -52,11 +54,22 @@ public class AsciiDocFileUtil {
       return result;
     }
     final GlobalSearchScope scope = new AsciiDocSearchScope(project).restrictedByAsciiDocFileType();
-    Collection<AsciiDocSection> asciiDocSections = new ArrayList<>();
+    Collection<AsciiDocSection> asciiDocSections = new LinkedHashSet<>();
     asciiDocSections.addAll(AsciiDocSectionKeyIndex.getInstance().get(key, project, scope));
-    asciiDocSections.addAll(AsciiDocSectionKeyIndex.getInstance().get(AsciiDocSectionStubElementType.SECTION_WITH_VAR, project, scope));
+    // sections with attributes in their title are pre-filtered by their resolved titles
+    ProjectResolvedNameCache resolvedNameCache = AsciiDocUtil.getProjectResolvedNameCache(project);
+    ProjectResolvedNameCache.Resolved<AsciiDocSection> resolved = resolvedNameCache.getSections();
+    Set<String> normalizedKeys = resolvedNameCache.getSectionKeys(key);
+    if (normalizedKeys.isEmpty()) {
+      asciiDocSections.addAll(AsciiDocSectionKeyIndex.getInstance().get(AsciiDocSectionStubElementType.SECTION_WITH_VAR, project, scope));
+    } else {
+      for (String normalizedKey : normalizedKeys) {
+        asciiDocSections.addAll(resolved.get(normalizedKey));
+      }
+      asciiDocSections.addAll(resolved.getUnresolved());
+    }
     for (AsciiDocSection asciiDocSection : asciiDocSections) {
-      if (asciiDocSection.matchesTitle(key) || (asciiDocSection.matchesAutogeneratedId(key) && asciiDocSection.getBlockId() == null)) {
+      if (asciiDocSection.matchesTitle(key) || (asciiDocSection.matchesAutogeneratedId(key) && asciiDocSection.getBlockIdName() == null)) {
         if (result == null) {
           result = new ArrayList<>();
         }
@@ -7,7 +7,6 @@ import com.intellij.psi.PsiPolyVariantReference;
 import com.intellij.psi.PsiReference;
 import com.intellij.psi.PsiReferenceBase;
 import com.intellij.psi.ResolveResult;
-import com.intellij.psi.util.PsiTreeUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -35,18 +34,10 @@ public class AsciiDocIncludeTagReferenceInDocument extends PsiReferenceBase<PsiE
           if (references[i] instanceof AsciiDocFileReference) {
             PsiElement resolve = references[i].resolve();
             if (resolve != null) {
-              PsiTreeUtil.processElements(resolve.getContainingFile(), element -> {
-                for (PsiReference reference : element.getReferences()) {
-                  if (reference instanceof AsciiDocIncludeTagReferenceInElement) {
-                    AsciiDocIncludeTagReferenceInElement tagReference = (AsciiDocIncludeTagReferenceInElement) reference;
-                    if (tagReference.getType().equals("tag") && tagReference.getKey().equals(key)) {
-                      results.add(new PsiElementResolveResult(new AsciiDocTagDeclaration(tagReference)));
-                      return false;
-                    }
-                  }
-                }
-                return true;
-              });
+              AsciiDocTagDeclaration declaration = AsciiDocIncludeTagReferenceInElement.findTagDeclaration(resolve.getContainingFile(), key);
+              if (declaration != null) {
+                results.add(new PsiElementResolveResult(declaration));
+              }
               return results.toArray(new ResolveResult[0]);
             }
             // only the last file reference is the one with the file
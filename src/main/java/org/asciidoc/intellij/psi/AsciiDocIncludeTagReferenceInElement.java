@@ -2,20 +2,30 @@ package org.asciidoc.intellij.psi;
 
 import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.util.Ref;
 import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementResolveResult;
+import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiPolyVariantReference;
 import com.intellij.psi.PsiReference;
 import com.intellij.psi.PsiReferenceBase;
 import com.intellij.psi.ResolveResult;
 import com.intellij.psi.util.PsiTreeUtil;
+import org.asciidoc.intellij.asciidoc.IncludeTagRegions;
 import org.asciidoc.intellij.findUsages.AsciiDocIncludeTagReferenceContributor;
+import org.asciidoc.intellij.psi.search.AsciiDocTagRegionIndex;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Matcher;
 
 /**
@@ -51,25 +61,77 @@ public class AsciiDocIncludeTagReferenceInElement extends PsiReferenceBase<PsiEl
 
   @Override
   public ResolveResult @NotNull [] multiResolve(boolean incompleteCode) {
-    List<ResolveResult> results = new ArrayList<>();
-    PsiTreeUtil.processElements(myElement.getContainingFile(), element -> {
+    AsciiDocTagDeclaration declaration = findTagDeclaration(myElement.getContainingFile(), key);
+    if (declaration == null) {
+      return ResolveResult.EMPTY_ARRAY;
+    }
+    return new ResolveResult[]{new PsiElementResolveResult(declaration)};
+  }
+
+  /**
+   * Find the first declaration of a tag in a file.
+   * Uses the tag region index to look only at the line of the tag if possible, and scans the file otherwise.
+   * The file is also scanned when the index doesn't know the tag, as the index might be outdated.
+   */
+  @Nullable
+  public static AsciiDocTagDeclaration findTagDeclaration(@NotNull PsiFile file, @NotNull String key) {
+    VirtualFile virtualFile = file.getVirtualFile();
+    Document document = PsiDocumentManager.getInstance(file.getProject()).getDocument(file);
+    if (virtualFile != null && document != null && PsiDocumentManager.getInstance(file.getProject()).isCommitted(document)) {
+      IncludeTagRegions regions = AsciiDocTagRegionIndex.getTagRegions(file.getProject(), virtualFile);
+      if (regions != null) {
+        int line = regions.getStartLine(key);
+        if (line != -1 && line < document.getLineCount()) {
+          AsciiDocTagDeclaration declaration = findTagDeclarationInRange(file, key,
+            document.getLineStartOffset(line), document.getLineEndOffset(line));
+          if (declaration != null) {
+            return declaration;
+          }
+        }
+      }
+    }
+    Ref<AsciiDocTagDeclaration> result = new Ref<>();
+    PsiTreeUtil.processElements(file, element -> {
       Matcher matcher = AsciiDocIncludeTagReferenceContributor.TAG_PATTERN.matcher(element.getText());
       // using a matcher on the element's text first avoids generating unnecessary references on other elements
       if (matcher.find()) {
-        for (PsiReference reference : element.getReferences()) {
-          if (reference instanceof AsciiDocIncludeTagReferenceInElement) {
-            AsciiDocIncludeTagReferenceInElement tagReference = (AsciiDocIncludeTagReferenceInElement) reference;
-            if (tagReference.getType().equals("tag") && tagReference.key.equals(key)) {
-              // will result to the first tag with the given name in the file
-              results.add(new PsiElementResolveResult(new AsciiDocTagDeclaration(tagReference)));
-              break;
-            }
-          }
+        AsciiDocTagDeclaration declaration = findTagDeclarationInElement(element, key);
+        if (declaration != null) {
+          // will result to the first tag with the given name in the file
+          result.set(declaration);
+          return false;
         }
       }
       return true;
     });
-    return results.toArray(new ResolveResult[0]);
+    return result.get();
+  }
+
+  @Nullable
+  private static AsciiDocTagDeclaration findTagDeclarationInRange(@NotNull PsiFile file, @NotNull String key, int start, int end) {
+    PsiElement leaf = file.findElementAt(start);
+    while (leaf != null && leaf.getTextRange().getStartOffset() <= end) {
+      AsciiDocTagDeclaration declaration = findTagDeclarationInElement(leaf, key);
+      if (declaration != null) {
+        return declaration;
+      }
+      leaf = PsiTreeUtil.nextLeaf(leaf);
+    }
+    // for plain text files, the references might be attached to the file itself
+    return findTagDeclarationInElement(file, key);
+  }
+
+  @Nullable
+  private static AsciiDocTagDeclaration findTagDeclarationInElement(@NotNull PsiElement element, @NotNull String key) {
+    for (PsiReference reference : element.getReferences()) {
+      if (reference instanceof AsciiDocIncludeTagReferenceInElement) {
+        AsciiDocIncludeTagReferenceInElement tagReference = (AsciiDocIncludeTagReferenceInElement) reference;
+        if (tagReference.getType().equals("tag") && tagReference.key.equals(key)) {
+          return new AsciiDocTagDeclaration(tagReference);
+        }
+      }
+    }
+    return null;
   }
 
   @Nullable
@@ -82,18 +144,40 @@ public class AsciiDocIncludeTagReferenceInElement extends PsiReferenceBase<PsiEl
   @Override
   public Object @NotNull [] getVariants() {
     List<LookupElement> variants = new ArrayList<>();
-    PsiTreeUtil.processElements(myElement.getContainingFile(), element -> {
+    for (String tag : findTagNames(myElement.getContainingFile())) {
+      variants.add(LookupElementBuilder.create(tag));
+    }
+    return variants.toArray();
+  }
+
+  /**
+   * Find the names of all tags declared in a file.
+   * Uses the tag region index if possible, and scans the file otherwise.
+   * The file is also scanned when the index doesn't know any tags, as the index might be outdated.
+   */
+  @NotNull
+  public static Collection<String> findTagNames(@NotNull PsiFile file) {
+    VirtualFile virtualFile = file.getVirtualFile();
+    Document document = PsiDocumentManager.getInstance(file.getProject()).getDocument(file);
+    if (virtualFile != null && document != null && PsiDocumentManager.getInstance(file.getProject()).isCommitted(document)) {
+      IncludeTagRegions regions = AsciiDocTagRegionIndex.getTagRegions(file.getProject(), virtualFile);
+      if (regions != null && !regions.getTags().isEmpty()) {
+        return regions.getTags();
+      }
+    }
+    Set<String> tags = new LinkedHashSet<>();
+    PsiTreeUtil.processElements(file, element -> {
       for (PsiReference reference : element.getReferences()) {
         if (reference instanceof AsciiDocIncludeTagReferenceInElement) {
           AsciiDocIncludeTagReferenceInElement tagReference = (AsciiDocIncludeTagReferenceInElement) reference;
           if (tagReference.getType().equals("tag")) {
-            variants.add(LookupElementBuilder.create(tagReference.key));
+            tags.add(tagReference.key);
           }
         }
       }
       return true;
     });
-    return variants.toArray();
+    return tags;
   }
 
   public String getType() {
@@ -16,6 +16,13 @@ public interface AsciiDocSection extends StubBasedPsiElement<AsciiDocSectionStub
   @Nullable
   AsciiDocBlockId getBlockId();
 
+  /**
+   * Name of the explicit ID of this section. Prefer this over {@link #getBlockId()} when only the name is needed,
+   * as it is available from the stub without loading the file's AST.
+   */
+  @Nullable
+  String getBlockIdName();
+
   String getAutogeneratedId();
 
   int getHeadingLevel();
@@ -143,6 +143,17 @@ public class AsciiDocSectionImpl extends AsciiDocSectionStubElementImpl<AsciiDoc
     return null;
   }
 
+  @Nullable
+  @Override
+  public String getBlockIdName() {
+    final AsciiDocSectionStub stub = getGreenStub();
+    if (stub != null) {
+      return stub.getBlockIdName();
+    }
+    AsciiDocBlockId blockId = getBlockId();
+    return blockId != null ? blockId.getName() : null;
+  }
+
   @Override
   public String getAttribute(String name) {
     for (PsiElement child : this.getChildren()) {
@@ -262,6 +273,10 @@ public class AsciiDocSectionImpl extends AsciiDocSectionStubElementImpl<AsciiDoc
 
   @Override
   public int getHeadingLevel() {
+    final AsciiDocSectionStub stub = getGreenStub();
+    if (stub != null) {
+      return stub.getHeadingLevel();
+    }
     AsciiDocHeading heading = findChildByClass(AsciiDocHeading.class);
     if (heading == null) {
       throw new IllegalStateException("section without heading");
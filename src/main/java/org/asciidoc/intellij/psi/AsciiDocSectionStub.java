@@ -1,7 +1,16 @@
 package org.asciidoc.intellij.psi;
 
 import com.intellij.psi.stubs.StubElement;
+import org.jetbrains.annotations.Nullable;
 
 public interface AsciiDocSectionStub extends StubElement<AsciiDocSectionImpl> {
   String getTitleNoSubstitution();
+
+  int getHeadingLevel();
+
+  /**
+   * Explicit ID of the section as written in the source, attributes are not substituted.
+   */
+  @Nullable
+  String getBlockIdName();
 }
@@ -49,7 +49,9 @@ public class AsciiDocSectionStubElementType extends IStubElementType<AsciiDocSec
   @NotNull
   @Override
   public AsciiDocSectionStub createStub(@NotNull AsciiDocSection psi, StubElement parentStub) {
-    return new AsciiDocSectionStubImpl(parentStub, ((AsciiDocSectionImpl) psi).getTitleNoSubstitution());
+    AsciiDocSectionImpl section = (AsciiDocSectionImpl) psi;
+    return new AsciiDocSectionStubImpl(parentStub, section.getTitleNoSubstitution(), section.getHeadingLevel(),
+      section.getBlockIdName());
   }
 
   @NotNull
@@ -61,6 +63,8 @@ public class AsciiDocSectionStubElementType extends IStubElementType<AsciiDocSec
   @Override
   public void serialize(@NotNull AsciiDocSectionStub stub, @NotNull StubOutputStream dataStream) throws IOException {
     dataStream.writeName(stub.getTitleNoSubstitution());
+    dataStream.writeVarInt(stub.getHeadingLevel());
+    dataStream.writeName(stub.getBlockIdName());
   }
 
   @NotNull
@@ -68,8 +72,12 @@ public class AsciiDocSectionStubElementType extends IStubElementType<AsciiDocSec
   public AsciiDocSectionStub deserialize(@NotNull StubInputStream dataStream, StubElement parentStub) throws IOException {
     final StringRef titleRef = dataStream.readName();
     Objects.requireNonNull(titleRef);
+    int headingLevel = dataStream.readVarInt();
+    String blockIdName = dataStream.readNameString();
     return new AsciiDocSectionStubImpl(parentStub,
-      titleRef.getString()
+      titleRef.getString(),
+      headingLevel,
+      blockIdName
     );
   }
 
@@ -4,13 +4,19 @@ import com.intellij.psi.stubs.StubBase;
 import com.intellij.psi.stubs.StubElement;
 import org.asciidoc.intellij.parser.AsciiDocElementTypes;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class AsciiDocSectionStubImpl extends StubBase<AsciiDocSectionImpl> implements AsciiDocSectionStub {
   private final String titleNoSubstitution;
+  private final int headingLevel;
+  private final String blockIdName;
 
-  public AsciiDocSectionStubImpl(StubElement parent, String titleNoSubstitution) {
+  public AsciiDocSectionStubImpl(StubElement parent, String titleNoSubstitution, int headingLevel,
+                                 @Nullable String blockIdName) {
     super(parent, AsciiDocElementTypes.SECTION);
     this.titleNoSubstitution = titleNoSubstitution;
+    this.headingLevel = headingLevel;
+    this.blockIdName = blockIdName;
   }
 
   @NotNull
@@ -18,4 +24,15 @@ public class AsciiDocSectionStubImpl extends StubBase<AsciiDocSectionImpl> imple
   public String getTitleNoSubstitution() {
     return titleNoSubstitution;
   }
+
+  @Override
+  public int getHeadingLevel() {
+    return headingLevel;
+  }
+
+  @Nullable
+  @Override
+  public String getBlockIdName() {
+    return blockIdName;
+  }
 }
@@ -36,6 +36,8 @@ import com.intellij.psi.PsiReference;
 import com.intellij.psi.impl.source.resolve.reference.impl.providers.FileInfoManager;
 import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.psi.stubs.StubTree;
 import com.intellij.psi.util.CachedValue;
 import com.intellij.psi.util.CachedValueProvider;
 import com.intellij.psi.util.CachedValuesManager;
@@ -47,6 +49,7 @@ import org.asciidoc.intellij.AsciiDocLanguage;
 import org.asciidoc.intellij.AsciiDocWrapper;
 import org.asciidoc.intellij.folding.AsciiDocFoldingBuilder;
 import org.asciidoc.intellij.psi.search.AsciiDocAntoraPlaybookIndex;
+import org.asciidoc.intellij.psi.search.AsciiDocIncludeIndex;
 import org.asciidoc.intellij.settings.AsciiDocApplicationSettings;
 import org.asciidoc.intellij.threading.AsciiDocProcessUtil;
 import org.intellij.lang.annotations.Language;
@@ -76,8 +79,6 @@ import java.util.TreeSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import static org.asciidoc.intellij.psi.AsciiDocBlockIdStubElementType.BLOCK_ID_WITH_VAR;
-
 public class AsciiDocUtil {
   public static final String FAMILY_EXAMPLE = "example";
   public static final String FAMILY_ATTACHMENT = "attachment";
@@ -95,6 +96,7 @@ public class AsciiDocUtil {
 
   public static final Pattern ATTRIBUTES = Pattern.compile("\\{([a-zA-Z0-9_]+[a-zA-Z0-9_-]*)}");
   public static final int MAX_DEPTH = 10;
+  private static final Set<String> ANTORA_DIRECTORY_ATTRIBUTES = Set.of("pagesdir", "partialsdir", "imagesdir", "attachmentsdir", "examplesdir");
   public static final String STRIP_FILE_EXTENSION = "\\.[^.]*$";
   public static final String CAPTURE_FILE_EXTENSION = "^(.*)(\\.[^.]*)$";
   public static final Key<CachedValue<PsiAttributeCache>> KEY_ASCIIDOC_ATTRIBUTES = new Key<>("asciidoc-attributes");
@@ -103,7 +105,7 @@ public class AsciiDocUtil {
   public static final Key<CachedValue<ProjectAttributeCache>> KEY_ASCIIDOC_PROJECT_ATTRIBUTES = new Key<>("asciidoc-project-attributes");
   public static final Key<CachedValue<Collection<AsciiDocSection>>> KEY_ASCIIDOC_SECTIONS_IN_FILE = new Key<>("asciidoc-blockids-in-file");
   public static final Key<CachedValue<Collection<AsciiDocBlockId>>> KEY_ASCIIDOC_BLOCKIDS_IN_FILE = new Key<>("asciidoc-sections-in-file");
-  public static final Key<CachedValue<Collection<AsciiDocBlockMacro>>> KEY_ASCIIDOC_BLOCKMACROS_IN_FILE = new Key<>("asciidoc-blockmacros-in-file");
+  public static final Key<CachedValue<Collection<AsciiDocBlockMacro>>> KEY_ASCIIDOC_INCLUDES_IN_FILE = new Key<>("asciidoc-includes-in-file");
   public static final Key<CachedValue<ProjectBlockidCache>> KEY_ASCIIDOC_BLOCKIDS_IN_PROJECT = new Key<>("asciidoc-blockids-in-project");
 
   public static ProjectBlockidCache getProjectBlockidCache(Project project) {
@@ -112,6 +114,14 @@ public class AsciiDocUtil {
     return ((UserDataHolderEx) project).putUserDataIfAbsent(KEY_ASCIIDOC_BLOCKIDS_IN_PROJECT, cache).getValue();
   }
 
+  public static final Key<CachedValue<ProjectResolvedNameCache>> KEY_ASCIIDOC_RESOLVED_NAMES_IN_PROJECT = new Key<>("asciidoc-resolved-names-in-project");
+
+  public static ProjectResolvedNameCache getProjectResolvedNameCache(Project project) {
+    CachedValue<ProjectResolvedNameCache> cache = CachedValuesManager.getManager(project).createCachedValue(
+      () -> CachedValueProvider.Result.create(new ProjectResolvedNameCache(project), PsiModificationTracker.MODIFICATION_COUNT));
+    return ((UserDataHolderEx) project).putUserDataIfAbsent(KEY_ASCIIDOC_RESOLVED_NAMES_IN_PROJECT, cache).getValue();
+  }
+
   static List<AsciiDocBlockId> findIds(Project project, String key) {
     if (key.length() == 0) {
       return Collections.emptyList();
@@ -129,8 +139,15 @@ public class AsciiDocUtil {
     }
     if (result == null) {
       // if no block IDs have been found, search for block IDs that have attribute that need to resolve
-      asciiDocBlockIds = AsciiDocBlockIdKeyIndex.getInstance().get(BLOCK_ID_WITH_VAR, project, scope);
-      for (AsciiDocBlockId asciiDocBlockId : asciiDocBlockIds) {
+      ProjectResolvedNameCache.Resolved<AsciiDocBlockId> resolved = getProjectResolvedNameCache(project).getBlockIds();
+      for (AsciiDocBlockId asciiDocBlockId : resolved.get(key)) {
+        result = collectBlockId(result, asciiDocBlockId);
+      }
+      // block IDs with attributes that can't be resolved up-front need to be checked one by one
+      for (AsciiDocBlockId asciiDocBlockId : resolved.getUnresolved()) {
+        if (result != null && result.contains(asciiDocBlockId)) {
+          continue;
+        }
         String name = asciiDocBlockId.getName();
         if (!matchKeyWithName(name, key, project, new ArrayDeque<>())) {
           continue;
@@ -249,7 +266,7 @@ public class AsciiDocUtil {
       return;
     }
     Collection<AsciiDocBlockId> properties = CachedValuesManager.getCachedValue(current, KEY_ASCIIDOC_BLOCKIDS_IN_FILE,
-      () ->  CachedValueProvider.Result.create(PsiTreeUtil.findChildrenOfType(current, AsciiDocBlockId.class), current)
+      () ->  CachedValueProvider.Result.create(findChildrenOfType(current, AsciiDocBlockId.class), current)
     );
     for (AsciiDocBlockId blockId : properties) {
       final Icon icon = blockId.getParent().getIcon(Iconable.ICON_FLAG_READ_STATUS | Iconable.ICON_FLAG_VISIBILITY);
@@ -257,24 +274,21 @@ public class AsciiDocUtil {
         .withTypeText(current.getContainingFile().getName(), true));
     }
     Collection<AsciiDocSection> sections = CachedValuesManager.getCachedValue(current, KEY_ASCIIDOC_SECTIONS_IN_FILE,
-      () ->  CachedValueProvider.Result.create(PsiTreeUtil.findChildrenOfType(current, AsciiDocSection.class), current)
+      () ->  CachedValueProvider.Result.create(findChildrenOfType(current, AsciiDocSection.class), current)
     );
     for (AsciiDocSection section : sections) {
       // element has an ID specified, therefore skip checking the autogenerated ID
-      if (section.getBlockId() != null) {
+      if (section.getBlockIdName() != null) {
         continue;
       }
       final Icon icon = section.getIcon(Iconable.ICON_FLAG_READ_STATUS | Iconable.ICON_FLAG_VISIBILITY);
       items.add(FileInfoManager.getFileLookupItem(section, section.getAutogeneratedId(), icon)
         .withTypeText(current.getContainingFile().getName(), true));
     }
-    Collection<AsciiDocBlockMacro> includes = CachedValuesManager.getCachedValue(current, KEY_ASCIIDOC_BLOCKMACROS_IN_FILE,
-      () ->  CachedValueProvider.Result.create(PsiTreeUtil.findChildrenOfType(current, AsciiDocBlockMacro.class), current)
+    Collection<AsciiDocBlockMacro> includes = CachedValuesManager.getCachedValue(current, KEY_ASCIIDOC_INCLUDES_IN_FILE,
+      () ->  CachedValueProvider.Result.create(AsciiDocIncludeIndex.findIncludeMacros(current), current)
     );
     for (AsciiDocBlockMacro macro : includes) {
-      if (!"include".equals(macro.getMacroName())) {
-        continue;
-      }
       List<PsiReference> references = Arrays.asList(macro.getReferences());
       Collections.reverse(references);
       for (PsiReference reference : references) {
@@ -297,6 +311,25 @@ public class AsciiDocUtil {
     }
   }
 
+  /**
+   * Find all elements of a type in a file. Uses the stub tree when the file's AST is not loaded,
+   * so included files that are not open in an editor don't need to be parsed.
+   */
+  private static <T extends PsiElement> Collection<T> findChildrenOfType(AsciiDocFile file, Class<T> clazz) {
+    StubTree stubTree = file.getStubTree();
+    if (stubTree == null) {
+      return PsiTreeUtil.findChildrenOfType(file, clazz);
+    }
+    List<T> result = new ArrayList<>();
+    for (StubElement<?> stub : stubTree.getPlainList()) {
+      PsiElement psi = stub.getPsi();
+      if (clazz.isInstance(psi)) {
+        result.add(clazz.cast(psi));
+      }
+    }
+    return result;
+  }
+
   static List<AsciiDocBlockId> findIds(Project project) {
     List<AsciiDocBlockId> result = new ArrayList<>();
     final GlobalSearchScope scope = new AsciiDocSearchScope(project).restrictedByAsciiDocFileType();
@@ -485,10 +518,12 @@ public class AsciiDocUtil {
     VirtualFile antoraModuleDir = AsciiDocUtil.findAntoraModuleDir(current);
     if (antoraModuleDir != null) {
       if (vf != null && vf.getParent() != null && vf.getParent().getCanonicalPath() != null) {
-        Collection<AttributeDeclaration> antoraAttributes = AsciiDocWrapper.populateAntoraAttributes(project, new File(vf.getParent().getCanonicalPath()), antoraModuleDir);
-        for (AttributeDeclaration attribute : antoraAttributes) {
-          if (attribute.getAttributeName().equalsIgnoreCase(key)) {
-            result.add(attribute);
+        result.addAll(AsciiDocWrapper.getAntoraAttributes(antoraModuleDir, project).getAttributes(key));
+        if (ANTORA_DIRECTORY_ATTRIBUTES.contains(key.toLowerCase(Locale.US))) {
+          for (AttributeDeclaration attribute : AsciiDocWrapper.populateAntoraDirectoryAttributes(project, new File(vf.getParent().getCanonicalPath()), antoraModuleDir)) {
+            if (attribute.getAttributeName().equalsIgnoreCase(key)) {
+              result.add(attribute);
+            }
           }
         }
       }
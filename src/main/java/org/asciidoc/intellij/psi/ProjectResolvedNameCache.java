@@ -0,0 +1,270 @@
+package org.asciidoc.intellij.psi;
+
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.search.GlobalSearchScope;
+import org.asciidoc.intellij.AsciiDocWrapper;
+import org.asciidoc.intellij.settings.AsciiDocApplicationSettings;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cache section titles and block IDs that contain attributes by their resolved names.
+ * The attributes are resolved with all values declared in the project, so a lookup doesn't need to
+ * resolve the attributes of all sections and block IDs with attributes every time.
+ * Names where an attribute can't be resolved are kept separately, callers need to check them the slow way.
+ * The same applies to names with attributes whose value depends on the location of the element, like the attributes
+ * of an Antora component or <code>docname</code>, as the declarations in the project don't show their actual value.
+ */
+public class ProjectResolvedNameCache {
+  /**
+   * Limit the number of variants per name, as names with several attributes with many values would explode.
+   */
+  static final int MAX_VARIANTS = 64;
+
+  private static final Pattern NON_LETTER_OR_DIGIT = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  /**
+   * Asciidoctor appends the separator and a number to the IDs of sections with duplicate titles.
+   */
+  private static final Pattern DUPLICATE_ID_SUFFIX = Pattern.compile("[^\\p{L}\\p{N}]\\d+$");
+
+  /**
+   * Attributes that get their value from the location of the document, and not from declarations in the project.
+   */
+  private static final Set<String> LOCATION_ATTRIBUTES = Set.of("docname", "docfile", "docdir", "docfilesuffix", "snippets",
+    "asciidoctorconfigdir", "pagesdir", "partialsdir", "imagesdir", "attachmentsdir", "examplesdir");
+
+  private final Project project;
+  private final Map<String, List<String>> attributeValues = new HashMap<>();
+
+  private volatile Resolved<AsciiDocSection> sections;
+  private volatile Resolved<AsciiDocBlockId> blockIds;
+
+  public ProjectResolvedNameCache(Project project) {
+    this.project = project;
+  }
+
+  /**
+   * Elements indexed by their resolved name, and those where not all attributes could be resolved.
+   */
+  public static class Resolved<T> {
+    private final Map<String, List<T>> byName = new HashMap<>();
+    private final List<T> unresolved = new ArrayList<>();
+
+    @NotNull
+    public List<T> get(@NotNull String name) {
+      return byName.getOrDefault(name, Collections.emptyList());
+    }
+
+    @NotNull
+    public List<T> getUnresolved() {
+      return unresolved;
+    }
+
+    private void add(T element, Collection<String> names, boolean complete) {
+      for (String name : names) {
+        byName.computeIfAbsent(name, s -> new ArrayList<>()).add(element);
+      }
+      if (!complete) {
+        unresolved.add(element);
+      }
+    }
+  }
+
+  /**
+   * Sections with attributes in their title, indexed by {@link #normalizeSectionKey(String)} of their resolved title.
+   */
+  @NotNull
+  public Resolved<AsciiDocSection> getSections() {
+    Resolved<AsciiDocSection> result = sections;
+    if (result == null) {
+      result = new Resolved<>();
+      final GlobalSearchScope scope = new AsciiDocSearchScope(project).restrictedByAsciiDocFileType();
+      for (AsciiDocSection section : AsciiDocSectionKeyIndex.getInstance().get(AsciiDocSectionStubElementType.SECTION_WITH_VAR, project, scope)) {
+        ProgressManager.checkCanceled();
+        Set<String> variants = new LinkedHashSet<>();
+        Set<String> used = new HashSet<>();
+        boolean complete = expand(section.getTitleNoSubstitution(), recording(used), variants)
+          && used.stream().noneMatch(name -> isDefinedByLocation(section, name));
+        Set<String> keys = new LinkedHashSet<>();
+        for (String variant : variants) {
+          String key = normalizeSectionKey(variant);
+          if (!key.isEmpty()) {
+            keys.add(key);
+          }
+        }
+        result.add(section, keys, complete && !keys.isEmpty());
+      }
+      sections = result;
+    }
+    return result;
+  }
+
+  /**
+   * Block IDs with attributes in their name, indexed by their resolved name.
+   */
+  @NotNull
+  public Resolved<AsciiDocBlockId> getBlockIds() {
+    Resolved<AsciiDocBlockId> result = blockIds;
+    if (result == null) {
+      result = new Resolved<>();
+      final GlobalSearchScope scope = new AsciiDocSearchScope(project).restrictedByAsciiDocFileType();
+      for (AsciiDocBlockId blockId : AsciiDocBlockIdKeyIndex.getInstance().get(AsciiDocBlockIdStubElementType.BLOCK_ID_WITH_VAR, project, scope)) {
+        ProgressManager.checkCanceled();
+        String name = blockId.getName();
+        if (name == null) {
+          continue;
+        }
+        Set<String> variants = new LinkedHashSet<>();
+        Set<String> used = new HashSet<>();
+        boolean complete = expand(name, recording(used), variants)
+          && used.stream().noneMatch(attributeName -> isDefinedByLocation(blockId, attributeName));
+        result.add(blockId, variants, complete);
+      }
+      blockIds = result;
+    }
+    return result;
+  }
+
+  private Function<String, List<String>> recording(Set<String> used) {
+    return attributeName -> {
+      used.add(attributeName);
+      return getAttributeValues(attributeName);
+    };
+  }
+
+  /**
+   * Check if the attribute might get a value for this element that is not declared in an AsciiDoc file,
+   * for example from the <code>antora.yml</code> of its component, or the settings.
+   */
+  private boolean isDefinedByLocation(PsiElement element, String attributeName) {
+    String key = attributeName.toLowerCase(Locale.US);
+    if (LOCATION_ATTRIBUTES.contains(key)
+      || AsciiDocApplicationSettings.getInstance().getAsciiDocPreviewSettings().getAttributes().containsKey(attributeName)) {
+      return true;
+    }
+    VirtualFile antoraModuleDir = AsciiDocUtil.findAntoraModuleDir(element);
+    return antoraModuleDir != null && !AsciiDocWrapper.getAntoraAttributes(antoraModuleDir, project).getAttributes(key).isEmpty();
+  }
+
+  private List<String> getAttributeValues(String attributeName) {
+    synchronized (attributeValues) {
+      return attributeValues.computeIfAbsent(attributeName, name -> {
+        Set<String> values = new LinkedHashSet<>();
+        for (AttributeDeclaration declaration : AsciiDocUtil.findAttributes(project, name)) {
+          String value = declaration.getAttributeValue();
+          // avoid replacements where new value contains the old attribute as placeholder
+          if (value != null && !value.contains("{" + name + "}")) {
+            values.add(value);
+          }
+        }
+        return new ArrayList<>(values);
+      });
+    }
+  }
+
+  /**
+   * Normalize a section title or ID the same way for both, so they can be compared quickly.
+   * Like the generated ID, this removes tags, entities and punctuation. It also removes the separators, so the key
+   * doesn't depend on <code>idseparator</code>. Letters and digits of all scripts are kept.
+   */
+  @NotNull
+  public static String normalizeSectionKey(@NotNull String input) {
+    String key = AsciiDocSectionImpl.INVALID_SECTION_ID_CHARS.matcher(input.toLowerCase(Locale.US)).replaceAll("");
+    return NON_LETTER_OR_DIGIT.matcher(key).replaceAll("");
+  }
+
+  /**
+   * All keys of {@link #getSections()} where a section might be found for a title or an ID.
+   * An ID might start with a value of <code>idprefix</code> and end with a suffix like <code>_2</code> for duplicate titles.
+   */
+  @NotNull
+  public Set<String> getSectionKeys(@NotNull String titleOrId) {
+    return sectionKeys(titleOrId, getAttributeValues("idprefix"));
+  }
+
+  @NotNull
+  static Set<String> sectionKeys(@NotNull String titleOrId, @NotNull Collection<String> idPrefixes) {
+    List<String> candidates = new ArrayList<>();
+    candidates.add(titleOrId);
+    for (String idPrefix : idPrefixes) {
+      if (!idPrefix.isEmpty() && titleOrId.toLowerCase(Locale.US).startsWith(idPrefix.toLowerCase(Locale.US))) {
+        candidates.add(titleOrId.substring(idPrefix.length()));
+      }
+    }
+    Set<String> keys = new LinkedHashSet<>();
+    for (String candidate : candidates) {
+      keys.add(normalizeSectionKey(candidate));
+      Matcher matcher = DUPLICATE_ID_SUFFIX.matcher(candidate);
+      if (matcher.find()) {
+        keys.add(normalizeSectionKey(candidate.substring(0, matcher.start())));
+      }
+    }
+    keys.remove("");
+    return keys;
+  }
+
+  /**
+   * Expand all attributes in a name with the values returned by the function.
+   * All occurrences of an attribute get the same value, and values are expanded again if they contain attributes.
+   * Attributes without a value stay in the name.
+   *
+   * @return <code>true</code> if all attributes could be resolved and not too many variants exist
+   */
+  static boolean expand(@NotNull String name, @NotNull Function<String, List<String>> values, @NotNull Set<String> result) {
+    return expand(name, 0, values, new HashMap<>(), 0, result);
+  }
+
+  private static boolean expand(String name, int start, Function<String, List<String>> values, Map<String, String> assigned,
+                                int depth, Set<String> result) {
+    if (depth > AsciiDocUtil.MAX_DEPTH || result.size() >= MAX_VARIANTS) {
+      return false;
+    }
+    Matcher matcher = AsciiDocUtil.ATTRIBUTES.matcher(name);
+    boolean complete = true;
+    while (matcher.find(start)) {
+      String attributeName = matcher.group(1);
+      String value = assigned.get(attributeName);
+      if (value != null) {
+        return expand(replace(name, matcher, value), matcher.start(), values, assigned, depth + 1, result) && complete;
+      }
+      List<String> candidates = values.apply(attributeName);
+      if (!candidates.isEmpty()) {
+        for (String candidate : candidates) {
+          assigned.put(attributeName, candidate);
+          if (!expand(replace(name, matcher, candidate), matcher.start(), values, assigned, depth + 1, result)) {
+            complete = false;
+          }
+          assigned.remove(attributeName);
+        }
+        return complete;
+      }
+      // attribute can't be resolved, keep it in the name
+      complete = false;
+      start = matcher.end();
+    }
+    result.add(name);
+    return complete;
+  }
+
+  private static String replace(String name, Matcher matcher, String value) {
+    return name.substring(0, matcher.start()) + value + name.substring(matcher.end());
+  }
+
+}
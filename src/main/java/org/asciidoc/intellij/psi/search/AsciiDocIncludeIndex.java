@@ -0,0 +1,320 @@
+package org.asciidoc.intellij.psi.search;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.PersistentFSConstants;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.ID;
+import org.asciidoc.intellij.psi.AsciiDocBlockMacro;
+import org.asciidoc.intellij.psi.AsciiDocFile;
+import org.asciidoc.intellij.psi.AsciiDocFileReference;
+import org.asciidoc.intellij.psi.AsciiDocSearchScope;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Index of the <code>include::[]</code> directives in AsciiDoc files.
+ * The key is the file name of the include's target, so finding the files that include a file is a lookup by its name.
+ * Targets where the file name contains an attribute are stored with {@link #DYNAMIC_KEY}, as their name is only
+ * known after resolving the attributes.
+ * <p>
+ * As the target can only be resolved with knowledge about other files, the index contains the unresolved target.
+ * Callers verify candidates by resolving the include in the PSI.
+ */
+public class AsciiDocIncludeIndex {
+  @NonNls
+  public static final ID<String, List<Edge>> NAME = ID.create("AsciiDocIncludeIndex");
+
+  public static final String DYNAMIC_KEY = "{}";
+
+  private static final int MAX_DEPTH = 64;
+
+  private static final Pattern TAGS = Pattern.compile("(?:^|,)\\s*tags?=(\"[^\"]*\"|[^,]*)");
+  private static final Pattern LEVEL_OFFSET = Pattern.compile("(?:^|,)\\s*leveloffset=\"?([+-]?[0-9]+)");
+
+  /**
+   * An include directive in a file.
+   */
+  public static class Edge {
+    private final int line;
+    private final String target;
+    private final String attributes;
+
+    public Edge(int line, @NotNull String target, @NotNull String attributes) {
+      this.line = line;
+      this.target = target;
+      this.attributes = attributes;
+    }
+
+    /**
+     * Line of the include directive (zero-based).
+     */
+    public int getLine() {
+      return line;
+    }
+
+    /**
+     * Target as written in the directive, attributes are not resolved.
+     */
+    @NotNull
+    public String getTarget() {
+      return target;
+    }
+
+    /**
+     * Attributes of the directive as written between the brackets, for example <code>tags=intro,leveloffset=+1</code>.
+     */
+    @NotNull
+    public String getAttributes() {
+      return attributes;
+    }
+
+    /**
+     * Value of the <code>tag</code> or <code>tags</code> attribute.
+     *
+     * @return value, or <code>null</code> if the whole file is included
+     */
+    @Nullable
+    public String getTags() {
+      Matcher matcher = TAGS.matcher(attributes);
+      if (!matcher.find()) {
+        return null;
+      }
+      String tags = matcher.group(1).trim();
+      if (tags.length() >= 2 && tags.startsWith("\"") && tags.endsWith("\"")) {
+        tags = tags.substring(1, tags.length() - 1);
+      }
+      return tags;
+    }
+
+    /**
+     * Value of the <code>leveloffset</code> attribute.
+     *
+     * @return value like <code>+1</code> or <code>2</code>, or <code>null</code> if not set
+     */
+    @Nullable
+    public String getLevelOffset() {
+      Matcher matcher = LEVEL_OFFSET.matcher(attributes);
+      return matcher.find() ? matcher.group(1) : null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Edge edge = (Edge) o;
+      return line == edge.line && target.equals(edge.target) && attributes.equals(edge.attributes);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(line, target, attributes);
+    }
+  }
+
+  /**
+   * Key under which an include target is indexed.
+   */
+  @NotNull
+  public static String keyForTarget(@NotNull String target) {
+    int start = Math.max(target.lastIndexOf('/'), Math.max(target.lastIndexOf('$'), target.lastIndexOf(':')));
+    String name = target.substring(start + 1);
+    if (name.contains("{")) {
+      return DYNAMIC_KEY;
+    }
+    return name;
+  }
+
+  /**
+   * Retrieve the include directives of a file, ordered by line. Needs to be called within a read action.
+   *
+   * @return directives, or <code>null</code> if the index is not available (for example, during indexing)
+   */
+  @Nullable
+  public static List<Edge> getIncludes(@NotNull Project project, @NotNull VirtualFile file) {
+    if (!isIndexed(project, file)) {
+      return null;
+    }
+    Map<String, List<Edge>> data = FileBasedIndex.getInstance().getFileData(NAME, file, project);
+    List<Edge> result = new ArrayList<>();
+    data.values().forEach(result::addAll);
+    result.sort(Comparator.comparingInt(Edge::getLine));
+    return result;
+  }
+
+  private static boolean isIndexed(@NotNull Project project, @NotNull VirtualFile file) {
+    if (DumbService.isDumb(project) || !file.isValid()) {
+      return false;
+    }
+    // files outside the project and large files are not indexed
+    return ProjectFileIndex.getInstance(project).isInContent(file)
+      && file.getLength() <= PersistentFSConstants.getMaxIntellisenseFileSize();
+  }
+
+  /**
+   * Find the include macros in a file. Uses the index to locate them, so the whole tree doesn't need to be traversed.
+   * Falls back to traversing the tree if the index is not available, or the PSI is not in sync with the document.
+   */
+  @NotNull
+  public static List<AsciiDocBlockMacro> findIncludeMacros(@NotNull PsiFile file) {
+    VirtualFile vf = file.getVirtualFile();
+    Project project = file.getProject();
+    Document document = PsiDocumentManager.getInstance(project).getDocument(file);
+    List<Edge> edges = vf != null && document != null && !PsiDocumentManager.getInstance(project).isUncommited(document)
+      ? getIncludes(project, vf) : null;
+    if (edges == null) {
+      List<AsciiDocBlockMacro> result = new ArrayList<>();
+      for (AsciiDocBlockMacro macro : PsiTreeUtil.findChildrenOfType(file, AsciiDocBlockMacro.class)) {
+        if ("include".equals(macro.getMacroName())) {
+          result.add(macro);
+        }
+      }
+      return result;
+    }
+    List<AsciiDocBlockMacro> result = new ArrayList<>(edges.size());
+    for (Edge edge : edges) {
+      if (edge.getLine() >= document.getLineCount()) {
+        continue;
+      }
+      PsiElement element = file.findElementAt(document.getLineStartOffset(edge.getLine()));
+      AsciiDocBlockMacro macro = PsiTreeUtil.getParentOfType(element, AsciiDocBlockMacro.class, false);
+      // lines in verbatim blocks look like includes to the indexer, but are no macros in the PSI
+      if (macro != null && "include".equals(macro.getMacroName()) && !result.contains(macro)) {
+        result.add(macro);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Resolve the file of an include macro.
+   *
+   * @return included file, or <code>null</code> if it can't be resolved
+   */
+  @Nullable
+  public static PsiFile resolveInclude(@NotNull AsciiDocBlockMacro macro) {
+    List<PsiReference> references = Arrays.asList(macro.getReferences());
+    Collections.reverse(references);
+    for (PsiReference reference : references) {
+      if (reference instanceof AsciiDocFileReference fileReference) {
+        if (!fileReference.isFolder()) {
+          PsiElement resolved = fileReference.resolve();
+          if (resolved instanceof PsiFile) {
+            return (PsiFile) resolved;
+          }
+        }
+        break;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Find all include macros in the project that include the given file.
+   * Needs to be called within a read action, and needs the index to be available.
+   */
+  @NotNull
+  public static List<AsciiDocBlockMacro> findIncludesOf(@NotNull Project project, @NotNull VirtualFile target) {
+    if (DumbService.isDumb(project)) {
+      return Collections.emptyList();
+    }
+    GlobalSearchScope scope = new AsciiDocSearchScope(project);
+    Set<VirtualFile> candidates = new LinkedHashSet<>();
+    candidates.addAll(FileBasedIndex.getInstance().getContainingFiles(NAME, target.getName(), scope));
+    candidates.addAll(FileBasedIndex.getInstance().getContainingFiles(NAME, DYNAMIC_KEY, scope));
+    List<AsciiDocBlockMacro> result = new ArrayList<>();
+    PsiManager psiManager = PsiManager.getInstance(project);
+    for (VirtualFile candidate : candidates) {
+      ProgressManager.checkCanceled();
+      PsiFile psiFile = psiManager.findFile(candidate);
+      if (!(psiFile instanceof AsciiDocFile)) {
+        continue;
+      }
+      for (AsciiDocBlockMacro macro : findIncludeMacros(psiFile)) {
+        PsiFile resolved = resolveInclude(macro);
+        if (resolved != null && target.equals(resolved.getVirtualFile())) {
+          result.add(macro);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Find the documents that include the given file directly or indirectly, and are not included themselves.
+   * Use this to find the documents that need to be validated again when an included file changes.
+   * Needs to be called within a read action.
+   */
+  @NotNull
+  public static Set<VirtualFile> findRootDocuments(@NotNull Project project, @NotNull VirtualFile file) {
+    Set<VirtualFile> roots = new LinkedHashSet<>();
+    collectIncludingDocuments(project, file, roots);
+    return roots;
+  }
+
+  /**
+   * Find all documents that include the given file directly or indirectly.
+   * Needs to be called within a read action.
+   */
+  @NotNull
+  public static Set<VirtualFile> findIncludingDocuments(@NotNull Project project, @NotNull VirtualFile file) {
+    return collectIncludingDocuments(project, file, new LinkedHashSet<>());
+  }
+
+  private static Set<VirtualFile> collectIncludingDocuments(@NotNull Project project, @NotNull VirtualFile file, @NotNull Set<VirtualFile> roots) {
+    Set<VirtualFile> visited = new LinkedHashSet<>();
+    Deque<VirtualFile> queue = new ArrayDeque<>();
+    queue.add(file);
+    visited.add(file);
+    for (int level = 0; level <= MAX_DEPTH && !queue.isEmpty(); level++) {
+      Deque<VirtualFile> next = new ArrayDeque<>();
+      for (VirtualFile current : queue) {
+        List<AsciiDocBlockMacro> includes = findIncludesOf(project, current);
+        if (includes.isEmpty() && !current.equals(file)) {
+          roots.add(current);
+        }
+        for (AsciiDocBlockMacro include : includes) {
+          VirtualFile includer = include.getContainingFile().getVirtualFile();
+          if (includer != null && visited.add(includer)) {
+            next.add(includer);
+          }
+        }
+      }
+      queue = next;
+    }
+    visited.remove(file);
+    return visited;
+  }
+
+}
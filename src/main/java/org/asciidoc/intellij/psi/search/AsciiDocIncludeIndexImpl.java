@@ -0,0 +1,140 @@
+package org.asciidoc.intellij.psi.search;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import org.asciidoc.intellij.file.AsciiDocFileType;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Index implementation to contain the include directives of all AsciiDoc files.
+ */
+public class AsciiDocIncludeIndexImpl extends FileBasedIndexExtension<String, List<AsciiDocIncludeIndex.Edge>> {
+
+  /**
+   * Same as Asciidoctor's <code>IncludeDirectiveRx</code>, but without escaped directives.
+   */
+  private static final Pattern INCLUDE_DIRECTIVE = Pattern.compile("^include::([^\\s\\[](?:[^\\[]*[^\\s\\[])?)\\[(.*)]$");
+
+  private static final Pattern COMMENT_BLOCK_DELIMITER = Pattern.compile("^/{4,}\\s*$");
+
+  @NotNull
+  @Override
+  public ID<String, List<AsciiDocIncludeIndex.Edge>> getName() {
+    return AsciiDocIncludeIndex.NAME;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, List<AsciiDocIncludeIndex.Edge>, FileContent> getIndexer() {
+    return inputData -> index(inputData.getContentAsText());
+  }
+
+  /**
+   * Find the include directives in the text of a file.
+   */
+  @NotNull
+  static Map<String, List<AsciiDocIncludeIndex.Edge>> index(@NotNull CharSequence text) {
+    // quick check to avoid splitting files that don't contain any includes
+    if (!StringUtil.contains(text, "include::")) {
+      return Collections.emptyMap();
+    }
+    Map<String, List<AsciiDocIncludeIndex.Edge>> result = new HashMap<>();
+    List<String> lines = StringUtil.split(text.toString(), "\n", true, false);
+    String commentDelimiter = null;
+    for (int i = 0; i < lines.size(); i++) {
+      String line = StringUtil.trimTrailing(lines.get(i), '\r');
+      if (commentDelimiter != null) {
+        if (line.trim().equals(commentDelimiter)) {
+          commentDelimiter = null;
+        }
+        continue;
+      }
+      if (COMMENT_BLOCK_DELIMITER.matcher(line).matches()) {
+        commentDelimiter = line.trim();
+        continue;
+      }
+      if (!line.startsWith("include::")) {
+        continue;
+      }
+      Matcher matcher = INCLUDE_DIRECTIVE.matcher(line);
+      if (matcher.matches()) {
+        String target = matcher.group(1);
+        result.computeIfAbsent(AsciiDocIncludeIndex.keyForTarget(target), s -> new ArrayList<>())
+          .add(new AsciiDocIncludeIndex.Edge(i, target, matcher.group(2)));
+      }
+    }
+    return result;
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<List<AsciiDocIncludeIndex.Edge>> getValueExternalizer() {
+    return new DataExternalizer<>() {
+      @Override
+      public void save(@NotNull DataOutput out, List<AsciiDocIncludeIndex.Edge> value) throws IOException {
+        DataInputOutputUtil.writeINT(out, value.size());
+        for (AsciiDocIncludeIndex.Edge edge : value) {
+          DataInputOutputUtil.writeINT(out, edge.getLine());
+          IOUtil.writeUTF(out, edge.getTarget());
+          IOUtil.writeUTF(out, edge.getAttributes());
+        }
+      }
+
+      @Override
+      public List<AsciiDocIncludeIndex.Edge> read(@NotNull DataInput in) throws IOException {
+        int size = DataInputOutputUtil.readINT(in);
+        List<AsciiDocIncludeIndex.Edge> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          int line = DataInputOutputUtil.readINT(in);
+          String target = IOUtil.readUTF(in);
+          String attributes = IOUtil.readUTF(in);
+          result.add(new AsciiDocIncludeIndex.Edge(line, target, attributes));
+        }
+        return result;
+      }
+    };
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(AsciiDocFileType.INSTANCE);
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  @Override
+  public int getVersion() {
+    return 1;
+  }
+}
@@ -0,0 +1,47 @@
+package org.asciidoc.intellij.psi.search;
+
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.PersistentFSConstants;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.ID;
+import org.asciidoc.intellij.asciidoc.IncludeTagRegions;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Index that contains the regions of <code>tag::name[]</code> and <code>end::name[]</code> for each file.
+ * Resolving tags of includes and rendering includes with tags can then look up the lines of the regions
+ * instead of scanning the whole file.
+ */
+public class AsciiDocTagRegionIndex {
+  @NonNls
+  public static final ID<Integer, IncludeTagRegions> NAME = ID.create("AsciiDocTagRegionIndex");
+
+  /**
+   * Retrieve the tag regions of a file. Needs to be called within a read action.
+   *
+   * @return regions, or <code>null</code> if the index is not available (for example, during indexing)
+   */
+  @Nullable
+  public static IncludeTagRegions getTagRegions(@NotNull Project project, @NotNull VirtualFile file) {
+    if (DumbService.isDumb(project) || !file.isValid()) {
+      return null;
+    }
+    if (!ProjectFileIndex.getInstance(project).isInContent(file)
+      || file.getLength() > PersistentFSConstants.getMaxIntellisenseFileSize()) {
+      // files outside the project and large files are not indexed
+      return null;
+    }
+    IncludeTagRegions regions = FileBasedIndex.getInstance().getSingleEntryIndexData(NAME, file, project);
+    if (regions == null) {
+      // files without tags don't have an entry in the index
+      return IncludeTagRegions.EMPTY;
+    }
+    return regions;
+  }
+
+}
@@ -0,0 +1,103 @@
+package org.asciidoc.intellij.psi.search;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.indexing.SingleEntryFileBasedIndexExtension;
+import com.intellij.util.indexing.SingleEntryIndexer;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import org.asciidoc.intellij.asciidoc.IncludeTagRegions;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Index implementation to contain the tag regions of all text files.
+ */
+public class AsciiDocTagRegionIndexImpl extends SingleEntryFileBasedIndexExtension<IncludeTagRegions> {
+
+  @NotNull
+  @Override
+  public ID<Integer, IncludeTagRegions> getName() {
+    return AsciiDocTagRegionIndex.NAME;
+  }
+
+  @NotNull
+  @Override
+  public SingleEntryIndexer<IncludeTagRegions> getIndexer() {
+    return new SingleEntryIndexer<>(false) {
+      @Override
+      protected @Nullable IncludeTagRegions computeValue(@NotNull FileContent inputData) {
+        CharSequence text = inputData.getContentAsText();
+        // quick check to avoid splitting files that don't contain any tags
+        if (!StringUtil.contains(text, "tag::")) {
+          return null;
+        }
+        IncludeTagRegions regions = IncludeTagRegions.parse(StringUtil.split(text.toString(), "\n", true, false));
+        if (regions == IncludeTagRegions.EMPTY) {
+          return null;
+        }
+        return regions;
+      }
+    };
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<IncludeTagRegions> getValueExternalizer() {
+    return new DataExternalizer<>() {
+      @Override
+      public void save(@NotNull DataOutput out, IncludeTagRegions value) throws IOException {
+        out.writeBoolean(value.isWellFormed());
+        Map<String, int[]> regions = value.getRegions();
+        DataInputOutputUtil.writeINT(out, regions.size());
+        for (Map.Entry<String, int[]> entry : regions.entrySet()) {
+          IOUtil.writeUTF(out, entry.getKey());
+          DataInputOutputUtil.writeINT(out, entry.getValue().length);
+          for (int line : entry.getValue()) {
+            DataInputOutputUtil.writeINT(out, line);
+          }
+        }
+      }
+
+      @Override
+      public IncludeTagRegions read(@NotNull DataInput in) throws IOException {
+        boolean wellFormed = in.readBoolean();
+        int size = DataInputOutputUtil.readINT(in);
+        Map<String, int[]> regions = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+          String name = IOUtil.readUTF(in);
+          int[] lines = new int[DataInputOutputUtil.readINT(in)];
+          for (int j = 0; j < lines.length; j++) {
+            lines[j] = DataInputOutputUtil.readINT(in);
+          }
+          regions.put(name, lines);
+        }
+        return new IncludeTagRegions(regions, wellFormed);
+      }
+    };
+  }
+
+  /**
+   * Index all text files, as tags can appear in any kind of source file.
+   */
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return (VirtualFile vf) -> !vf.getFileType().isBinary();
+  }
+
+  @Override
+  public int getVersion() {
+    return 1;
+  }
+}
@@ -17,6 +17,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @State(
   name = "AsciidocApplicationSettings",
@@ -34,6 +35,9 @@ public class AsciiDocApplicationSettings implements PersistentStateComponent<Asc
   private final Map<String, Boolean> extensionsEnabled = new ConcurrentHashMap<>();
   private final Map<String, Boolean> extensionsPresent = new ConcurrentHashMap<>();
 
+  /* incremented on every change of the settings, so that cached results can detect that they are outdated */
+  private final AtomicLong modificationCount = new AtomicLong();
+
   @NotNull
   public static AsciiDocApplicationSettings getInstance() {
     return ApplicationManager.getApplication().getService(AsciiDocApplicationSettings.class);
@@ -53,6 +57,7 @@ public class AsciiDocApplicationSettings implements PersistentStateComponent<Asc
   @Override
   public void setAsciiDocPreviewSettings(@NotNull AsciiDocPreviewSettings settings) {
     myState.myPreviewSettings = settings;
+    modificationCount.incrementAndGet();
 
     ApplicationManager.getApplication().getMessageBus().syncPublisher(SettingsChangedListener.TOPIC).onSettingsChange(this);
   }
@@ -65,6 +70,7 @@ public class AsciiDocApplicationSettings implements PersistentStateComponent<Asc
 
   public void setExtensionsEnabled(String projectBasePath, boolean extensionsEnabled) {
     this.extensionsEnabled.put(projectBasePath, extensionsEnabled);
+    modificationCount.incrementAndGet();
     ApplicationManager.getApplication().getMessageBus().syncPublisher(SettingsChangedListener.TOPIC).onSettingsChange(this);
   }
 
@@ -89,6 +95,13 @@ public class AsciiDocApplicationSettings implements PersistentStateComponent<Asc
     return this.extensionsPresent.get(projectBasePath);
   }
 
+  /**
+   * Changes every time the settings change.
+   */
+  public long getModificationCount() {
+    return modificationCount.get();
+  }
+
   public SafeMode getSafe(Project project) {
     return myState.myPreviewSettings.getSafeMode(project);
   }
@@ -0,0 +1,427 @@
+package org.asciidoc.intellij.telemetry;
+
+import com.google.gson.stream.JsonWriter;
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import org.asciidoc.intellij.AsciiDocBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.PropertyKey;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+/**
+ * Timings of the phases of rendering the preview, aggregated as histograms since the start of the IDE.
+ * This shows where the time goes when a preview is slow, for example in the attributes of an Antora component,
+ * in the extensions or in the browser.
+ */
+@Service
+public final class AsciiDocRenderTelemetry {
+
+  /**
+   * Upper bounds of the buckets of the histograms in milliseconds, the last bucket has no upper bound.
+   */
+  static final long[] BUCKETS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+  /**
+   * Phases of a render. They don't overlap, so the total time of a render is the sum of the phases.
+   */
+  public enum Phase {
+    ATTRIBUTES("asciidoc.telemetry.phase.attributes"),
+    INIT("asciidoc.telemetry.phase.init"),
+    DIAGRAMS("asciidoc.telemetry.phase.diagrams"),
+    CONVERT("asciidoc.telemetry.phase.convert"),
+    PREPARE_HTML("asciidoc.telemetry.phase.prepareHtml"),
+    ENRICH_PAGE("asciidoc.telemetry.phase.enrichPage"),
+    PAINT("asciidoc.telemetry.phase.paint");
+
+    private final String key;
+
+    Phase(@PropertyKey(resourceBundle = "AsciiDocBundle") String key) {
+      this.key = key;
+    }
+
+    public String getTitle() {
+      return AsciiDocBundle.message(key);
+    }
+  }
+
+  /**
+   * What happened to a request to render the preview of an editor.
+   */
+  public enum Outcome {
+    /**
+     * Converted with Asciidoctor.
+     */
+    EXECUTED,
+    /**
+     * Reused the conversion of the same content from another preview.
+     */
+    SHARED,
+    /**
+     * Skipped as neither the document nor its configuration had changed.
+     */
+    SKIPPED
+  }
+
+  private final Map<Phase, Histogram> histograms = new EnumMap<>(Phase.class);
+  private final Map<Outcome, AtomicLong> outcomes = new EnumMap<>(Outcome.class);
+  private final Map<String, ExtensionStatistics> extensions = new ConcurrentHashMap<>();
+  private final AtomicLong modificationCount = new AtomicLong();
+
+  public AsciiDocRenderTelemetry() {
+    for (Phase phase : Phase.values()) {
+      histograms.put(phase, new Histogram());
+    }
+    for (Outcome outcome : Outcome.values()) {
+      outcomes.put(outcome, new AtomicLong());
+    }
+  }
+
+  /**
+   * Record the duration of a phase that started at the given time from {@link System#nanoTime()}.
+   * This does nothing when running without an application, for example in plain unit tests.
+   */
+  public static void record(@NotNull Phase phase, long startNanos) {
+    AsciiDocRenderTelemetry telemetry = getInstanceIfAvailable();
+    if (telemetry != null) {
+      telemetry.add(phase, System.nanoTime() - startNanos);
+    }
+  }
+
+  /**
+   * Count a request to render the preview of an editor.
+   */
+  public static void count(@NotNull Outcome outcome) {
+    AsciiDocRenderTelemetry telemetry = getInstanceIfAvailable();
+    if (telemetry != null) {
+      telemetry.add(outcome);
+    }
+  }
+
+  /**
+   * Record the time spent in each extension during one conversion.
+   */
+  public static void recordExtensions(@NotNull List<ExtensionTiming> timings) {
+    AsciiDocRenderTelemetry telemetry = getInstanceIfAvailable();
+    if (telemetry != null) {
+      telemetry.addExtensions(timings);
+    }
+  }
+
+  /**
+   * Parse the timings as written by <code>extension-profiler.rb</code>: one line per extension with kind, name,
+   * number of calls and nanoseconds, separated by tabs. Malformed lines are ignored.
+   */
+  @NotNull
+  public static List<ExtensionTiming> parseExtensionTimings(@NotNull String dump) {
+    List<ExtensionTiming> result = new ArrayList<>();
+    for (String line : dump.split("\n")) {
+      String[] fields = line.split("\t");
+      if (fields.length != 4) {
+        continue;
+      }
+      try {
+        result.add(new ExtensionTiming(fields[0], fields[1], Long.parseLong(fields[2]), Long.parseLong(fields[3])));
+      } catch (NumberFormatException e) {
+        // ignored, not a valid line
+      }
+    }
+    return result;
+  }
+
+  @Nullable
+  private static AsciiDocRenderTelemetry getInstanceIfAvailable() {
+    Application application = ApplicationManager.getApplication();
+    if (application == null || application.isDisposed()) {
+      return null;
+    }
+    return application.getService(AsciiDocRenderTelemetry.class);
+  }
+
+  public static AsciiDocRenderTelemetry getInstance() {
+    return ApplicationManager.getApplication().getService(AsciiDocRenderTelemetry.class);
+  }
+
+  void add(@NotNull Phase phase, long nanos) {
+    histograms.get(phase).add(nanos);
+    modificationCount.incrementAndGet();
+  }
+
+  void add(@NotNull Outcome outcome) {
+    outcomes.get(outcome).incrementAndGet();
+    modificationCount.incrementAndGet();
+  }
+
+  void addExtensions(@NotNull List<ExtensionTiming> timings) {
+    for (ExtensionTiming timing : timings) {
+      extensions.computeIfAbsent(timing.getKind() + ":" + timing.getName(), k -> new ExtensionStatistics(timing.getKind(), timing.getName()))
+        .add(timing);
+    }
+    if (!timings.isEmpty()) {
+      modificationCount.incrementAndGet();
+    }
+  }
+
+  /**
+   * The extensions that took the most time in total, starting with the slowest.
+   */
+  @NotNull
+  public List<ExtensionStatistics> getTopExtensions(int limit) {
+    return extensions.values().stream()
+      .sorted(Comparator.comparingLong(ExtensionStatistics::getTotalMillis).reversed())
+      .limit(limit)
+      .collect(Collectors.toList());
+  }
+
+  @NotNull
+  public Histogram getHistogram(@NotNull Phase phase) {
+    return histograms.get(phase);
+  }
+
+  public long getCount(@NotNull Outcome outcome) {
+    return outcomes.get(outcome).get();
+  }
+
+  /**
+   * Changes every time a timing is recorded or the histograms are reset, so a view knows when to update.
+   */
+  public long getModificationCount() {
+    return modificationCount.get();
+  }
+
+  public void reset() {
+    histograms.values().forEach(Histogram::reset);
+    outcomes.values().forEach(count -> count.set(0));
+    extensions.clear();
+    modificationCount.incrementAndGet();
+  }
+
+  /**
+   * Dump all histograms as JSON, so they can be attached to an issue or compared between versions.
+   */
+  @NotNull
+  public String toJson() {
+    StringWriter out = new StringWriter();
+    try (JsonWriter json = new JsonWriter(out)) {
+      json.setIndent("  ");
+      json.beginObject();
+      json.name("phases").beginArray();
+      for (Phase phase : Phase.values()) {
+        Histogram histogram = histograms.get(phase);
+        json.beginObject();
+        json.name("phase").value(phase.name().toLowerCase(Locale.US));
+        json.name("count").value(histogram.getCount());
+        json.name("totalMillis").value(histogram.getTotalMillis());
+        json.name("maxMillis").value(histogram.getMaxMillis());
+        json.name("buckets").beginArray();
+        for (int i = 0; i <= BUCKETS.length; i++) {
+          json.beginObject();
+          if (i < BUCKETS.length) {
+            json.name("lessThanMillis").value(BUCKETS[i]);
+          }
+          json.name("count").value(histogram.getBucketCount(i));
+          json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+      }
+      json.endArray();
+      json.name("renders").beginObject();
+      for (Outcome outcome : Outcome.values()) {
+        json.name(outcome.name().toLowerCase(Locale.US)).value(getCount(outcome));
+      }
+      json.endObject();
+      json.name("extensions").beginArray();
+      for (ExtensionStatistics extension : getTopExtensions(Integer.MAX_VALUE)) {
+        json.beginObject();
+        json.name("kind").value(extension.getKind());
+        json.name("name").value(extension.getName());
+        json.name("renders").value(extension.getRenders());
+        json.name("calls").value(extension.getCalls());
+        json.name("totalMillis").value(extension.getTotalMillis());
+        json.name("maxMillisPerRender").value(extension.getMaxMillisPerRender());
+        json.endObject();
+      }
+      json.endArray();
+      json.endObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toString();
+  }
+
+  /**
+   * Time spent in one extension during one conversion.
+   */
+  public static final class ExtensionTiming {
+    private final String kind;
+    private final String name;
+    private final long calls;
+    private final long nanos;
+
+    public ExtensionTiming(@NotNull String kind, @NotNull String name, long calls, long nanos) {
+      this.kind = kind;
+      this.name = name;
+      this.calls = calls;
+      this.nanos = nanos;
+    }
+
+    public String getKind() {
+      return kind;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getCalls() {
+      return calls;
+    }
+
+    public long getNanos() {
+      return nanos;
+    }
+  }
+
+  /**
+   * Time spent in one extension over all conversions, safe to update from several threads.
+   */
+  public static final class ExtensionStatistics {
+    private final String kind;
+    private final String name;
+    private final AtomicLong renders = new AtomicLong();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanosPerRender = new AtomicLong();
+
+    ExtensionStatistics(String kind, String name) {
+      this.kind = kind;
+      this.name = name;
+    }
+
+    void add(ExtensionTiming timing) {
+      renders.incrementAndGet();
+      calls.addAndGet(timing.getCalls());
+      totalNanos.addAndGet(timing.getNanos());
+      maxNanosPerRender.accumulateAndGet(timing.getNanos(), Math::max);
+    }
+
+    public String getKind() {
+      return kind;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getRenders() {
+      return renders.get();
+    }
+
+    public long getCalls() {
+      return calls.get();
+    }
+
+    public long getTotalMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(totalNanos.get());
+    }
+
+    public long getAverageMillisPerRender() {
+      long r = renders.get();
+      return r == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos.get() / r);
+    }
+
+    public long getMaxMillisPerRender() {
+      return TimeUnit.NANOSECONDS.toMillis(maxNanosPerRender.get());
+    }
+  }
+
+  /**
+   * Histogram of durations with fixed buckets, safe to update from several threads.
+   */
+  public static final class Histogram {
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void add(long nanos) {
+      long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+      int bucket = 0;
+      while (bucket < BUCKETS.length && millis >= BUCKETS[bucket]) {
+        ++bucket;
+      }
+      buckets.incrementAndGet(bucket);
+      count.incrementAndGet();
+      totalNanos.addAndGet(nanos);
+      maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    void reset() {
+      for (int i = 0; i < buckets.length(); i++) {
+        buckets.set(i, 0);
+      }
+      count.set(0);
+      totalNanos.set(0);
+      maxNanos.set(0);
+    }
+
+    public long getCount() {
+      return count.get();
+    }
+
+    public long getTotalMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(totalNanos.get());
+    }
+
+    public long getMaxMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+
+    public long getAverageMillis() {
+      long c = count.get();
+      return c == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos.get() / c);
+    }
+
+    public long getBucketCount(int bucket) {
+      return buckets.get(bucket);
+    }
+
+    /**
+     * Estimate a percentile from the buckets.
+     *
+     * @return upper bound of the bucket that contains the percentile, or the maximum for the last bucket
+     */
+    public long getPercentileMillis(double percentile) {
+      long c = count.get();
+      if (c == 0) {
+        return 0;
+      }
+      long threshold = (long) Math.ceil(c * percentile);
+      long sum = 0;
+      for (int i = 0; i < BUCKETS.length; i++) {
+        sum += buckets.get(i);
+        if (sum >= threshold) {
+          return BUCKETS[i];
+        }
+      }
+      return getMaxMillis();
+    }
+  }
+
+}
@@ -0,0 +1,231 @@
+package org.asciidoc.intellij.telemetry;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.actionSystem.ActionToolbar;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.ide.CopyPasteManager;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.JBSplitter;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.Alarm;
+import com.intellij.util.ui.JBUI;
+import org.asciidoc.intellij.AsciiDocBundle;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Show the timings of the preview phases and the extensions that took the most time in a tool window.
+ * The tables update while it is visible; the histograms can be reset and copied as JSON.
+ * A line on top counts the renders of the previews and the renders that could be avoided.
+ */
+public class AsciiDocRenderTelemetryToolWindowFactory implements ToolWindowFactory, DumbAware {
+
+  private static final int REFRESH_MILLIS = 1000;
+
+  @Override
+  public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+    AsciiDocRenderTelemetry telemetry = AsciiDocRenderTelemetry.getInstance();
+    TimingsTableModel model = new TimingsTableModel(telemetry);
+    ExtensionsTableModel extensionsModel = new ExtensionsTableModel(telemetry);
+
+    SimpleToolWindowPanel panel = new SimpleToolWindowPanel(true, true);
+    JBSplitter splitter = new JBSplitter(true, 0.5f);
+    splitter.setFirstComponent(new JBScrollPane(new JBTable(model)));
+    splitter.setSecondComponent(new JBScrollPane(new JBTable(extensionsModel)));
+    JBLabel renders = new JBLabel();
+    renders.setBorder(JBUI.Borders.empty(4, 8));
+    updateRenders(renders, telemetry);
+    JPanel content = new JPanel(new BorderLayout());
+    content.add(renders, BorderLayout.NORTH);
+    content.add(splitter, BorderLayout.CENTER);
+    panel.setContent(content);
+
+    DefaultActionGroup group = new DefaultActionGroup();
+    group.add(new DumbAwareAction(AsciiDocBundle.message("asciidoc.telemetry.reset"), null, AllIcons.Actions.GC) {
+      @Override
+      public void actionPerformed(@NotNull AnActionEvent e) {
+        telemetry.reset();
+        model.refresh();
+        extensionsModel.refresh();
+        updateRenders(renders, telemetry);
+      }
+    });
+    group.add(new DumbAwareAction(AsciiDocBundle.message("asciidoc.telemetry.copyJson"), null, AllIcons.Actions.Copy) {
+      @Override
+      public void actionPerformed(@NotNull AnActionEvent e) {
+        CopyPasteManager.getInstance().setContents(new StringSelection(telemetry.toJson()));
+      }
+    });
+    ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("AsciiDocRenderTelemetry", group, true);
+    toolbar.setTargetComponent(panel);
+    panel.setToolbar(toolbar.getComponent());
+
+    Content toolWindowContent = ContentFactory.getInstance().createContent(panel, null, false);
+    toolWindow.getContentManager().addContent(toolWindowContent);
+
+    Alarm alarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, toolWindowContent);
+    Runnable refresh = new Runnable() {
+      @Override
+      public void run() {
+        if (toolWindow.isVisible()) {
+          model.refresh();
+          extensionsModel.refresh();
+          updateRenders(renders, telemetry);
+        }
+        if (!alarm.isDisposed()) {
+          alarm.addRequest(this, REFRESH_MILLIS);
+        }
+      }
+    };
+    alarm.addRequest(refresh, REFRESH_MILLIS);
+  }
+
+  /**
+   * Show how often the previews have been converted, and how often a conversion could be avoided.
+   */
+  private static void updateRenders(JBLabel label, AsciiDocRenderTelemetry telemetry) {
+    label.setText(AsciiDocBundle.message("asciidoc.telemetry.renders",
+      telemetry.getCount(AsciiDocRenderTelemetry.Outcome.EXECUTED),
+      telemetry.getCount(AsciiDocRenderTelemetry.Outcome.SHARED),
+      telemetry.getCount(AsciiDocRenderTelemetry.Outcome.SKIPPED)));
+  }
+
+  private static class TimingsTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = {
+      AsciiDocBundle.message("asciidoc.telemetry.column.phase"),
+      AsciiDocBundle.message("asciidoc.telemetry.column.count"),
+      AsciiDocBundle.message("asciidoc.telemetry.column.average"),
+      AsciiDocBundle.message("asciidoc.telemetry.column.p50"),
+      AsciiDocBundle.message("asciidoc.telemetry.column.p95"),
+      AsciiDocBundle.message("asciidoc.telemetry.column.max"),
+      AsciiDocBundle.message("asciidoc.telemetry.column.total")
+    };
+
+    private final AsciiDocRenderTelemetry telemetry;
+    private long modificationCount = -1;
+
+    TimingsTableModel(AsciiDocRenderTelemetry telemetry) {
+      this.telemetry = telemetry;
+    }
+
+    void refresh() {
+      long current = telemetry.getModificationCount();
+      if (current != modificationCount) {
+        modificationCount = current;
+        fireTableDataChanged();
+      }
+    }
+
+    @Override
+    public int getRowCount() {
+      return AsciiDocRenderTelemetry.Phase.values().length;
+    }
+
+    @Override
+    public int getColumnCount() {
+      return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+      return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+      AsciiDocRenderTelemetry.Phase phase = AsciiDocRenderTelemetry.Phase.values()[rowIndex];
+      AsciiDocRenderTelemetry.Histogram histogram = telemetry.getHistogram(phase);
+      return switch (columnIndex) {
+        case 0 -> phase.getTitle();
+        case 1 -> histogram.getCount();
+        case 2 -> histogram.getAverageMillis();
+        case 3 -> histogram.getPercentileMillis(0.5);
+        case 4 -> histogram.getPercentileMillis(0.95);
+        case 5 -> histogram.getMaxMillis();
+        case 6 -> histogram.getTotalMillis();
+        default -> throw new IllegalArgumentException("unknown column " + columnIndex);
+      };
+    }
+  }
+
+  /**
+   * The extensions that took the most time, to find the extension that makes the preview slow.
+   */
+  private static class ExtensionsTableModel extends AbstractTableModel {
+    private static final int MAX_ROWS = 20;
+    private static final String[] COLUMNS = {
+      AsciiDocBundle.message("asciidoc.telemetry.column.extension"),
+      AsciiDocBundle.message("asciidoc.telemetry.column.kind"),
+      AsciiDocBundle.message("asciidoc.telemetry.column.renders"),
+      AsciiDocBundle.message("asciidoc.telemetry.column.calls"),
+      AsciiDocBundle.message("asciidoc.telemetry.column.averagePerRender"),
+      AsciiDocBundle.message("asciidoc.telemetry.column.maxPerRender"),
+      AsciiDocBundle.message("asciidoc.telemetry.column.total")
+    };
+
+    private final AsciiDocRenderTelemetry telemetry;
+    private long modificationCount = -1;
+    private List<AsciiDocRenderTelemetry.ExtensionStatistics> rows = Collections.emptyList();
+
+    ExtensionsTableModel(AsciiDocRenderTelemetry telemetry) {
+      this.telemetry = telemetry;
+    }
+
+    void refresh() {
+      long current = telemetry.getModificationCount();
+      if (current != modificationCount) {
+        modificationCount = current;
+        rows = telemetry.getTopExtensions(MAX_ROWS);
+        fireTableDataChanged();
+      }
+    }
+
+    @Override
+    public int getRowCount() {
+      return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+      return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+      return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+      AsciiDocRenderTelemetry.ExtensionStatistics extension = rows.get(rowIndex);
+      return switch (columnIndex) {
+        case 0 -> extension.getName();
+        case 1 -> extension.getKind();
+        case 2 -> extension.getRenders();
+        case 3 -> extension.getCalls();
+        case 4 -> extension.getAverageMillisPerRender();
+        case 5 -> extension.getMaxMillisPerRender();
+        case 6 -> extension.getTotalMillis();
+        default -> throw new IllegalArgumentException("unknown column " + columnIndex);
+      };
+    }
+  }
+
+}
@@ -0,0 +1,36 @@
+package org.asciidoc.intellij.util;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Short hashes for keys of caches, file names and ETags.
+ */
+public final class HashUtil {
+
+  private HashUtil() {
+  }
+
+  /**
+   * Hex representation of the first bytes of the SHA-256 hash of the data.
+   *
+   * @param bytes number of bytes to keep, 8 bytes result in 16 characters
+   */
+  @NotNull
+  public static String sha256Hex(@NotNull byte[] data, int bytes) {
+    return DigestUtils.sha256Hex(data).substring(0, bytes * 2);
+  }
+
+  /**
+   * Hex representation of the first bytes of the SHA-256 hash of the UTF-8 encoded text.
+   *
+   * @param bytes number of bytes to keep, 8 bytes result in 16 characters
+   */
+  @NotNull
+  public static String sha256Hex(@NotNull String text, int bytes) {
+    return sha256Hex(text.getBytes(StandardCharsets.UTF_8), bytes);
+  }
+
+}
@@ -0,0 +1,135 @@
+package org.asciidoc.intellij.util;
+
+import com.intellij.openapi.diagnostic.Logger;
+import org.apache.commons.io.FileUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Eviction for the folders in the IDE's system path that keep generated files across restarts.
+ * Each file or folder directly in the root is an entry. Its modification time is the time it has been used last,
+ * so whoever uses an entry needs to {@link #touch(Path)} it.
+ */
+public final class LeastRecentlyUsedFiles {
+  private static final Logger LOG = Logger.getInstance(LeastRecentlyUsedFiles.class);
+
+  private LeastRecentlyUsedFiles() {
+  }
+
+  /**
+   * Remove the entries that haven't been used for longer than the maximum age, and then the least recently used
+   * entries until the root is smaller than the maximum size.
+   */
+  public static void evict(@NotNull Path root, long maxSize, long maxAge) {
+    evict(root, maxSize, maxAge, LeastRecentlyUsedFiles::delete);
+  }
+
+  /**
+   * Same as {@link #evict(Path, long, long)}, but the entries are removed by the caller, for example to skip entries
+   * that are in use.
+   *
+   * @param remove removes an entry, and returns <code>true</code> if it has been removed
+   */
+  public static void evict(@NotNull Path root, long maxSize, long maxAge, @NotNull Predicate<Path> remove) {
+    if (!Files.isDirectory(root)) {
+      return;
+    }
+    List<Entry> entries = new ArrayList<>();
+    long total = 0;
+    try (Stream<Path> stream = Files.list(root)) {
+      for (Path path : (Iterable<Path>) stream::iterator) {
+        Entry entry = new Entry(path, size(path), lastModified(path));
+        entries.add(entry);
+        total += entry.size;
+      }
+    } catch (IOException e) {
+      LOG.warn("unable to list files in " + root, e);
+      return;
+    }
+    entries.sort(Comparator.comparingLong(entry -> entry.lastUsed));
+    long now = System.currentTimeMillis();
+    for (Entry entry : entries) {
+      boolean expired = now - entry.lastUsed > maxAge;
+      if (!expired && total <= maxSize) {
+        break;
+      }
+      if (remove.test(entry.path)) {
+        total -= entry.size;
+      }
+    }
+  }
+
+  /**
+   * Remove a file or a folder with all its content.
+   *
+   * @return <code>true</code> if it has been removed
+   */
+  public static boolean delete(@NotNull Path path) {
+    try {
+      if (Files.isDirectory(path)) {
+        FileUtils.deleteDirectory(path.toFile());
+      } else {
+        Files.deleteIfExists(path);
+      }
+      return true;
+    } catch (IOException e) {
+      LOG.warn("could not remove " + path, e);
+      return false;
+    }
+  }
+
+  /**
+   * Mark an entry as used now.
+   */
+  public static void touch(@NotNull Path path) {
+    try {
+      Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (IOException e) {
+      // ignored, the entry will be evicted earlier than necessary
+    }
+  }
+
+  private static long lastModified(Path path) {
+    try {
+      return Files.getLastModifiedTime(path).toMillis();
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  private static long size(Path path) {
+    try (Stream<Path> files = Files.walk(path)) {
+      return files.filter(Files::isRegularFile).mapToLong(file -> {
+        try {
+          return Files.size(file);
+        } catch (IOException e) {
+          return 0;
+        }
+      }).sum();
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  private static final class Entry {
+    private final Path path;
+    private final long size;
+    private final long lastUsed;
+
+    private Entry(Path path, long size, long lastUsed) {
+      this.path = path;
+      this.size = size;
+      this.lastUsed = lastUsed;
+    }
+  }
+
+}
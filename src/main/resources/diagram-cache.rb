@@ -0,0 +1,84 @@
+require 'asciidoctor/extensions'
+require 'asciidoctor-diagram'
+require 'digest'
+require 'fileutils'
+
+include ::Asciidoctor
+
+# Re-use the image of a diagram when the same diagram has been generated before, even in a different document or before
+# a restart of the IDE. The images are stored in the folder given in the attribute 'intellij-diagram-cache',
+# by a hash of the diagram type, its source, its options and the version of asciidoctor-diagram.
+# The cache is bypassed when the attribute is not set, when the document or the diagram has the option 'nocache',
+# and for diagrams that reference other files, as a change to such a file would not change the key.
+
+module DiagramCacheBlockHack
+  # see https://github.com/asciidoctor/asciidoctor-diagram/blob/master/lib/asciidoctor-diagram/diagram_processor.rb for the source
+  def process(parent, reader_or_target, attributes)
+    # the converter doesn't have access to the document, therefore pass the folder via the current thread
+    previous = Thread.current[:intellij_diagram_cache]
+    document = parent.document
+    if document.attr?('diagram-nocache-option') || attributes.key?('nocache-option')
+      Thread.current[:intellij_diagram_cache] = nil
+    else
+      Thread.current[:intellij_diagram_cache] = document.attr('intellij-diagram-cache')
+    end
+    begin
+      super(parent, reader_or_target, attributes)
+    ensure
+      Thread.current[:intellij_diagram_cache] = previous
+    end
+  end
+end
+
+module DiagramCacheConverterHack
+  # includes and imports of PlantUML, Structurizr and D2, images in PlantUML and Graphviz, and data of Vega
+  REFERENCES = /^\s*!(?:include|includesub|includeurl|includedef|import)\b|<img:|\bimage\s*=|"url"\s*:|@import\b|\.\.\.@/
+
+  # see https://github.com/asciidoctor/asciidoctor-diagram/blob/master/lib/asciidoctor-diagram/diagram_converter.rb for the source
+  def convert(source, format, options)
+    cache_dir = Thread.current[:intellij_diagram_cache]
+    return super(source, format, options) if cache_dir.nil? || cache_dir.empty? || REFERENCES.match?(source.code)
+
+    checksum = source.respond_to?(:checksum) ? source.checksum : ''
+    key = Digest::SHA256.hexdigest([self.class.name, Asciidoctor::Diagram::VERSION, format.to_s, options.to_s, checksum, source.code].join("\0"))
+    file = File.join(cache_dir, "#{key}.#{format}")
+    if File.exist?(file)
+      begin
+        # the modification time tells the IDE which images have been used recently
+        FileUtils.touch(file)
+        return File.binread(file)
+      rescue SystemCallError
+        # fall through and generate the image again
+      end
+    end
+
+    result = super(source, format, options)
+    if result.is_a?(String)
+      begin
+        FileUtils.mkdir_p(cache_dir)
+        # write to a temporary file first, so that a concurrent render never reads an incomplete image
+        temp_file = "#{file}.#{Thread.current.object_id}.tmp"
+        File.binwrite(temp_file, result)
+        File.rename(temp_file, file)
+      rescue SystemCallError => e
+        logger.warn "unable to cache diagram: #{e.message}"
+      end
+    end
+    result
+  end
+end
+
+class Diagram::DiagramBlockProcessor
+  prepend DiagramCacheBlockHack
+end
+
+class Diagram::DiagramBlockMacroProcessor
+  prepend DiagramCacheBlockHack
+end
+
+Diagram.constants.each do |name|
+  converter = Diagram.const_get(name)
+  if converter.is_a?(Class) && converter.include?(Diagram::DiagramConverter)
+    converter.prepend DiagramCacheConverterHack
+  end
+end
@@ -0,0 +1,75 @@
+require 'asciidoctor/extensions'
+
+# Measure the time spent in each extension while converting a document.
+# When a registry is activated for a document, the process method of each registered extension is wrapped,
+# this includes the Java extensions that AsciidoctorJ registers as Ruby proxies.
+# The plugin resets the timings before a conversion and reads them afterwards.
+# Extensions can run on other threads than the conversion, therefore all access to the timings is synchronized.
+module AsciiDocIntelliJExtensionProfiler
+  @timings = {}
+  @lock = ::Mutex.new
+
+  class << self
+    def reset
+      @lock.synchronize { @timings = {} }
+      nil
+    end
+
+    def record key, seconds
+      @lock.synchronize do
+        entry = (@timings[key] ||= [0, 0.0])
+        entry[0] += 1
+        entry[1] += seconds
+      end
+    end
+
+    # one line per extension: kind, name, number of calls, nanoseconds
+    def dump
+      @lock.synchronize do
+        @timings.map {|(kind, name), (calls, seconds)| %(#{kind}\t#{name}\t#{calls}\t#{(seconds * 1_000_000_000).to_i}) }.join %(\n)
+      end
+    end
+
+    def name_of instance
+      name = instance.class.name
+      if name.nil? || name.empty?
+        # AsciidoctorJ creates anonymous Ruby classes for Java extensions, use the Java class of the processor instead
+        name = (instance.to_java.getProcessor.getClass.getName rescue nil) || instance.class.to_s
+      end
+      name
+    end
+
+    def wrap extension
+      return if extension.nil? || (extension.instance_variable_get :@intellij_profiled)
+      process_method = extension.process_method
+      key = [extension.kind.to_s, (name_of extension.instance)]
+      extension.instance_variable_set :@process_method, (lambda do |*args|
+        start = ::Process.clock_gettime ::Process::CLOCK_MONOTONIC
+        begin
+          process_method.call(*args)
+        ensure
+          AsciiDocIntelliJExtensionProfiler.record key, (::Process.clock_gettime ::Process::CLOCK_MONOTONIC) - start
+        end
+      end)
+      extension.instance_variable_set :@intellij_profiled, true
+    end
+  end
+
+  def activate document
+    result = super
+    [@preprocessor_extensions, @include_processor_extensions, @tree_processor_extensions,
+     @postprocessor_extensions, @docinfo_processor_extensions].each do |extensions|
+      (extensions || []).each {|extension| AsciiDocIntelliJExtensionProfiler.wrap extension }
+    end
+    [@block_extensions, @block_macro_extensions, @inline_macro_extensions].each do |extensions|
+      next unless extensions
+      (extensions.is_a? ::Hash) ? extensions.each_value {|extension| AsciiDocIntelliJExtensionProfiler.wrap extension } :
+        extensions.each {|extension| AsciiDocIntelliJExtensionProfiler.wrap extension }
+    end
+    result
+  end
+end
+
+unless Asciidoctor::Extensions::Registry.ancestors.include? AsciiDocIntelliJExtensionProfiler
+  Asciidoctor::Extensions::Registry.prepend AsciiDocIntelliJExtensionProfiler
+end
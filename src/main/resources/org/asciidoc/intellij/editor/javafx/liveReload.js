@@ -0,0 +1,24 @@
+// Replace the content of the page when the document changes in the IDE.
+// The events channel uses the same parameters as the page, including the signature of the file.
+(function () {
+  if (!window.EventSource || window.__asciidocLiveReload) {
+    return;
+  }
+  window.__asciidocLiveReload = true;
+
+  var source = new EventSource(window.location.href.replace('/source?', '/events?'));
+  source.addEventListener('update', function (event) {
+    var updated = new DOMParser().parseFromString(event.data, 'text/html');
+    var x = window.scrollX;
+    var y = window.scrollY;
+    document.body.innerHTML = updated.body.innerHTML;
+    window.scrollTo(x, y);
+    // scripts in the new content don't run, therefore trigger the renderers for math and diagrams again
+    if (window.MathJax && window.MathJax.Hub) {
+      window.MathJax.Hub.Queue(['Typeset', window.MathJax.Hub]);
+    }
+    if (window.mermaid && window.mermaid.init) {
+      window.mermaid.init(undefined, document.querySelectorAll('.mermaid'));
+    }
+  });
+})();
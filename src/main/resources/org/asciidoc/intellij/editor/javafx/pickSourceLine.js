@@ -2,37 +2,8 @@ if (window.__IntelliJTools === undefined) {
   window.__IntelliJTools = {}
 }
 
-window.__IntelliJTools.getLine = function (node) {
-  if (!node || !('className' in node)) {
-    return null
-  }
-  var classes = node.className.split(' ');
-
-  // JavaFX WebView doesn't support named groups, therefore don't use them here
-  var re = /^data-line-(.*)-([0-9]*)$/;
-
-  for (var i = 0; i < classes.length; i++) {
-    var className = classes[i];
-    var found = className.match(re);
-    if (found) {
-      return found;
-    }
-  }
-
-  return null;
-}
-
 window.__IntelliJTools.lineCount = 0;
 
-  window.__IntelliJTools.calculateOffset = function (element) {
-  var offset = 0
-  while (element != null) {
-    offset += element.offsetTop
-    element = element.offsetParent
-  }
-  return offset
-}
-
 window.__IntelliJTools.scrollEditorToLine = function (event) {
   try {
     if (event.target.nodeName === 'DETAILS' || event.target.nodeName === 'SUMMARY') {
@@ -46,58 +17,43 @@ window.__IntelliJTools.scrollEditorToLine = function (event) {
       event.stopPropagation();
       return;
     }
-    var blocks = document.getElementsByClassName('has-source-line');
-    var startY;
-    var startFile = 'stdin';
-    var startLine = 1;
-    var endY;
+    var map = window.__IntelliJTools.sourceLineMap;
+    var blocks = map.getEntries();
+    var clickY = event.clientY + window.scrollY;
+    var start = map.findByElement(event.target);
+    if (start === null) {
+      if (!event.target.closest('.has-source-line')) {
+        // only clicks on blocks scroll the editor
+        return;
+      }
+      // clicked on a block without a line, use the closest block above
+      var index = map.findByOffset(clickY);
+      if (index < 0) {
+        return;
+      }
+      start = blocks[index];
+    }
+    var startY = start.top;
+    var startLine = start.line;
+    var startFile = start.file;
+    // there might be no further block, therefore assume that the end is at the end of this block
+    var endY = startY + start.height;
     var endLine = window.__IntelliJTools.lineCount;
     var endFile = 'stdin';
-    var parent;
-    var tempEndY;
-    for (var i = 0; i < blocks.length; i++) {
-      var block = blocks[i];
-      var result = window.__IntelliJTools.getLine(block);
-      if (result === null) {
-        continue;
-      }
-      var fileOfBlock = result[1];
-      var lineOfBlock = Number(result[2]);
-      if (block.contains(event.currentTarget)) {
-        startY = window.__IntelliJTools.calculateOffset(block)
-        startLine = lineOfBlock;
-        startFile = fileOfBlock;
-        // there might be no further block, therefore assume that the end is at the end of this block
-        endY = startY + block.offsetHeight;
-        parent = block;
-      } else if (parent && !parent.contains(block)) {
-        // we just left the block we clicked in
-        tempEndY = window.__IntelliJTools.calculateOffset(block)
-        if (tempEndY > endY) {
-          endY = tempEndY;
+    // the next block in document order that is not nested in the block we clicked in
+    for (var i = start.index + 1; i < blocks.length; i++) {
+      if (!start.element.contains(blocks[i].element)) {
+        if (blocks[i].top > endY) {
+          endY = blocks[i].top;
         }
-        endLine = lineOfBlock - 1;
-        endFile = fileOfBlock;
-        break;
-      } else if (event.clientY + window.scrollY > window.__IntelliJTools.calculateOffset(block)) {
-        startY = window.__IntelliJTools.calculateOffset(block)
-        startLine = lineOfBlock;
-        startFile = fileOfBlock;
-        // there might be no further block, therefore assume that the end is at the end of this block
-        endY = startY + block.offsetHeight;
-      } else if (event.clientY + window.scrollY < window.__IntelliJTools.calculateOffset(block)) {
-        tempEndY = window.__IntelliJTools.calculateOffset(block)
-        if (tempEndY > endY) {
-          endY = tempEndY;
-        }
-        endLine = lineOfBlock - 1;
-        endFile = fileOfBlock;
+        endLine = blocks[i].line - 1;
+        endFile = blocks[i].file;
         break;
       }
     }
     var editorLine;
-    if (startFile === endFile) {
-      editorLine = startLine + (event.clientY + window.scrollY - startY) * (endLine - startLine) / (endY - startY);
+    if (startFile === endFile && endY !== startY) {
+      editorLine = startLine + (clickY - startY) * (endLine - startLine) / (endY - startY);
     } else {
       editorLine = startLine;
     }
@@ -110,12 +66,12 @@ window.__IntelliJTools.scrollEditorToLine = function (event) {
 
 window.__IntelliJTools.pickSourceLine = function (lc) {
 
-  // the sourcelines will be as CSS class elements that also have class has-source-line
-  var blocks = document.getElementsByClassName('has-source-line');
+  // the content has been rendered again, therefore the table of source lines needs to be built again
+  window.__IntelliJTools.sourceLineMap.reset();
 
-  for (var i = 0; i < blocks.length; i++) {
-    blocks[i].addEventListener('click', window.__IntelliJTools.scrollEditorToLine);
-  }
+  // a single listener on the document handles the clicks on all blocks
+  document.removeEventListener('click', window.__IntelliJTools.scrollEditorToLine);
+  document.addEventListener('click', window.__IntelliJTools.scrollEditorToLine);
 
   window.__IntelliJTools.lineCount = lc;
 
@@ -123,11 +79,7 @@ window.__IntelliJTools.pickSourceLine = function (lc) {
 
 window.__IntelliJTools.clearSourceLine = function () {
 
-  // the sourcelines will be as CSS class elements that also have class has-source-line
-  var blocks = document.getElementsByClassName('has-source-line');
-
-  for (var i = 0; i < blocks.length; i++) {
-    blocks[i].removeEventListener('click', window.__IntelliJTools.scrollEditorToLine);
-  }
+  document.removeEventListener('click', window.__IntelliJTools.scrollEditorToLine);
+  window.__IntelliJTools.sourceLineMap.reset();
 
 }
@@ -6,54 +6,25 @@ window.__IntelliJTools.scrollToLine = (function () {
 
   var oldLineToScroll = 0;
 
-  var getLine = function (node) {
-    if (!node || !('className' in node)) {
-      return null
-    }
-    var classes = node.className.split(' ');
-
-    for (var i = 0; i < classes.length; i++) {
-      var className = classes[i]
-      if (className.match(/^data-line-stdin-/)) {
-        return Number(className.substr("data-line-stdin-".length));
-      }
-    }
-
-    return null
-  }
-
-  function calculateOffset(element) {
-    var offset = 0
-    while(element != null) {
-      offset += element.offsetTop
-      element = element.offsetParent
-    }
-    return offset
-  }
-
   var scrollToLine = function (newLineToScroll, lineCount) {
 
-    // the sourcelines will be as CSS class elements that also have class has-source-line
-    var blocks = document.getElementsByClassName('has-source-line');
+    var map = window.__IntelliJTools.sourceLineMap;
+    var blocks = map.getEntriesByLine();
+    var index = map.findByLine(newLineToScroll);
     var startY = 0;
     var startLine = 0;
     var endY;
     var endLine = lineCount;
 
-    for (var i = 0; i < blocks.length; i++) {
-      var block = blocks[i]
-      var lineOfBlock = getLine(block);
-      if (lineOfBlock <= newLineToScroll) {
-        startY = calculateOffset(block)
-        startLine = lineOfBlock
-        // there might be no further block, therefore assume that the end is at the end of this block
-        endY = startY + block.offsetHeight
-      }
-      else if (lineOfBlock > newLineToScroll) {
-        endY = calculateOffset(block)
-        endLine = lineOfBlock -1;
-        break
-      }
+    if (index >= 0) {
+      startY = blocks[index].top
+      startLine = blocks[index].line
+      // there might be no further block, therefore assume that the end is at the end of this block
+      endY = startY + blocks[index].height
+    }
+    if (index + 1 < blocks.length) {
+      endY = blocks[index + 1].top
+      endLine = blocks[index + 1].line - 1;
     }
 
     var resultY = startY
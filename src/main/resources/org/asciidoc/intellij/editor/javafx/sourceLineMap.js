@@ -0,0 +1,175 @@
+if (window.__IntelliJTools === undefined) {
+  window.__IntelliJTools = {}
+}
+
+/*
+ * Table of all elements with a source line, built once after the page has been rendered.
+ * Scrolling to a line and picking the line of a clicked element use binary search on this table instead of
+ * walking all elements on every caret move. The offsets are measured again after the layout changed,
+ * for example when the window has been resized or an image has been loaded.
+ */
+window.__IntelliJTools.sourceLineMap = (function () {
+
+  // JavaFX WebView doesn't support named groups, therefore don't use them here
+  var re = /^data-line-(.*)-([0-9]*)$/;
+
+  // all entries in document order
+  var entries = null;
+  // entries of the current document, sorted by line
+  var byLine = null;
+  var offsetsValid = false;
+
+  var parseLine = function (node) {
+    if (!node || !('className' in node) || typeof node.className !== 'string') {
+      return null
+    }
+    var classes = node.className.split(' ');
+    for (var i = 0; i < classes.length; i++) {
+      var found = classes[i].match(re);
+      if (found) {
+        return found;
+      }
+    }
+    return null
+  }
+
+  var calculateOffset = function (element) {
+    var offset = 0
+    while (element != null) {
+      offset += element.offsetTop
+      element = element.offsetParent
+    }
+    return offset
+  }
+
+  var build = function () {
+    // the sourcelines will be as CSS class elements that also have class has-source-line
+    var blocks = document.getElementsByClassName('has-source-line');
+    entries = [];
+    byLine = [];
+    for (var i = 0; i < blocks.length; i++) {
+      var result = parseLine(blocks[i]);
+      if (result === null) {
+        continue;
+      }
+      var entry = {element: blocks[i], file: result[1], line: Number(result[2]), index: entries.length, top: 0, height: 0};
+      blocks[i].__IntelliJSourceLine = entry;
+      entries.push(entry);
+      if (entry.file === 'stdin') {
+        byLine.push(entry);
+      }
+    }
+    // blocks are usually in the order of their lines; keep the document order for blocks on the same line
+    byLine.sort(function (a, b) {
+      return a.line - b.line || a.index - b.index;
+    });
+    offsetsValid = false;
+  }
+
+  var measure = function () {
+    if (entries === null) {
+      build();
+    }
+    if (!offsetsValid) {
+      for (var i = 0; i < entries.length; i++) {
+        entries[i].top = calculateOffset(entries[i].element);
+        entries[i].height = entries[i].element.offsetHeight;
+      }
+      offsetsValid = true;
+    }
+  }
+
+  var invalidateOffsets = function () {
+    offsetsValid = false;
+  }
+
+  var reset = function () {
+    entries = null;
+    byLine = null;
+    offsetsValid = false;
+  }
+
+  /*
+   * Find the index of the last entry in 'byLine' that has a line less or equal to the given line.
+   * Returns -1 if all entries have a greater line.
+   */
+  var findByLine = function (line) {
+    measure();
+    var low = 0;
+    var high = byLine.length - 1;
+    var result = -1;
+    while (low <= high) {
+      var mid = (low + high) >>> 1;
+      if (byLine[mid].line <= line) {
+        result = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return result;
+  }
+
+  /*
+   * Find the index of the last entry in document order that starts at or above the given offset.
+   * Returns -1 if all entries start below the offset.
+   */
+  var findByOffset = function (offset) {
+    measure();
+    var low = 0;
+    var high = entries.length - 1;
+    var result = -1;
+    while (low <= high) {
+      var mid = (low + high) >>> 1;
+      if (entries[mid].top <= offset) {
+        result = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return result;
+  }
+
+  /*
+   * Find the entry of the element or its closest ancestor that has a source line, or null if there is none.
+   */
+  var findByElement = function (element) {
+    measure();
+    while (element != null) {
+      var entry = element.__IntelliJSourceLine;
+      if (entry !== undefined && entries[entry.index] === entry) {
+        return entry;
+      }
+      element = element.parentElement;
+    }
+    return null;
+  }
+
+  var getEntries = function () {
+    measure();
+    return entries;
+  }
+
+  var getEntriesByLine = function () {
+    measure();
+    return byLine;
+  }
+
+  window.addEventListener('resize', invalidateOffsets);
+  // images and diagrams change the layout when they are loaded
+  document.addEventListener('load', invalidateOffsets, true);
+  if (typeof ResizeObserver !== 'undefined') {
+    new ResizeObserver(invalidateOffsets).observe(document.documentElement);
+  }
+
+  return {
+    reset: reset,
+    findByLine: findByLine,
+    findByOffset: findByOffset,
+    findByElement: findByElement,
+    getEntries: getEntries,
+    getEntriesByLine: getEntriesByLine,
+    parseLine: parseLine
+  }
+})()
@@ -0,0 +1,54 @@
+package org.asciidoc.intellij.actions.asciidoc;
+
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ImageEncoderTest {
+
+  @Test
+  public void shouldKeepSizeWithoutMaxWidth() throws IOException {
+    BufferedImage image = ImageEncoder.toBufferedImage(new BufferedImage(400, 300, BufferedImage.TYPE_INT_ARGB), 0);
+
+    assertThat(image.getWidth()).isEqualTo(400);
+    assertThat(image.getHeight()).isEqualTo(300);
+    assertThat(image.getType()).isEqualTo(BufferedImage.TYPE_INT_RGB);
+  }
+
+  @Test
+  public void shouldScaleDownKeepingAspectRatio() throws IOException {
+    BufferedImage image = ImageEncoder.toBufferedImage(new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_ARGB), 1000);
+
+    assertThat(image.getWidth()).isEqualTo(1000);
+    assertThat(image.getHeight()).isEqualTo(750);
+  }
+
+  @Test
+  public void shouldNotScaleUpSmallImages() throws IOException {
+    BufferedImage image = ImageEncoder.toBufferedImage(new BufferedImage(200, 100, BufferedImage.TYPE_INT_ARGB), 1000);
+
+    assertThat(image.getWidth()).isEqualTo(200);
+  }
+
+  @Test
+  public void shouldEncodeReadableImage() throws IOException {
+    byte[] png = ImageEncoder.encode(new BufferedImage(20, 10, BufferedImage.TYPE_INT_RGB), "png");
+
+    BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(png));
+    assertThat(decoded.getWidth()).isEqualTo(20);
+    assertThat(decoded.getHeight()).isEqualTo(10);
+  }
+
+  @Test
+  public void shouldFailForUnknownFormat() {
+    assertThatThrownBy(() -> ImageEncoder.encode(new BufferedImage(20, 10, BufferedImage.TYPE_INT_RGB), "unknown"))
+      .isInstanceOf(IOException.class);
+  }
+
+}
@@ -0,0 +1,32 @@
+package org.asciidoc.intellij.antora;
+
+import org.asciidoc.intellij.psi.AsciiDocAttributeDeclarationDummy;
+import org.asciidoc.intellij.psi.AttributeDeclaration;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AsciiDocAntoraAttributesTest {
+
+  @Test
+  public void shouldLookupAllDeclarationsCaseInsensitive() {
+    AsciiDocAntoraAttributes attributes = new AsciiDocAntoraAttributes(List.of(
+      new AsciiDocAttributeDeclarationDummy("page-module", "ROOT"),
+      new AsciiDocAttributeDeclarationDummy("Product", "playbook"),
+      new AsciiDocAttributeDeclarationDummy("product", "component")
+    ));
+    assertThat(attributes.getAttributes("PRODUCT"))
+      .extracting(AttributeDeclaration::getAttributeValue)
+      .containsExactly("playbook", "component");
+    assertThat(attributes.getAttributes("unknown")).isEmpty();
+    assertThat(attributes.getAttributes()).hasSize(3);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void shouldBeImmutable() {
+    AsciiDocAntoraAttributes.EMPTY.getAttributes().add(new AsciiDocAttributeDeclarationDummy("icons", "font"));
+  }
+
+}
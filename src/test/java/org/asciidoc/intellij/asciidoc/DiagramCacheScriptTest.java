@@ -0,0 +1,132 @@
+package org.asciidoc.intellij.asciidoc;
+
+import org.apache.commons.io.FileUtils;
+import org.asciidoctor.Asciidoctor;
+import org.asciidoctor.Attributes;
+import org.asciidoctor.AttributesBuilder;
+import org.asciidoctor.Options;
+import org.asciidoctor.SafeMode;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test the Ruby side of the diagram cache in diagram-cache.rb.
+ */
+public class DiagramCacheScriptTest {
+
+  private static final String DIAGRAM = "[plantuml,diagram,svg]\n" +
+    "----\n" +
+    "Alice -> Bob\n" +
+    "----\n";
+
+  private static Asciidoctor asciidoctor;
+
+  private Path base;
+  private Path cache;
+
+  @BeforeClass
+  public static void init() throws IOException {
+    asciidoctor = Asciidoctor.Factory.create();
+    asciidoctor.requireLibrary("asciidoctor-diagram");
+    try (InputStream is = DiagramCacheScriptTest.class.getResourceAsStream("/diagram-cache.rb")) {
+      asciidoctor.rubyExtensionRegistry().loadClass(is);
+    }
+  }
+
+  @AfterClass
+  public static void shutdown() {
+    asciidoctor.shutdown();
+  }
+
+  @Before
+  public void setup() throws IOException {
+    base = Files.createTempDirectory("asciidoctor-diagram-cache-script-test");
+    cache = base.resolve("cache");
+  }
+
+  @After
+  public void cleanup() throws IOException {
+    FileUtils.deleteDirectory(base.toFile());
+  }
+
+  @Test
+  public void shouldReuseCachedDiagram() throws IOException {
+    convert(DIAGRAM, false);
+    List<Path> cached = cachedFiles();
+    assertThat(cached).hasSize(1);
+
+    // a different content in the cache shows that the second conversion reads it from there
+    Files.writeString(cached.get(0), "<svg>cached</svg>");
+    Files.delete(base.resolve("images/diagram.svg"));
+    convert(DIAGRAM, false);
+
+    assertThat(base.resolve("images/diagram.svg")).hasContent("<svg>cached</svg>");
+  }
+
+  @Test
+  public void shouldBypassCacheWhenDocumentHasNocacheOption() throws IOException {
+    convert(DIAGRAM, true);
+
+    assertThat(cachedFiles()).isEmpty();
+  }
+
+  @Test
+  public void shouldBypassCacheWhenDiagramHasNocacheOption() throws IOException {
+    convert("[plantuml,diagram,svg,opts=nocache]\n" +
+      "----\n" +
+      "Alice -> Bob\n" +
+      "----\n", false);
+
+    assertThat(cachedFiles()).isEmpty();
+  }
+
+  @Test
+  public void shouldBypassCacheWhenDiagramIncludesFile() throws IOException {
+    Files.writeString(base.resolve("other.puml"), "Bob -> Carol\n");
+    convert("[plantuml,diagram,svg]\n" +
+      "----\n" +
+      "Alice -> Bob\n" +
+      "!include other.puml\n" +
+      "----\n", false);
+
+    assertThat(base.resolve("images/diagram.svg")).exists();
+    assertThat(cachedFiles()).isEmpty();
+  }
+
+  private void convert(String text, boolean nocache) {
+    AttributesBuilder attributes = Attributes.builder()
+      .attribute("imagesoutdir", base.resolve("images").toString())
+      .attribute("intellij-diagram-cache", cache.toString());
+    if (nocache) {
+      attributes.attribute("diagram-nocache-option", "");
+    }
+    asciidoctor.convert(text, Options.builder()
+      .safe(SafeMode.UNSAFE)
+      .baseDir(base.toFile())
+      .attributes(attributes.build())
+      .build());
+  }
+
+  private List<Path> cachedFiles() throws IOException {
+    if (!Files.exists(cache)) {
+      return List.of();
+    }
+    try (Stream<Path> files = Files.list(cache)) {
+      return files.collect(Collectors.toList());
+    }
+  }
+
+}
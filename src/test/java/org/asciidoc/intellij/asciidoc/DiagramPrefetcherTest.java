@@ -0,0 +1,62 @@
+package org.asciidoc.intellij.asciidoc;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import java.util.List;
+
+public class DiagramPrefetcherTest extends BasePlatformTestCase {
+
+  public void testFindDiagramsWithPrecedingAttributes() {
+    List<String> diagrams = DiagramPrefetcher.findDiagrams(getProject(), "= Title\n" +
+      ":plantuml-format: svg\n" +
+      "\n" +
+      "[plantuml,first]\n" +
+      "----\n" +
+      "a -> b\n" +
+      "----\n" +
+      "\n" +
+      ":late: value\n" +
+      "\n" +
+      "[source,java]\n" +
+      "----\n" +
+      "class A {}\n" +
+      "----\n" +
+      "\n" +
+      "graphviz::diagram.dot[]\n");
+    assertEquals(2, diagrams.size());
+    assertTrue(diagrams.get(0).contains(":plantuml-format: svg"));
+    assertTrue(diagrams.get(0).contains("a -> b"));
+    assertFalse(diagrams.get(0).contains(":late:"));
+    assertTrue(diagrams.get(1).contains(":late: value"));
+    assertTrue(diagrams.get(1).contains("graphviz::diagram.dot[]"));
+  }
+
+  public void testSkipSingleDiagram() {
+    List<String> diagrams = DiagramPrefetcher.findDiagrams(getProject(), "[ditaa]\n" +
+      "....\n" +
+      "+--+\n" +
+      "....\n");
+    assertEmpty(diagrams);
+  }
+
+  public void testSkipMermaidAsItRendersInTheBrowser() {
+    List<String> diagrams = DiagramPrefetcher.findDiagrams(getProject(), "[mermaid]\n" +
+      "....\n" +
+      "graph TD;\n" +
+      "....\n" +
+      "\n" +
+      "[mermaid]\n" +
+      "....\n" +
+      "graph LR;\n" +
+      "....\n");
+    assertEmpty(diagrams);
+  }
+
+  public void testDiagramCandidatesWithoutParsing() {
+    assertTrue(DiagramPrefetcher.hasDiagramCandidates("[plantuml,target=a]\n----\n----\nditaa::file.txt[]\n"));
+    assertTrue(DiagramPrefetcher.hasDiagramCandidates("[graphviz]\n----\n----\n[PlantUML%interactive]\n----\n----\n"));
+    assertFalse(DiagramPrefetcher.hasDiagramCandidates("[plantuml]\n----\n----\n"));
+    assertFalse(DiagramPrefetcher.hasDiagramCandidates("[source,plantuml]\n----\n----\nThe plantuml:: macro\n"));
+  }
+
+}
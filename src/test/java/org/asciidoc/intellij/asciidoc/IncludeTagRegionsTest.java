@@ -0,0 +1,55 @@
+package org.asciidoc.intellij.asciidoc;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IncludeTagRegionsTest {
+
+  private static final List<String> LINES = Arrays.asList(
+    "before",
+    "// tag::outer[]",
+    "outer 1",
+    "// tag::inner[]",
+    "inner",
+    "// end::inner[]",
+    "outer 2",
+    "// end::outer[]",
+    "// tag::other[]",
+    "other",
+    "// end::other[]",
+    "after"
+  );
+
+  @Test
+  public void shouldSelectTagWithNestedTagsButWithoutDirectives() {
+    IncludeTagRegions regions = IncludeTagRegions.parse(LINES);
+    assertThat(regions.isWellFormed()).isTrue();
+    assertThat(regions.select(Set.of("outer"), LINES.size())).containsExactly(2, 4, 6);
+  }
+
+  @Test
+  public void shouldSelectMultipleTagsInOrderOfTheFile() {
+    IncludeTagRegions regions = IncludeTagRegions.parse(LINES);
+    assertThat(regions.select(Set.of("other", "inner"), LINES.size())).containsExactly(4, 9);
+  }
+
+  @Test
+  public void shouldDetectUnbalancedTags() {
+    IncludeTagRegions regions = IncludeTagRegions.parse(Arrays.asList("// tag::a[]", "text", "// end::b[]"));
+    assertThat(regions.isWellFormed()).isFalse();
+  }
+
+  @Test
+  public void shouldParseSimpleTagSelection() {
+    assertThat(IncludeTagRegions.parseSimpleTagSelection("a;b,c")).containsExactlyInAnyOrder("a", "b", "c");
+    assertThat(IncludeTagRegions.parseSimpleTagSelection("a;!b")).isNull();
+    assertThat(IncludeTagRegions.parseSimpleTagSelection("**")).isNull();
+    assertThat(IncludeTagRegions.parseSimpleTagSelection("")).isNull();
+  }
+
+}
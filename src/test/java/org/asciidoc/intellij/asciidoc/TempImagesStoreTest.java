@@ -0,0 +1,59 @@
+package org.asciidoc.intellij.asciidoc;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TempImagesStoreTest {
+
+  private Path root;
+
+  @Before
+  public void setup() throws IOException {
+    root = Files.createTempDirectory("asciidoctor-images-test");
+  }
+
+  @After
+  public void cleanup() throws IOException {
+    FileUtils.deleteDirectory(root.toFile());
+  }
+
+  @Test
+  public void shouldShareFolderForSameParent() throws IOException {
+    TempImagesStore store = new TempImagesStore(root, 1024, TimeUnit.DAYS.toMillis(1));
+    Path first = store.acquire(Path.of("docs"));
+    Path second = store.acquire(Path.of("docs/../docs"));
+    Path other = store.acquire(Path.of("other"));
+    assertThat(first).isEqualTo(second).isDirectory();
+    assertThat(other).isNotEqualTo(first);
+    assertThat(store.contains(first)).isTrue();
+    assertThat(store.contains(Path.of("docs"))).isFalse();
+  }
+
+  @Test
+  public void shouldNotEvictFoldersInUse() throws IOException {
+    TempImagesStore store = new TempImagesStore(root, 1024, TimeUnit.HOURS.toMillis(1));
+    Path unused = Files.createDirectories(root.resolve("unused"));
+    Path inUse = store.acquire(Path.of("docs"));
+    // both folders are over the limit and expired, only the unused one may be removed
+    for (Path folder : new Path[]{unused, inUse}) {
+      Files.write(folder.resolve("diagram.svg"), new byte[800]);
+      Files.setLastModifiedTime(folder, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2)));
+    }
+
+    store.evict();
+
+    assertThat(unused).doesNotExist();
+    assertThat(inUse).isDirectory();
+  }
+
+}
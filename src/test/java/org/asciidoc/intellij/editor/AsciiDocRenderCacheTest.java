@@ -0,0 +1,33 @@
+package org.asciidoc.intellij.editor;
+
+import org.asciidoc.intellij.AsciiDocWrapper;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AsciiDocRenderCacheTest {
+
+  @Test
+  public void shouldMatchKeysOnlyWhenEverythingIsUnchanged() {
+    AsciiDocRenderCache.RenderKey key = new AsciiDocRenderCache.RenderKey(1, "config:1", List.of(), AsciiDocWrapper.FileType.JCEF, 5);
+    assertThat(key).isEqualTo(new AsciiDocRenderCache.RenderKey(1, "config:1", List.of(), AsciiDocWrapper.FileType.JCEF, 5));
+    assertThat(key).isNotEqualTo(new AsciiDocRenderCache.RenderKey(2, "config:1", List.of(), AsciiDocWrapper.FileType.JCEF, 5));
+    assertThat(key).isNotEqualTo(new AsciiDocRenderCache.RenderKey(1, "config:2", List.of(), AsciiDocWrapper.FileType.JCEF, 5));
+    assertThat(key).isNotEqualTo(new AsciiDocRenderCache.RenderKey(1, "config:1", List.of(), AsciiDocWrapper.FileType.BROWSER, 5));
+    assertThat(key).isNotEqualTo(new AsciiDocRenderCache.RenderKey(1, "config:1", List.of(), AsciiDocWrapper.FileType.JCEF, 6));
+  }
+
+  @Test
+  public void shouldKeepAttributesOfResultUnchanged() {
+    Map<String, String> attributes = new HashMap<>();
+    attributes.put("icons", "font");
+    AsciiDocRenderCache.RenderResult result = new AsciiDocRenderCache.RenderResult("<p>text</p>", attributes, null);
+    attributes.put("icons", "image");
+    assertThat(result.getAttributes()).containsEntry("icons", "font");
+  }
+
+}
@@ -0,0 +1,57 @@
+package org.asciidoc.intellij.editor;
+
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ImageThumbnailsTest {
+
+  @Test
+  public void shouldScaleDownLargeImageKeepingAspectRatio() throws IOException {
+    BufferedImage thumbnail = ImageThumbnails.createThumbnail(png(1600, 800), 32);
+
+    assertThat(thumbnail).isNotNull();
+    assertThat(thumbnail.getWidth()).isEqualTo(32);
+    assertThat(thumbnail.getHeight()).isEqualTo(16);
+  }
+
+  @Test
+  public void shouldNotScaleUpSmallImage() throws IOException {
+    try (InputStream is = ImageThumbnailsTest.class.getClassLoader().getResourceAsStream("testFiles/test-image-width-20px.png")) {
+      assertThat(is).isNotNull();
+      BufferedImage thumbnail = ImageThumbnails.createThumbnail(is, 32);
+
+      assertThat(thumbnail).isNotNull();
+      assertThat(thumbnail.getWidth()).isEqualTo(20);
+    }
+  }
+
+  @Test
+  public void shouldReturnNullForUnknownFormat() throws IOException {
+    assertThat(ImageThumbnails.createThumbnail(new ByteArrayInputStream("<svg/>".getBytes()), 32)).isNull();
+  }
+
+  @Test
+  public void shouldChangeKeyWhenImageChanges() {
+    String key = ImageThumbnails.key("/images/a.png", 100, 1);
+
+    assertThat(key).isEqualTo(ImageThumbnails.key("/images/a.png", 100, 1));
+    assertThat(key).isNotEqualTo(ImageThumbnails.key("/images/a.png", 100, 2));
+    assertThat(key).isNotEqualTo(ImageThumbnails.key("/images/a.png", 101, 1));
+    assertThat(key).isNotEqualTo(ImageThumbnails.key("/images/b.png", 100, 1));
+  }
+
+  private static InputStream png(int width, int height) throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", os);
+    return new ByteArrayInputStream(os.toByteArray());
+  }
+
+}
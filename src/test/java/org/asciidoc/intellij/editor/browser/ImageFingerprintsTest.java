@@ -0,0 +1,43 @@
+package org.asciidoc.intellij.editor.browser;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ImageFingerprintsTest {
+
+  private static File newFile() throws IOException {
+    File file = Files.createTempFile("image", ".svg").toFile();
+    file.deleteOnExit();
+    return file;
+  }
+
+  @Test
+  public void shouldCalculateMd5() throws IOException {
+    File file = newFile();
+    Files.writeString(file.toPath(), "abc", StandardCharsets.UTF_8);
+    assertThat(ImageFingerprints.md5(file.getPath())).isEqualTo("900150983cd24fb0d6963f7d28e17f72");
+  }
+
+  @Test
+  public void shouldCalculateAgainWhenFileChanges() throws IOException {
+    File file = newFile();
+    Files.writeString(file.toPath(), "abc", StandardCharsets.UTF_8);
+    String before = ImageFingerprints.md5(file.getPath());
+    Files.writeString(file.toPath(), "abcd", StandardCharsets.UTF_8);
+    assertThat(ImageFingerprints.md5(file.getPath())).isNotEqualTo(before);
+  }
+
+  @Test
+  public void shouldReturnNoneForMissingFile() throws IOException {
+    File file = newFile();
+    Files.delete(file.toPath());
+    assertThat(ImageFingerprints.md5(file.getPath())).isEqualTo(ImageFingerprints.NONE);
+  }
+
+}
@@ -0,0 +1,105 @@
+package org.asciidoc.intellij.editor.browser;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.intellij.util.TimeoutUtil;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponse;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+public class PreviewLiveReloadTest extends BasePlatformTestCase {
+
+  private final List<VirtualFile> rendered = Collections.synchronizedList(new ArrayList<>());
+  private PreviewLiveReload liveReload;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    liveReload = new PreviewLiveReload();
+    Disposer.register(getTestRootDisposable(), liveReload);
+  }
+
+  public void testPrefixesEachLineOfTheEvent() {
+    assertEquals("event: update\ndata: <p>\ndata: one\ndata: </p>\n\n", PreviewLiveReload.toEvent("update", "<p>\r\none\n</p>"));
+  }
+
+  public void testSubscribeAndUnsubscribe() {
+    VirtualFile document = myFixture.addFileToProject("document.adoc", "= Document\n").getVirtualFile();
+    EmbeddedChannel channel = new EmbeddedChannel();
+
+    liveReload.subscribe(document, getProject(), channel, this::render);
+
+    assertTrue(liveReload.isSubscribed(document));
+    HttpResponse response = channel.readOutbound();
+    assertEquals("text/event-stream; charset=UTF-8", response.headers().get(HttpHeaderNames.CONTENT_TYPE));
+
+    setText(document, "= Changed\n");
+    waitUntilRendered(document);
+
+    channel.close();
+    assertFalse(liveReload.isSubscribed(document));
+  }
+
+  public void testRendersDocumentsThatIncludeChangedFile() {
+    VirtualFile main = myFixture.addFileToProject("main.adoc", "= Main\n\ninclude::part.adoc[]\n").getVirtualFile();
+    VirtualFile part = myFixture.addFileToProject("part.adoc", "Part\n").getVirtualFile();
+    VirtualFile other = myFixture.addFileToProject("other.adoc", "= Other\n").getVirtualFile();
+    liveReload.subscribe(main, getProject(), new EmbeddedChannel(), this::render);
+    liveReload.subscribe(other, getProject(), new EmbeddedChannel(), this::render);
+
+    setText(part, "Changed\n");
+    waitUntilRendered(main);
+
+    assertFalse(rendered.contains(other));
+  }
+
+  public void testRendersDocumentsBelowChangedConfig() {
+    VirtualFile document = myFixture.addFileToProject("docs/document.adoc", "= Document\n").getVirtualFile();
+    VirtualFile config = myFixture.addFileToProject("docs/.asciidoctorconfig", ":icons: font\n").getVirtualFile();
+    liveReload.subscribe(document, getProject(), new EmbeddedChannel(), this::render);
+
+    setText(config, ":icons: image\n");
+
+    waitUntilRendered(document);
+  }
+
+  public void testIgnoresChangesOfOtherFileTypes() {
+    assertTrue(PreviewLiveReload.isDependency(myFixture.addFileToProject("part.adoc", "Part\n").getVirtualFile()));
+    assertTrue(PreviewLiveReload.isDependency(myFixture.addFileToProject(".asciidoctorconfig", ":icons: font\n").getVirtualFile()));
+    assertFalse(PreviewLiveReload.isDependency(myFixture.addFileToProject("Example.java", "class Example {}\n").getVirtualFile()));
+    assertFalse(PreviewLiveReload.isDependency(myFixture.addFileToProject("antora.yml", "name: component\n").getVirtualFile()));
+  }
+
+  @NotNull
+  private String render(@NotNull VirtualFile file, @NotNull Project project) {
+    rendered.add(file);
+    return "<p>" + file.getName() + "</p>";
+  }
+
+  private void setText(VirtualFile file, String text) {
+    Document document = Objects.requireNonNull(FileDocumentManager.getInstance().getDocument(file));
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> document.setText(text));
+  }
+
+  private void waitUntilRendered(VirtualFile file) {
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (!rendered.contains(file)) {
+      assertTrue(file.getName() + " has not been rendered", System.currentTimeMillis() < deadline);
+      PlatformTestUtil.dispatchAllEventsInIdeEventQueue();
+      TimeoutUtil.sleep(10);
+    }
+  }
+
+}
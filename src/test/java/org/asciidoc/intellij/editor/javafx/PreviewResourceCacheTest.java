@@ -0,0 +1,74 @@
+package org.asciidoc.intellij.editor.javafx;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PreviewResourceCacheTest {
+
+  private final PreviewResourceCache cache = new PreviewResourceCache(JavaFxHtmlPanel.class);
+
+  @Test
+  public void shouldLoadResourceOnlyOnce() throws IOException {
+    PreviewResourceCache.Resource resource = cache.get("sourceLineMap.js");
+    assertThat(resource).isNotNull();
+    assertThat(cache.get("sourceLineMap.js")).isSameAs(resource);
+    assertThat(resource.getHash()).hasSize(16);
+  }
+
+  @Test
+  public void shouldReturnNullForMissingResource() throws IOException {
+    assertThat(cache.get("does-not-exist.js")).isNull();
+  }
+
+  @Test
+  public void shouldCompressLargeScripts() throws IOException {
+    PreviewResourceCache.Resource resource = cache.get("mermaid/mermaid.min.js");
+    assertThat(resource).isNotNull();
+    byte[] gzipped = resource.getGzipped();
+    assertThat(gzipped).isNotNull();
+    assertThat(gzipped.length).isLessThan(resource.getData().length);
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+      assertThat(in.readAllBytes()).isEqualTo(resource.getData());
+    }
+  }
+
+  @Test
+  public void shouldReplaceAssembledResource() throws IOException {
+    PreviewResourceCache.Resource first = cache.put("shell/preview.css", "body{}".getBytes(StandardCharsets.UTF_8));
+    assertThat(cache.get("shell/preview.css")).isSameAs(first);
+    PreviewResourceCache.Resource second = cache.put("shell/preview.css", "p{}".getBytes(StandardCharsets.UTF_8));
+    assertThat(cache.get("shell/preview.css")).isSameAs(second);
+    assertThat(second.getHash()).isNotEqualTo(first.getHash());
+  }
+
+  @Test
+  public void shouldMatchEtags() {
+    assertThat(PreviewStaticServer.matchesEtag(null, "\"abc\"")).isFalse();
+    assertThat(PreviewStaticServer.matchesEtag("\"abc\"", "\"abc\"")).isTrue();
+    assertThat(PreviewStaticServer.matchesEtag("\"xyz\", W/\"abc\"", "\"abc\"")).isTrue();
+    assertThat(PreviewStaticServer.matchesEtag("\"xyz\"", "\"abc\"")).isFalse();
+  }
+
+  @Test
+  public void shouldUseDifferentEtagForGzip() {
+    assertThat(PreviewStaticServer.etag("abc", false)).isEqualTo("\"abc\"");
+    assertThat(PreviewStaticServer.etag("abc", true)).isEqualTo("\"abc-gz\"");
+    assertThat(PreviewStaticServer.matchesEtag(PreviewStaticServer.etag("abc", false), PreviewStaticServer.etag("abc", true))).isFalse();
+  }
+
+  @Test
+  public void shouldAcceptGzipUnlessRefused() {
+    assertThat(PreviewStaticServer.acceptsGzip("gzip, deflate, br")).isTrue();
+    assertThat(PreviewStaticServer.acceptsGzip("br;q=1.0, gzip;q=0.8")).isTrue();
+    assertThat(PreviewStaticServer.acceptsGzip("gzip;q=0")).isFalse();
+    assertThat(PreviewStaticServer.acceptsGzip("identity")).isFalse();
+    assertThat(PreviewStaticServer.acceptsGzip(null)).isFalse();
+  }
+
+}
@@ -0,0 +1,30 @@
+package org.asciidoc.intellij.editor.javafx;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PreviewStaticServerTest {
+
+  @Test
+  public void shouldParseRanges() {
+    assertThat(PreviewStaticServer.parseRange("bytes=0-99", 1000)).containsExactly(0, 99);
+    assertThat(PreviewStaticServer.parseRange("bytes=500-", 1000)).containsExactly(500, 999);
+    assertThat(PreviewStaticServer.parseRange("bytes=-100", 1000)).containsExactly(900, 999);
+    assertThat(PreviewStaticServer.parseRange("bytes=900-2000", 1000)).containsExactly(900, 999);
+  }
+
+  @Test
+  public void shouldSendWholeFileForUnsupportedRanges() {
+    assertThat(PreviewStaticServer.parseRange("bytes=0-10,20-30", 1000)).isEmpty();
+    assertThat(PreviewStaticServer.parseRange("items=0-10", 1000)).isEmpty();
+  }
+
+  @Test
+  public void shouldRejectUnsatisfiableRanges() {
+    assertThat(PreviewStaticServer.parseRange("bytes=1000-", 1000)).isNull();
+    assertThat(PreviewStaticServer.parseRange("bytes=50-10", 1000)).isNull();
+    assertThat(PreviewStaticServer.parseRange("bytes=-0", 1000)).isNull();
+  }
+
+}
@@ -0,0 +1,56 @@
+package org.asciidoc.intellij.export;
+
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.asciidoc.intellij.AsciiDocWrapper;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class AsciiDocBatchExportTest extends BasePlatformTestCase {
+
+  public void testCollectsDocumentsButNoPartials() {
+    PsiFile document = myFixture.addFileToProject("docs/document.adoc", "= Document\n");
+    PsiFile nested = myFixture.addFileToProject("docs/nested/other.adoc", "= Other\n");
+    myFixture.addFileToProject("docs/_partial.adoc", "partial\n");
+    myFixture.addFileToProject("docs/.asciidoctorconfig", ":icons: font\n");
+
+    List<VirtualFile> documents = AsciiDocBatchExport.collectDocuments(getProject(), document.getVirtualFile().getParent());
+
+    assertSameElements(documents, document.getVirtualFile(), nested.getVirtualFile());
+  }
+
+  public void testContinuesAfterFailedDocuments() {
+    VirtualFile first = myFixture.addFileToProject("first.adoc", "= First\n").getVirtualFile();
+    VirtualFile broken = myFixture.addFileToProject("broken.adoc", "= Broken\n").getVirtualFile();
+    VirtualFile invalid = myFixture.addFileToProject("invalid.adoc", "= Invalid\n").getVirtualFile();
+    VirtualFile last = myFixture.addFileToProject("last.adoc", "= Last\n").getVirtualFile();
+    List<VirtualFile> converted = Collections.synchronizedList(new ArrayList<>());
+    AsciiDocBatchExport export = new AsciiDocBatchExport(getProject(), AsciiDocWrapper.FileType.HTML, true) {
+      @Override
+      boolean convert(@NotNull VirtualFile document, @NotNull List<String> extensions) {
+        converted.add(document);
+        if (document.equals(broken)) {
+          throw new IllegalStateException("conversion failed");
+        }
+        return !document.equals(invalid);
+      }
+    };
+
+    List<AsciiDocBatchExport.Result> results = export.export(List.of(first, broken, invalid, last), new EmptyProgressIndicator());
+
+    assertOrderedEquals(converted, first, broken, invalid, last);
+    assertEquals(4, results.size());
+    assertEquals(AsciiDocBatchExport.Status.CONVERTED, results.get(0).getStatus());
+    assertEquals(AsciiDocBatchExport.Status.FAILED, results.get(1).getStatus());
+    assertEquals(AsciiDocBatchExport.Status.FAILED, results.get(2).getStatus());
+    assertEquals(AsciiDocBatchExport.Status.CONVERTED, results.get(3).getStatus());
+    assertEquals(last, results.get(3).getFile());
+    assertTrue(AsciiDocBatchExport.summary(results).startsWith("Converted 2, skipped 0 as up-to-date, failed 2"));
+  }
+
+}
@@ -0,0 +1,68 @@
+package org.asciidoc.intellij.headless;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ValidationReportWriterTest {
+
+  private static List<AsciiDocValidation.FileResult> results() {
+    AsciiDocValidation.FileResult result = new AsciiDocValidation.FileResult("/project/docs/index.adoc");
+    result.addInspectionMillis(12);
+    result.addConversionMillis(34);
+    result.addProblem(new AsciiDocValidation.Problem(3, AsciiDocValidation.Level.ERROR,
+      AsciiDocValidation.SOURCE_ASCIIDOCTOR, AsciiDocValidation.SOURCE_ASCIIDOCTOR, "include file not found"));
+    result.addProblem(new AsciiDocValidation.Problem(0, AsciiDocValidation.Level.WARNING,
+      AsciiDocValidation.SOURCE_INSPECTION, "AsciiDocLinkResolve", "unresolved link"));
+    return List.of(result);
+  }
+
+  @Test
+  public void shouldWriteJsonWithRelativePathsAndTimings() throws IOException {
+    StringWriter out = new StringWriter();
+    new ValidationReportWriter("/project/docs").writeJson(results(), out);
+    assertThat(out.toString())
+      .contains("\"path\": \"index.adoc\"")
+      .contains("\"inspectionMillis\": 12")
+      .contains("\"conversionMillis\": 34")
+      .contains("\"severity\": \"error\"")
+      .contains("\"errors\": 1");
+  }
+
+  @Test
+  public void shouldWriteSarifWithRulesAndRegions() throws IOException {
+    StringWriter out = new StringWriter();
+    new ValidationReportWriter("/project/docs").writeSarif(results(), out);
+    assertThat(out.toString())
+      .contains("\"version\": \"2.1.0\"")
+      .contains("\"id\": \"AsciiDocLinkResolve\"")
+      .contains("\"ruleId\": \"asciidoctor\"")
+      .contains("\"startLine\": 3")
+      .contains("\"uri\": \"index.adoc\"");
+  }
+
+  @Test
+  public void shouldWriteSarifUrisRelativeToBaseFolder() throws IOException {
+    StringWriter out = new StringWriter();
+    new ValidationReportWriter("/project/docs").writeSarif(results(), out);
+    String sarif = out.toString().replaceAll("\\s", "");
+    assertThat(sarif)
+      .contains("\"originalUriBaseIds\":{\"SRCROOT\":{\"uri\":\"file:")
+      .contains("/project/docs/\"}}")
+      .contains("\"artifactLocation\":{\"uri\":\"index.adoc\",\"uriBaseId\":\"SRCROOT\"}");
+  }
+
+  @Test
+  public void shouldUseFileUriOutsideOfBase() throws IOException {
+    StringWriter out = new StringWriter();
+    new ValidationReportWriter("/other").writeSarif(results(), out);
+    assertThat(out.toString().replaceAll("\\s", ""))
+      .contains("\"artifactLocation\":{\"uri\":\"file:")
+      .doesNotContain("\"uriBaseId\"");
+  }
+
+}
@@ -4,9 +4,12 @@ import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.grazie.text.TextContent;
 import com.intellij.grazie.text.TextExtractor;
 import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.util.Computable;
 import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementVisitor;
 import com.intellij.psi.PsiFile;
@@ -19,6 +22,7 @@ import com.intellij.spellchecker.tokenizer.TokenConsumer;
 import com.intellij.spellchecker.tokenizer.Tokenizer;
 import com.intellij.testFramework.fixtures.BasePlatformTestCase;
 import org.asciidoc.intellij.AsciiDocSpellcheckingStrategy;
+import org.asciidoc.intellij.AsciiDocWrapper;
 import org.asciidoc.intellij.file.AsciiDocFileType;
 import org.asciidoc.intellij.grazie.AsciiDocGrazieTextExtractor;
 import org.asciidoc.intellij.parser.AsciiDocElementTypes;
@@ -686,6 +690,24 @@ public class AsciiDocPsiTest extends BasePlatformTestCase {
     }
   }
 
+  public void testXrefResolutionWithAttributeInNonLatinTitle() {
+    // given...
+    @SuppressWarnings({"AsciiDocAnchorWithoutId", "AsciiDocXrefWithNaturalCrossReference"})
+    PsiFile psiFile = configureByAsciiDoc(":step: Шаг\n\nxref:_шаг_1[]\n<<Шаг 2>>\n\n== {step} 1\n\n== {step} 2\n");
+
+    // then...
+    AsciiDocLink[] links = PsiTreeUtil.getChildrenOfType(PsiTreeUtil.getChildOfType(psiFile, AsciiDocBlock.class), AsciiDocLink.class);
+    assertNotNull(links);
+    Assertions.assertThat(links).hasSize(2);
+    for (int i = 0; i < links.length; i++) {
+      PsiReference[] references = links[i].getReferences();
+      Assertions.assertThat(references).hasSize(1);
+      PsiElement declaration = references[0].resolve();
+      assertNotNull("declaration should exist", declaration);
+      Assertions.assertThat(declaration.getText()).contains("{step} " + (i + 1));
+    }
+  }
+
   @Override
   protected String getTestDataPath() {
     return new File("testData/" + getBasePath()).getAbsolutePath() + "/psi/";
@@ -899,6 +921,54 @@ public class AsciiDocPsiTest extends BasePlatformTestCase {
 
   }
 
+  public void testAntoraAttributesFollowChangesOfComponentDescriptor() {
+    // given...
+    PsiFile antora = myFixture.addFileToProject("component/antora.yml",
+      "name: component\nversion: ~\nasciidoc:\n  attributes:\n    product: one\n");
+    PsiFile page = myFixture.addFileToProject("component/modules/ROOT/pages/page.adoc", "= Page\n\n{product}\n");
+    VirtualFile antoraModuleDir = AsciiDocUtil.findAntoraModuleDir(page);
+    assertNotNull(antoraModuleDir);
+    assertSingleAttributeValue(AsciiDocWrapper.getAntoraAttributes(antoraModuleDir, getProject()).getAttributes("product"), "one");
+
+    // when...
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      Document document = PsiDocumentManager.getInstance(getProject()).getDocument(antora);
+      Objects.requireNonNull(document).setText("name: component\nversion: ~\nasciidoc:\n  attributes:\n    product: two\n");
+      PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+    });
+
+    // then...
+    assertSingleAttributeValue(AsciiDocWrapper.getAntoraAttributes(antoraModuleDir, getProject()).getAttributes("product"), "two");
+
+    // directory attributes are found independent of the case of their name
+    List<AttributeDeclaration> imagesDir = AsciiDocUtil.findAttributes(getProject(), "ImagesDir", page.getFirstChild());
+    Assertions.assertThat(imagesDir).extracting(AttributeDeclaration::getAttributeValue)
+      .anyMatch(value -> value != null && value.endsWith("/component/modules/ROOT/images"));
+  }
+
+  public void testSectionsWithAttributesOfAntoraComponentAreResolvedPerElement() {
+    // given...
+    myFixture.addFileToProject("component/antora.yml",
+      "name: component\nversion: ~\nasciidoc:\n  attributes:\n    product: real\n");
+    myFixture.addFileToProject("component/modules/ROOT/pages/page.adoc", "= Page\n\n== About {product}\n");
+    // a declaration elsewhere in the project, which is not the value for the section in the component
+    myFixture.addFileToProject("other/other.adoc", ":product: wrong\n\n== Details {product}\n");
+
+    // when...
+    ProjectResolvedNameCache.Resolved<AsciiDocSection> sections = AsciiDocUtil.getProjectResolvedNameCache(getProject()).getSections();
+
+    // then...
+    Assertions.assertThat(sections.getUnresolved()).extracting(section -> section.getContainingFile().getName())
+      .containsExactly("page.adoc");
+    Assertions.assertThat(sections.get("detailswrong")).extracting(section -> section.getContainingFile().getName())
+      .containsExactly("other.adoc");
+  }
+
+  private static void assertSingleAttributeValue(List<AttributeDeclaration> declarations, String value) {
+    assertSize(1, declarations);
+    assertEquals(value, declarations.get(0).getAttributeValue());
+  }
+
   public void testAntoraRelativeResources() {
     // given...
     PsiFile[] psiFile = myFixture.configureByFiles(
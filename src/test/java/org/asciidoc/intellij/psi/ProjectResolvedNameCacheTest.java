@@ -0,0 +1,99 @@
+package org.asciidoc.intellij.psi;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProjectResolvedNameCacheTest {
+
+  private final Map<String, List<String>> values = new HashMap<>();
+
+  @Test
+  public void shouldExpandAllValuesOfAttribute() {
+    values.put("product", Arrays.asList("alpha", "beta"));
+    Set<String> result = new LinkedHashSet<>();
+    assertThat(ProjectResolvedNameCache.expand("{product}-intro", this::values, result)).isTrue();
+    assertThat(result).containsExactly("alpha-intro", "beta-intro");
+  }
+
+  @Test
+  public void shouldUseSameValueForAllOccurrences() {
+    values.put("a", Arrays.asList("x", "y"));
+    Set<String> result = new LinkedHashSet<>();
+    assertThat(ProjectResolvedNameCache.expand("{a}-{a}", this::values, result)).isTrue();
+    assertThat(result).containsExactly("x-x", "y-y");
+  }
+
+  @Test
+  public void shouldExpandNestedAttributes() {
+    values.put("outer", Collections.singletonList("{inner}-name"));
+    values.put("inner", Collections.singletonList("nested"));
+    Set<String> result = new LinkedHashSet<>();
+    assertThat(ProjectResolvedNameCache.expand("id-{outer}", this::values, result)).isTrue();
+    assertThat(result).containsExactly("id-nested-name");
+  }
+
+  @Test
+  public void shouldKeepUnresolvedAttributes() {
+    values.put("known", Collections.singletonList("value"));
+    Set<String> result = new LinkedHashSet<>();
+    assertThat(ProjectResolvedNameCache.expand("{unknown}-{known}", this::values, result)).isFalse();
+    assertThat(result).containsExactly("{unknown}-value");
+  }
+
+  @Test
+  public void shouldStopWhenTooManyVariants() {
+    List<String> many = Arrays.asList("1", "2", "3", "4", "5", "6", "7", "8", "9", "10");
+    values.put("a", many);
+    values.put("b", many);
+    Set<String> result = new LinkedHashSet<>();
+    assertThat(ProjectResolvedNameCache.expand("{a}{b}", this::values, result)).isFalse();
+    assertThat(result).hasSize(ProjectResolvedNameCache.MAX_VARIANTS);
+  }
+
+  @Test
+  public void shouldNormalizeTitleAndIdToSameKey() {
+    assertThat(ProjectResolvedNameCache.sectionKeys("_about_alpha_2", Collections.emptyList()))
+      .contains(ProjectResolvedNameCache.normalizeSectionKey("About Alpha"));
+    assertThat(ProjectResolvedNameCache.sectionKeys("about-alpha", Collections.emptyList()))
+      .contains(ProjectResolvedNameCache.normalizeSectionKey("About Alpha"));
+  }
+
+  @Test
+  public void shouldKeepDigitsInKey() {
+    assertThat(ProjectResolvedNameCache.normalizeSectionKey("Step 1"))
+      .isNotEqualTo(ProjectResolvedNameCache.normalizeSectionKey("Step 2"));
+    assertThat(ProjectResolvedNameCache.sectionKeys("_step_1", Collections.emptyList()))
+      .contains(ProjectResolvedNameCache.normalizeSectionKey("Step 1"));
+    // the second section with the title "Step" has the ID "_step_2"
+    assertThat(ProjectResolvedNameCache.sectionKeys("_step_2", Collections.emptyList()))
+      .contains(ProjectResolvedNameCache.normalizeSectionKey("Step"));
+  }
+
+  @Test
+  public void shouldKeepNonAsciiLetters() {
+    assertThat(ProjectResolvedNameCache.normalizeSectionKey("Обзор системы")).isEqualTo("обзорсистемы");
+    assertThat(ProjectResolvedNameCache.normalizeSectionKey("概要")).isEqualTo("概要");
+    assertThat(ProjectResolvedNameCache.sectionKeys("_обзор_системы", Collections.emptyList()))
+      .contains(ProjectResolvedNameCache.normalizeSectionKey("Обзор системы"));
+  }
+
+  @Test
+  public void shouldRemoveIdPrefix() {
+    assertThat(ProjectResolvedNameCache.sectionKeys("sec-about-alpha", Collections.singletonList("sec-")))
+      .contains(ProjectResolvedNameCache.normalizeSectionKey("About Alpha"));
+  }
+
+  private List<String> values(String name) {
+    return values.getOrDefault(name, Collections.emptyList());
+  }
+
+}
@@ -0,0 +1,81 @@
+package org.asciidoc.intellij.psi.search;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AsciiDocIncludeIndexTest {
+
+  @Test
+  public void shouldUseFileNameAsKey() {
+    assertThat(AsciiDocIncludeIndex.keyForTarget("chapters/intro.adoc")).isEqualTo("intro.adoc");
+    assertThat(AsciiDocIncludeIndex.keyForTarget("partial$common/note.adoc")).isEqualTo("note.adoc");
+    assertThat(AsciiDocIncludeIndex.keyForTarget("component:module:partial$note.adoc")).isEqualTo("note.adoc");
+    assertThat(AsciiDocIncludeIndex.keyForTarget("intro.adoc")).isEqualTo("intro.adoc");
+  }
+
+  @Test
+  public void shouldUseDynamicKeyWhenFileNameContainsAttribute() {
+    assertThat(AsciiDocIncludeIndex.keyForTarget("chapters/{name}.adoc")).isEqualTo(AsciiDocIncludeIndex.DYNAMIC_KEY);
+    assertThat(AsciiDocIncludeIndex.keyForTarget("{partialsdir}/note.adoc")).isEqualTo("note.adoc");
+  }
+
+  @Test
+  public void shouldIndexTagsAndLevelOffsetAsAttributes() {
+    Map<String, List<AsciiDocIncludeIndex.Edge>> result = AsciiDocIncludeIndexImpl.index("= Title\n" +
+      "\n" +
+      "include::chapters/intro.adoc[tags=\"a;b\",leveloffset=+1]\n" +
+      "include::chapters/intro.adoc[]\r\n");
+    assertThat(result).containsOnlyKeys("intro.adoc");
+    assertThat(result.get("intro.adoc")).containsExactly(
+      new AsciiDocIncludeIndex.Edge(2, "chapters/intro.adoc", "tags=\"a;b\",leveloffset=+1"),
+      new AsciiDocIncludeIndex.Edge(3, "chapters/intro.adoc", ""));
+  }
+
+  @Test
+  public void shouldParseTagsAndLevelOffset() {
+    AsciiDocIncludeIndex.Edge edge = new AsciiDocIncludeIndex.Edge(0, "file.adoc", "tags=\"a;b\",leveloffset=+1");
+    assertThat(edge.getTags()).isEqualTo("a;b");
+    assertThat(edge.getLevelOffset()).isEqualTo("+1");
+  }
+
+  @Test
+  public void shouldReturnNullForMissingAttributes() {
+    AsciiDocIncludeIndex.Edge edge = new AsciiDocIncludeIndex.Edge(0, "file.adoc", "lines=1..5");
+    assertThat(edge.getTags()).isNull();
+    assertThat(edge.getLevelOffset()).isNull();
+  }
+
+  @Test
+  public void shouldIndexTargetsWithAttributes() {
+    Map<String, List<AsciiDocIncludeIndex.Edge>> result = AsciiDocIncludeIndexImpl.index(
+      "include::{partialsdir}/note.adoc[tag=warning]\n" +
+        "include::chapters/{name}.adoc[]\n" +
+        "include::{name}[]\n");
+    assertThat(result).containsOnlyKeys("note.adoc", AsciiDocIncludeIndex.DYNAMIC_KEY);
+    assertThat(result.get("note.adoc")).containsExactly(
+      new AsciiDocIncludeIndex.Edge(0, "{partialsdir}/note.adoc", "tag=warning"));
+    assertThat(result.get(AsciiDocIncludeIndex.DYNAMIC_KEY)).containsExactly(
+      new AsciiDocIncludeIndex.Edge(1, "chapters/{name}.adoc", ""),
+      new AsciiDocIncludeIndex.Edge(2, "{name}", ""));
+  }
+
+  @Test
+  public void shouldSkipEscapedAndCommentedDirectives() {
+    Map<String, List<AsciiDocIncludeIndex.Edge>> result = AsciiDocIncludeIndexImpl.index(
+      "\\include::escaped.adoc[]\n" +
+        "////\n" +
+        "include::commented.adoc[]\n" +
+        "////\n" +
+        "include::file with spaces.adoc[]\n" +
+        "include::trailing.adoc[] text\n" +
+        " include::indented.adoc[]\n");
+    assertThat(result).containsOnlyKeys("file with spaces.adoc");
+    assertThat(result.get("file with spaces.adoc")).containsExactly(
+      new AsciiDocIncludeIndex.Edge(4, "file with spaces.adoc", ""));
+  }
+
+}
@@ -0,0 +1,63 @@
+package org.asciidoc.intellij.psi.search;
+
+import com.intellij.openapi.fileTypes.PlainTextFileType;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.asciidoc.intellij.asciidoc.IncludeTagRegions;
+import org.asciidoc.intellij.psi.AsciiDocIncludeTagReferenceInElement;
+import org.asciidoc.intellij.psi.AsciiDocTagDeclaration;
+
+public class AsciiDocTagRegionIndexTest extends BasePlatformTestCase {
+
+  private static final String SNIPPET = "first\n" +
+    "// tag::intro[]\n" +
+    "intro\n" +
+    "// end::intro[]\n" +
+    "// tag::usage[]\n" +
+    "usage\n" +
+    "// end::usage[]\n";
+
+  public void testIndexesTagRegionsOfTextFiles() {
+    PsiFile file = myFixture.addFileToProject("snippet.txt", SNIPPET);
+
+    IncludeTagRegions regions = AsciiDocTagRegionIndex.getTagRegions(getProject(), file.getVirtualFile());
+
+    assertNotNull(regions);
+    assertTrue(regions.isWellFormed());
+    assertSameElements(regions.getTags(), "intro", "usage");
+    assertEquals(1, regions.getStartLine("intro"));
+    assertEquals(4, regions.getStartLine("usage"));
+  }
+
+  public void testReturnsEmptyRegionsForFilesWithoutTags() {
+    PsiFile file = myFixture.addFileToProject("plain.txt", "no tags here\n");
+
+    assertSame(IncludeTagRegions.EMPTY, AsciiDocTagRegionIndex.getTagRegions(getProject(), file.getVirtualFile()));
+  }
+
+  public void testFindsTagDeclarationAtIndexedLine() {
+    PsiFile file = myFixture.addFileToProject("snippet.txt", SNIPPET);
+
+    AsciiDocTagDeclaration declaration = AsciiDocIncludeTagReferenceInElement.findTagDeclaration(file, "usage");
+
+    assertNotNull(declaration);
+    assertEquals("usage", declaration.getName());
+    assertEquals(SNIPPET.indexOf("tag::usage") + "tag::".length(), declaration.getTextOffset());
+    assertNull(AsciiDocIncludeTagReferenceInElement.findTagDeclaration(file, "missing"));
+    assertSameElements(AsciiDocIncludeTagReferenceInElement.findTagNames(file), "intro", "usage");
+  }
+
+  public void testScansFilesThatAreNotIndexed() {
+    // a file that is not part of the project content has no entry in the index
+    PsiFile file = PsiFileFactory.getInstance(getProject()).createFileFromText("snippet.txt", PlainTextFileType.INSTANCE, SNIPPET);
+    assertNull(AsciiDocTagRegionIndex.getTagRegions(getProject(), file.getViewProvider().getVirtualFile()));
+
+    AsciiDocTagDeclaration declaration = AsciiDocIncludeTagReferenceInElement.findTagDeclaration(file, "usage");
+
+    assertNotNull(declaration);
+    assertEquals("usage", declaration.getName());
+    assertSameElements(AsciiDocIncludeTagReferenceInElement.findTagNames(file), "intro", "usage");
+  }
+
+}
@@ -0,0 +1,86 @@
+package org.asciidoc.intellij.telemetry;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AsciiDocRenderTelemetryTest {
+
+  @Test
+  public void shouldAggregateTimingsInBuckets() {
+    AsciiDocRenderTelemetry telemetry = new AsciiDocRenderTelemetry();
+    telemetry.add(AsciiDocRenderTelemetry.Phase.CONVERT, TimeUnit.MILLISECONDS.toNanos(3));
+    telemetry.add(AsciiDocRenderTelemetry.Phase.CONVERT, TimeUnit.MILLISECONDS.toNanos(4));
+    telemetry.add(AsciiDocRenderTelemetry.Phase.CONVERT, TimeUnit.MILLISECONDS.toNanos(8000));
+
+    AsciiDocRenderTelemetry.Histogram histogram = telemetry.getHistogram(AsciiDocRenderTelemetry.Phase.CONVERT);
+    assertThat(histogram.getCount()).isEqualTo(3);
+    assertThat(histogram.getMaxMillis()).isEqualTo(8000);
+    assertThat(histogram.getPercentileMillis(0.5)).isEqualTo(5);
+    assertThat(histogram.getPercentileMillis(0.95)).isEqualTo(8000);
+    assertThat(histogram.getBucketCount(AsciiDocRenderTelemetry.BUCKETS.length)).isEqualTo(1);
+    assertThat(telemetry.getHistogram(AsciiDocRenderTelemetry.Phase.PAINT).getCount()).isZero();
+  }
+
+  @Test
+  public void shouldResetAndDumpAsJson() {
+    AsciiDocRenderTelemetry telemetry = new AsciiDocRenderTelemetry();
+    telemetry.add(AsciiDocRenderTelemetry.Phase.ATTRIBUTES, TimeUnit.MILLISECONDS.toNanos(12));
+    assertThat(telemetry.toJson()).contains("\"phase\": \"attributes\"").contains("\"totalMillis\": 12");
+
+    long modificationCount = telemetry.getModificationCount();
+    telemetry.reset();
+    assertThat(telemetry.getModificationCount()).isNotEqualTo(modificationCount);
+    assertThat(telemetry.getHistogram(AsciiDocRenderTelemetry.Phase.ATTRIBUTES).getCount()).isZero();
+  }
+
+  @Test
+  public void shouldCountRenderOutcomes() {
+    AsciiDocRenderTelemetry telemetry = new AsciiDocRenderTelemetry();
+    telemetry.add(AsciiDocRenderTelemetry.Outcome.EXECUTED);
+    telemetry.add(AsciiDocRenderTelemetry.Outcome.SKIPPED);
+    telemetry.add(AsciiDocRenderTelemetry.Outcome.SKIPPED);
+
+    assertThat(telemetry.getCount(AsciiDocRenderTelemetry.Outcome.EXECUTED)).isEqualTo(1);
+    assertThat(telemetry.getCount(AsciiDocRenderTelemetry.Outcome.SHARED)).isZero();
+    assertThat(telemetry.getCount(AsciiDocRenderTelemetry.Outcome.SKIPPED)).isEqualTo(2);
+    assertThat(telemetry.toJson()).contains("\"skipped\": 2");
+
+    telemetry.reset();
+    assertThat(telemetry.getCount(AsciiDocRenderTelemetry.Outcome.SKIPPED)).isZero();
+  }
+
+  @Test
+  public void shouldParseExtensionTimingsAndSkipMalformedLines() {
+    List<AsciiDocRenderTelemetry.ExtensionTiming> timings = AsciiDocRenderTelemetry.parseExtensionTimings(
+      "preprocessor\torg.example.Prepend\t1\t2000000\nbroken line\nblock\tKrokiBlockProcessor\t3\tNaN\n");
+    assertThat(timings).hasSize(1);
+    assertThat(timings.get(0).getKind()).isEqualTo("preprocessor");
+    assertThat(timings.get(0).getName()).isEqualTo("org.example.Prepend");
+    assertThat(timings.get(0).getCalls()).isEqualTo(1);
+    assertThat(timings.get(0).getNanos()).isEqualTo(2000000);
+  }
+
+  @Test
+  public void shouldSortExtensionsBySpentTime() {
+    AsciiDocRenderTelemetry telemetry = new AsciiDocRenderTelemetry();
+    telemetry.addExtensions(List.of(
+      new AsciiDocRenderTelemetry.ExtensionTiming("tree_processor", "Fast", 1, TimeUnit.MILLISECONDS.toNanos(1)),
+      new AsciiDocRenderTelemetry.ExtensionTiming("block", "Slow", 10, TimeUnit.MILLISECONDS.toNanos(300))));
+    telemetry.addExtensions(List.of(
+      new AsciiDocRenderTelemetry.ExtensionTiming("block", "Slow", 5, TimeUnit.MILLISECONDS.toNanos(100))));
+
+    List<AsciiDocRenderTelemetry.ExtensionStatistics> top = telemetry.getTopExtensions(1);
+    assertThat(top).hasSize(1);
+    assertThat(top.get(0).getName()).isEqualTo("Slow");
+    assertThat(top.get(0).getRenders()).isEqualTo(2);
+    assertThat(top.get(0).getCalls()).isEqualTo(15);
+    assertThat(top.get(0).getTotalMillis()).isEqualTo(400);
+    assertThat(top.get(0).getMaxMillisPerRender()).isEqualTo(300);
+    assertThat(telemetry.toJson()).contains("\"name\": \"Slow\"");
+  }
+
+}
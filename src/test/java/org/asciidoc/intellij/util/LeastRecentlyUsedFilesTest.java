@@ -0,0 +1,103 @@
+package org.asciidoc.intellij.util;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LeastRecentlyUsedFilesTest {
+
+  private Path root;
+
+  @Before
+  public void setup() throws IOException {
+    root = Files.createTempDirectory("asciidoctor-lru-test");
+  }
+
+  @After
+  public void cleanup() throws IOException {
+    FileUtils.deleteDirectory(root.toFile());
+  }
+
+  @Test
+  public void shouldRemoveLeastRecentlyUsedEntriesOverLimit() throws IOException {
+    Path oldest = createFile("oldest.svg", 600, 3);
+    Path older = createFile("older.svg", 300, 2);
+    Path recent = createFile("recent.svg", 300, 1);
+
+    LeastRecentlyUsedFiles.evict(root, 1000, Long.MAX_VALUE);
+
+    assertThat(oldest).doesNotExist();
+    assertThat(older).exists();
+    assertThat(recent).exists();
+  }
+
+  @Test
+  public void shouldCountContentOfFolders() throws IOException {
+    Path folder = Files.createDirectories(root.resolve("folder"));
+    Files.write(folder.resolve("diagram.png"), new byte[800]);
+    setLastUsed(folder, 2);
+    Path recent = createFile("recent.png", 300, 1);
+
+    LeastRecentlyUsedFiles.evict(root, 1000, Long.MAX_VALUE);
+
+    assertThat(folder).doesNotExist();
+    assertThat(recent).exists();
+  }
+
+  @Test
+  public void shouldRemoveExpiredEntriesWithinLimit() throws IOException {
+    Path expired = createFile("expired.png", 10, 3);
+    Path recent = createFile("recent.png", 10, 0);
+
+    LeastRecentlyUsedFiles.evict(root, 1000, TimeUnit.HOURS.toMillis(1));
+
+    assertThat(expired).doesNotExist();
+    assertThat(recent).exists();
+  }
+
+  @Test
+  public void shouldContinueWhenEntryIsNotRemoved() throws IOException {
+    Path inUse = createFile("in-use.png", 600, 3);
+    Path older = createFile("older.png", 300, 2);
+    Path recent = createFile("recent.png", 300, 1);
+
+    LeastRecentlyUsedFiles.evict(root, 1000, Long.MAX_VALUE, path -> !path.equals(inUse) && LeastRecentlyUsedFiles.delete(path));
+
+    assertThat(inUse).exists();
+    assertThat(older).doesNotExist();
+    assertThat(recent).exists();
+  }
+
+  @Test
+  public void shouldUseTouchedEntriesLast() throws IOException {
+    Path touched = createFile("touched.png", 600, 3);
+    Path other = createFile("other.png", 600, 2);
+
+    LeastRecentlyUsedFiles.touch(touched);
+    LeastRecentlyUsedFiles.evict(root, 1000, Long.MAX_VALUE);
+
+    assertThat(touched).exists();
+    assertThat(other).doesNotExist();
+  }
+
+  private Path createFile(String name, int size, int hoursAgo) throws IOException {
+    Path file = root.resolve(name);
+    Files.write(file, new byte[size]);
+    setLastUsed(file, hoursAgo);
+    return file;
+  }
+
+  private static void setLastUsed(Path path, int hoursAgo) throws IOException {
+    Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(hoursAgo)));
+  }
+
+}